@@ -0,0 +1,70 @@
+package com.chewielouie.textadventure;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assume.assumeTrue;
+
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.CompactActionHistory;
+import com.chewielouie.textadventure.action.UserActionFactory;
+import com.chewielouie.textadventure.serialisation.ActionHistoryDeserialiser;
+import com.chewielouie.textadventure.serialisation.ActionHistorySerialiser;
+import com.chewielouie.textadventure.serialisation.BinaryActionHistorySerialiser;
+import com.chewielouie.textadventure.serialisation.BinaryWorldCompiler;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class BinaryActionHistoryAcceptanceTests {
+
+    private ActionHistory readHistory( WorldTemplate world, byte[] saved ) {
+        BasicModel model = world.newModel();
+        world.populate( model, new UserActionFactory() );
+        ActionHistory history = new CompactActionHistory();
+        new ActionHistoryDeserialiser( new UserActionFactory(), model, model )
+            .deserialiseInto( saved, history );
+        return history;
+    }
+
+    private List<File> histories( String appID ) {
+        List<File> histories = new ArrayList<File>( WorldFiles.waypoints( appID ) );
+        histories.addAll( WorldFiles.exampleActionHistorySaves( appID ) );
+        return histories;
+    }
+
+    @Test
+    public void text_histories_read_back_the_same_after_saving_as_binary() throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            WorldTemplate world = new WorldTemplate(
+                new BinaryWorldCompiler().compile( WorldFiles.modelContent( appID ) ) );
+            for( File file : histories( appID ) ) {
+                ActionHistory fromText = readHistory( world, WorldFiles.read( file ).getBytes( "UTF-8" ) );
+                byte[] binary = new BinaryActionHistorySerialiser( fromText ).serialise();
+                ActionHistory fromBinary = readHistory( world, binary );
+
+                assertThat( file.getName(), fromBinary.size(), is( fromText.size() ) );
+                assertThat( file.getName(), new ActionHistorySerialiser( fromBinary ).serialise(),
+                            is( new ActionHistorySerialiser( fromText ).serialise() ) );
+            }
+        }
+    }
+
+    @Test
+    public void binary_histories_are_smaller_than_text() throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            WorldTemplate world = new WorldTemplate(
+                new BinaryWorldCompiler().compile( WorldFiles.modelContent( appID ) ) );
+            for( File file : histories( appID ) ) {
+                byte[] text = WorldFiles.read( file ).getBytes( "UTF-8" );
+                byte[] binary = new BinaryActionHistorySerialiser(
+                    readHistory( world, text ) ).serialise();
+
+                assertThat( file.getName(), binary.length, is( lessThan( text.length ) ) );
+            }
+        }
+    }
+}
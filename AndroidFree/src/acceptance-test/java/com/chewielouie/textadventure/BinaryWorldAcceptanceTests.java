@@ -0,0 +1,219 @@
+package com.chewielouie.textadventure;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assume.assumeTrue;
+import static com.chewielouie.textadventure.serialisation.ModelStateTextFormat.MODEL_STATE_CHECKSUM_TAG;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.action.Action;
+import com.chewielouie.textadventure.action.UserActionFactory;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.ItemFactory;
+import com.chewielouie.textadventure.item.NormalItemFactory;
+import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import com.chewielouie.textadventure.itemaction.NormalItemActionFactory;
+import com.chewielouie.textadventure.serialisation.ActionHistoryDeserialiser;
+import com.chewielouie.textadventure.serialisation.BinaryWorldCompiler;
+import com.chewielouie.textadventure.serialisation.BinaryWorldLoader;
+import com.chewielouie.textadventure.serialisation.ItemDeserialiser;
+import com.chewielouie.textadventure.serialisation.ModelStateSerialiser;
+import com.chewielouie.textadventure.serialisation.PlainTextExitDeserialiser;
+import com.chewielouie.textadventure.serialisation.PlainTextItemDeserialiser;
+import com.chewielouie.textadventure.serialisation.PlainTextModelLocationDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingExitDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingItemDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingModelLocationDeserialiser;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.StringBuilder;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+public class BinaryWorldAcceptanceTests {
+
+    private BasicModel createModelFromText( String content ) {
+        BasicModel model = new BasicModel();
+        ItemActionFactory itemActionFactory = new NormalItemActionFactory( model );
+        ItemFactory itemFactory = new NormalItemFactory();
+        ItemDeserialiser itemDeserialiser = new PlainTextItemDeserialiser( itemActionFactory );
+        new PlainTextModelPopulator( model,
+            new LocationFactory( model, new UserActionFactory() ),
+            model,
+            itemFactory,
+            new PlainTextModelLocationDeserialiser(
+                itemFactory, new LocationExitFactory(),
+                itemDeserialiser,
+                new PlainTextExitDeserialiser( itemActionFactory ) ),
+            itemDeserialiser,
+            content );
+        return model;
+    }
+
+    private BasicModel createModelByParallelParse( String content ) {
+        BasicModel model = new BasicModel();
+        ItemActionFactory itemActionFactory = new NormalItemActionFactory( model );
+        ItemFactory itemFactory = new NormalItemFactory();
+        ItemDeserialiser itemDeserialiser = new StreamingItemDeserialiser( itemActionFactory );
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try {
+            new StreamingModelPopulator( model,
+                new LocationFactory( model, new UserActionFactory() ),
+                model,
+                itemFactory,
+                new StreamingModelLocationDeserialiser(
+                    itemFactory, new LocationExitFactory(),
+                    itemDeserialiser,
+                    new StreamingExitDeserialiser( itemActionFactory ) ),
+                itemDeserialiser,
+                content,
+                executor );
+        } finally {
+            executor.shutdown();
+        }
+        return model;
+    }
+
+    private BasicModel createModelFromImage( byte[] image ) throws IOException {
+        BasicModel model = new BasicModel();
+        new BinaryWorldLoader( model,
+            new LocationFactory( model, new UserActionFactory() ),
+            model,
+            new NormalItemFactory(),
+            new LocationExitFactory(),
+            new NormalItemActionFactory( model ) )
+            .load( new ByteArrayInputStream( image ) );
+        return model;
+    }
+
+    private String describeStructure( BasicModel model ) {
+        StringBuilder s = new StringBuilder( new ModelStateSerialiser( model ).serialise() );
+        s.append( "max score " + model.maximumScore() + "\n" );
+        for( String areaID : model.areaIDs() )
+            s.append( "area " + areaID + "\n" );
+        for( ModelLocation location : model.locations() ) {
+            s.append( location.id() + " " + location.areaID() + " " +
+                      location.x() + "," + location.y() + "\n" );
+            for( Exit exit : location.exitsIncludingInvisibleOnes() ) {
+                s.append( " exit " + exit.id() + " " + exit.label() + " " +
+                          exit.destination() + " " + exit.directionHint() + "\n" );
+            }
+            for( Item item : location.items() )
+                describeItem( item, s );
+        }
+        for( Item item : model.inventoryItems() )
+            describeItem( item, s );
+        return s.toString();
+    }
+
+    private void describeItem( Item item, StringBuilder s ) {
+        s.append( " item " + item.id() + " " + item.takeable() + " " +
+                  item.plural() + " " + item.properNoun() + " " +
+                  item.midSentenceCasedName() + " " + item.canTalkTo() + "\n" );
+        for( String withID : item.canBeUsedWithItemIDs() )
+            s.append( "  used with " + withID + "\n" );
+        for( ItemAction action : item.actions() )
+            s.append( "  action " + action.name() + " " + action.arguments() + "\n" );
+    }
+
+    private String playWaypoint( BasicModel model, File waypoint ) throws IOException {
+        TextAdventurePresenter presenter = new TextAdventurePresenter(
+            mock( TextAdventureView.class ), model, model, new UserActionFactory() );
+        presenter.disableViewUpdates();
+        for( Action action : new ActionHistoryDeserialiser( new UserActionFactory(), model, model )
+                                    .deserialise( WorldFiles.read( waypoint ) ) )
+            presenter.enact( action );
+        return sortedLines( new ModelStateSerialiser( model ).serialise() );
+    }
+
+    // Item use actions are held in a HashSet so the order they are enacted
+    // in, and hence the order of items they move, can differ between runs.
+    // The checksum covers the lines in the order they were written, so is
+    // left out when the order is not being compared.
+    private String sortedLines( String s ) {
+        String[] lines = s.split( "\n" );
+        Arrays.sort( lines );
+        StringBuilder sorted = new StringBuilder();
+        for( String line : lines )
+            if( line.startsWith( MODEL_STATE_CHECKSUM_TAG ) == false )
+                sorted.append( line + "\n" );
+        return sorted.toString();
+    }
+
+    @Test
+    public void compiled_worlds_load_equivalently_to_plain_text() throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            String content = WorldFiles.modelContent( appID );
+            BinaryWorldCompiler compiler = new BinaryWorldCompiler();
+            byte[] image = compiler.compile( content );
+
+            assertThat( compiler.loadsEquivalently( content, image ), is( true ) );
+            assertThat( describeStructure( createModelFromImage( image ) ),
+                        is( describeStructure( createModelFromText( content ) ) ) );
+        }
+    }
+
+    @Test
+    public void streaming_parser_builds_the_same_world_as_plain_text_parser() throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            String content = WorldFiles.modelContent( appID );
+            BinaryWorldCompiler compiler = new BinaryWorldCompiler();
+            BasicModel streamed = createModelFromImage( compiler.compile( content ) );
+            BasicModel plain = createModelFromImage( compiler.compileWithPlainTextParser( content ) );
+
+            assertThat( describeStructure( streamed ), is( describeStructure( plain ) ) );
+            assertThat( streamed.currentLocation().id(), is( plain.currentLocation().id() ) );
+        }
+    }
+
+    @Test
+    public void compiled_worlds_add_each_location_area_once() throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            String content = WorldFiles.modelContent( appID );
+            BasicModel model = spy( new BasicModel() );
+
+            new BinaryWorldLoader( model, new LocationFactory( model, new UserActionFactory() ),
+                                   model, new NormalItemFactory(), new LocationExitFactory(),
+                                   new NormalItemActionFactory( model ) )
+                .load( new ByteArrayInputStream(
+                    new BinaryWorldCompiler().compileWithPlainTextParser( content ) ) );
+
+            verify( model, times( model.areaIDs().size() ) )
+                .addLocationArea( anyString(), anyString() );
+        }
+    }
+
+    @Test
+    public void parallel_parse_builds_the_same_world_as_plain_text_parser() throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            String content = WorldFiles.modelContent( appID );
+            BasicModel model = createModelByParallelParse( content );
+
+            assertThat( describeStructure( model ),
+                        is( describeStructure( createModelFromText( content ) ) ) );
+            assertThat( model.currentLocation().id(),
+                        is( createModelFromText( content ).currentLocation().id() ) );
+        }
+    }
+
+    @Test
+    public void playing_waypoints_on_compiled_world_gives_same_state_as_plain_text() throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            String content = WorldFiles.modelContent( appID );
+            byte[] image = new BinaryWorldCompiler().compile( content );
+            for( File waypoint : WorldFiles.waypoints( appID ) )
+                assertThat( waypoint.getName(),
+                            playWaypoint( createModelFromImage( image ), waypoint ),
+                            is( playWaypoint( createModelFromText( content ), waypoint ) ) );
+        }
+    }
+}
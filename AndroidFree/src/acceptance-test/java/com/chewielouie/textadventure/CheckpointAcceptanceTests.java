@@ -0,0 +1,56 @@
+package com.chewielouie.textadventure;
+
+import static com.chewielouie.textadventure.serialisation.ModelStateTextFormat.CURRENT_SCORE_TAG;
+import static com.chewielouie.textadventure.serialisation.ModelStateTextFormat.SEPERATOR;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.Test;
+
+public class CheckpointAcceptanceTests {
+
+    @Test
+    public void restoring_a_checkpoint_of_each_waypoint_reaches_the_same_state_as_replaying_it()
+        throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            GameEngine engine = new GameEngine( WorldFiles.modelContent( appID ) );
+            for( File waypoint : WorldFiles.waypoints( appID ) ) {
+                GameSession replayed = engine.newSession();
+                ViewState expected = replayed.replay( WorldFiles.read( waypoint ) );
+                GameSession restored = engine.newSession();
+                ViewState state = restored.restore( replayed.checkpoint() );
+
+                assertThat( waypoint.getName(), state.mainText(), is( expected.mainText() ) );
+                assertThat( waypoint.getName(), state.currentScore(), is( expected.currentScore() ) );
+                assertThat( waypoint.getName(), restored.checkpoint(), is( replayed.checkpoint() ) );
+                assertThat( waypoint.getName(), restored.stateDigest(), is( replayed.stateDigest() ) );
+            }
+        }
+    }
+
+    @Test
+    public void restoring_a_corrupted_checkpoint_of_each_waypoint_replays_it_instead()
+        throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            GameEngine engine = new GameEngine( WorldFiles.modelContent( appID ) );
+            for( File waypoint : WorldFiles.waypoints( appID ) ) {
+                GameSession replayed = engine.newSession();
+                ViewState expected = replayed.replay( WorldFiles.read( waypoint ) );
+                String checkpoint = replayed.checkpoint();
+                String scoreLine = CURRENT_SCORE_TAG + SEPERATOR + expected.currentScore() + "\n";
+                GameSession restored = engine.newSession();
+                ViewState state = restored.restore( checkpoint.replace( scoreLine,
+                    CURRENT_SCORE_TAG + SEPERATOR + (expected.currentScore() + 1) + "\n" ) );
+
+                assertThat( waypoint.getName(), state.currentScore(), is( expected.currentScore() ) );
+                assertThat( waypoint.getName(), restored.serialisedActionHistory(),
+                            is( replayed.serialisedActionHistory() ) );
+            }
+        }
+    }
+}
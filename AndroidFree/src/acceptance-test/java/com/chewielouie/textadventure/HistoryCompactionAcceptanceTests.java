@@ -0,0 +1,69 @@
+package com.chewielouie.textadventure;
+
+import static com.chewielouie.textadventure.serialisation.ModelStateTextFormat.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import org.junit.Test;
+
+public class HistoryCompactionAcceptanceTests {
+
+    // A digest of the model state alone, without the history saved with
+    // it. Lines are sorted as items can be listed in a different order.
+    private long stateDigest( GameSession session ) throws IOException {
+        String checkpoint = session.checkpoint();
+        String[] lines = checkpoint.substring( 0, checkpoint.indexOf( ACTION_HISTORY_SECTION ) )
+                                   .split( "\n" );
+        Arrays.sort( lines );
+        CRC32 crc = new CRC32();
+        for( String line : lines )
+            if( line.startsWith( MODEL_STATE_CHECKSUM_TAG ) == false &&
+                line.startsWith( ACTION_HISTORY_SIZE_TAG ) == false )
+                crc.update( (line + "\n").getBytes( "UTF-8" ) );
+        return crc.getValue();
+    }
+
+    @Test
+    public void compacted_waypoints_replay_to_the_same_state() throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            GameEngine engine = new GameEngine( WorldFiles.modelContent( appID ) );
+            for( File waypoint : WorldFiles.waypoints( appID ) ) {
+                GameSession original = engine.newSession();
+                original.replay( WorldFiles.read( waypoint ) );
+                long expected = stateDigest( original );
+                original.compactActionHistory();
+                GameSession compacted = engine.newSession();
+                compacted.replay( original.serialisedActionHistory() );
+
+                assertThat( waypoint.getName(), stateDigest( compacted ), is( expected ) );
+                assertThat( waypoint.getName(), compacted.stateDigest(), is( original.stateDigest() ) );
+            }
+        }
+    }
+
+    @Test
+    public void compaction_removes_actions_from_the_waypoints() throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            GameEngine engine = new GameEngine( WorldFiles.modelContent( appID ) );
+            int removed = 0;
+            for( File waypoint : WorldFiles.waypoints( appID ) ) {
+                GameSession session = engine.newSession();
+                session.replay( WorldFiles.read( waypoint ) );
+                int size = session.actionHistorySize();
+                int removedFromWaypoint = session.compactActionHistory();
+
+                assertThat( waypoint.getName(), session.actionHistorySize(),
+                            is( size - removedFromWaypoint ) );
+                removed += removedFromWaypoint;
+            }
+            assertThat( removed, is( greaterThan( 0 ) ) );
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.chewielouie.textadventure;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assume.assumeTrue;
+
+import com.chewielouie.textadventure.action.BasicActionHistory;
+import com.chewielouie.textadventure.action.UserActionFactory;
+import com.chewielouie.textadventure.serialisation.ActionHistoryDeserialiser;
+import com.chewielouie.textadventure.serialisation.BinaryActionHistorySerialiser;
+import com.chewielouie.textadventure.serialisation.BinaryWorldCompiler;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.Test;
+
+public class StreamingReplayAcceptanceTests {
+
+    private GameSession replayFromFile( GameEngine engine, File waypoint ) throws IOException {
+        GameSession session = engine.newSession();
+        InputStream input = new FileInputStream( waypoint );
+        try {
+            session.replay( input );
+        } finally {
+            input.close();
+        }
+        return session;
+    }
+
+    private byte[] binaryHistory( WorldTemplate world, String history ) {
+        BasicModel model = world.newModel();
+        world.populate( model, new UserActionFactory() );
+        BasicActionHistory recorded = new BasicActionHistory();
+        new ActionHistoryDeserialiser( new UserActionFactory(), model, model )
+            .deserialiseInto( history, recorded );
+        return new BinaryActionHistorySerialiser( recorded ).serialise();
+    }
+
+    @Test
+    public void streamed_replay_of_waypoints_reaches_the_same_state_as_replaying_all_at_once()
+        throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            GameEngine engine = new GameEngine( WorldFiles.modelContent( appID ) );
+            for( File waypoint : WorldFiles.waypoints( appID ) ) {
+                GameSession allAtOnce = engine.newSession();
+                ViewState expected = allAtOnce.replay( WorldFiles.read( waypoint ) );
+                GameSession streamed = replayFromFile( engine, waypoint );
+
+                assertThat( waypoint.getName(), streamed.viewState().mainText(),
+                            is( expected.mainText() ) );
+                assertThat( waypoint.getName(), streamed.viewState().currentScore(),
+                            is( expected.currentScore() ) );
+                assertThat( waypoint.getName(), streamed.serialisedActionHistory(),
+                            is( allAtOnce.serialisedActionHistory() ) );
+            }
+        }
+    }
+
+    @Test
+    public void streamed_replay_of_binary_waypoints_reaches_the_same_state_as_text()
+        throws IOException {
+        for( String appID : WorldFiles.APP_IDS ) {
+            assumeTrue( WorldFiles.available( appID ) );
+            String content = WorldFiles.modelContent( appID );
+            GameEngine engine = new GameEngine( content );
+            WorldTemplate world = new WorldTemplate( new BinaryWorldCompiler().compile( content ) );
+            for( File waypoint : WorldFiles.waypoints( appID ) ) {
+                String history = WorldFiles.read( waypoint );
+                GameSession fromText = engine.newSession();
+                fromText.replay( history );
+                GameSession fromBinary = engine.newSession();
+                fromBinary.replay( new ByteArrayInputStream( binaryHistory( world, history ) ) );
+
+                assertThat( waypoint.getName(), fromBinary.serialisedActionHistory(),
+                            is( fromText.serialisedActionHistory() ) );
+            }
+        }
+    }
+}
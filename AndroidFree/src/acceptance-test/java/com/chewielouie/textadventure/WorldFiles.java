@@ -0,0 +1,73 @@
+package com.chewielouie.textadventure;
+
+import com.chewielouie.textadventure.serialisation.BinaryWorldCompiler;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Locates the game data files under config/<app id>/res/raw, and the saves
+// under example_save_files, whether the tests are run from the repository
+// root or from AndroidFree.
+public class WorldFiles {
+    public static final String[] APP_IDS = { "1", "2" };
+    private static final String[] configRoots = { "config", "../config" };
+    private static final String[] exampleSaveRoots =
+        { "example_save_files", "../example_save_files" };
+
+    public static File rawResourceDirectory( String appID ) {
+        for( String root : configRoots ) {
+            File dir = new File( root + "/" + appID + "/res/raw" );
+            if( dir.isDirectory() )
+                return dir;
+        }
+        return null;
+    }
+
+    public static boolean available( String appID ) {
+        return rawResourceDirectory( appID ) != null;
+    }
+
+    public static String modelContent( String appID ) throws IOException {
+        return read( new File( rawResourceDirectory( appID ), "model_content.txt" ) );
+    }
+
+    public static List<File> waypoints( String appID ) {
+        List<File> waypoints = new ArrayList<File>();
+        File dir = rawResourceDirectory( appID );
+        if( dir != null ) {
+            File[] files = dir.listFiles();
+            Arrays.sort( files );
+            for( File f : files )
+                if( f.getName().startsWith( "waypoint_" ) )
+                    waypoints.add( f );
+        }
+        return waypoints;
+    }
+
+    // The action histories saved by released versions of the game.
+    public static List<File> exampleActionHistorySaves( String appID ) {
+        List<File> saves = new ArrayList<File>();
+        for( String root : exampleSaveRoots ) {
+            File dir = new File( root );
+            if( !dir.isDirectory() )
+                continue;
+            for( File version : dir.listFiles() ) {
+                File[] files = version.listFiles();
+                if( files == null )
+                    continue;
+                Arrays.sort( files );
+                for( File f : files )
+                    if( f.getName().startsWith( "action_history_save_file_" + appID + "_" ) )
+                        saves.add( f );
+            }
+            break;
+        }
+        return saves;
+    }
+
+    public static String read( File file ) throws IOException {
+        return BinaryWorldCompiler.readWorldFile( file.getPath() );
+    }
+}
@@ -0,0 +1,9 @@
+package com.chewielouie.textadventure.benchmark;
+
+public interface Benchmark {
+    public String name();
+    // Called before every run and not included in its time.
+    public void prepare() throws Exception;
+    // Returns something derived from the work done so it is not optimised away.
+    public Object run() throws Exception;
+}
@@ -0,0 +1,77 @@
+package com.chewielouie.textadventure.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BenchmarkResult {
+    private String name;
+    private String mode;
+    private String unit;
+    private int threads;
+    private List<Double> scores = new ArrayList<Double>();
+    private long operations = 0;
+
+    public BenchmarkResult( String name ) {
+        this( name, "avgt", "us/op", 1 );
+    }
+
+    public BenchmarkResult( String name, String mode, String unit, int threads ) {
+        this.name = name;
+        this.mode = mode;
+        this.unit = unit;
+        this.threads = threads;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String mode() {
+        return mode;
+    }
+
+    public String unit() {
+        return unit;
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    public void addIteration( long nanoseconds, long operations ) {
+        addScore( nanoseconds / 1000.0 / operations, operations );
+    }
+
+    public void addScore( double score, long operations ) {
+        scores.add( score );
+        this.operations += operations;
+    }
+
+    public List<Double> iterations() {
+        return scores;
+    }
+
+    public long operations() {
+        return operations;
+    }
+
+    public double score() {
+        double total = 0;
+        for( double score : scores )
+            total += score;
+        return scores.isEmpty() ? 0 : total / scores.size();
+    }
+
+    // Half width of a 99.9% confidence interval around the score, using the
+    // normal approximation.
+    public double scoreError() {
+        int n = scores.size();
+        if( n < 2 )
+            return 0;
+        double mean = score();
+        double squares = 0;
+        for( double score : scores )
+            squares += (score - mean) * (score - mean);
+        return 3.29 * Math.sqrt( squares / (n - 1) ) / Math.sqrt( n );
+    }
+}
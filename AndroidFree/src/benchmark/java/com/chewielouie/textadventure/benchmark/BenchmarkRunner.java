@@ -0,0 +1,64 @@
+package com.chewielouie.textadventure.benchmark;
+
+// Runs each benchmark for a number of timed iterations after a number of
+// warm up iterations, in the same way as JMH's average time mode. An
+// iteration keeps running operations until its time is up.
+public class BenchmarkRunner {
+    private int warmupIterations;
+    private int measurementIterations;
+    private long iterationNanoseconds;
+    private int sink = 0;
+
+    public BenchmarkRunner( int warmupIterations, int measurementIterations,
+                            long iterationMilliseconds ) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanoseconds = iterationMilliseconds * 1000000L;
+    }
+
+    public int warmupIterations() {
+        return warmupIterations;
+    }
+
+    public int measurementIterations() {
+        return measurementIterations;
+    }
+
+    public long iterationMilliseconds() {
+        return iterationNanoseconds / 1000000L;
+    }
+
+    public BenchmarkResult run( Benchmark benchmark ) throws Exception {
+        BenchmarkResult result = new BenchmarkResult( benchmark.name() );
+        for( int i = 0; i < warmupIterations; i++ )
+            runIteration( benchmark, null );
+        for( int i = 0; i < measurementIterations; i++ )
+            runIteration( benchmark, result );
+        return result;
+    }
+
+    private void runIteration( Benchmark benchmark, BenchmarkResult result ) throws Exception {
+        long measured = 0;
+        long operations = 0;
+        long end = System.nanoTime() + iterationNanoseconds;
+        do {
+            benchmark.prepare();
+            long start = System.nanoTime();
+            Object o = benchmark.run();
+            measured += System.nanoTime() - start;
+            operations++;
+            consume( o );
+        } while( System.nanoTime() < end );
+        if( result != null )
+            result.addIteration( measured, operations );
+    }
+
+    private void consume( Object o ) {
+        if( o != null )
+            sink ^= System.identityHashCode( o );
+    }
+
+    public int sink() {
+        return sink;
+    }
+}
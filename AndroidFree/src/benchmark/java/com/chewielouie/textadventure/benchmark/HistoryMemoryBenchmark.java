@@ -0,0 +1,150 @@
+package com.chewielouie.textadventure.benchmark;
+
+import com.chewielouie.textadventure.BasicModel;
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.TextAdventurePresenter;
+import com.chewielouie.textadventure.WorldTemplate;
+import com.chewielouie.textadventure.action.Action;
+import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.BasicActionHistory;
+import com.chewielouie.textadventure.action.CompactActionHistory;
+import com.chewielouie.textadventure.action.RecordableActionFactory;
+import com.chewielouie.textadventure.action.UserActionFactory;
+import com.chewielouie.textadventure.serialisation.BinaryWorldCompiler;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Measures the heap an action history holds on to per recorded action. A
+// game is played for a seeded random walk of the given length with each
+// kind of history, and the heap that clearing the history frees is taken
+// as what it held. Usage:
+//
+//   HistoryMemoryBenchmark <config dir> <results file> [actions]
+public class HistoryMemoryBenchmark {
+    private WorldTemplate world;
+    private int actionCount;
+    private Game playing = null;
+
+    private static class Game {
+        ActionHistory history;
+        ActionFactory actionFactory;
+        BasicModel model;
+        TextAdventurePresenter presenter;
+        CapturingView view = new CapturingView();
+    }
+
+    private static class CapturingView extends NullView {
+        List<Action> actions = new ArrayList<Action>();
+        List<Exit> exits = new ArrayList<Exit>();
+
+        public void setActions( List<Action> actions ) {
+            this.actions = new ArrayList<Action>( actions );
+        }
+
+        public void showLocationExits( List<Exit> exits ) {
+            this.exits = new ArrayList<Exit>( exits );
+        }
+    }
+
+    public static void main( String[] args ) throws Exception {
+        File configRoot = new File( args.length > 0 ? args[0] : "../config" );
+        String resultsFile = args.length > 1 ? args[1] : "history-benchmark-results.json";
+        int actions = args.length > 2 ? Integer.parseInt( args[2] ) : 10000;
+        BenchmarkRunner settings = new BenchmarkRunner(
+            Integer.getInteger( "benchmark.warmup", 1 ),
+            Integer.getInteger( "benchmark.iterations", 3 ), 0 );
+
+        String content = BinaryWorldCompiler.readWorldFile(
+            new File( configRoot, "2/res/raw/model_content.txt" ).getPath() );
+        HistoryMemoryBenchmark benchmark = new HistoryMemoryBenchmark(
+            new WorldTemplate( new BinaryWorldCompiler().compile( content ) ), actions );
+        List<BenchmarkResult> results =
+            benchmark.run( settings.warmupIterations(), settings.measurementIterations() );
+        for( BenchmarkResult result : results )
+            System.out.println( String.format( "%-40s %12.1f +- %10.1f %s",
+                result.name(), result.score(), result.scoreError(), result.unit() ) );
+        new JsonResultWriter( settings ).write( results, resultsFile );
+        System.out.println( "Results written to " + resultsFile );
+    }
+
+    public HistoryMemoryBenchmark( WorldTemplate world, int actionCount ) {
+        this.world = world;
+        this.actionCount = actionCount;
+    }
+
+    public List<BenchmarkResult> run( int warmupIterations, int measurementIterations ) {
+        String name = "history.heapPerAction." + actionCount;
+        BenchmarkResult basic = new BenchmarkResult( name + ".basic", "avgt", "bytes/action", 1 );
+        BenchmarkResult compact = new BenchmarkResult( name + ".compact", "avgt", "bytes/action", 1 );
+        for( int i = 0; i < warmupIterations + measurementIterations; i++ ) {
+            long heldByBasic = heapHeldByHistory( new BasicActionHistory(), i );
+            long heldByCompact = heapHeldByHistory( new CompactActionHistory(), i );
+            if( i >= warmupIterations ) {
+                basic.addScore( (double)heldByBasic / actionCount, actionCount );
+                compact.addScore( (double)heldByCompact / actionCount, actionCount );
+            }
+        }
+        List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+        results.add( basic );
+        results.add( compact );
+        return results;
+    }
+
+    // The game is kept in a field while the heap is measured so that only
+    // what the history alone refers to is freed by clearing it.
+    private long heapHeldByHistory( ActionHistory history, long seed ) {
+        playing = newGame( history );
+        randomWalk( playing, new Random( seed ) );
+        if( history.size() != actionCount )
+            throw new IllegalStateException( "Recorded " + history.size() +
+                " of " + actionCount + " actions" );
+        long withHistory = usedHeap();
+        history.clear();
+        long held = withHistory - usedHeap();
+        playing = null;
+        return held;
+    }
+
+    private Game newGame( ActionHistory history ) {
+        Game game = new Game();
+        game.history = history;
+        game.actionFactory = new RecordableActionFactory( new UserActionFactory(), history );
+        game.model = world.newModel();
+        world.populate( game.model, game.actionFactory );
+        game.presenter = new TextAdventurePresenter(
+            game.view, game.model, game.model, game.actionFactory );
+        game.presenter.render();
+        return game;
+    }
+
+    private void randomWalk( Game game, Random random ) {
+        int enacted = 0;
+        while( enacted < actionCount ) {
+            int actions = game.view.actions.size();
+            int exits = game.view.exits.size();
+            if( actions + exits == 0 ) {
+                game.presenter.cancelActionChain();
+                if( game.view.actions.size() + game.view.exits.size() == 0 )
+                    throw new IllegalStateException( "Nothing left to do" );
+                continue;
+            }
+            int choice = random.nextInt( actions + exits );
+            if( choice < actions )
+                game.presenter.enact( game.view.actions.get( choice ) );
+            else
+                game.presenter.enact( game.actionFactory.createExitAction(
+                    game.view.exits.get( choice - actions ), game.model ) );
+            enacted++;
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for( int i = 0; i < 3; i++ )
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
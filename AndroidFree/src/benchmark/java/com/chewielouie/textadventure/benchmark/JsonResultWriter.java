@@ -0,0 +1,72 @@
+package com.chewielouie.textadventure.benchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+// Writes results in the layout of JMH's JSON result format so they can be
+// compared between commits with the same tools.
+public class JsonResultWriter {
+    private BenchmarkRunner runner;
+
+    public JsonResultWriter( BenchmarkRunner runner ) {
+        this.runner = runner;
+    }
+
+    public void write( List<BenchmarkResult> results, String fileName ) throws IOException {
+        Writer out = new OutputStreamWriter( new FileOutputStream( fileName ), "UTF-8" );
+        try {
+            out.write( toJson( results ) );
+        } finally {
+            out.close();
+        }
+    }
+
+    public String toJson( List<BenchmarkResult> results ) {
+        StringBuilder s = new StringBuilder( "[\n" );
+        for( int i = 0; i < results.size(); i++ ) {
+            appendResult( s, results.get( i ) );
+            s.append( i + 1 < results.size() ? ",\n" : "\n" );
+        }
+        s.append( "]\n" );
+        return s.toString();
+    }
+
+    private void appendResult( StringBuilder s, BenchmarkResult result ) {
+        s.append( "    {\n" );
+        s.append( "        \"benchmark\" : " + quote( result.name() ) + ",\n" );
+        s.append( "        \"mode\" : " + quote( result.mode() ) + ",\n" );
+        s.append( "        \"threads\" : " + result.threads() + ",\n" );
+        s.append( "        \"forks\" : 1,\n" );
+        s.append( "        \"warmupIterations\" : " + runner.warmupIterations() + ",\n" );
+        s.append( "        \"warmupTime\" : \"" + runner.iterationMilliseconds() + " ms\",\n" );
+        s.append( "        \"measurementIterations\" : " + runner.measurementIterations() + ",\n" );
+        s.append( "        \"measurementTime\" : \"" + runner.iterationMilliseconds() + " ms\",\n" );
+        s.append( "        \"primaryMetric\" : {\n" );
+        s.append( "            \"score\" : " + number( result.score() ) + ",\n" );
+        s.append( "            \"scoreError\" : " + number( result.scoreError() ) + ",\n" );
+        s.append( "            \"scoreUnit\" : " + quote( result.unit() ) + ",\n" );
+        s.append( "            \"operations\" : " + result.operations() + ",\n" );
+        s.append( "            \"rawData\" : [\n                [" );
+        List<Double> iterations = result.iterations();
+        for( int i = 0; i < iterations.size(); i++ ) {
+            s.append( number( iterations.get( i ) ) );
+            if( i + 1 < iterations.size() )
+                s.append( ", " );
+        }
+        s.append( "]\n            ]\n" );
+        s.append( "        }\n" );
+        s.append( "    }" );
+    }
+
+    private String number( double d ) {
+        return String.format( Locale.US, "%.3f", d );
+    }
+
+    private String quote( String s ) {
+        return "\"" + s.replace( "\\", "\\\\" ).replace( "\"", "\\\"" ) + "\"";
+    }
+}
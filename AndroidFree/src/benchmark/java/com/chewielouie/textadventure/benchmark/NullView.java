@@ -0,0 +1,29 @@
+package com.chewielouie.textadventure.benchmark;
+
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.TextAdventureView;
+import com.chewielouie.textadventure.action.Action;
+import java.util.List;
+
+public class NullView implements TextAdventureView {
+    public void showMainText( String s ) {
+    }
+
+    public void showAvailableItemsText( String s ) {
+    }
+
+    public void showLocationExits( List<Exit> exits ) {
+    }
+
+    public void showAreaName( String s ) {
+    }
+
+    public void setActions( List<Action> actions ) {
+    }
+
+    public void currentScore( int score ) {
+    }
+
+    public void maximumScore( int score ) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.chewielouie.textadventure.benchmark;
+
+import com.chewielouie.textadventure.BasicModel;
+import com.chewielouie.textadventure.TextAdventurePresenter;
+import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.CompactActionHistory;
+import com.chewielouie.textadventure.action.RecordableActionFactory;
+import com.chewielouie.textadventure.action.UserActionFactory;
+import com.chewielouie.textadventure.serialisation.ActionHistoryCompactor;
+import com.chewielouie.textadventure.serialisation.ActionHistoryDeserialiser;
+import com.chewielouie.textadventure.serialisation.ActionHistorySerialiser;
+import com.chewielouie.textadventure.serialisation.ModelStateDeserialiser;
+import com.chewielouie.textadventure.serialisation.ModelStateSerialiser;
+import java.io.File;
+
+// Checks that each waypoint in config/ reaches the same model state, by
+// its state digest, whether its history is played in full, compacted and
+// played, or saved as a checkpoint and restored. Differences are printed
+// and the exit status is the number of waypoints that differed. Usage:
+//
+//   ReplayVerifier <config dir>
+public class ReplayVerifier {
+    private static final String[] appIDs = { "1", "2" };
+
+    public static void main( String[] args ) throws Exception {
+        File configRoot = new File( args.length > 0 ? args[0] : "../config" );
+        int failures = 0;
+        for( String appID : appIDs ) {
+            if( new File( configRoot, appID ).isDirectory() == false )
+                continue;
+            World world = new World( configRoot, appID );
+            for( File waypoint : world.waypoints() )
+                if( verify( world, waypoint ) == false )
+                    failures++;
+        }
+        System.out.println( failures == 0 ? "All waypoints agree" :
+                            failures + " waypoints differ" );
+        System.exit( failures );
+    }
+
+    private static boolean verify( World world, File waypoint ) throws Exception {
+        String name = world.appID() + "/" + waypoint.getName();
+        Game played = new Game( world );
+        played.replay( world.read( waypoint ) );
+        long expected = played.model.stateDigest();
+
+        played.compact();
+        Game compacted = new Game( world );
+        compacted.replay( played.serialisedHistory() );
+
+        Game restored = new Game( world );
+        boolean restoredCleanly = restored.restore( played.checkpoint() );
+
+        boolean agree = compacted.model.stateDigest() == expected &&
+                        restoredCleanly && restored.model.stateDigest() == expected;
+        System.out.println( String.format( "%-40s %s played %016x compacted %016x restored %016x%s",
+            name, agree ? "ok     " : "DIFFERS", expected, compacted.model.stateDigest(),
+            restored.model.stateDigest(), restoredCleanly ? "" : " (checkpoint not restored)" ) );
+        return agree;
+    }
+
+    private static class Game {
+        ActionHistory history = new CompactActionHistory();
+        ActionFactory factory = new RecordableActionFactory( new UserActionFactory(), history );
+        BasicModel model;
+        TextAdventurePresenter presenter;
+
+        Game( World world ) throws Exception {
+            model = world.createModelFromImage( factory );
+            presenter = new TextAdventurePresenter( new NullView(), model, model, factory );
+        }
+
+        void replay( String serialisedHistory ) {
+            presenter.replay( new ActionHistoryDeserialiser( factory, model, model )
+                                  .deserialise( serialisedHistory ) );
+        }
+
+        void compact() {
+            new ActionHistoryCompactor().compact( history );
+        }
+
+        String serialisedHistory() {
+            return new ActionHistorySerialiser( history ).serialise();
+        }
+
+        String checkpoint() {
+            ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+            serialiser.setActionHistory( history );
+            return serialiser.serialise();
+        }
+
+        boolean restore( String checkpoint ) {
+            ModelStateDeserialiser d = new ModelStateDeserialiser( model, model );
+            return d.restoreWithActionHistory( checkpoint,
+                       new ActionHistoryDeserialiser( factory, model, model ), history ) &&
+                   d.restoredStateMatchesDigest();
+        }
+    }
+}
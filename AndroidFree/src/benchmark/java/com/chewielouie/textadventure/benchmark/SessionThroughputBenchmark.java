@@ -0,0 +1,166 @@
+package com.chewielouie.textadventure.benchmark;
+
+import com.chewielouie.textadventure.GameEngine;
+import com.chewielouie.textadventure.GameSession;
+import com.chewielouie.textadventure.ViewState;
+import com.chewielouie.textadventure.serialisation.BinaryWorldCompiler;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Measures how many game sessions can be started, and how many actions
+// played across them, per second on a pool of threads, along with the heap
+// each started session holds on to. Each session plays a seeded random
+// walk through the actions and exits on offer. Usage:
+//
+//   SessionThroughputBenchmark <config dir> <results file> [threads] [sessions] [actions]
+public class SessionThroughputBenchmark {
+    private GameEngine engine;
+    private ExecutorService executor;
+    private int threads;
+    private int sessionCount;
+    private int actionsPerSession;
+
+    public static void main( String[] args ) throws Exception {
+        File configRoot = new File( args.length > 0 ? args[0] : "../config" );
+        String resultsFile = args.length > 1 ? args[1] : "session-benchmark-results.json";
+        int threads = args.length > 2 ? Integer.parseInt( args[2] )
+                                       : Runtime.getRuntime().availableProcessors();
+        int sessions = args.length > 3 ? Integer.parseInt( args[3] ) : 1000;
+        int actions = args.length > 4 ? Integer.parseInt( args[4] ) : 100;
+        BenchmarkRunner settings = new BenchmarkRunner(
+            Integer.getInteger( "benchmark.warmup", 2 ),
+            Integer.getInteger( "benchmark.iterations", 5 ), 0 );
+
+        String content = BinaryWorldCompiler.readWorldFile(
+            new File( configRoot, "2/res/raw/model_content.txt" ).getPath() );
+        SessionThroughputBenchmark benchmark =
+            new SessionThroughputBenchmark( new GameEngine( content ), threads, sessions, actions );
+        List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+        try {
+            results = benchmark.run( settings.warmupIterations(), settings.measurementIterations() );
+        } finally {
+            benchmark.shutdown();
+        }
+        for( BenchmarkResult result : results )
+            System.out.println( String.format( "%-40s %12.1f +- %10.1f %s",
+                result.name(), result.score(), result.scoreError(), result.unit() ) );
+        new JsonResultWriter( settings ).write( results, resultsFile );
+        System.out.println( "Results written to " + resultsFile );
+    }
+
+    public SessionThroughputBenchmark( GameEngine engine, int threads,
+                                       int sessionCount, int actionsPerSession ) {
+        this.engine = engine;
+        this.threads = threads;
+        this.sessionCount = sessionCount;
+        this.actionsPerSession = actionsPerSession;
+        this.executor = Executors.newFixedThreadPool( threads );
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public List<BenchmarkResult> run( int warmupIterations, int measurementIterations )
+            throws Exception {
+        BenchmarkResult sessions = new BenchmarkResult( "engine.newSession", "thrpt",
+                                                        "sessions/s", threads );
+        BenchmarkResult actions = new BenchmarkResult( "session.enact", "thrpt",
+                                                       "actions/s", threads );
+        BenchmarkResult heap = new BenchmarkResult( "engine.sessionHeap", "avgt",
+                                                    "bytes/session", threads );
+        for( int i = 0; i < warmupIterations + measurementIterations; i++ ) {
+            boolean measure = i >= warmupIterations;
+
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            List<GameSession> started = startSessions();
+            long elapsed = System.nanoTime() - start;
+            if( measure ) {
+                sessions.addScore( perSecond( sessionCount, elapsed ), sessionCount );
+                heap.addScore( (double)(usedHeap() - heapBefore) / started.size(), sessionCount );
+            }
+
+            start = System.nanoTime();
+            long enacted = playSessions( started, i );
+            elapsed = System.nanoTime() - start;
+            if( measure )
+                actions.addScore( perSecond( enacted, elapsed ), enacted );
+        }
+        List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+        results.add( sessions );
+        results.add( actions );
+        results.add( heap );
+        return results;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for( int i = 0; i < 3; i++ )
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double perSecond( long count, long nanoseconds ) {
+        return count * 1000000000.0 / nanoseconds;
+    }
+
+    private List<GameSession> startSessions() throws Exception {
+        List<Future<GameSession>> futures = new ArrayList<Future<GameSession>>();
+        for( int i = 0; i < sessionCount; i++ )
+            futures.add( executor.submit( new Callable<GameSession>() {
+                public GameSession call() {
+                    return engine.newSession();
+                }
+            } ) );
+        List<GameSession> sessions = new ArrayList<GameSession>();
+        for( Future<GameSession> future : futures )
+            sessions.add( future.get() );
+        return sessions;
+    }
+
+    private long playSessions( List<GameSession> sessions, int iteration ) throws Exception {
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        for( int i = 0; i < sessions.size(); i++ ) {
+            final GameSession session = sessions.get( i );
+            final long seed = iteration * (long)sessionCount + i;
+            futures.add( executor.submit( new Callable<Integer>() {
+                public Integer call() {
+                    return randomWalk( session, new Random( seed ) );
+                }
+            } ) );
+        }
+        long enacted = 0;
+        for( Future<Integer> future : futures )
+            enacted += future.get();
+        return enacted;
+    }
+
+    private int randomWalk( GameSession session, Random random ) {
+        ViewState state = session.viewState();
+        int enacted = 0;
+        while( enacted < actionsPerSession ) {
+            int actions = state.actionLabels().size();
+            int exits = state.exitLabels().size();
+            if( actions + exits == 0 ) {
+                state = session.cancelActionChain();
+                if( state.actionLabels().size() + state.exitLabels().size() == 0 )
+                    break;
+                continue;
+            }
+            int choice = random.nextInt( actions + exits );
+            if( choice < actions )
+                state = session.enact( choice );
+            else
+                state = session.useExit( choice - actions );
+            enacted++;
+        }
+        return enacted;
+    }
+}
@@ -0,0 +1,67 @@
+package com.chewielouie.textadventure.benchmark;
+
+import com.chewielouie.textadventure.BasicModel;
+import com.chewielouie.textadventure.Location;
+import com.chewielouie.textadventure.item.NormalItem;
+import java.util.Random;
+
+// A generated world of any size for measuring how the model scales. Every
+// location holds the same number of items and ids are predictable so the
+// benchmarks can pick them at random.
+public class SyntheticWorld {
+    private int locationCount;
+    private int itemsPerLocation;
+    private BasicModel model = new BasicModel();
+    private Location[] locations;
+
+    public SyntheticWorld( int locationCount, int itemsPerLocation ) {
+        this.locationCount = locationCount;
+        this.itemsPerLocation = itemsPerLocation;
+        locations = new Location[locationCount];
+        for( int l = 0; l < locationCount; l++ ) {
+            Location location = new Location( locationID( l ), "Room " + l + ".", null, null );
+            for( int i = 0; i < itemsPerLocation; i++ )
+                location.addItem( createItem( l, i ) );
+            locations[l] = location;
+            model.addLocation( location );
+        }
+    }
+
+    private NormalItem createItem( int location, int index ) {
+        NormalItem item = new NormalItem();
+        item.setId( itemID( location, index ) );
+        item.setName( "thing " + index );
+        item.setDescription( "a thing" );
+        return item;
+    }
+
+    public BasicModel model() {
+        return model;
+    }
+
+    public Location location( int index ) {
+        return locations[index];
+    }
+
+    public int size() {
+        return locationCount;
+    }
+
+    public static String locationID( int location ) {
+        return "loc" + location;
+    }
+
+    public static String itemID( int location, int index ) {
+        return "item" + location + "." + index;
+    }
+
+    // Item ids spread over the whole world, always in the same order.
+    public String[] sampleItemIDs( int count, long seed ) {
+        Random random = new Random( seed );
+        String[] ids = new String[count];
+        for( int i = 0; i < count; i++ )
+            ids[i] = itemID( random.nextInt( locationCount ),
+                             random.nextInt( itemsPerLocation ) );
+        return ids;
+    }
+}
@@ -0,0 +1,512 @@
+package com.chewielouie.textadventure.benchmark;
+
+import com.chewielouie.textadventure.BasicModel;
+import com.chewielouie.textadventure.DispatchTiming;
+import com.chewielouie.textadventure.TextAdventurePresenter;
+import com.chewielouie.textadventure.action.Action;
+import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.ActionRecord;
+import com.chewielouie.textadventure.action.BasicActionHistory;
+import com.chewielouie.textadventure.action.CompactActionHistory;
+import com.chewielouie.textadventure.action.RecordableActionFactory;
+import com.chewielouie.textadventure.action.UserActionFactory;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import com.chewielouie.textadventure.itemaction.NormalItemActionFactory;
+import com.chewielouie.textadventure.serialisation.ActionHistoryCompactor;
+import com.chewielouie.textadventure.serialisation.ActionHistoryDeserialiser;
+import com.chewielouie.textadventure.serialisation.ActionHistorySerialiser;
+import com.chewielouie.textadventure.serialisation.BinaryActionHistorySerialiser;
+import com.chewielouie.textadventure.serialisation.ModelStateDeserialiser;
+import com.chewielouie.textadventure.serialisation.ModelStateSerialiser;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Times world loading, save replay, save writing, model lookups and the
+// presenter against the game data in config/, and model operations on
+// generated worlds of increasing size. The sizes of the waypoints saved as
+// text and as binary, and the time each model event subscriber takes per
+// event, are reported alongside. Usage:
+//
+//   TextAdventureBenchmarks <config dir> <results file> [name regex]
+//
+// The warm up and measurement can be changed with the benchmark.warmup,
+// benchmark.iterations and benchmark.iterationms system properties.
+public class TextAdventureBenchmarks {
+    private static final String[] appIDs = { "1", "2" };
+    private static final int[] historySizes = { 1000, 10000 };
+    private static final int[] worldSizes = { 1000, 10000, 50000 };
+    private static final int itemsPerLocation = 3;
+    private static final int itemsPerRun = 1000;
+    private List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+    private List<BenchmarkResult> sizes = new ArrayList<BenchmarkResult>();
+
+    public static void main( String[] args ) throws Exception {
+        File configRoot = new File( args.length > 0 ? args[0] : "../config" );
+        String resultsFile = args.length > 1 ? args[1] : "benchmark-results.json";
+        Pattern filter = Pattern.compile( args.length > 2 ? args[2] : ".*" );
+        BenchmarkRunner runner = new BenchmarkRunner(
+            Integer.getInteger( "benchmark.warmup", 5 ),
+            Integer.getInteger( "benchmark.iterations", 10 ),
+            Integer.getInteger( "benchmark.iterationms", 500 ) );
+
+        List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+        TextAdventureBenchmarks suite = new TextAdventureBenchmarks( configRoot );
+        for( Benchmark benchmark : suite.benchmarks ) {
+            if( filter.matcher( benchmark.name() ).find() == false )
+                continue;
+            BenchmarkResult result = runner.run( benchmark );
+            System.out.println( String.format( "%-60s %12.3f +- %10.3f us/op",
+                result.name(), result.score(), result.scoreError() ) );
+            results.add( result );
+        }
+        for( BenchmarkResult size : suite.sizes ) {
+            if( filter.matcher( size.name() ).find() == false )
+                continue;
+            System.out.println( String.format( "%-60s %12.0f %s",
+                size.name(), size.score(), size.unit() ) );
+            results.add( size );
+        }
+        new JsonResultWriter( runner ).write( results, resultsFile );
+        System.out.println( "Results written to " + resultsFile );
+    }
+
+    public TextAdventureBenchmarks( File configRoot ) throws Exception {
+        World historySource = null;
+        for( String appID : appIDs ) {
+            if( new File( configRoot, appID ).isDirectory() == false )
+                continue;
+            World world = new World( configRoot, appID );
+            addParseBenchmarks( world );
+            for( File waypoint : world.waypoints() )
+                addWaypointBenchmarks( world, waypoint );
+            addModelBenchmarks( world );
+            addPresenterBenchmarks( world );
+            historySource = world;
+        }
+        if( historySource != null )
+            for( int size : historySizes )
+                addHistorySerialiseBenchmark( historySource, size );
+        for( int size : worldSizes )
+            addScalingBenchmarks( size );
+    }
+
+    private String prefix( String group, World world ) {
+        return group + ".app" + world.appID();
+    }
+
+    private static String waypointName( File waypoint ) {
+        return waypoint.getName().replace( ".txt", "" );
+    }
+
+    private void addParseBenchmarks( final World world ) {
+        benchmarks.add( new NamedBenchmark( prefix( "parse.plainText", world ) ) {
+            public Object run() {
+                return world.createModelWithPlainTextParser( new UserActionFactory() );
+            }
+        } );
+        benchmarks.add( new NamedBenchmark( prefix( "parse.streaming", world ) ) {
+            public Object run() {
+                return world.createModelWithStreamingParser( new UserActionFactory() );
+            }
+        } );
+        benchmarks.add( new NamedBenchmark( prefix( "parse.binaryImage", world ) ) {
+            public Object run() throws Exception {
+                return world.createModelFromImage();
+            }
+        } );
+        final ItemActionFactory itemActionFactory = new NormalItemActionFactory( new BasicModel() );
+        final List<String> lines = world.itemActionLines();
+        final List<Item> owners = world.itemActionOwners();
+        benchmarks.add( new NamedBenchmark( prefix( "parse.itemActions", world ) ) {
+            public Object run() {
+                ItemAction last = null;
+                for( int i = 0; i < lines.size(); ++i )
+                    last = itemActionFactory.create( lines.get( i ), owners.get( i ) );
+                return last;
+            }
+        } );
+    }
+
+    private void addWaypointBenchmarks( final World world, File waypoint ) throws Exception {
+        final String history = world.read( waypoint );
+        final BasicModel model = world.createModelFromImage();
+        String name = waypointName( waypoint );
+        benchmarks.add( new NamedBenchmark( prefix( "waypoint.deserialise", world ) + "." + name ) {
+            public Object run() {
+                return new ActionHistoryDeserialiser( new UserActionFactory(), model, model )
+                    .deserialise( history );
+            }
+        } );
+        benchmarks.add( new Replay( prefix( "waypoint.replay", world ) + "." + name,
+                                    world, history, false ) );
+        benchmarks.add( new SilentReplay( prefix( "waypoint.replaySilent", world ) + "." + name,
+                                          world, history ) );
+        benchmarks.add( new LoadAndReplay( prefix( "waypoint.loadAndReplay", world ) + "." + name,
+                                           world, history, false ) );
+        benchmarks.add( new LoadAndReplay(
+            prefix( "waypoint.loadAndReplayStreamed", world ) + "." + name, world, history, true ) );
+        benchmarks.add( new RestoreCheckpoint(
+            prefix( "waypoint.restoreCheckpoint", world ) + "." + name,
+            world, checkpointOf( world, history ) ) );
+        addSaveFormatBenchmarks( world, name, history, model );
+    }
+
+    // The model state reached by playing the history, saved with it.
+    private static String checkpointOf( World world, String history ) throws Exception {
+        ActionHistory recorded = new CompactActionHistory();
+        ActionFactory factory = new RecordableActionFactory( new UserActionFactory(), recorded );
+        BasicModel model = world.createModelFromImage( factory );
+        new TextAdventurePresenter( new NullView(), model, model, factory ).replay(
+            new ActionHistoryDeserialiser( factory, model, model ).deserialise( history ) );
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+        serialiser.setActionHistory( recorded );
+        return serialiser.serialise();
+    }
+
+    // Saving and loading a waypoint's history as text and as binary, each
+    // as the bytes that would be written to or read from a file.
+    private void addSaveFormatBenchmarks( World world, String name, String history,
+                                          final BasicModel model ) throws Exception {
+        final ActionHistory recorded = new CompactActionHistory();
+        final byte[] text = history.getBytes( "UTF-8" );
+        new ActionHistoryDeserialiser( new UserActionFactory(), model, model )
+            .deserialiseInto( text, recorded );
+        final byte[] binary = new BinaryActionHistorySerialiser( recorded ).serialise();
+        benchmarks.add( new NamedBenchmark( prefix( "waypoint.saveText", world ) + "." + name ) {
+            public Object run() throws Exception {
+                return new ActionHistorySerialiser( recorded ).serialise().getBytes( "UTF-8" );
+            }
+        } );
+        benchmarks.add( new NamedBenchmark( prefix( "waypoint.saveBinary", world ) + "." + name ) {
+            public Object run() {
+                return new BinaryActionHistorySerialiser( recorded ).serialise();
+            }
+        } );
+        benchmarks.add( new NamedBenchmark( prefix( "waypoint.loadText", world ) + "." + name ) {
+            public Object run() {
+                ActionHistory loaded = new CompactActionHistory();
+                new ActionHistoryDeserialiser( new UserActionFactory(), model, model )
+                    .deserialiseInto( text, loaded );
+                return loaded;
+            }
+        } );
+        benchmarks.add( new NamedBenchmark( prefix( "waypoint.loadBinary", world ) + "." + name ) {
+            public Object run() {
+                ActionHistory loaded = new CompactActionHistory();
+                new ActionHistoryDeserialiser( new UserActionFactory(), model, model )
+                    .deserialiseInto( binary, loaded );
+                return loaded;
+            }
+        } );
+        sizes.add( sizeResult( prefix( "waypoint.saveSize", world ) + "." + name + ".text",
+                               text.length ) );
+        sizes.add( sizeResult( prefix( "waypoint.saveSize", world ) + "." + name + ".binary",
+                               binary.length ) );
+        ActionHistory compacted = recorded.snapshot();
+        new ActionHistoryCompactor().compact( compacted );
+        String compactedText = new ActionHistorySerialiser( compacted ).serialise();
+        sizes.add( sizeResult( prefix( "waypoint.saveSize", world ) + "." + name + ".compactedText",
+                               compactedText.getBytes( "UTF-8" ).length ) );
+        benchmarks.add( new LoadAndReplay(
+            prefix( "waypoint.loadAndReplayCompacted", world ) + "." + name,
+            world, compactedText, false ) );
+    }
+
+    private static BenchmarkResult sizeResult( String name, int bytes ) {
+        BenchmarkResult result = new BenchmarkResult( name, "ss", "bytes", 1 );
+        result.addScore( bytes, 1 );
+        return result;
+    }
+
+    private void addModelBenchmarks( World world ) throws Exception {
+        final BasicModel model = world.createModelFromImage();
+        final List<String> ids = World.itemIDs( model );
+        benchmarks.add( new NamedBenchmark( prefix( "model.findItemByID", world ) ) {
+            public Object run() {
+                Object found = null;
+                for( String id : ids )
+                    found = model.findItemByID( id );
+                return found;
+            }
+        } );
+    }
+
+    // Each run touches itemsPerRun items chosen at random from a generated
+    // world, putting back whatever it moved or destroyed so the world stays
+    // the same size, so the time per op should not grow with the world.
+    private void addScalingBenchmarks( int size ) {
+        final SyntheticWorld world = new SyntheticWorld( size, itemsPerLocation );
+        final BasicModel model = world.model();
+        final String[] ids = world.sampleItemIDs( itemsPerRun, size );
+        benchmarks.add( new NamedBenchmark( "model.scaling." + size + ".findItemByID" ) {
+            public Object run() {
+                Object found = null;
+                for( String id : ids )
+                    found = model.findItemByID( id );
+                return found;
+            }
+        } );
+        benchmarks.add( new NamedBenchmark( "model.scaling." + size + ".moveItemToInventory" ) {
+            public Object run() {
+                for( String id : ids ) {
+                    Item item = model.findItemByID( id );
+                    model.moveItemToInventory( id );
+                    model.removeFromInventory( item );
+                    world.location( locationIndex( id ) ).addItem( item );
+                }
+                return model;
+            }
+        } );
+        benchmarks.add( new NamedBenchmark( "model.scaling." + size + ".destroyItem" ) {
+            public Object run() {
+                for( String id : ids ) {
+                    Item item = model.findItemByID( id );
+                    if( item == null )
+                        continue;
+                    model.destroyItem( id );
+                    world.location( locationIndex( id ) ).addItem( item );
+                }
+                return model;
+            }
+        } );
+    }
+
+    private static int locationIndex( String itemID ) {
+        return Integer.parseInt( itemID.substring( "item".length(), itemID.indexOf( '.' ) ) );
+    }
+
+    private void addPresenterBenchmarks( World world ) throws Exception {
+        File longest = longestWaypoint( world );
+        if( longest != null ) {
+            benchmarks.add( new Replay( prefix( "presenter.enact", world ),
+                                        world, world.read( longest ), true ) );
+            addDispatchTimings( world, world.read( longest ) );
+        }
+        BasicModel model = world.createModelFromImage();
+        final TextAdventurePresenter presenter = new TextAdventurePresenter(
+            new NullView(), model, model, new UserActionFactory() );
+        benchmarks.add( new NamedBenchmark( prefix( "presenter.render", world ) ) {
+            public Object run() {
+                presenter.render();
+                return presenter;
+            }
+        } );
+    }
+
+    // Plays the history through the presenter once and reports the mean
+    // time each of the model's event subscribers took per event.
+    private void addDispatchTimings( World world, String history ) throws Exception {
+        BasicModel model = world.createModelFromImage();
+        TextAdventurePresenter presenter = new TextAdventurePresenter(
+            new NullView(), model, model, new UserActionFactory() );
+        for( Action action : new ActionHistoryDeserialiser( new UserActionFactory(), model, model )
+                                 .deserialise( history ) )
+            presenter.enact( action );
+        for( DispatchTiming timing : model.eventBus().timings() ) {
+            if( timing.deliveries() == 0 )
+                continue;
+            BenchmarkResult result = new BenchmarkResult(
+                prefix( "events.dispatch", world ) + "." +
+                    timing.subscriber().getClass().getSimpleName(),
+                "ss", "ns/event", 1 );
+            result.addScore( (double)timing.totalNanos() / timing.deliveries(), 1 );
+            sizes.add( result );
+        }
+    }
+
+    private static File longestWaypoint( World world ) {
+        File longest = null;
+        for( File waypoint : world.waypoints() )
+            if( longest == null || waypoint.length() > longest.length() )
+                longest = waypoint;
+        return longest;
+    }
+
+    private void addHistorySerialiseBenchmark( World world, int size ) throws Exception {
+        ActionHistory played = recordPlaythrough( world );
+        if( played.size() == 0 )
+            return;
+        final ActionHistory history = new BasicActionHistory();
+        for( int i = 0; i < size; i++ ) {
+            ActionRecord record = played.getRecord( i % played.size() );
+            history.addActionWithParameters( record.action(), record.params() );
+        }
+        benchmarks.add( new NamedBenchmark( "history.serialise." + size ) {
+            public Object run() {
+                return new ActionHistorySerialiser( history ).serialise();
+            }
+        } );
+        addSaveBlockingBenchmarks( world, history, size );
+    }
+
+    // The time a save holds up the thread asking for it: all of it when
+    // written there, or only taking the snapshot when a SaveWriter writes it.
+    private void addSaveBlockingBenchmarks( World world, ActionHistory played, int size )
+        throws Exception {
+        final BasicModel model = world.createModelFromImage();
+        final ActionHistory history = new CompactActionHistory();
+        for( int i = 0; i < played.size(); i++ ) {
+            ActionRecord record = played.getRecord( i );
+            history.addActionWithParameters( record.action(), record.params() );
+        }
+        benchmarks.add( new NamedBenchmark( "save.blocking." + size + ".serialiseAndEncode" ) {
+            public Object run() throws Exception {
+                ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+                serialiser.setActionHistory( history );
+                return serialiser.serialise().getBytes( "UTF-8" );
+            }
+        } );
+        benchmarks.add( new NamedBenchmark( "save.blocking." + size + ".snapshot" ) {
+            public Object run() {
+                ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+                serialiser.setActionHistory( history );
+                return serialiser.snapshot();
+            }
+        } );
+    }
+
+    private ActionHistory recordPlaythrough( World world ) throws Exception {
+        ActionHistory history = new BasicActionHistory();
+        File longest = longestWaypoint( world );
+        if( longest == null )
+            return history;
+        ActionFactory factory = new RecordableActionFactory( new UserActionFactory(), history );
+        BasicModel model = world.createModelFromImage( factory );
+        TextAdventurePresenter presenter = new TextAdventurePresenter(
+            new NullView(), model, model, factory );
+        presenter.disableViewUpdates();
+        for( Action action : new ActionHistoryDeserialiser( factory, model, model )
+                                    .deserialise( world.read( longest ) ) )
+            presenter.enact( action );
+        return history;
+    }
+
+    private static abstract class NamedBenchmark implements Benchmark {
+        private String name;
+
+        NamedBenchmark( String name ) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public void prepare() throws Exception {
+        }
+    }
+
+    // Plays a saved history on a freshly loaded world. The load is done in
+    // prepare() so only the replay is timed.
+    private static class Replay extends NamedBenchmark {
+        private World world;
+        private String history;
+        private boolean viewUpdates;
+        protected TextAdventurePresenter presenter;
+        protected List<Action> actions;
+
+        Replay( String name, World world, String history, boolean viewUpdates ) {
+            super( name );
+            this.world = world;
+            this.history = history;
+            this.viewUpdates = viewUpdates;
+        }
+
+        public void prepare() throws Exception {
+            BasicModel model = world.createModelFromImage();
+            presenter = new TextAdventurePresenter(
+                new NullView(), model, model, new UserActionFactory() );
+            if( viewUpdates == false )
+                presenter.disableViewUpdates();
+            actions = new ActionHistoryDeserialiser( new UserActionFactory(), model, model )
+                .deserialise( history );
+        }
+
+        public Object run() {
+            for( Action action : actions )
+                presenter.enact( action );
+            return presenter;
+        }
+    }
+
+    // As Replay but through the presenter's replay mode, which only
+    // triggers the actions.
+    private static class SilentReplay extends Replay {
+        SilentReplay( String name, World world, String history ) {
+            super( name, world, history, true );
+        }
+
+        public Object run() {
+            presenter.replay( actions );
+            return presenter;
+        }
+    }
+
+    // Reads a saved history from its bytes and replays it, either by reading
+    // all of the actions first or by playing each as it is read.
+    // Loads a game from a checkpoint, to set against replaying the whole
+    // history with LoadAndReplay. The history saved with the checkpoint is
+    // read but not played.
+    private static class RestoreCheckpoint extends NamedBenchmark {
+        private World world;
+        private String checkpoint;
+        private BasicModel model;
+
+        RestoreCheckpoint( String name, World world, String checkpoint ) {
+            super( name );
+            this.world = world;
+            this.checkpoint = checkpoint;
+        }
+
+        public void prepare() throws Exception {
+            model = world.createModelFromImage();
+        }
+
+        public Object run() {
+            ActionHistory history = new CompactActionHistory();
+            if( new ModelStateDeserialiser( model, model ).restoreWithActionHistory( checkpoint,
+                    new ActionHistoryDeserialiser( new UserActionFactory(), model, model ),
+                    history ) == false )
+                throw new IllegalStateException( name() + " is not a valid checkpoint" );
+            return history;
+        }
+    }
+
+    private static class LoadAndReplay extends NamedBenchmark {
+        private World world;
+        private byte[] history;
+        private boolean streamed;
+        private BasicModel model;
+        private TextAdventurePresenter presenter;
+
+        LoadAndReplay( String name, World world, String history, boolean streamed )
+            throws Exception {
+            super( name );
+            this.world = world;
+            this.history = history.getBytes( "UTF-8" );
+            this.streamed = streamed;
+        }
+
+        public void prepare() throws Exception {
+            model = world.createModelFromImage();
+            presenter = new TextAdventurePresenter(
+                new NullView(), model, model, new UserActionFactory() );
+        }
+
+        public Object run() {
+            ActionHistoryDeserialiser deserialiser =
+                new ActionHistoryDeserialiser( new UserActionFactory(), model, model );
+            if( streamed )
+                presenter.replay( deserialiser.stream( new ByteArrayInputStream( history ) ) );
+            else
+                presenter.replay( deserialiser.deserialise( history ) );
+            return presenter;
+        }
+    }
+}
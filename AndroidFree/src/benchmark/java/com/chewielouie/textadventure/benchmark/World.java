@@ -0,0 +1,166 @@
+package com.chewielouie.textadventure.benchmark;
+
+import com.chewielouie.textadventure.BasicModel;
+import com.chewielouie.textadventure.LocationExitFactory;
+import com.chewielouie.textadventure.LocationFactory;
+import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.PlainTextModelPopulator;
+import com.chewielouie.textadventure.StreamingModelPopulator;
+import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.action.UserActionFactory;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.ItemFactory;
+import com.chewielouie.textadventure.item.NormalItemFactory;
+import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import com.chewielouie.textadventure.itemaction.ItemActionLinker;
+import com.chewielouie.textadventure.itemaction.NormalItemActionFactory;
+import com.chewielouie.textadventure.itemaction.NullItemAction;
+import com.chewielouie.textadventure.serialisation.BinaryWorldCompiler;
+import com.chewielouie.textadventure.serialisation.BinaryWorldLoader;
+import com.chewielouie.textadventure.serialisation.ItemDeserialiser;
+import com.chewielouie.textadventure.serialisation.PlainTextExitDeserialiser;
+import com.chewielouie.textadventure.serialisation.PlainTextItemDeserialiser;
+import com.chewielouie.textadventure.serialisation.PlainTextModelLocationDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingExitDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingItemDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingModelLocationDeserialiser;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The content of one game, config/<app id>/res/raw, and the ways of
+// building a model from it.
+public class World {
+    private String appID;
+    private String content;
+    private byte[] image;
+    private List<File> waypoints = new ArrayList<File>();
+    private List<String> itemActionLines = new ArrayList<String>();
+    private List<Item> itemActionOwners = new ArrayList<Item>();
+
+    public World( File configRoot, String appID ) throws IOException {
+        this.appID = appID;
+        File raw = new File( configRoot, appID + "/res/raw" );
+        content = BinaryWorldCompiler.readWorldFile(
+            new File( raw, "model_content.txt" ).getPath() );
+        image = new BinaryWorldCompiler().compile( content );
+        File[] files = raw.listFiles();
+        Arrays.sort( files );
+        for( File f : files )
+            if( f.getName().startsWith( "waypoint_" ) )
+                waypoints.add( f );
+        readItemActionLines();
+    }
+
+    public String appID() {
+        return appID;
+    }
+
+    public String content() {
+        return content;
+    }
+
+    public List<File> waypoints() {
+        return waypoints;
+    }
+
+    // Every item action line in the world, in the order they are loaded,
+    // with the item each belongs to, or null for those of exits.
+    public List<String> itemActionLines() {
+        return itemActionLines;
+    }
+
+    public List<Item> itemActionOwners() {
+        return itemActionOwners;
+    }
+
+    public String read( File file ) throws IOException {
+        return BinaryWorldCompiler.readWorldFile( file.getPath() );
+    }
+
+    public BasicModel createModelWithPlainTextParser( ActionFactory actionFactory ) {
+        BasicModel model = new BasicModel();
+        ItemActionFactory itemActionFactory = new NormalItemActionFactory( model );
+        ItemFactory itemFactory = new NormalItemFactory();
+        ItemDeserialiser itemDeserialiser = new PlainTextItemDeserialiser( itemActionFactory );
+        new PlainTextModelPopulator( model,
+            new LocationFactory( model, actionFactory ),
+            model,
+            itemFactory,
+            new PlainTextModelLocationDeserialiser(
+                itemFactory, new LocationExitFactory(),
+                itemDeserialiser,
+                new PlainTextExitDeserialiser( itemActionFactory ) ),
+            itemDeserialiser,
+            content );
+        new ItemActionLinker( model ).link();
+        return model;
+    }
+
+    public BasicModel createModelWithStreamingParser( ActionFactory actionFactory ) {
+        BasicModel model = new BasicModel();
+        ItemActionFactory itemActionFactory = new NormalItemActionFactory( model );
+        ItemFactory itemFactory = new NormalItemFactory();
+        ItemDeserialiser itemDeserialiser = new StreamingItemDeserialiser( itemActionFactory );
+        new StreamingModelPopulator( model,
+            new LocationFactory( model, actionFactory ),
+            model,
+            itemFactory,
+            new StreamingModelLocationDeserialiser(
+                itemFactory, new LocationExitFactory(),
+                itemDeserialiser,
+                new StreamingExitDeserialiser( itemActionFactory ) ),
+            itemDeserialiser,
+            content );
+        new ItemActionLinker( model ).link();
+        return model;
+    }
+
+    public BasicModel createModelFromImage( ActionFactory actionFactory ) throws IOException {
+        BasicModel model = new BasicModel();
+        new BinaryWorldLoader( model,
+            new LocationFactory( model, actionFactory ),
+            model,
+            new NormalItemFactory(),
+            new LocationExitFactory(),
+            new NormalItemActionFactory( model ) )
+            .load( new ByteArrayInputStream( image ) );
+        new ItemActionLinker( model ).link();
+        return model;
+    }
+
+    public BasicModel createModelFromImage() throws IOException {
+        return createModelFromImage( new UserActionFactory() );
+    }
+
+    private void readItemActionLines() throws IOException {
+        final BasicModel model = new BasicModel();
+        new BinaryWorldLoader( model,
+            new LocationFactory( model, new UserActionFactory() ),
+            model,
+            new NormalItemFactory(),
+            new LocationExitFactory(),
+            new ItemActionFactory() {
+                public ItemAction create( String content, Item item ) {
+                    itemActionLines.add( content );
+                    itemActionOwners.add( item );
+                    return new NullItemAction( content );
+                }
+            } )
+            .load( new ByteArrayInputStream( image ) );
+    }
+
+    public static List<String> itemIDs( BasicModel model ) {
+        List<String> ids = new ArrayList<String>();
+        for( Item item : model.inventoryItems() )
+            ids.add( item.id() );
+        for( ModelLocation location : model.locations() )
+            for( Item item : location.items() )
+                ids.add( item.id() );
+        return ids;
+    }
+}
@@ -1,28 +1,93 @@
 package com.chewielouie.textadventure;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import com.chewielouie.textadventure.item.Item;
-import com.chewielouie.textadventure.MovementEventSubscriber;
 
-public class BasicModel implements TextAdventureModel, UserInventory {
-    Map<String,ModelLocation> locations = new HashMap<String,ModelLocation>();
-    Map<String,Exit> exits = new HashMap<String,Exit>();
-    Map<String,Item> items = new HashMap<String,Item>();
+public class BasicModel implements TextAdventureModel, UserInventory, ModelEventSubscriber {
+    private static final int NOWHERE = -1;
+    // Locations, exits and items are held in arrays indexed by the handles
+    // their IDs are given. Finding one by ID still hashes the ID against
+    // the interner, but the handles replace a map per kind of thing, and a
+    // session's model shares its template's rather than building its own.
+    private final IdInterner locationIDs;
+    private final IdInterner exitIDs;
+    private final IdInterner itemIDs;
+    private ModelLocation[] locations;
+    private List<ModelLocation> locationsInOrder = new ArrayList<ModelLocation>();
+    private Collection<ModelLocation> unmodifiableLocations =
+                                    Collections.unmodifiableList( locationsInOrder );
+    private Exit[] exits;
+    private Item[] items;
     ModelLocation currentLocation = new NullLocation();
     private List<Item> inventoryItems = new ArrayList<Item>();
+    // The handle of the location each item is in, kept up to date by the
+    // events locations publish as items are added and removed. Locations
+    // that do not publish events cannot be indexed, and while there are any
+    // the whole world has to be searched for items not found in the index.
+    private int[] itemLocations;
+    private BitSet inInventory = new BitSet();
+    private int unindexedLocations = 0;
     private int currentScore = 0;
     private int maximumScore = 7;
-    private List<MovementEventSubscriber> eventSubscribers =
-                                    new ArrayList<MovementEventSubscriber>();
+    private ModelEventBus eventBus = new ModelEventBus();
     private Map<String,String> locationAreaNames = new HashMap<String,String>();
     private String cachedLocationDescription = "";
+    // The sum of the StateDigest hashes of every fact about the world that
+    // holds, kept up to date as things change. The hashes of the facts
+    // about each location, exit and item are kept so they can be taken out
+    // again when they change.
+    private final StateDigest digest;
+    private long stateDigest = 0;
+    private long currentLocationFact = 0;
+    private long scoreFact = 0;
+    private long[] locationFacts;
+    private long[] exitFacts;
+    private long[] itemFacts;
 
     public BasicModel() {
+        this( new StateDigest() );
+    }
+
+    protected BasicModel( StateDigest digest ) {
+        this( new IdInterner(), new IdInterner(), new IdInterner(), digest );
+    }
+
+    private BasicModel( IdInterner locationIDs, IdInterner exitIDs, IdInterner itemIDs,
+                        StateDigest digest ) {
+        this.digest = digest;
+        this.locationIDs = locationIDs;
+        this.exitIDs = exitIDs;
+        this.itemIDs = itemIDs;
+        locations = new ModelLocation[locationIDs.size()];
+        exits = new Exit[exitIDs.size()];
+        items = new Item[itemIDs.size()];
+        itemLocations = new int[itemIDs.size()];
+        Arrays.fill( itemLocations, NOWHERE );
+        locationFacts = new long[locations.length];
+        exitFacts = new long[exits.length];
+        itemFacts = new long[items.length];
+        currentLocationFact = addFact( digest.fact( StateDigest.CURRENT_LOCATION,
+                                                         currentLocation.id(), "" ) );
+        scoreFact = addFact( digest.fact( StateDigest.SCORE, null, currentScore ) );
+    }
+
+    // An empty model that numbers IDs the same way as this one, so a world
+    // loaded once can be copied into any number of models without each
+    // hashing its IDs, or the text it digests, again. This model must not
+    // be added to afterwards.
+    public BasicModel emptyModelSharingHandles() {
+        return new BasicModel( new IdInterner( locationIDs ),
+                               new IdInterner( exitIDs ),
+                               new IdInterner( itemIDs ),
+                               digest.sharingTextHashes() );
     }
 
     public String contextualText() {
@@ -54,27 +119,135 @@ public class BasicModel implements TextAdventureModel, UserInventory {
     public void setCurrentLocation( String id ) {
         cachedLocationDescription = "";
         currentLocation.exited();
-        currentLocation = locations.get( id );
-        for( MovementEventSubscriber s : eventSubscribers )
-            s.currentLocationChanged();
+        currentLocation = findLocationByID( id );
+        currentLocationFact = replaceFact( currentLocationFact,
+            digest.fact( StateDigest.CURRENT_LOCATION, id, "" ) );
+        if( eventBus.hasSubscribers() )
+            eventBus.publish( new ModelEvent( ModelEvent.Type.CURRENT_LOCATION_CHANGED, id ) );
     }
 
     public void addLocation( ModelLocation location ) {
-        locations.put( location.id(), location );
+        int handle = locationIDs.intern( location.id() );
+        if( handle >= locations.length ) {
+            locations = Arrays.copyOf( locations, grownLength( handle ) );
+            locationFacts = Arrays.copyOf( locationFacts, locations.length );
+        }
+        if( locations[handle] == null )
+            locationsInOrder.add( location );
+        else {
+            locationsInOrder.set( locationsInOrder.indexOf( locations[handle] ), location );
+            removeLocationFacts( handle );
+        }
+        locations[handle] = location;
+        if( location instanceof PublishesModelEvents )
+            publishModelEventsOf( location );
+        else
+            unindexedLocations++;
         if( currentLocation instanceof NullLocation )
             setCurrentLocation( location.id() );
         addExitsToCache( location );
-        addItemsToCache( location );
+        addItemsToCache( location, handle );
+        addLocationFacts( handle );
     }
 
-    private void addItemsToCache( ModelLocation location ) {
+    private static int grownLength( int handle ) {
+        return Math.max( handle + 1, handle * 3 / 2 );
+    }
+
+    private void addItemsToCache( ModelLocation location, int locationHandle ) {
+        for( Item item : location.items() ) {
+            int handle = cacheItem( item );
+            itemLocations[handle] = locationHandle;
+        }
+    }
+
+    // Only what locations that publish events hold is in the digest, as
+    // there is no knowing when anything else changes.
+    private void addLocationFacts( int handle ) {
+        ModelLocation location = locations[handle];
+        if( location instanceof PublishesModelEvents == false )
+            return;
+        updateLocationFact( handle );
         for( Item item : location.items() )
-            items.put( item.id(), item );
+            addFact( itemInLocationFact( location.id(), item.id() ) );
+    }
+
+    private void removeLocationFacts( int handle ) {
+        ModelLocation location = locations[handle];
+        locationFacts[handle] = replaceFact( locationFacts[handle], 0 );
+        if( location instanceof PublishesModelEvents )
+            for( Item item : location.items() )
+                removeFact( itemInLocationFact( location.id(), item.id() ) );
+    }
+
+    private long itemInLocationFact( String locationID, String itemID ) {
+        return digest.fact( StateDigest.ITEM_IN_LOCATION, locationID, itemID );
+    }
+
+    private int cacheItem( Item item ) {
+        int handle = itemHandle( item.id() );
+        setItem( handle, item );
+        return handle;
+    }
+
+    private void setItem( int handle, Item item ) {
+        if( items[handle] == item )
+            return;
+        items[handle] = item;
+        updateItemFact( handle );
+    }
+
+    private void updateItemFact( int handle ) {
+        Item item = items[handle];
+        itemFacts[handle] = replaceFact( itemFacts[handle],
+                                         item == null ? 0 : digest.of( item ) );
+    }
+
+    private void updateLocationFact( int handle ) {
+        ModelLocation location = locations[handle];
+        locationFacts[handle] = replaceFact( locationFacts[handle], digest.of( location ) );
+    }
+
+    private void updateExitFact( int handle ) {
+        exitFacts[handle] = replaceFact( exitFacts[handle], digest.of( exits[handle] ) );
+    }
+
+    private long addFact( long fact ) {
+        stateDigest += fact;
+        return fact;
+    }
+
+    private void removeFact( long fact ) {
+        stateDigest -= fact;
+    }
+
+    private long replaceFact( long oldFact, long newFact ) {
+        stateDigest += newFact - oldFact;
+        return newFact;
+    }
+
+    private int itemHandle( String id ) {
+        int handle = itemIDs.intern( id );
+        if( handle >= items.length ) {
+            int length = grownLength( handle );
+            items = Arrays.copyOf( items, length );
+            itemFacts = Arrays.copyOf( itemFacts, length );
+            itemLocations = Arrays.copyOf( itemLocations, length );
+            Arrays.fill( itemLocations, handle, length, NOWHERE );
+        }
+        return handle;
     }
 
     private void addExitsToCache( ModelLocation location ) {
-        for( Exit exit : location.exitsIncludingInvisibleOnes() )
-            exits.put( exit.id(), exit );
+        for( Exit exit : location.exitsIncludingInvisibleOnes() ) {
+            int handle = exitIDs.intern( exit.id() );
+            if( handle >= exits.length ) {
+                exits = Arrays.copyOf( exits, grownLength( handle ) );
+                exitFacts = Arrays.copyOf( exitFacts, exits.length );
+            }
+            exits[handle] = exit;
+            updateExitFact( handle );
+        }
     }
 
     public void moveThroughExit( Exit exit ) {
@@ -97,42 +270,112 @@ public class BasicModel implements TextAdventureModel, UserInventory {
     }
 
     public void addToInventory( Item item ) {
-        if( findItemInInventory( item.id() ) == null ) {
+        int handle = itemHandle( item.id() );
+        if( inInventory.get( handle ) == false ) {
             inventoryItems.add( item );
-            items.put( item.id(), item );
+            inInventory.set( handle );
+            setItem( handle, item );
+            addFact( itemInInventoryFact( item.id() ) );
+            publishModelEventsOf( item );
+            publish( ModelEvent.Type.INVENTORY_CHANGED );
         }
     }
 
+    public void removeFromInventory( Item item ) {
+        if( inventoryItems.remove( item ) ) {
+            int handle = itemIDs.handleOf( item.id() );
+            if( handle != IdInterner.NO_HANDLE )
+                inInventory.clear( handle );
+            removeFact( itemInInventoryFact( item.id() ) );
+            publish( ModelEvent.Type.INVENTORY_CHANGED );
+        }
+    }
+
+    private long itemInInventoryFact( String itemID ) {
+        return digest.fact( StateDigest.ITEM_IN_INVENTORY, itemID, "" );
+    }
+
     public Collection<ModelLocation> locations() {
-        return locations.values();
+        return unmodifiableLocations;
     }
 
     public Exit findExitByID( String id ) {
-        return exits.get( id );
+        int handle = exitIDs.handleOf( id );
+        return handle == IdInterner.NO_HANDLE ? null : exits[handle];
     }
 
     public void destroyItem( String id ) {
-        items.remove( id );
+        int handle = itemIDs.handleOf( id );
+        if( handle != IdInterner.NO_HANDLE )
+            setItem( handle, null );
         if( removeItemFromInventory( id ) == false )
-            if( removeItemFromCurrentLocation( id ) == false )
-                removeItemFromAnyLocation( id );
+            if( removeItemFromIndexedLocation( id ) == null && unindexedLocations > 0 )
+                if( removeItemFromCurrentLocation( id ) == false )
+                    removeItemFromAnyLocation( id );
+    }
+
+    // As destroyItem( String ), for an item already found, as a linked item
+    // action holds, which is taken out of the location the index says holds
+    // it rather than searched for by ID.
+    public void destroyItem( Item item ) {
+        int handle = indexedHandleOf( item );
+        if( handle == IdInterner.NO_HANDLE ) {
+            destroyItem( item.id() );
+            return;
+        }
+        setItem( handle, null );
+        if( inInventory.get( handle ) )
+            removeFromInventory( item );
+        else
+            removeItemFromIndexedLocation( handle, item );
+    }
+
+    // The item's handle if the index holds it and knows where it is.
+    private int indexedHandleOf( Item item ) {
+        int handle = itemIDs.handleOf( item.id() );
+        if( handle == IdInterner.NO_HANDLE || items[handle] != item )
+            return IdInterner.NO_HANDLE;
+        if( inInventory.get( handle ) == false && itemLocations[handle] == NOWHERE )
+            return IdInterner.NO_HANDLE;
+        return handle;
+    }
+
+    private void removeItemFromIndexedLocation( int handle, Item item ) {
+        ModelLocation loc = locations[itemLocations[handle]];
+        itemLocations[handle] = NOWHERE;
+        loc.removeItem( item );
     }
 
     private boolean removeItemFromInventory( String id ) {
         Item item = findItemInInventory( id );
         if( item != null ) {
-            inventoryItems.remove( item );
+            removeFromInventory( item );
             return true;
         }
         return false;
     }
 
+    private Item removeItemFromIndexedLocation( String id ) {
+        int handle = itemIDs.handleOf( id );
+        if( handle == IdInterner.NO_HANDLE || itemLocations[handle] == NOWHERE )
+            return null;
+        ModelLocation loc = locations[itemLocations[handle]];
+        itemLocations[handle] = NOWHERE;
+        for( Item item : loc.items() ) {
+            if( item.id().equals( id ) ) {
+                loc.removeItem( item );
+                return item;
+            }
+        }
+        return null;
+    }
+
     private boolean removeItemFromCurrentLocation( String id ) {
         return removeItemFromLocation( id, currentLocation );
     }
 
     private boolean removeItemFromAnyLocation( String id ) {
-        for( ModelLocation loc : locations.values() )
+        for( ModelLocation loc : locationsInOrder )
             if( removeItemFromLocation( id, loc ) )
                 return true;
         return false;
@@ -149,23 +392,29 @@ public class BasicModel implements TextAdventureModel, UserInventory {
     }
 
     public Item findItemByID( String id ) {
-        if( items.containsKey( id ) )
-            return items.get( id );
+        int handle = itemIDs.handleOf( id );
+        if( handle != IdInterner.NO_HANDLE && items[handle] != null )
+            return items[handle];
+        if( unindexedLocations == 0 )
+            return null;
         // Acceptance tests fail if we don't check the inventory here, not sure why...
         Item item = findItemInInventory( id );
         if( item != null ) {
-            items.put( id, item );
+            cacheItem( item );
             return item;
         }
         // If item has been added to the location _after_ it was added to the model
         // we won't have cached it yet so look again...
         item = findItemInAnyLocation( id );
         if( item != null )
-            items.put( id, item );
+            cacheItem( item );
         return item;
     }
 
     private Item findItemInInventory( String id ) {
+        int handle = itemIDs.handleOf( id );
+        if( handle == IdInterner.NO_HANDLE || inInventory.get( handle ) == false )
+            return null;
         for( Item item : inventoryItems )
             if( item.id().equals( id ) )
                 return item;
@@ -173,7 +422,7 @@ public class BasicModel implements TextAdventureModel, UserInventory {
     }
 
     private Item findItemInAnyLocation( String id ) {
-        for( ModelLocation loc : locations.values() )
+        for( ModelLocation loc : locationsInOrder )
             for( Item item : loc.items() )
                 if( item.id().equals( id ) )
                     return item;
@@ -189,28 +438,163 @@ public class BasicModel implements TextAdventureModel, UserInventory {
     }
 
     public void setCurrentScore( int score ) {
+        boolean changed = currentScore != score;
         currentScore = score;
+        scoreFact = replaceFact( scoreFact, digest.fact( StateDigest.SCORE, null, score ) );
+        if( changed )
+            publish( ModelEvent.Type.SCORE_CHANGED );
     }
 
     public void setMaximumScore( int score ) {
+        boolean changed = maximumScore != score;
         maximumScore = score;
+        if( changed )
+            publish( ModelEvent.Type.SCORE_CHANGED );
+    }
+
+    // Subscribers are told of the changes of the types given, or of every
+    // type if none are, published by the model and its locations, exits
+    // and items.
+    public void subscribeForEvents( ModelEventSubscriber subscriber, ModelEvent.Type... types ) {
+        eventBus.subscribe( subscriber, types );
+    }
+
+    public void beginEventBatch() {
+        eventBus.beginBatch();
+    }
+
+    public void commitEventBatch() {
+        eventBus.commitBatch();
+    }
+
+    public ModelEventBus eventBus() {
+        return eventBus;
+    }
+
+    // The digest is the sum of the hashes of every fact about the world
+    // that holds, so is the same for any two models in the same state
+    // however they got there, and costs nothing to read.
+    public long stateDigest() {
+        return stateDigest;
+    }
+
+    public void modelChanged( ModelEvent event ) {
+        switch( event.type() ) {
+            case LOCATION_DESCRIPTION_CHANGED:
+                locationDescriptionChanged( event.subjectID() );
+                break;
+            case LOCATION_FIRST_ENTRY_TEXT_CHANGED:
+                locationChanged( event.subjectID() );
+                break;
+            case ITEM_ADDED_TO_LOCATION:
+                indexItemAdded( event.subjectID(), event.itemID() );
+                break;
+            case ITEM_REMOVED_FROM_LOCATION:
+                indexItemRemoved( event.subjectID(), event.itemID() );
+                break;
+            case EXIT_VISIBILITY_CHANGED:
+                exitChanged( event.subjectID() );
+                break;
+            case ITEM_VISIBILITY_CHANGED:
+            case ITEM_NAME_CHANGED:
+            case ITEM_DESCRIPTION_CHANGED:
+            case ITEM_USE_CHANGED:
+            case ITEM_EXAMINED_CHANGED:
+            case ITEM_EXAMINE_TEXT_CHANGED:
+            case ITEM_USED_WITH_TEXT_CHANGED:
+                itemChanged( event.subjectID() );
+                break;
+            default:
+                break;
+        }
+        if( eventBus.hasSubscribers() )
+            eventBus.publish( event );
+    }
+
+    private void publish( ModelEvent.Type type ) {
+        if( eventBus.hasSubscribers() )
+            eventBus.publish( new ModelEvent( type, null ) );
     }
 
-    public void subscribeForEvents( MovementEventSubscriber subscriber ) {
-        eventSubscribers.add( subscriber );
+    private void locationDescriptionChanged( String locationID ) {
+        if( locationID.equals( currentLocation.id() ) )
+            cachedLocationDescription = "";
+        locationChanged( locationID );
+    }
+
+    private void locationChanged( String locationID ) {
+        int handle = locationIDs.handleOf( locationID );
+        if( handle != IdInterner.NO_HANDLE && locations[handle] != null )
+            updateLocationFact( handle );
+    }
+
+    private void exitChanged( String exitID ) {
+        int handle = exitIDs.handleOf( exitID );
+        if( handle != IdInterner.NO_HANDLE && exits[handle] != null )
+            updateExitFact( handle );
+    }
+
+    private void itemChanged( String itemID ) {
+        int handle = itemIDs.handleOf( itemID );
+        if( handle != IdInterner.NO_HANDLE )
+            updateItemFact( handle );
+    }
+
+    private void indexItemAdded( String locationID, String itemID ) {
+        int locationHandle = locationIDs.handleOf( locationID );
+        if( locationHandle == IdInterner.NO_HANDLE || itemID == null )
+            return;
+        ModelLocation loc = locations[locationHandle];
+        int handle = itemHandle( itemID );
+        itemLocations[handle] = locationHandle;
+        addFact( itemInLocationFact( locationID, itemID ) );
+        if( items[handle] == null )
+            for( Item item : loc.items() )
+                if( item.id().equals( itemID ) )
+                    setItem( handle, item );
+    }
+
+    private void indexItemRemoved( String locationID, String itemID ) {
+        if( locationIDs.handleOf( locationID ) != IdInterner.NO_HANDLE && itemID != null )
+            removeFact( itemInLocationFact( locationID, itemID ) );
+        int handle = itemIDs.handleOf( itemID );
+        if( handle != IdInterner.NO_HANDLE && itemLocations[handle] != NOWHERE &&
+            itemLocations[handle] == locationIDs.handleOf( locationID ) )
+            itemLocations[handle] = NOWHERE;
+    }
+
+    private void publishModelEventsOf( Object o ) {
+        if( o instanceof PublishesModelEvents )
+            ((PublishesModelEvents)o).publishModelEventsTo( this );
     }
 
     public ModelLocation findLocationByID( String id ) {
-        return locations.get( id );
+        int handle = locationIDs.handleOf( id );
+        return handle == IdInterner.NO_HANDLE ? null : locations[handle];
     }
 
     public void moveItemToInventory( String itemID ) {
-        Item item = removeItemFromUnknownLocation( itemID );
+        Item item = removeItemFromIndexedLocation( itemID );
+        if( item == null && unindexedLocations > 0 )
+            item = removeItemFromUnknownLocation( itemID );
+        if( item != null )
+            addToInventory( item );
+    }
+
+    public void moveItemToInventory( Item item ) {
+        int handle = indexedHandleOf( item );
+        if( handle == IdInterner.NO_HANDLE ) {
+            moveItemToInventory( item.id() );
+            return;
+        }
+        if( inInventory.get( handle ) )
+            return;
+        removeItemFromIndexedLocation( handle, item );
         addToInventory( item );
     }
 
     private Item removeItemFromUnknownLocation( String id ) {
-        for( ModelLocation loc : locations.values() ) {
+        for( ModelLocation loc : locationsInOrder ) {
             for( Item item : loc.items() ) {
                 if( item.id().equals( id ) ) {
                     loc.removeItem( item );
@@ -221,4 +605,3 @@ public class BasicModel implements TextAdventureModel, UserInventory {
         return null;
     }
 }
-
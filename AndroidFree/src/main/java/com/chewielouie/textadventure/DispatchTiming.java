@@ -0,0 +1,43 @@
+package com.chewielouie.textadventure;
+
+// How many events a ModelEventBus has delivered to one subscriber and how
+// long the subscriber took over them.
+public class DispatchTiming {
+    private final ModelEventSubscriber subscriber;
+    private int deliveries = 0;
+    private long totalNanos = 0;
+    private long maximumNanos = 0;
+
+    public DispatchTiming( ModelEventSubscriber subscriber ) {
+        this.subscriber = subscriber;
+    }
+
+    void record( long nanos ) {
+        deliveries++;
+        totalNanos += nanos;
+        if( nanos > maximumNanos )
+            maximumNanos = nanos;
+    }
+
+    public ModelEventSubscriber subscriber() {
+        return subscriber;
+    }
+
+    public int deliveries() {
+        return deliveries;
+    }
+
+    public long totalNanos() {
+        return totalNanos;
+    }
+
+    public long maximumNanos() {
+        return maximumNanos;
+    }
+
+    @Override
+    public String toString() {
+        return subscriber.getClass().getName() + ": " + deliveries + " events in " +
+               totalNanos / 1000 + "us, longest " + maximumNanos / 1000 + "us";
+    }
+}
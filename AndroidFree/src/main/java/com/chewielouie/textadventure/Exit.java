@@ -1,6 +1,7 @@
 package com.chewielouie.textadventure;
 
 import com.chewielouie.textadventure.itemaction.ItemAction;
+import java.util.List;
 
 public interface Exit {
     public enum DirectionHint { DontCare, North, South, East, West };
@@ -16,6 +17,7 @@ public interface Exit {
     public String id();
     public void setID( String id );
     public void addOnUseAction( ItemAction action );
+    public List<ItemAction> actions();
     public void use();
 }
 
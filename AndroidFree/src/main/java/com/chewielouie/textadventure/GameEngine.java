@@ -0,0 +1,47 @@
+package com.chewielouie.textadventure;
+
+import com.chewielouie.textadventure.serialisation.BinaryWorldCompiler;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Runs games without the Android activity. The world content is parsed
+// once, into a WorldTemplate, and each new session is populated from that.
+// Changes given to a session without waiting for them are run by the
+// engine's executor, which by default is a pool shared by every engine.
+public class GameEngine {
+    private static ExecutorService sharedExecutor = null;
+    private final WorldTemplate world;
+    private final Executor executor;
+
+    public GameEngine( String modelContent ) {
+        this( modelContent, sharedExecutor() );
+    }
+
+    public GameEngine( String modelContent, Executor executor ) {
+        this.executor = executor;
+        try {
+            this.world = new WorldTemplate( new BinaryWorldCompiler().compile( modelContent ) );
+        } catch( IOException e ) {
+            throw new IllegalStateException( "Cannot load compiled world", e );
+        }
+    }
+
+    public GameSession newSession() {
+        return new GameSession( world, executor );
+    }
+
+    private static synchronized Executor sharedExecutor() {
+        if( sharedExecutor == null )
+            sharedExecutor = Executors.newCachedThreadPool( new ThreadFactory() {
+                public Thread newThread( Runnable r ) {
+                    Thread thread = new Thread( r, "game-session-writer" );
+                    thread.setDaemon( true );
+                    return thread;
+                }
+            } );
+        return sharedExecutor;
+    }
+}
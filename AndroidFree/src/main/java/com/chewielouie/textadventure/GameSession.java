@@ -0,0 +1,283 @@
+package com.chewielouie.textadventure;
+
+import com.chewielouie.textadventure.action.Action;
+import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.CompactActionHistory;
+import com.chewielouie.textadventure.action.RecordableActionFactory;
+import com.chewielouie.textadventure.action.UserActionFactory;
+import com.chewielouie.textadventure.serialisation.ActionHistoryCompactor;
+import com.chewielouie.textadventure.serialisation.ActionHistoryDeserialiser;
+import com.chewielouie.textadventure.serialisation.ActionHistorySerialiser;
+import com.chewielouie.textadventure.serialisation.ModelStateDeserialiser;
+import com.chewielouie.textadventure.serialisation.ModelStateSerialiser;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+// One player's game: a model, its action history and a presenter, with
+// what the presenter shows captured as a ViewState instead of being drawn.
+// Sessions share nothing mutable, so any number can run at once.
+//
+// A session may be driven from any thread, but only its writer, a
+// SerialExecutor, ever touches the game: every change is a task run on it,
+// in the order given. After each change the writer publishes a
+// SessionSnapshot, so reading what a session shows never waits for a
+// change being made, however long a replay or restore takes.
+public class GameSession {
+    private final WorldTemplate world;
+    private final SerialExecutor writer;
+    private volatile SessionSnapshot published;
+    private BasicModel model;
+    private ActionHistory actionHistory;
+    private ActionFactory actionFactory;
+    private TextAdventurePresenter presenter;
+    private CapturedView view;
+
+    private class CapturedView implements TextAdventureView {
+        String mainText = "";
+        String availableItemsText = "";
+        String areaName = "";
+        List<Exit> exits = new ArrayList<Exit>();
+        List<Action> actions = new ArrayList<Action>();
+        int currentScore = 0;
+        int maximumScore = 0;
+
+        public void showMainText( String s ) {
+            mainText = s;
+        }
+
+        public void showAvailableItemsText( String s ) {
+            availableItemsText = s;
+        }
+
+        public void showLocationExits( List<Exit> exits ) {
+            this.exits = new ArrayList<Exit>( exits );
+        }
+
+        public void showAreaName( String s ) {
+            areaName = s;
+        }
+
+        public void setActions( List<Action> actions ) {
+            this.actions = new ArrayList<Action>( actions );
+        }
+
+        public void currentScore( int score ) {
+            currentScore = score;
+        }
+
+        public void maximumScore( int score ) {
+            maximumScore = score;
+        }
+    }
+
+    GameSession( WorldTemplate world, Executor executor ) {
+        this.world = world;
+        this.writer = new SerialExecutor( executor );
+        writer.call( new Change() {
+            void make() {
+                startNewGame();
+                presenter.render();
+            }
+        } );
+    }
+
+    // A change to the game, after which a new snapshot is published.
+    private abstract class Change implements Callable<ViewState> {
+        abstract void make();
+
+        public ViewState call() {
+            make();
+            return publish().viewState();
+        }
+    }
+
+    private void startNewGame() {
+        actionHistory = new CompactActionHistory();
+        actionFactory = new RecordableActionFactory( new UserActionFactory(), actionHistory );
+        model = world.newModel();
+        world.populate( model, actionFactory );
+        view = new CapturedView();
+        presenter = new TextAdventurePresenter( view, model, model, actionFactory );
+    }
+
+    private SessionSnapshot publish() {
+        List<String> exitLabels = new ArrayList<String>();
+        for( Exit exit : view.exits )
+            exitLabels.add( exit.label() );
+        List<String> actionLabels = new ArrayList<String>();
+        for( Action action : view.actions )
+            actionLabels.add( action.label() );
+        ViewState state = new ViewState( view.mainText, view.availableItemsText, view.areaName,
+                                         exitLabels, actionLabels,
+                                         view.currentScore, view.maximumScore );
+        published = new SessionSnapshot( state, presenter.inAnActionChain(),
+                                         model.stateDigest(), actionHistory.size() );
+        return published;
+    }
+
+    // The session as it was after the last change made to it.
+    public SessionSnapshot snapshot() {
+        return published;
+    }
+
+    public ViewState viewState() {
+        return published.viewState();
+    }
+
+    // Enacts one of the actions on offer, by its position in
+    // ViewState.actionLabels().
+    public ViewState enact( int actionIndex ) {
+        return writer.call( enactment( actionIndex ) );
+    }
+
+    // As enact() but returns at once. The actions on offer are those when
+    // the enactment is run, after any changes given before it.
+    public Future<ViewState> enactLater( int actionIndex ) {
+        return writer.submit( enactment( actionIndex ) );
+    }
+
+    private Change enactment( final int actionIndex ) {
+        return new Change() {
+            void make() {
+                if( actionIndex < 0 || actionIndex >= view.actions.size() )
+                    throw new IndexOutOfBoundsException( "No action " + actionIndex +
+                        " of " + view.actions.size() + " available" );
+                presenter.enact( view.actions.get( actionIndex ) );
+            }
+        };
+    }
+
+    // Moves through one of the exits shown, by its position in
+    // ViewState.exitLabels().
+    public ViewState useExit( int exitIndex ) {
+        return writer.call( exitUse( exitIndex ) );
+    }
+
+    public Future<ViewState> useExitLater( int exitIndex ) {
+        return writer.submit( exitUse( exitIndex ) );
+    }
+
+    private Change exitUse( final int exitIndex ) {
+        return new Change() {
+            void make() {
+                if( exitIndex < 0 || exitIndex >= view.exits.size() )
+                    throw new IndexOutOfBoundsException( "No exit " + exitIndex +
+                        " of " + view.exits.size() + " available" );
+                presenter.enact( actionFactory.createExitAction( view.exits.get( exitIndex ), model ) );
+            }
+        };
+    }
+
+    public ViewState cancelActionChain() {
+        return writer.call( new Change() {
+            void make() {
+                presenter.cancelActionChain();
+            }
+        } );
+    }
+
+    public boolean inAnActionChain() {
+        return published.inAnActionChain();
+    }
+
+    // Plays a saved action history, as given by serialisedActionHistory().
+    public ViewState replay( final String serialisedHistory ) {
+        return writer.call( new Change() {
+            void make() {
+                presenter.replay( new ActionHistoryDeserialiser( actionFactory, model, model )
+                                      .deserialise( serialisedHistory ) );
+            }
+        } );
+    }
+
+    // As replay( String ) but plays each action as it is read, so the whole
+    // history is never held. The input is not closed.
+    public ViewState replay( final InputStream serialisedHistory ) {
+        return writer.call( new Change() {
+            void make() {
+                presenter.replay( new ActionHistoryDeserialiser( actionFactory, model, model )
+                                      .stream( serialisedHistory ) );
+            }
+        } );
+    }
+
+    // The model state now, with the action history that led to it.
+    public String checkpoint() {
+        return writer.call( checkpointing() );
+    }
+
+    // As checkpoint() but returns at once, so that a save can be made
+    // without waiting. It holds every change given before it.
+    public Future<String> checkpointLater() {
+        return writer.submit( checkpointing() );
+    }
+
+    private Callable<String> checkpointing() {
+        return new Callable<String>() {
+            public String call() {
+                ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+                serialiser.setActionHistory( actionHistory );
+                return serialiser.serialise();
+            }
+        };
+    }
+
+    // Restores a new session to a checkpoint(). If the checkpoint's model
+    // state is not valid its action history is replayed from the start
+    // instead, as it is on a new game if the restored model does not have
+    // the state digest saved with it. Actions since the checkpoint can then
+    // be given to replay().
+    public ViewState restore( final String checkpoint ) {
+        return writer.call( new Change() {
+            void make() {
+                ActionHistoryDeserialiser deserialiser =
+                    new ActionHistoryDeserialiser( actionFactory, model, model );
+                ModelStateDeserialiser d = new ModelStateDeserialiser( model, model );
+                if( d.restoreWithActionHistory( checkpoint, deserialiser, actionHistory ) == false ) {
+                    actionHistory.clear();
+                    presenter.replay( deserialiser.deserialise( d.actionHistoryContent() ) );
+                } else if( d.restoredStateMatchesDigest() == false ) {
+                    startNewGame();
+                    presenter.replay( new ActionHistoryDeserialiser( actionFactory, model, model )
+                                          .deserialise( d.actionHistoryContent() ) );
+                }
+                presenter.render();
+            }
+        } );
+    }
+
+    // Two sessions in the same state have the same digest, however they
+    // got there.
+    public long stateDigest() {
+        return published.stateDigest();
+    }
+
+    // Removes the actions that change nothing from the history, so that it
+    // saves smaller and replays sooner. Returns how many were removed.
+    public int compactActionHistory() {
+        return writer.call( new Callable<Integer>() {
+            public Integer call() {
+                int removed = new ActionHistoryCompactor().compact( actionHistory );
+                publish();
+                return removed;
+            }
+        } );
+    }
+
+    public String serialisedActionHistory() {
+        return writer.call( new Callable<String>() {
+            public String call() {
+                return new ActionHistorySerialiser( actionHistory ).serialise();
+            }
+        } );
+    }
+
+    public int actionHistorySize() {
+        return published.actionHistorySize();
+    }
+}
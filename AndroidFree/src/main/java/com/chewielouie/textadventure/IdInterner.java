@@ -0,0 +1,66 @@
+package com.chewielouie.textadventure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Gives each distinct ID a small int handle, counting up from 0, so state
+// about the things IDs name can be kept in arrays indexed by handle. An
+// interner made from a parent knows all of the parent's handles without
+// copying them and numbers new IDs on from there. A parent must not be
+// given new IDs once it has children. Looking an ID up hashes it against
+// the parent first, and against the child only if the parent lacks it and
+// the child has IDs of its own.
+public class IdInterner {
+    public static final int NO_HANDLE = -1;
+    private final IdInterner parent;
+    private final int firstHandle;
+    private Map<String,Integer> handles = null;
+    private List<String> ids = null;
+
+    public IdInterner() {
+        this( null );
+    }
+
+    public IdInterner( IdInterner parent ) {
+        this.parent = parent;
+        this.firstHandle = parent == null ? 0 : parent.size();
+    }
+
+    public int handleOf( String id ) {
+        if( parent != null ) {
+            int handle = parent.handleOf( id );
+            if( handle != NO_HANDLE )
+                return handle;
+        }
+        if( handles == null )
+            return NO_HANDLE;
+        Integer handle = handles.get( id );
+        return handle == null ? NO_HANDLE : handle;
+    }
+
+    public int intern( String id ) {
+        int handle = handleOf( id );
+        if( handle != NO_HANDLE )
+            return handle;
+        if( handles == null ) {
+            handles = new HashMap<String,Integer>();
+            ids = new ArrayList<String>();
+        }
+        handle = firstHandle + ids.size();
+        handles.put( id, handle );
+        ids.add( id );
+        return handle;
+    }
+
+    public String idOf( int handle ) {
+        if( handle < firstHandle )
+            return parent.idOf( handle );
+        return ids.get( handle - firstHandle );
+    }
+
+    public int size() {
+        return firstHandle + (ids == null ? 0 : ids.size());
+    }
+}
@@ -6,7 +6,7 @@ import com.chewielouie.textadventure.action.Action;
 import com.chewielouie.textadventure.action.ActionFactory;
 import com.chewielouie.textadventure.item.Item;
 
-public class Location implements ModelLocation {
+public class Location implements ModelLocation, PublishesModelEvents {
     private static final String there_english = "There";
     private static final String are_english = "are";
     private static final String is_english = "is";
@@ -23,6 +23,7 @@ public class Location implements ModelLocation {
     private int x = 0;
     private int y = 0;
     private String firstEntryText = "";
+    private ModelEventSubscriber eventSubscriber = null;
 
     public Location( String locationId, String description,
             UserInventory inventory, ActionFactory factory ) {
@@ -38,6 +39,32 @@ public class Location implements ModelLocation {
 
     public void addExit( Exit exit ) {
         exits.add( exit );
+        publishModelEventsOf( exit );
+    }
+
+    // Also attaches the subscriber to the exits and items here, and to any
+    // added later.
+    public void publishModelEventsTo( ModelEventSubscriber subscriber ) {
+        this.eventSubscriber = subscriber;
+        for( Exit exit : exits )
+            publishModelEventsOf( exit );
+        for( Item item : items )
+            publishModelEventsOf( item );
+    }
+
+    private void publishModelEventsOf( Object o ) {
+        if( eventSubscriber != null && o instanceof PublishesModelEvents )
+            ((PublishesModelEvents)o).publishModelEventsTo( eventSubscriber );
+    }
+
+    private void publish( ModelEvent.Type type ) {
+        publish( type, null );
+    }
+
+    private void publish( ModelEvent.Type type, Item item ) {
+        if( eventSubscriber != null )
+            eventSubscriber.modelChanged(
+                new ModelEvent( type, id, item == null ? null : item.id() ) );
     }
 
     public boolean exitable( Exit exit ) {
@@ -81,7 +108,10 @@ public class Location implements ModelLocation {
     }
 
     public void setLocationDescription( String description ) {
+        boolean changed = differ( this.description, description );
         this.description = description;
+        if( changed )
+            publish( ModelEvent.Type.LOCATION_DESCRIPTION_CHANGED );
     }
 
     private String itemsPostAmble() {
@@ -128,10 +158,13 @@ public class Location implements ModelLocation {
 
     public void addItem( Item item ) {
         items.add( item );
+        publishModelEventsOf( item );
+        publish( ModelEvent.Type.ITEM_ADDED_TO_LOCATION, item );
     }
 
     public void removeItem( Item item ) {
-        items.remove( item );
+        if( items.remove( item ) )
+            publish( ModelEvent.Type.ITEM_REMOVED_FROM_LOCATION, item );
     }
 
     public List<Item> items() {
@@ -197,7 +230,10 @@ public class Location implements ModelLocation {
     }
 
     public void setTextForFirstEntry( String text ) {
+        boolean changed = differ( this.firstEntryText, text );
         this.firstEntryText = text;
+        if( changed )
+            publish( ModelEvent.Type.LOCATION_FIRST_ENTRY_TEXT_CHANGED );
     }
 
     public String contextualText() {
@@ -205,7 +241,11 @@ public class Location implements ModelLocation {
     }
 
     public void exited() {
-        this.firstEntryText = "";
+        setTextForFirstEntry( "" );
+    }
+
+    private static boolean differ( String a, String b ) {
+        return a == null ? b != null : !a.equals( b );
     }
 }
 
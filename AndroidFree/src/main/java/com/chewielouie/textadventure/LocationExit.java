@@ -3,14 +3,44 @@ package com.chewielouie.textadventure;
 import java.util.ArrayList;
 import java.util.List;
 import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionBinder;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
 
-public class LocationExit implements Exit {
+public class LocationExit implements Exit, PublishesModelEvents {
     private String label = new String();
     private String destination = new String();
     private DirectionHint directionHint = DirectionHint.DontCare;
     private boolean visible = true;
     private String id = "";
-    private List<ItemAction> onUseActions = new ArrayList<ItemAction>();
+    private List<ItemAction> onUseActions;
+    private boolean sharesOnUseActions = false;
+    private ItemActionBinder binder = null;
+    private ModelEventSubscriber eventSubscriber = null;
+
+    public LocationExit() {
+        onUseActions = new ArrayList<ItemAction>();
+    }
+
+    // Makes a new exit in the same state as the template, sharing its use
+    // actions until one is added. Any UnboundItemActions among them are
+    // bound through the factory. The template is only read, so it must
+    // have been told to share them.
+    public LocationExit( LocationExit template, ItemActionFactory actionFactory ) {
+        label = template.label;
+        destination = template.destination;
+        directionHint = template.directionHint;
+        visible = template.visible;
+        id = template.id;
+        onUseActions = template.onUseActions;
+        sharesOnUseActions = true;
+        binder = new ItemActionBinder( actionFactory, null );
+    }
+
+    // Marks the use actions as shared, so that any added to this exit
+    // afterwards go to a copy of them instead.
+    public void shareOnUseActions() {
+        sharesOnUseActions = true;
+    }
 
     public String label() {
         return this.label;
@@ -41,11 +71,23 @@ public class LocationExit implements Exit {
     }
 
     public void setInvisible() {
-        visible = false;
+        setVisibility( false );
     }
 
     public void setVisible() {
-        visible = true;
+        setVisibility( true );
+    }
+
+    private void setVisibility( boolean visible ) {
+        boolean changed = this.visible != visible;
+        this.visible = visible;
+        if( changed && eventSubscriber != null )
+            eventSubscriber.modelChanged(
+                new ModelEvent( ModelEvent.Type.EXIT_VISIBILITY_CHANGED, id ) );
+    }
+
+    public void publishModelEventsTo( ModelEventSubscriber subscriber ) {
+        this.eventSubscriber = subscriber;
     }
 
     public String id() {
@@ -73,12 +115,29 @@ public class LocationExit implements Exit {
     }
 
     public void addOnUseAction( ItemAction action ) {
+        if( sharesOnUseActions ) {
+            onUseActions = new ArrayList<ItemAction>( onUseActions );
+            sharesOnUseActions = false;
+        }
         onUseActions.add( action );
     }
 
     public void use() {
         for( ItemAction action : onUseActions )
-            action.enact();
+            bound( action ).enact();
+    }
+
+    public List<ItemAction> actions() {
+        List<ItemAction> actions = new ArrayList<ItemAction>();
+        for( ItemAction action : onUseActions )
+            actions.add( bound( action ) );
+        return actions;
+    }
+
+    private ItemAction bound( ItemAction action ) {
+        if( binder == null )
+            return action;
+        return binder.bind( action );
     }
 }
 
@@ -0,0 +1,83 @@
+package com.chewielouie.textadventure;
+
+// Something about the model that has changed, and the ID of the item,
+// exit or location it changed on. When the player moves the subject is
+// the location moved to. Score and inventory changes have no subject.
+// When an item is added to or removed from a location, the location is
+// the subject and the item's ID is given too.
+public class ModelEvent {
+    public enum Type {
+        CURRENT_LOCATION_CHANGED,
+        ITEM_VISIBILITY_CHANGED,
+        ITEM_NAME_CHANGED,
+        ITEM_DESCRIPTION_CHANGED,
+        ITEM_USE_CHANGED,
+        ITEM_EXAMINED_CHANGED,
+        ITEM_EXAMINE_TEXT_CHANGED,
+        ITEM_USED_WITH_TEXT_CHANGED,
+        EXIT_VISIBILITY_CHANGED,
+        LOCATION_DESCRIPTION_CHANGED,
+        LOCATION_FIRST_ENTRY_TEXT_CHANGED,
+        ITEM_ADDED_TO_LOCATION,
+        ITEM_REMOVED_FROM_LOCATION,
+        INVENTORY_CHANGED,
+        SCORE_CHANGED
+    };
+
+    private final Type type;
+    private final String subjectID;
+    private final String itemID;
+
+    public ModelEvent( Type type, String subjectID ) {
+        this( type, subjectID, null );
+    }
+
+    public ModelEvent( Type type, String subjectID, String itemID ) {
+        this.type = type;
+        this.subjectID = subjectID;
+        this.itemID = itemID;
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public String subjectID() {
+        return subjectID;
+    }
+
+    public String itemID() {
+        return itemID;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+        if( !(o instanceof ModelEvent) )
+            return false;
+        ModelEvent other = (ModelEvent)o;
+        return type == other.type &&
+               same( subjectID, other.subjectID ) &&
+               same( itemID, other.itemID );
+    }
+
+    private static boolean same( String a, String b ) {
+        return a == null ? b == null : a.equals( b );
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + type.hashCode();
+        result = prime * result + (subjectID == null ? 0 : subjectID.hashCode());
+        result = prime * result + (itemID == null ? 0 : itemID.hashCode());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        if( itemID != null )
+            return type + "(" + subjectID + ", " + itemID + ")";
+        return type + "(" + subjectID + ")";
+    }
+}
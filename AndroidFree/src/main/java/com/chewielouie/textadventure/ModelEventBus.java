@@ -0,0 +1,95 @@
+package com.chewielouie.textadventure;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Delivers the events a model publishes to the subscribers that asked for
+// their type. Between beginBatch() and commitBatch() events are held back
+// and each distinct event is delivered once at the commit, in the order
+// last published, so subscribers see where a replay or a multi-step
+// action ended up rather than every step on the way. Batches nest; only
+// the outermost commit delivers. The time each subscriber spends handling
+// its events is kept in its DispatchTiming.
+public class ModelEventBus {
+    private static class Subscription {
+        private final ModelEventSubscriber subscriber;
+        private final Set<ModelEvent.Type> types;
+        private final DispatchTiming timing;
+
+        Subscription( ModelEventSubscriber subscriber, Set<ModelEvent.Type> types ) {
+            this.subscriber = subscriber;
+            this.types = types;
+            this.timing = new DispatchTiming( subscriber );
+        }
+    }
+
+    private List<Subscription> subscriptions = new ArrayList<Subscription>();
+    private int batchDepth = 0;
+    private Set<ModelEvent> batched = new LinkedHashSet<ModelEvent>();
+
+    // With no types given the subscriber is told of every event.
+    public void subscribe( ModelEventSubscriber subscriber, ModelEvent.Type... types ) {
+        Set<ModelEvent.Type> wanted = EnumSet.allOf( ModelEvent.Type.class );
+        if( types.length > 0 ) {
+            wanted.clear();
+            for( ModelEvent.Type type : types )
+                wanted.add( type );
+        }
+        subscriptions.add( new Subscription( subscriber, wanted ) );
+    }
+
+    public boolean hasSubscribers() {
+        return subscriptions.isEmpty() == false;
+    }
+
+    public void publish( ModelEvent event ) {
+        if( batchDepth > 0 ) {
+            // Moved to the end, so that an event published again is
+            // delivered after those published since it was first.
+            batched.remove( event );
+            batched.add( event );
+        }
+        else
+            deliver( event );
+    }
+
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    public void commitBatch() {
+        if( batchDepth == 0 )
+            throw new IllegalStateException( "No event batch to commit" );
+        if( --batchDepth > 0 || batched.isEmpty() )
+            return;
+        List<ModelEvent> events = new ArrayList<ModelEvent>( batched );
+        batched.clear();
+        for( ModelEvent event : events )
+            deliver( event );
+    }
+
+    public boolean batching() {
+        return batchDepth > 0;
+    }
+
+    private void deliver( ModelEvent event ) {
+        for( int i = 0; i < subscriptions.size(); ++i ) {
+            Subscription s = subscriptions.get( i );
+            if( s.types.contains( event.type() ) ) {
+                long start = System.nanoTime();
+                s.subscriber.modelChanged( event );
+                s.timing.record( System.nanoTime() - start );
+            }
+        }
+    }
+
+    public List<DispatchTiming> timings() {
+        List<DispatchTiming> timings = new ArrayList<DispatchTiming>();
+        for( Subscription s : subscriptions )
+            timings.add( s.timing );
+        return timings;
+    }
+}
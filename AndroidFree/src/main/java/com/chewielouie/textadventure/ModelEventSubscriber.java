@@ -0,0 +1,5 @@
+package com.chewielouie.textadventure;
+
+public interface ModelEventSubscriber {
+    public void modelChanged( ModelEvent event );
+}
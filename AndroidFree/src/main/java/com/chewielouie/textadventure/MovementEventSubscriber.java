@@ -1,5 +0,0 @@
-package com.chewielouie.textadventure;
-
-public interface MovementEventSubscriber {
-    public void currentLocationChanged();
-}
@@ -4,7 +4,6 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import com.chewielouie.textadventure.item.Item;
-import com.chewielouie.textadventure.MovementEventSubscriber;
 
 public class NullModel implements TextAdventureModel {
     public String contextualText() {
@@ -62,6 +61,9 @@ public class NullModel implements TextAdventureModel {
     public void destroyItem( String id ) {
     }
 
+    public void destroyItem( Item item ) {
+    }
+
     public Item findItemByID( String id ) {
         return null;
     }
@@ -80,7 +82,13 @@ public class NullModel implements TextAdventureModel {
     public void setMaximumScore( int score ) {
     }
 
-    public void subscribeForEvents( MovementEventSubscriber subscriber ) {
+    public void subscribeForEvents( ModelEventSubscriber subscriber, ModelEvent.Type... types ) {
+    }
+
+    public void beginEventBatch() {
+    }
+
+    public void commitEventBatch() {
     }
 
     public ModelLocation findLocationByID( String id ) {
@@ -89,4 +97,11 @@ public class NullModel implements TextAdventureModel {
 
     public void moveItemToInventory( String itemID ) {
     }
+
+    public void moveItemToInventory( Item item ) {
+    }
+
+    public long stateDigest() {
+        return 0;
+    }
 }
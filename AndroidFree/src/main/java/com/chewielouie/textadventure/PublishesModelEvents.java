@@ -0,0 +1,7 @@
+package com.chewielouie.textadventure;
+
+// Implemented by the items, exits and locations that tell their model
+// when they change. The model attaches itself as they are added to it.
+public interface PublishesModelEvents {
+    public void publishModelEventsTo( ModelEventSubscriber subscriber );
+}
@@ -0,0 +1,128 @@
+package com.chewielouie.textadventure;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs tasks one at a time, in the order they were given, so that whatever
+// they share needs no locking. Queued tasks are run by the executor given,
+// but a caller waiting on a task when nothing else is queued runs it itself
+// rather than handing it to another thread. Either way only one thread at
+// a time runs tasks, and each task sees everything the ones before it did.
+public class SerialExecutor implements Executor {
+    private final Executor executor;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    // Tasks queued or running. Whoever takes it from zero runs them.
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Thread running = null;
+
+    private final Runnable drain = new Runnable() {
+        public void run() {
+            runUntil( null );
+        }
+    };
+
+    public SerialExecutor( Executor executor ) {
+        this.executor = executor;
+    }
+
+    // Anything thrown by a task given here, Errors included, goes to its
+    // thread's uncaught exception handler, and the tasks after it still
+    // run, so one failing task cannot leave the rest never run.
+    public void execute( Runnable task ) {
+        if( task == null )
+            throw new NullPointerException();
+        tasks.add( task );
+        if( pending.getAndIncrement() == 0 )
+            executor.execute( drain );
+    }
+
+    public <T> Future<T> submit( Callable<T> task ) {
+        FutureTask<T> future = new FutureTask<T>( task );
+        execute( future );
+        return future;
+    }
+
+    // Runs the task after those already given and waits for its result.
+    // Called from a task, it runs at once, as waiting would never end.
+    public <T> T call( Callable<T> task ) {
+        if( inTask() )
+            return callNow( task );
+        if( pending.compareAndSet( 0, 1 ) ) {
+            running = Thread.currentThread();
+            try {
+                return callNow( task );
+            } finally {
+                running = null;
+                if( pending.decrementAndGet() != 0 )
+                    executor.execute( drain );
+            }
+        }
+        FutureTask<T> future = new FutureTask<T>( task );
+        tasks.add( future );
+        if( pending.getAndIncrement() == 0 )
+            runUntil( future );
+        return result( future );
+    }
+
+    public boolean inTask() {
+        return running == Thread.currentThread();
+    }
+
+    private void runUntil( Future<?> done ) {
+        Thread current = Thread.currentThread();
+        do {
+            running = current;
+            try {
+                tasks.poll().run();
+            } catch( Throwable t ) {
+                current.getUncaughtExceptionHandler().uncaughtException( current, t );
+            } finally {
+                running = null;
+            }
+            if( done != null && done.isDone() ) {
+                if( pending.decrementAndGet() != 0 )
+                    executor.execute( drain );
+                return;
+            }
+        } while( pending.decrementAndGet() != 0 );
+    }
+
+    private static <T> T callNow( Callable<T> task ) {
+        try {
+            return task.call();
+        } catch( RuntimeException e ) {
+            throw e;
+        } catch( Exception e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static <T> T result( Future<T> future ) {
+        boolean interrupted = false;
+        try {
+            while( true ) {
+                try {
+                    return future.get();
+                } catch( InterruptedException e ) {
+                    interrupted = true;
+                }
+            }
+        } catch( ExecutionException e ) {
+            Throwable cause = e.getCause();
+            if( cause instanceof RuntimeException )
+                throw (RuntimeException)cause;
+            if( cause instanceof Error )
+                throw (Error)cause;
+            throw new IllegalStateException( cause );
+        } finally {
+            if( interrupted )
+                Thread.currentThread().interrupt();
+        }
+    }
+}
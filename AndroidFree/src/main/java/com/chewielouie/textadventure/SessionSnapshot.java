@@ -0,0 +1,34 @@
+package com.chewielouie.textadventure;
+
+// A session as it was after one of its changes, for anything reading it
+// while it goes on being played: a view, a save, analytics.
+public final class SessionSnapshot {
+    private final ViewState viewState;
+    private final boolean inAnActionChain;
+    private final long stateDigest;
+    private final int actionHistorySize;
+
+    public SessionSnapshot( ViewState viewState, boolean inAnActionChain,
+                            long stateDigest, int actionHistorySize ) {
+        this.viewState = viewState;
+        this.inAnActionChain = inAnActionChain;
+        this.stateDigest = stateDigest;
+        this.actionHistorySize = actionHistorySize;
+    }
+
+    public ViewState viewState() {
+        return viewState;
+    }
+
+    public boolean inAnActionChain() {
+        return inAnActionChain;
+    }
+
+    public long stateDigest() {
+        return stateDigest;
+    }
+
+    public int actionHistorySize() {
+        return actionHistorySize;
+    }
+}
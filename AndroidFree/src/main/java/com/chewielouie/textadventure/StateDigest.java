@@ -0,0 +1,136 @@
+package com.chewielouie.textadventure;
+
+import com.chewielouie.textadventure.item.Item;
+import java.util.HashMap;
+import java.util.Map;
+
+// Hashes single facts about the state of a world to 64 bit values. A model
+// keeps the sum of the hashes of every fact that holds, so that the digest
+// does not depend on the order things happened in and a fact that stops
+// holding can be taken back out by subtracting its hash. Strings are hashed
+// to 64 bits from their characters, not from String.hashCode(), whose 32
+// bits collide for text as short as "Aa" and "BB". Hashing every string a
+// world holds is not free, so a template's digest keeps the hashes of its
+// text for the models copied from it to look up.
+public class StateDigest {
+    static final int CURRENT_LOCATION = 1;
+    static final int SCORE = 2;
+    static final int LOCATION_DESCRIPTION = 3;
+    static final int EXIT_VISIBLE = 4;
+    static final int ITEM_IN_LOCATION = 5;
+    static final int ITEM_IN_INVENTORY = 6;
+    static final int ITEM_NAME = 7;
+    static final int ITEM_DESCRIPTION = 8;
+    static final int ITEM_VISIBLE = 9;
+    static final int ITEM_USED = 10;
+    static final int ITEM_EXAMINED = 11;
+    static final int ITEM_USED_WITH = 12;
+    static final int ITEM_EXAMINE_TEXT = 13;
+    static final int ITEM_USED_WITH_TEXT = 14;
+    static final int LOCATION_FIRST_ENTRY_TEXT = 15;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long NULL_HASH = 0x5bd1e9955bd1e995L;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // The hashes of text hashed here, kept for digests sharing them, or
+    // null if not kept.
+    private final Map<String,Long> recorded;
+    // The hashes of another digest's text, which are only ever read.
+    private final Map<String,Long> shared;
+
+    public StateDigest() {
+        this( null, null );
+    }
+
+    private StateDigest( Map<String,Long> recorded, Map<String,Long> shared ) {
+        this.recorded = recorded;
+        this.shared = shared;
+    }
+
+    public static StateDigest recordingTextHashes() {
+        return new StateDigest( new HashMap<String,Long>(), null );
+    }
+
+    // A digest that looks up the hashes of the text this one has hashed
+    // rather than hashing it again. This one must hash nothing more once
+    // shared, as the lookups are not synchronised.
+    public StateDigest sharingTextHashes() {
+        return new StateDigest( null, recorded != null ? recorded : shared );
+    }
+
+    public long fact( int kind, String subject, String value ) {
+        long h = mix( kind * GOLDEN_GAMMA + hash( subject ) );
+        return mix( h + hash( value ) * GOLDEN_GAMMA );
+    }
+
+    public long fact( int kind, String subject, int value ) {
+        long h = mix( kind * GOLDEN_GAMMA + hash( subject ) );
+        return mix( h ^ (value * GOLDEN_GAMMA) );
+    }
+
+    public long fact( int kind, String subject, boolean value ) {
+        return fact( kind, subject, value ? 1 : 0 );
+    }
+
+    // Everything about an item itself, though not where it is.
+    public long of( Item item ) {
+        String id = item.id();
+        long h = fact( ITEM_NAME, id, item.name() ) +
+                 fact( ITEM_DESCRIPTION, id, item.description() ) +
+                 fact( ITEM_VISIBLE, id, item.visible() ) +
+                 fact( ITEM_USED, id, item.used() ) +
+                 fact( ITEM_EXAMINED, id, item.examined() ) +
+                 fact( ITEM_EXAMINE_TEXT, id, item.examineText() ) +
+                 fact( ITEM_USED_WITH_TEXT, id, item.usedWithText() );
+        for( String withID : item.itemIDsAlreadyUsedWith() )
+            h += fact( ITEM_USED_WITH, id, withID );
+        return h;
+    }
+
+    // Everything about a location itself, though not what it holds.
+    public long of( ModelLocation location ) {
+        String id = location.id();
+        return fact( LOCATION_DESCRIPTION, id, location.description() ) +
+               fact( LOCATION_FIRST_ENTRY_TEXT, id, location.contextualText() );
+    }
+
+    public long of( Exit exit ) {
+        return fact( EXIT_VISIBLE, exit.id(), exit.visible() );
+    }
+
+    private long hash( String s ) {
+        if( s == null )
+            return NULL_HASH;
+        if( shared != null ) {
+            Long h = shared.get( s );
+            if( h != null )
+                return h;
+        }
+        if( recorded == null )
+            return hashOf( s );
+        Long h = recorded.get( s );
+        if( h == null ) {
+            h = hashOf( s );
+            recorded.put( s, h );
+        }
+        return h;
+    }
+
+    // FNV-1a, 64 bits wide, taking a whole character at a time rather
+    // than a byte, as every fact's hash is mixed again afterwards.
+    private static long hashOf( String s ) {
+        long h = FNV_OFFSET_BASIS;
+        for( int i = 0; i < s.length(); ++i )
+            h = (h ^ s.charAt( i )) * FNV_PRIME;
+        return h;
+    }
+
+    // The finaliser of SplitMix64, which spreads every input bit across
+    // the whole result.
+    private static long mix( long h ) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
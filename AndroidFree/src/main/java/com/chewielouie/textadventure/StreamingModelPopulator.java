@@ -0,0 +1,211 @@
+package com.chewielouie.textadventure;
+
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.ItemFactory;
+import com.chewielouie.textadventure.serialisation.ItemDeserialiser;
+import com.chewielouie.textadventure.serialisation.ModelLocationDeserialiser;
+import com.chewielouie.textadventure.serialisation.PlainTextLexer;
+import com.chewielouie.textadventure.serialisation.StreamingItemDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingModelLocationDeserialiser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Populates a model from the same content as PlainTextModelPopulator but
+// reads it with a single forward pass of a PlainTextLexer rather than
+// searching the remaining content for each tag, so the time taken grows
+// linearly with the size of the content.
+//
+// Given an executor, the sections of consecutive locations are found first
+// and then deserialised, along with their exits and items, as separate
+// tasks. The locations are added to the model in the order they appear in
+// the content, so the model is the same as when they are read one by one.
+// This needs a StreamingModelLocationDeserialiser, as it keeps no state
+// between locations; with any other deserialiser locations are read in turn.
+public class StreamingModelPopulator {
+    private final String maximumScoreTag = "maximum score:";
+    private final String locationAreaIdTag = "location area id:";
+    private final String locationAreaNameTag = "location area name:";
+    private TextAdventureModel model = new NullModel();
+    private ModelLocationFactory locationFactory = null;
+    private UserInventory inventory = null;
+    private ItemFactory itemFactory = null;
+    private ModelLocationDeserialiser locationDeserialiser;
+    private ItemDeserialiser itemDeserialiser;
+    private String content;
+    private PlainTextLexer lexer;
+    private ExecutorService executor = null;
+    private List<LocationSection> pendingLocations = new ArrayList<LocationSection>();
+
+    class LocationSection {
+        int start;
+        int end;
+
+        LocationSection( int start, int end ) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public StreamingModelPopulator( TextAdventureModel model,
+                                    ModelLocationFactory locationFactory,
+                                    UserInventory inventory,
+                                    ItemFactory itemFactory,
+                                    ModelLocationDeserialiser d,
+                                    ItemDeserialiser i,
+                                    String content ) {
+        this( model, locationFactory, inventory, itemFactory, d, i, content, null );
+    }
+
+    public StreamingModelPopulator( TextAdventureModel model,
+                                    ModelLocationFactory locationFactory,
+                                    UserInventory inventory,
+                                    ItemFactory itemFactory,
+                                    ModelLocationDeserialiser d,
+                                    ItemDeserialiser i,
+                                    String content,
+                                    ExecutorService executor ) {
+        if( model != null )
+            this.model = model;
+        this.locationFactory = locationFactory;
+        this.inventory = inventory;
+        this.itemFactory = itemFactory;
+        this.locationDeserialiser = d;
+        this.itemDeserialiser = i;
+        this.content = content;
+        this.lexer = new PlainTextLexer( content );
+        if( d instanceof StreamingModelLocationDeserialiser )
+            this.executor = executor;
+
+        while( lexer.next() ) {
+            if( lexer.isSection( PlainTextLexer.LOCATION_SECTION ) )
+                extractLocation();
+            else {
+                extractPendingLocations();
+                if( lexer.isSection( PlainTextLexer.PROPERTIES_SECTION ) )
+                    extractProperties();
+                else if( lexer.isSection( PlainTextLexer.INVENTORY_ITEM_SECTION ) )
+                    extractInventoryItem();
+                else if( lexer.isSection( PlainTextLexer.LOCATION_AREA_SECTION ) )
+                    extractLocationArea();
+            }
+        }
+        extractPendingLocations();
+    }
+
+    private void extractProperties() {
+        String maxScore = null;
+        while( nextLineInSection() )
+            if( maxScore == null && lexer.hasTag( maximumScoreTag ) )
+                maxScore = lexer.valueAfter( maximumScoreTag );
+        if( maxScore != null && maxScore.length() > 0 ) {
+            try {
+                model.setMaximumScore( Integer.parseInt( maxScore ) );
+            } catch( NumberFormatException e ) {
+                System.out.println("Bad number format for maximum score property - '" + maxScore + "'");
+            }
+        }
+    }
+
+    private boolean nextLineInSection() {
+        if( lexer.next() == false )
+            return false;
+        if( lexer.isSectionHeader() ) {
+            lexer.pushBack();
+            return false;
+        }
+        return true;
+    }
+
+    private void extractInventoryItem() {
+        if( itemFactory == null ) {
+            lexer.skipSection();
+            return;
+        }
+        Item item = itemFactory.create();
+        if( itemDeserialiser instanceof StreamingItemDeserialiser )
+            ((StreamingItemDeserialiser)itemDeserialiser).deserialise( item, lexer );
+        else {
+            String content = lexer.skipSection();
+            if( itemDeserialiser != null )
+                itemDeserialiser.deserialise( item, content );
+        }
+        if( inventory != null )
+            inventory.addToInventory( item );
+    }
+
+    private void extractLocationArea() {
+        String id = null;
+        String name = null;
+        while( nextLineInSection() ) {
+            if( id == null && lexer.hasTag( locationAreaIdTag ) )
+                id = lexer.valueAfter( locationAreaIdTag );
+            else if( name == null && lexer.hasTag( locationAreaNameTag ) )
+                name = lexer.valueAfter( locationAreaNameTag );
+        }
+        model.addLocationArea( id == null ? "" : id, name == null ? "" : name );
+    }
+
+    private void extractLocation() {
+        if( locationFactory == null ) {
+            lexer.skipTopLevelSection();
+            return;
+        }
+        if( executor != null ) {
+            int start = lexer.nextLineStart();
+            pendingLocations.add( new LocationSection( start, lexer.skipToEndOfTopLevelSection() ) );
+            return;
+        }
+        ModelLocation l = locationFactory.create();
+        if( locationDeserialiser instanceof StreamingModelLocationDeserialiser )
+            ((StreamingModelLocationDeserialiser)locationDeserialiser).deserialise( l, lexer );
+        else {
+            String content = lexer.skipTopLevelSection();
+            if( locationDeserialiser != null )
+                locationDeserialiser.deserialise( l, content );
+        }
+        model.addLocation( l );
+    }
+
+    private void extractPendingLocations() {
+        if( pendingLocations.isEmpty() )
+            return;
+        List<Future<ModelLocation>> locations = new ArrayList<Future<ModelLocation>>();
+        for( LocationSection section : pendingLocations )
+            locations.add( executor.submit( locationTask( section ) ) );
+        pendingLocations.clear();
+        for( Future<ModelLocation> location : locations )
+            model.addLocation( waitFor( location ) );
+    }
+
+    private Callable<ModelLocation> locationTask( final LocationSection section ) {
+        final StreamingModelLocationDeserialiser deserialiser =
+            (StreamingModelLocationDeserialiser)locationDeserialiser;
+        return new Callable<ModelLocation>() {
+            public ModelLocation call() {
+                ModelLocation l = locationFactory.create();
+                deserialiser.deserialise( l,
+                    new PlainTextLexer( content, section.start, section.end ) );
+                return l;
+            }
+        };
+    }
+
+    private ModelLocation waitFor( Future<ModelLocation> location ) {
+        try {
+            return location.get();
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( e );
+        } catch( ExecutionException e ) {
+            if( e.getCause() instanceof RuntimeException )
+                throw (RuntimeException)e.getCause();
+            if( e.getCause() instanceof Error )
+                throw (Error)e.getCause();
+            throw new IllegalStateException( e.getCause() );
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import com.chewielouie.textadventure.item.Item;
-import com.chewielouie.textadventure.MovementEventSubscriber;
 
 public interface TextAdventureModel {
     public String contextualText();
@@ -22,13 +21,18 @@ public interface TextAdventureModel {
     public Collection<ModelLocation> locations();
     public Exit findExitByID( String id );
     public void destroyItem( String id );
+    public void destroyItem( Item item );
     public Item findItemByID( String id );
     public int currentScore();
     public int maximumScore();
     public void setCurrentScore( int score );
     public void setMaximumScore( int score );
-    public void subscribeForEvents( MovementEventSubscriber subscriber );
+    public void subscribeForEvents( ModelEventSubscriber subscriber, ModelEvent.Type... types );
+    public void beginEventBatch();
+    public void commitEventBatch();
     public ModelLocation findLocationByID( String id );
     public void moveItemToInventory( String itemID );
+    public void moveItemToInventory( Item item );
+    public long stateDigest();
 }
 
@@ -6,13 +6,20 @@ import com.chewielouie.textadventure.action.Action;
 import com.chewielouie.textadventure.action.ActionFactory;
 import com.chewielouie.textadventure.action.TakeAnItem;
 
-public class TextAdventurePresenter implements RendersView, UserActionHandler, MovementEventSubscriber {
+public class TextAdventurePresenter implements RendersView, UserActionHandler,
+                                               ModelEventSubscriber {
     private final TextAdventureView view;
     private final TextAdventureModel model;
     private List<Action> defaultActions = new ArrayList<Action>();
     private String actionText = "";
     private boolean inAnActionChain = false;
     private boolean enableViewUpdates = true;
+    private boolean replaying = false;
+    private boolean mainTextDirty = true;
+    private boolean itemsTextDirty = true;
+    private boolean exitsDirty = true;
+    private boolean areaNameDirty = true;
+    private boolean scoreDirty = true;
 
     public TextAdventurePresenter( TextAdventureView v,
            TextAdventureModel m, UserInventory inventory,
@@ -26,10 +33,19 @@ public class TextAdventurePresenter implements RendersView, UserActionHandler, M
     }
 
     public void render() {
+        markAllDirty();
         resetActionsToStartOfChain();
         updateView();
     }
 
+    private void markAllDirty() {
+        mainTextDirty = true;
+        itemsTextDirty = true;
+        exitsDirty = true;
+        areaNameDirty = true;
+        scoreDirty = true;
+    }
+
     public void disableViewUpdates() {
         enableViewUpdates = false;
     }
@@ -38,14 +54,23 @@ public class TextAdventurePresenter implements RendersView, UserActionHandler, M
         enableViewUpdates = true;
     }
 
+    // Only the parts of the view whose content may have changed since they
+    // were last shown are recomputed and pushed.
     private void updateView() {
         if( enableViewUpdates ) {
-            view.showMainText( assembleMainText() );
-            view.showAvailableItemsText( model.availableItemsText() );
-            view.showLocationExits( model.currentLocationExits() );
-            view.showAreaName( model.currentLocationAreaName() );
-            view.currentScore( model.currentScore() );
-            view.maximumScore( model.maximumScore() );
+            if( mainTextDirty )
+                view.showMainText( assembleMainText() );
+            if( itemsTextDirty )
+                view.showAvailableItemsText( model.availableItemsText() );
+            if( exitsDirty )
+                view.showLocationExits( model.currentLocationExits() );
+            if( areaNameDirty )
+                view.showAreaName( model.currentLocationAreaName() );
+            if( scoreDirty ) {
+                view.currentScore( model.currentScore() );
+                view.maximumScore( model.maximumScore() );
+            }
+            mainTextDirty = itemsTextDirty = exitsDirty = areaNameDirty = scoreDirty = false;
         }
     }
 
@@ -73,13 +98,21 @@ public class TextAdventurePresenter implements RendersView, UserActionHandler, M
         }
     }
 
+    // The model's events are batched while the action is triggered, so
+    // the view is updated once for all it changed.
     public void enact( Action action ) {
-        action.trigger();
+        beginEventBatch();
+        try {
+            action.trigger();
+        } finally {
+            commitEventBatch();
+        }
 
         if( action.userTextAvailable() ) {
             if( actionText != "" )
                 actionText += "\n";
             actionText += action.userText() + "\n";
+            mainTextDirty = true;
         }
 
         if( action.userMustChooseFollowUpAction() )
@@ -90,6 +123,32 @@ public class TextAdventurePresenter implements RendersView, UserActionHandler, M
         updateView();
     }
 
+    // Applies recorded actions to the model without any of the work done
+    // for a player: no action text is kept, no actions are offered and the
+    // view is rendered once, at the end, as if freshly arrived.
+    public void replay( Iterable<Action> actions ) {
+        replaying = true;
+        beginEventBatch();
+        try {
+            for( Action action : actions )
+                action.trigger();
+        } finally {
+            commitEventBatch();
+            replaying = false;
+        }
+        resetAndRender();
+    }
+
+    private void beginEventBatch() {
+        if( model != null )
+            model.beginEventBatch();
+    }
+
+    private void commitEventBatch() {
+        if( model != null )
+            model.commitEventBatch();
+    }
+
     private void continueActionChain( Action action ) {
         inAnActionChain = true;
         if( enableViewUpdates )
@@ -113,8 +172,39 @@ public class TextAdventurePresenter implements RendersView, UserActionHandler, M
         render();
     }
 
-    public void currentLocationChanged() {
-        resetAndRender();
+    public void modelChanged( ModelEvent event ) {
+        switch( event.type() ) {
+            case CURRENT_LOCATION_CHANGED:
+                if( replaying == false )
+                    resetAndRender();
+                break;
+            case ITEM_VISIBILITY_CHANGED:
+            case ITEM_NAME_CHANGED:
+                itemsTextDirty = true;
+                break;
+            case ITEM_ADDED_TO_LOCATION:
+            case ITEM_REMOVED_FROM_LOCATION:
+                if( isCurrentLocation( event.subjectID() ) )
+                    itemsTextDirty = true;
+                break;
+            case LOCATION_DESCRIPTION_CHANGED:
+                if( isCurrentLocation( event.subjectID() ) )
+                    mainTextDirty = true;
+                break;
+            case EXIT_VISIBILITY_CHANGED:
+                exitsDirty = true;
+                break;
+            case SCORE_CHANGED:
+                scoreDirty = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private boolean isCurrentLocation( String id ) {
+        ModelLocation location = model.currentLocation();
+        return location == null || location.id() == null || location.id().equals( id );
     }
 
     public void clearDefaultActions() {
@@ -6,5 +6,6 @@ public interface UserActionHandler {
     public void enact( Action action );
     public boolean inAnActionChain();
     public void cancelActionChain();
+    public void replay( Iterable<Action> actions );
 }
 
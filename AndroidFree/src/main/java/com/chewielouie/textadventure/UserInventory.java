@@ -6,6 +6,7 @@ import com.chewielouie.textadventure.item.Item;
 public interface UserInventory {
     public List<Item> inventoryItems();
     public void addToInventory( Item item );
+    public void removeFromInventory( Item item );
 }
 
 
@@ -0,0 +1,57 @@
+package com.chewielouie.textadventure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// What a view would be showing after an action, as plain values so it can
+// be handed to another thread or sent to a client.
+public class ViewState {
+    private final String mainText;
+    private final String availableItemsText;
+    private final String areaName;
+    private final List<String> exitLabels;
+    private final List<String> actionLabels;
+    private final int currentScore;
+    private final int maximumScore;
+
+    public ViewState( String mainText, String availableItemsText, String areaName,
+                      List<String> exitLabels, List<String> actionLabels,
+                      int currentScore, int maximumScore ) {
+        this.mainText = mainText;
+        this.availableItemsText = availableItemsText;
+        this.areaName = areaName;
+        this.exitLabels = Collections.unmodifiableList( new ArrayList<String>( exitLabels ) );
+        this.actionLabels = Collections.unmodifiableList( new ArrayList<String>( actionLabels ) );
+        this.currentScore = currentScore;
+        this.maximumScore = maximumScore;
+    }
+
+    public String mainText() {
+        return mainText;
+    }
+
+    public String availableItemsText() {
+        return availableItemsText;
+    }
+
+    public String areaName() {
+        return areaName;
+    }
+
+    public List<String> exitLabels() {
+        return exitLabels;
+    }
+
+    public List<String> actionLabels() {
+        return actionLabels;
+    }
+
+    public int currentScore() {
+        return currentScore;
+    }
+
+    public int maximumScore() {
+        return maximumScore;
+    }
+}
@@ -0,0 +1,138 @@
+package com.chewielouie.textadventure;
+
+import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.NormalItem;
+import com.chewielouie.textadventure.item.NormalItemFactory;
+import com.chewielouie.textadventure.itemaction.CopyingItemActionFactory;
+import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import com.chewielouie.textadventure.itemaction.ItemActionLinker;
+import com.chewielouie.textadventure.itemaction.NormalItemActionFactory;
+import com.chewielouie.textadventure.itemaction.UnboundItemAction;
+import com.chewielouie.textadventure.itemaction.UnboundItemActionFactory;
+import com.chewielouie.textadventure.serialisation.BinaryWorldLoader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// A world loaded once and never played, from which any number of games
+// can be populated. Each game gets its own locations, exits and items, so
+// it has its own visibility, names, descriptions, contents and used and
+// examined flags, but the authored text, talk phrases and item actions
+// they hold are shared with the template rather than parsed again.
+public class WorldTemplate {
+
+    private static class TemplateModel extends BasicModel {
+        private Map<String,String> areaNames = new LinkedHashMap<String,String>();
+
+        TemplateModel() {
+            super( StateDigest.recordingTextHashes() );
+        }
+
+        @Override
+        public void addLocationArea( String id, String name ) {
+            super.addLocationArea( id, name );
+            areaNames.put( id, name );
+        }
+    }
+
+    private final TemplateModel world = new TemplateModel();
+    // Each item action in the world, parsed once, by its content.
+    private final Map<String, ItemAction> parsedActions = new HashMap<String, ItemAction>();
+
+    // Refuses a world with item actions that refer to something not in it.
+    public WorldTemplate( byte[] worldImage ) throws IOException {
+        new BinaryWorldLoader( world,
+            new LocationFactory( world, null ),
+            world,
+            new NormalItemFactory(),
+            new LocationExitFactory(),
+            new UnboundItemActionFactory() )
+            .load( new ByteArrayInputStream( worldImage ) );
+        prepareForSharing();
+        checkReferences( new ItemActionLinker( world,
+            new CopyingItemActionFactory( parsedActions, world ) ).link() );
+    }
+
+    private static void checkReferences( List<String> unresolvedReferences )
+        throws IOException {
+        if( unresolvedReferences.isEmpty() )
+            return;
+        StringBuilder message = new StringBuilder( "World content error:" );
+        for( String reference : unresolvedReferences )
+            message.append( "\n" ).append( reference );
+        throw new IOException( message.toString() );
+    }
+
+    // Compiles the talk phrases of every item, parses every item action and
+    // marks what the items and exits hold as shared before any game is
+    // made, so that the games populated from the template, on whatever
+    // threads, only ever read it.
+    private void prepareForSharing() {
+        for( Item item : world.inventoryItems() )
+            prepareForSharing( (NormalItem)item );
+        for( ModelLocation location : world.locations() ) {
+            for( Item item : location.items() )
+                prepareForSharing( (NormalItem)item );
+            for( Exit exit : location.exitsIncludingInvisibleOnes() ) {
+                parse( exit.actions() );
+                ((LocationExit)exit).shareOnUseActions();
+            }
+        }
+    }
+
+    private void prepareForSharing( NormalItem item ) {
+        item.dialogue();
+        parse( item.allActions() );
+        item.shareAuthored();
+    }
+
+    private void parse( List<ItemAction> actions ) {
+        ItemActionFactory parser = new NormalItemActionFactory( world );
+        for( ItemAction action : actions ) {
+            if( action instanceof UnboundItemAction == false )
+                continue;
+            String content = ((UnboundItemAction)action).content();
+            if( parsedActions.containsKey( content ) == false )
+                parsedActions.put( content, parser.create( content, null ) );
+        }
+    }
+
+    // A model to populate, which shares the template's ID handles.
+    public BasicModel newModel() {
+        return world.emptyModelSharingHandles();
+    }
+
+    public void populate( BasicModel model, ActionFactory actionFactory ) {
+        ItemActionFactory itemActionFactory = new CopyingItemActionFactory( parsedActions, model );
+        model.setMaximumScore( world.maximumScore() );
+        for( Map.Entry<String,String> area : world.areaNames.entrySet() )
+            model.addLocationArea( area.getKey(), area.getValue() );
+        for( ModelLocation template : world.locations() )
+            model.addLocation( copyOf( template, model, actionFactory, itemActionFactory ) );
+        for( Item item : world.inventoryItems() )
+            model.addToInventory( new NormalItem( (NormalItem)item, itemActionFactory ) );
+        // The template's references have all been found, so the game's will be.
+        new ItemActionLinker( model, itemActionFactory ).link();
+    }
+
+    private ModelLocation copyOf( ModelLocation template, BasicModel model,
+                                  ActionFactory actionFactory,
+                                  ItemActionFactory itemActionFactory ) {
+        Location location = new Location( template.id(), template.description(),
+                                          model, actionFactory );
+        location.setAreaID( template.areaID() );
+        location.setX( template.x() );
+        location.setY( template.y() );
+        location.setTextForFirstEntry( template.contextualText() );
+        for( Exit exit : template.exitsIncludingInvisibleOnes() )
+            location.addExit( new LocationExit( (LocationExit)exit, itemActionFactory ) );
+        for( Item item : template.items() )
+            location.addItem( new NormalItem( (NormalItem)item, itemActionFactory ) );
+        return location;
+    }
+}
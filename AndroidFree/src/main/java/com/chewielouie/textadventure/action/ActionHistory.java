@@ -5,4 +5,7 @@ public interface ActionHistory {
     public int size();
     public ActionRecord getRecord( int index );
     public void clear();
+    // A copy of the history as it is now that later changes to the history
+    // do not affect, so it can be saved on another thread.
+    public ActionHistory snapshot();
 }
@@ -40,6 +40,15 @@ public class ActionParameters {
         this.item = item;
     }
 
+    public ActionParameters( String string, Item item, Item extraItem,
+                             Exit exit, ModelLocation location ) {
+        this.string = string;
+        this.item = item;
+        this.extraItem = extraItem;
+        this.exit = exit;
+        this.location = location;
+    }
+
     public Item item() {
         return item;
     }
@@ -21,4 +21,10 @@ public class BasicActionHistory implements ActionHistory {
     public void clear() {
         history.clear();
     }
+
+    public ActionHistory snapshot() {
+        BasicActionHistory snapshot = new BasicActionHistory();
+        snapshot.history.addAll( history );
+        return snapshot;
+    }
 }
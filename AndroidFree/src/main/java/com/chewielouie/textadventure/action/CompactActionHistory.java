@@ -0,0 +1,209 @@
+package com.chewielouie.textadventure.action;
+
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.item.Item;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// An ActionHistory that keeps only what is needed to save each action: its
+// name and its parameters. Each distinct name, string, item, exit and
+// location is kept once in a table and every record is a row across int
+// columns indexing into those, so the actions themselves, and all the
+// follow-up actions they made, are not held on to. Records are rebuilt
+// when asked for, around a stand-in action that only knows its name.
+public class CompactActionHistory implements ActionHistory {
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private int size = 0;
+    private int[] names;
+    private int[] strings;
+    private int[] items;
+    private int[] extraItems;
+    private int[] exits;
+    private int[] locations;
+    private Table<String> nameTable = new Table<String>( new HashMap<Object,Integer>() );
+    private Table<String> stringTable = new Table<String>( new HashMap<Object,Integer>() );
+    private Table<Item> itemTable = new Table<Item>( new IdentityHashMap<Object,Integer>() );
+    private Table<Exit> exitTable = new Table<Exit>( new IdentityHashMap<Object,Integer>() );
+    private Table<ModelLocation> locationTable =
+        new Table<ModelLocation>( new IdentityHashMap<Object,Integer>() );
+
+    private static class Table<T> {
+        private Map<Object,Integer> indexes;
+        private List<T> values = new ArrayList<T>();
+
+        Table( Map<Object,Integer> indexes ) {
+            this.indexes = indexes;
+        }
+
+        Table<T> copyInto( Map<Object,Integer> indexes ) {
+            Table<T> copy = new Table<T>( indexes );
+            copy.indexes.putAll( this.indexes );
+            copy.values.addAll( values );
+            return copy;
+        }
+
+        int indexOf( T value ) {
+            if( value == null )
+                return NONE;
+            Integer index = indexes.get( value );
+            if( index == null ) {
+                index = values.size();
+                indexes.put( value, index );
+                values.add( value );
+            }
+            return index;
+        }
+
+        T get( int index ) {
+            return index == NONE ? null : values.get( index );
+        }
+
+        void clear() {
+            indexes.clear();
+            values.clear();
+        }
+    }
+
+    public CompactActionHistory() {
+        allocate( INITIAL_CAPACITY );
+    }
+
+    private CompactActionHistory( CompactActionHistory history ) {
+        size = history.size;
+        int capacity = Math.max( size, 1 );
+        names = Arrays.copyOf( history.names, capacity );
+        strings = Arrays.copyOf( history.strings, capacity );
+        items = Arrays.copyOf( history.items, capacity );
+        extraItems = Arrays.copyOf( history.extraItems, capacity );
+        exits = Arrays.copyOf( history.exits, capacity );
+        locations = Arrays.copyOf( history.locations, capacity );
+        nameTable = history.nameTable.copyInto( new HashMap<Object,Integer>() );
+        stringTable = history.stringTable.copyInto( new HashMap<Object,Integer>() );
+        itemTable = history.itemTable.copyInto( new IdentityHashMap<Object,Integer>() );
+        exitTable = history.exitTable.copyInto( new IdentityHashMap<Object,Integer>() );
+        locationTable = history.locationTable.copyInto( new IdentityHashMap<Object,Integer>() );
+    }
+
+    private void allocate( int capacity ) {
+        names = new int[capacity];
+        strings = new int[capacity];
+        items = new int[capacity];
+        extraItems = new int[capacity];
+        exits = new int[capacity];
+        locations = new int[capacity];
+    }
+
+    public void addActionWithParameters( Action action, ActionParameters params ) {
+        if( size == names.length )
+            grow();
+        names[size] = nameTable.indexOf( action == null ? null : action.name() );
+        if( params == null ) {
+            strings[size] = items[size] = extraItems[size] = NONE;
+            exits[size] = locations[size] = NONE;
+        } else {
+            strings[size] = stringTable.indexOf( params.string() );
+            items[size] = itemTable.indexOf( params.item() );
+            extraItems[size] = itemTable.indexOf( params.extraItem() );
+            exits[size] = exitTable.indexOf( params.exit() );
+            locations[size] = locationTable.indexOf( params.location() );
+        }
+        size++;
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf( names, capacity );
+        strings = Arrays.copyOf( strings, capacity );
+        items = Arrays.copyOf( items, capacity );
+        extraItems = Arrays.copyOf( extraItems, capacity );
+        exits = Arrays.copyOf( exits, capacity );
+        locations = Arrays.copyOf( locations, capacity );
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ActionRecord getRecord( int index ) {
+        if( index < 0 || index >= size )
+            throw new IndexOutOfBoundsException( "No record " + index + " of " + size );
+        String name = nameTable.get( names[index] );
+        return new ActionRecord( name == null ? null : new RecordedAction( name ),
+                                 paramsAt( index ) );
+    }
+
+    private ActionParameters paramsAt( int index ) {
+        if( strings[index] == NONE && items[index] == NONE && extraItems[index] == NONE &&
+            exits[index] == NONE && locations[index] == NONE )
+            return null;
+        return new ActionParameters( stringTable.get( strings[index] ),
+                                     itemTable.get( items[index] ),
+                                     itemTable.get( extraItems[index] ),
+                                     exitTable.get( exits[index] ),
+                                     locationTable.get( locations[index] ) );
+    }
+
+    public void clear() {
+        size = 0;
+        allocate( INITIAL_CAPACITY );
+        nameTable.clear();
+        stringTable.clear();
+        itemTable.clear();
+        exitTable.clear();
+        locationTable.clear();
+    }
+
+    // Copies only the int columns and the tables of distinct values, so is
+    // cheap next to serialising.
+    public ActionHistory snapshot() {
+        return new CompactActionHistory( this );
+    }
+
+    // Stands in for a recorded action so it can be saved. It cannot be
+    // played again.
+    private static class RecordedAction implements Action {
+        private String name;
+
+        RecordedAction( String name ) {
+            this.name = name;
+        }
+
+        public String label() {
+            return name;
+        }
+
+        public void trigger() {
+            throw new IllegalStateException( "Recorded action '" + name + "' cannot be triggered" );
+        }
+
+        public boolean userMustChooseFollowUpAction() {
+            return false;
+        }
+
+        public List<Action> followUpActions() {
+            return new ArrayList<Action>();
+        }
+
+        public boolean userTextAvailable() {
+            return false;
+        }
+
+        public String userText() {
+            return "";
+        }
+
+        public ActionFactory actionFactory() {
+            return null;
+        }
+
+        public String name() {
+            return name;
+        }
+    }
+}
@@ -5,16 +5,13 @@ import java.util.List;
 import com.chewielouie.textadventure.item.Item;
 
 public class ExamineAnItem implements Action {
-    private List<Action> followUpActions = new ArrayList<Action>();
+    private List<Action> followUpActions;
     private List<Item> items = new ArrayList<Item>();
     private ActionFactory actionFactory;
 
     public ExamineAnItem( List<Item> items, ActionFactory factory ) {
         this.items = items;
         this.actionFactory = factory;
-        if( factory != null && items != null )
-            for( Item item : items )
-                followUpActions.add( factory.createExamineAction( item ) );
     }
 
     public ActionFactory actionFactory() {
@@ -37,6 +34,12 @@ public class ExamineAnItem implements Action {
     }
 
     public List<Action> followUpActions() {
+        if( followUpActions == null ) {
+            followUpActions = new ArrayList<Action>();
+            if( actionFactory != null && items != null )
+                for( Item item : items )
+                    followUpActions.add( actionFactory.createExamineAction( item ) );
+        }
         return followUpActions;
     }
 
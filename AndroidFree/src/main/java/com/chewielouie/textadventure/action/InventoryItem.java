@@ -7,7 +7,7 @@ import com.chewielouie.textadventure.ModelLocation;
 import com.chewielouie.textadventure.UserInventory;
 
 public class InventoryItem implements Action {
-    private List<Action> followUpActions = new ArrayList<Action>();
+    private List<Action> followUpActions;
     private Item item;
     private UserInventory inventory;
     private ModelLocation location;
@@ -19,11 +19,6 @@ public class InventoryItem implements Action {
         this.inventory = inventory;
         this.location = location;
         this.actionFactory = factory;
-        if( factory != null && item != null ) {
-            followUpActions.add( factory.createExamineAction( item ) );
-            followUpActions.add(
-                factory.createUseWithAction( item, inventory, location ) );
-        }
     }
 
     public ActionFactory actionFactory() {
@@ -54,6 +49,14 @@ public class InventoryItem implements Action {
     }
 
     public List<Action> followUpActions() {
+        if( followUpActions == null ) {
+            followUpActions = new ArrayList<Action>();
+            if( actionFactory != null && item != null ) {
+                followUpActions.add( actionFactory.createExamineAction( item ) );
+                followUpActions.add(
+                    actionFactory.createUseWithAction( item, inventory, location ) );
+            }
+        }
         return followUpActions;
     }
 
@@ -11,6 +11,7 @@ public class ShowInventory implements Action {
     private UserInventory inventory;
     private ActionFactory actionFactory;
     private List<Item> items = null;
+    private List<Action> followUpActions;
 
     public ShowInventory( UserInventory inventory, TextAdventureModel model,
            ActionFactory factory ) {
@@ -30,6 +31,7 @@ public class ShowInventory implements Action {
     public void trigger() {
         if( inventory != null )
             items = inventory.inventoryItems();
+        followUpActions = null;
     }
 
     public boolean userMustChooseFollowUpAction() {
@@ -37,14 +39,16 @@ public class ShowInventory implements Action {
     }
 
     public List<Action> followUpActions() {
-        List<Action> actions = new ArrayList<Action>();
-        if( actionFactory != null )
-            for( Item item : items )
-                if( item.visible() )
-                    actions.add(
-                        actionFactory.createInventoryItemAction( item, inventory,
-                            (model != null ? model.currentLocation() : null ) ) );
-        return actions;
+        if( followUpActions == null ) {
+            followUpActions = new ArrayList<Action>();
+            if( actionFactory != null )
+                for( Item item : items )
+                    if( item.visible() )
+                        followUpActions.add(
+                            actionFactory.createInventoryItemAction( item, inventory,
+                                (model != null ? model.currentLocation() : null ) ) );
+        }
+        return followUpActions;
     }
 
     public boolean userTextAvailable() {
@@ -8,7 +8,7 @@ import com.chewielouie.textadventure.TextAdventureModel;
 import com.chewielouie.textadventure.UserInventory;
 
 public class TakeAnItem implements Action {
-    private List<Action> followUpActions = new ArrayList<Action>();
+    private List<Action> followUpActions;
     private List<Item> items;
     private UserInventory inventory;
     private ModelLocation location;
@@ -20,10 +20,6 @@ public class TakeAnItem implements Action {
         this.inventory = inventory;
         this.location = location;
         this.actionFactory = factory;
-        if( items != null )
-            for( Item item : items )
-                followUpActions.add( factory.createTakeSpecificItemAction(
-                                                item, inventory, location ) );
     }
 
     public ActionFactory actionFactory() {
@@ -54,6 +50,13 @@ public class TakeAnItem implements Action {
     }
 
     public List<Action> followUpActions() {
+        if( followUpActions == null ) {
+            followUpActions = new ArrayList<Action>();
+            if( items != null )
+                for( Item item : items )
+                    followUpActions.add( actionFactory.createTakeSpecificItemAction(
+                                                    item, inventory, location ) );
+        }
         return followUpActions;
     }
 
@@ -7,7 +7,7 @@ import com.chewielouie.textadventure.ModelLocation;
 import com.chewielouie.textadventure.UserInventory;
 
 public class UseWith implements Action {
-    private List<Action> followUpActions = new ArrayList<Action>();
+    private List<Action> followUpActions;
     private Item item;
     private UserInventory inventory;
     private ModelLocation location;
@@ -19,10 +19,6 @@ public class UseWith implements Action {
         this.inventory = inventory;
         this.location = location;
         this.actionFactory = factory;
-        if( factory != null ) {
-            extractActionsForInventoryItems();
-            extractActionsForLocationItems();
-        }
     }
 
     public ActionFactory actionFactory() {
@@ -69,6 +65,13 @@ public class UseWith implements Action {
     }
 
     public List<Action> followUpActions() {
+        if( followUpActions == null ) {
+            followUpActions = new ArrayList<Action>();
+            if( actionFactory != null ) {
+                extractActionsForInventoryItems();
+                extractActionsForLocationItems();
+            }
+        }
         return followUpActions;
     }
 
@@ -0,0 +1,115 @@
+package com.chewielouie.textadventure.item;
+
+import com.chewielouie.textadventure.itemaction.ItemAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// An item's talk phrases compiled into nodes numbered from 0, each with
+// its short and full text, the response to it, the phrases that follow it
+// and the actions it enacts, all in the order they were authored. It is
+// never changed once made, so the items of every game made from a
+// template share their template's, and walking it allocates nothing.
+// The actions are as authored, so those of a template are unbound.
+public final class DialogueGraph {
+    public static final int NO_NODE = -1;
+
+    private final Map<String, Integer> nodesByID;
+    private final String[] ids;
+    private final String[] shortTexts;
+    private final String[] texts;
+    private final String[] responses;
+    private final int[][] children;
+    private final List<List<String>> childIDs;
+    private final ItemAction[][] actions;
+    private final int[] initialNodes;
+    private final List<String> initialIDs;
+
+    DialogueGraph( String[] ids, String[] shortTexts, String[] texts, String[] responses,
+                   int[][] children, ItemAction[][] actions, int[] initialNodes ) {
+        this.ids = ids;
+        this.shortTexts = shortTexts;
+        this.texts = texts;
+        this.responses = responses;
+        this.children = children;
+        this.actions = actions;
+        this.initialNodes = initialNodes;
+        nodesByID = new HashMap<String, Integer>( ids.length * 2 );
+        for( int node = 0; node < ids.length; ++node )
+            nodesByID.put( ids[node], node );
+        List<List<String>> childIDs = new ArrayList<List<String>>( ids.length );
+        for( int node = 0; node < ids.length; ++node )
+            childIDs.add( idsOf( children[node] ) );
+        this.childIDs = childIDs;
+        initialIDs = idsOf( initialNodes );
+    }
+
+    private List<String> idsOf( int[] nodes ) {
+        if( nodes.length == 0 )
+            return Collections.<String>emptyList();
+        List<String> list = new ArrayList<String>( nodes.length );
+        for( int node : nodes )
+            list.add( ids[node] );
+        return Collections.unmodifiableList( list );
+    }
+
+    public int nodeCount() {
+        return ids.length;
+    }
+
+    // NO_NODE if no phrase has the ID.
+    public int node( String id ) {
+        Integer node = nodesByID.get( id );
+        return node == null ? NO_NODE : node;
+    }
+
+    public String id( int node ) {
+        return ids[node];
+    }
+
+    public String shortText( int node ) {
+        return shortTexts[node];
+    }
+
+    public String text( int node ) {
+        return texts[node];
+    }
+
+    public String response( int node ) {
+        return responses[node];
+    }
+
+    public int childCount( int node ) {
+        return children[node].length;
+    }
+
+    public int child( int node, int index ) {
+        return children[node][index];
+    }
+
+    public List<String> childIDs( int node ) {
+        return childIDs.get( node );
+    }
+
+    public int actionCount( int node ) {
+        return actions[node].length;
+    }
+
+    public ItemAction action( int node, int index ) {
+        return actions[node][index];
+    }
+
+    public int initialNodeCount() {
+        return initialNodes.length;
+    }
+
+    public int initialNode( int index ) {
+        return initialNodes[index];
+    }
+
+    public List<String> initialIDs() {
+        return initialIDs;
+    }
+}
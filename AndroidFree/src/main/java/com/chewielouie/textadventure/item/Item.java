@@ -31,11 +31,16 @@ public interface Item {
     public void addOnUseAction( ItemAction action );
     public void use();
     public List<ItemAction> actions();
+    public List<ItemAction> allActions();
 
     public void setUsedWithTextFor( String withItemID, String text );
     public void setUseIsNotRepeatableFor( String withItemID );
     public void addOnUseActionFor( String withItemID, ItemAction action );
     public String useWith( Item withItem );
+    public boolean used();
+    public void setUsed( boolean used );
+    public List<String> itemIDsAlreadyUsedWith();
+    public void setAlreadyUsedWith( String withItemID );
 
     public void setVisible( boolean visible );
     public boolean visible();
@@ -45,6 +50,8 @@ public interface Item {
     public void setExamineText( String text );
     public void setExamineActionIsNotRepeatable();
     public boolean examineActionIsNotRepeatable();
+    public boolean examined();
+    public void setExamined( boolean examined );
     public boolean canTalkTo();
     public TalkPhraseSource getTalkPhraseSource();
     public TalkPhraseSink getTalkPhraseSink();
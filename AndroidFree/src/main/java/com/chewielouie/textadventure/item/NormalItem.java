@@ -1,81 +1,260 @@
 package com.chewielouie.textadventure.item;
 
+import com.chewielouie.textadventure.ModelEvent;
+import com.chewielouie.textadventure.ModelEventSubscriber;
+import com.chewielouie.textadventure.PublishesModelEvents;
 import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionBinder;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource {
+public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource, PublishesModelEvents {
 
-    private class ItemUseInfo {
-        private final static String itemsAlreadyUsedText = "You have already done that.";
+    private static class ItemUseInfo {
         private Set<ItemAction> actions = new HashSet<ItemAction>();
         private boolean useIsRepeatable = true;
         private String usedWithText = "";
-        private boolean hasBeenUsed = false;
 
-        public void setUsedWithText( String text ) {
-            usedWithText = text;
+        public ItemUseInfo copy() {
+            ItemUseInfo copy = new ItemUseInfo();
+            copy.actions.addAll( actions );
+            copy.useIsRepeatable = useIsRepeatable;
+            copy.usedWithText = usedWithText;
+            return copy;
         }
+    }
 
-        public void setUseIsNotRepeatable() {
-            useIsRepeatable = false;
+    private static class Phrase {
+        private String shortContent;
+        private String content;
+
+        public Phrase( String content ) {
+            this.content = content;
         }
 
-        public void setHasBeenUsed() {
-            hasBeenUsed = true;
+        public Phrase( String shortContent, String content ) {
+            this.shortContent = shortContent;
+            this.content = content;
         }
 
-        public void addOnUseAction( ItemAction action ) {
-            actions.add( action );
+        public String shortContent() {
+            return shortContent;
         }
 
-        public boolean itemCanBeUsedNow() {
-            return !hasBeenUsed || useIsRepeatable;
+        public String content() {
+            return content;
         }
+    }
 
-        public String use() {
-            if( itemCanBeUsedNow() ) {
-                for( ItemAction a : actions )
-                    a.enact();
-                hasBeenUsed = true;
-                return usedWithText;
+    // The parts of an item that come from the world content and that
+    // playing never changes. Items made from a template share these until
+    // one of them is added to.
+    private static class Authored {
+        private Map<String, ItemUseInfo> itemUseInfos = new HashMap<String, ItemUseInfo>();
+        private List<ItemAction> onUseActions = new ArrayList<ItemAction>();
+        private List<ItemAction> onExamineActions = new ArrayList<ItemAction>();
+        private List<String> initialPhraseIds = new ArrayList<String>();
+        private Map<String, Phrase> phrases = new LinkedHashMap<String, Phrase>();
+        private Map<String, Phrase> responses = new LinkedHashMap<String, Phrase>();
+        private Map<String, Set<String>> followUpPhrases = new LinkedHashMap<String, Set<String>>();
+        private Map<String, Set<ItemAction>> phraseActions = new LinkedHashMap<String, Set<ItemAction>>();
+        private DialogueGraph dialogue = null;
+
+        public Authored copy() {
+            Authored copy = new Authored();
+            for( Map.Entry<String, ItemUseInfo> entry : itemUseInfos.entrySet() )
+                copy.itemUseInfos.put( entry.getKey(), entry.getValue().copy() );
+            copy.onUseActions.addAll( onUseActions );
+            copy.onExamineActions.addAll( onExamineActions );
+            copy.initialPhraseIds.addAll( initialPhraseIds );
+            copy.phrases.putAll( phrases );
+            copy.responses.putAll( responses );
+            for( Map.Entry<String, Set<String>> entry : followUpPhrases.entrySet() )
+                copy.followUpPhrases.put( entry.getKey(), new LinkedHashSet<String>( entry.getValue() ) );
+            for( Map.Entry<String, Set<ItemAction>> entry : phraseActions.entrySet() )
+                copy.phraseActions.put( entry.getKey(), new LinkedHashSet<ItemAction>( entry.getValue() ) );
+            return copy;
+        }
+
+        public DialogueGraph dialogue() {
+            if( dialogue == null )
+                dialogue = compileDialogue();
+            return dialogue;
+        }
+
+        // Every phrase ID mentioned anywhere becomes a node, numbered in
+        // the order it is first met.
+        private DialogueGraph compileDialogue() {
+            Map<String, Integer> nodes = new LinkedHashMap<String, Integer>();
+            addNodes( nodes, initialPhraseIds );
+            addNodes( nodes, phrases.keySet() );
+            addNodes( nodes, responses.keySet() );
+            for( Map.Entry<String, Set<String>> entry : followUpPhrases.entrySet() ) {
+                addNode( nodes, entry.getKey() );
+                addNodes( nodes, entry.getValue() );
             }
-            return itemsAlreadyUsedText;
+            addNodes( nodes, phraseActions.keySet() );
+
+            int count = nodes.size();
+            String[] ids = new String[count];
+            String[] shortTexts = new String[count];
+            String[] texts = new String[count];
+            String[] responseTexts = new String[count];
+            int[][] children = new int[count][];
+            ItemAction[][] actions = new ItemAction[count][];
+            for( Map.Entry<String, Integer> entry : nodes.entrySet() ) {
+                String id = entry.getKey();
+                int node = entry.getValue();
+                Phrase phrase = phrases.get( id );
+                Phrase response = responses.get( id );
+                ids[node] = id;
+                shortTexts[node] = phrase == null ? "" : phrase.shortContent();
+                texts[node] = phrase == null ? "" : phrase.content();
+                responseTexts[node] = response == null ? "" : response.content();
+                children[node] = nodesOf( nodes, followUpPhrases.get( id ) );
+                Set<ItemAction> nodeActions = phraseActions.get( id );
+                actions[node] = nodeActions == null ? new ItemAction[0] :
+                                nodeActions.toArray( new ItemAction[nodeActions.size()] );
+            }
+            return new DialogueGraph( ids, shortTexts, texts, responseTexts, children,
+                                      actions, nodesOf( nodes, initialPhraseIds ) );
+        }
+
+        private static void addNodes( Map<String, Integer> nodes, Collection<String> ids ) {
+            for( String id : ids )
+                addNode( nodes, id );
+        }
+
+        private static void addNode( Map<String, Integer> nodes, String id ) {
+            if( nodes.containsKey( id ) == false )
+                nodes.put( id, nodes.size() );
+        }
+
+        private static int[] nodesOf( Map<String, Integer> nodes, Collection<String> ids ) {
+            if( ids == null )
+                return new int[0];
+            int[] result = new int[ids.size()];
+            int i = 0;
+            for( String id : ids )
+                result[i++] = nodes.get( id );
+            return result;
         }
     }
 
     private final static String itemsCannotBeUsedTogetherUsedWithText = "Nothing happens.";
+    private final static String itemsAlreadyUsedText = "You have already done that.";
     private String name = "";
     private String description = "";
     private String countableNounPrefix = "a";
     private String midSentenceCasedName = null;
     private boolean takeable = true;
     private String id = "";
-    private Map<String, ItemUseInfo> itemUseInfos = new HashMap<String, ItemUseInfo>();
     private String canBeUsedWithTargetID;
     private String usedWithText = "";
     private boolean useIsRepeatable = true;
     private boolean used = false;
-    private List<ItemAction> onUseActions = new ArrayList<ItemAction>();
     private boolean visible = true;
-    private List<ItemAction> onExamineActions = new ArrayList<ItemAction>();
     private String examineText = "";
     private boolean examineActionIsRepeatable = true;
     private boolean examined = false;
     private boolean canTalkTo = false;
     private boolean plural = false;
     private boolean properNoun = false;
+    private Set<String> alreadyUsedWithIDs = new HashSet<String>();
+    private Authored authored;
+    private boolean sharesAuthored = false;
+    private ItemActionBinder binder = null;
+    private ModelEventSubscriber eventSubscriber = null;
+
+    public NormalItem() {
+        authored = new Authored();
+    }
+
+    // Makes a new item in the same state as the template, sharing its
+    // authored actions and talk phrases rather than copying them. Any
+    // UnboundItemActions among those are bound through the factory. The
+    // template is only read, so it must have been told to share them.
+    public NormalItem( NormalItem template, ItemActionFactory actionFactory ) {
+        name = template.name;
+        description = template.description;
+        countableNounPrefix = template.countableNounPrefix;
+        midSentenceCasedName = template.midSentenceCasedName;
+        takeable = template.takeable;
+        id = template.id;
+        canBeUsedWithTargetID = template.canBeUsedWithTargetID;
+        usedWithText = template.usedWithText;
+        useIsRepeatable = template.useIsRepeatable;
+        used = template.used;
+        visible = template.visible;
+        examineText = template.examineText;
+        examineActionIsRepeatable = template.examineActionIsRepeatable;
+        examined = template.examined;
+        canTalkTo = template.canTalkTo;
+        plural = template.plural;
+        properNoun = template.properNoun;
+        alreadyUsedWithIDs.addAll( template.alreadyUsedWithIDs );
+        authored = template.authored;
+        sharesAuthored = true;
+        binder = new ItemActionBinder( actionFactory, this );
+    }
+
+    // Marks the authored actions and talk phrases as shared, so that any
+    // added to this item afterwards go to a copy of them instead.
+    public void shareAuthored() {
+        sharesAuthored = true;
+    }
+
+    private Authored authoredForChange() {
+        if( sharesAuthored ) {
+            authored = authored.copy();
+            sharesAuthored = false;
+        }
+        authored.dialogue = null;
+        return authored;
+    }
+
+    private ItemAction bound( ItemAction action ) {
+        if( binder == null )
+            return action;
+        return binder.bind( action );
+    }
+
+    private void enactAll( Collection<ItemAction> actions ) {
+        for( ItemAction action : actions )
+            bound( action ).enact();
+    }
 
     public String description() {
         return description;
     }
 
     public void setDescription( String description ) {
+        boolean changed = differ( this.description, description );
         this.description = description;
+        if( changed )
+            publish( ModelEvent.Type.ITEM_DESCRIPTION_CHANGED );
+    }
+
+    public void publishModelEventsTo( ModelEventSubscriber subscriber ) {
+        this.eventSubscriber = subscriber;
+    }
+
+    private void publish( ModelEvent.Type type ) {
+        if( eventSubscriber != null )
+            eventSubscriber.modelChanged( new ModelEvent( type, id ) );
+    }
+
+    private static boolean differ( String a, String b ) {
+        return a == null ? b != null : !a.equals( b );
     }
 
     public String name() {
@@ -117,7 +296,10 @@ public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource {
     }
 
     public void setName( String name ) {
+        boolean changed = differ( this.name, name );
         this.name = name;
+        if( changed )
+            publish( ModelEvent.Type.ITEM_NAME_CHANGED );
     }
 
     public void setUntakeable() {
@@ -186,20 +368,22 @@ public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource {
     }
 
     public void setUsedWithText( String text ) {
+        boolean changed = differ( this.usedWithText, text );
         this.usedWithText = text;
+        if( changed )
+            publish( ModelEvent.Type.ITEM_USED_WITH_TEXT_CHANGED );
     }
 
     public void addOnUseAction( ItemAction action ) {
-        onUseActions.add( action );
+        authoredForChange().onUseActions.add( action );
     }
 
     public void use() {
         if( itemCanBeUsedNow() )
-            for( ItemAction action : onUseActions )
-                action.enact();
+            enactAll( authored.onUseActions );
         else
             setUsedWithText( "You have already done that." );
-        used = true;
+        setUsed( true );
     }
 
     private boolean itemCanBeUsedNow() {
@@ -207,39 +391,84 @@ public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource {
     }
 
     public List<ItemAction> actions() {
-        return onUseActions;
+        if( binder == null )
+            return authored.onUseActions;
+        List<ItemAction> actions = new ArrayList<ItemAction>();
+        for( ItemAction action : authored.onUseActions )
+            actions.add( bound( action ) );
+        return actions;
+    }
+
+    // Every action the item can enact: on being used, on being examined,
+    // on being used with each other item and in response to each phrase.
+    public List<ItemAction> allActions() {
+        List<ItemAction> all = new ArrayList<ItemAction>( authored.onUseActions );
+        all.addAll( authored.onExamineActions );
+        for( ItemUseInfo info : authored.itemUseInfos.values() )
+            all.addAll( info.actions );
+        for( Set<ItemAction> actions : authored.phraseActions.values() )
+            all.addAll( actions );
+        List<ItemAction> bound = new ArrayList<ItemAction>();
+        for( ItemAction action : all )
+            bound.add( bound( action ) );
+        return bound;
     }
 
     public void setUsedWithTextFor( String withItemID, String text ) {
-        getItemUseInfo( withItemID ).setUsedWithText( text );
+        getItemUseInfoForChange( withItemID ).usedWithText = text;
     }
 
-    private ItemUseInfo getItemUseInfo( String withItemID ) {
+    private ItemUseInfo getItemUseInfoForChange( String withItemID ) {
+        Map<String, ItemUseInfo> itemUseInfos = authoredForChange().itemUseInfos;
         if( itemUseInfos.containsKey( withItemID ) == false )
             itemUseInfos.put( withItemID, new ItemUseInfo() );
         return itemUseInfos.get( withItemID );
     }
 
     public void setUseIsNotRepeatableFor( String withItemID ) {
-        getItemUseInfo( withItemID ).setUseIsNotRepeatable();
+        getItemUseInfoForChange( withItemID ).useIsRepeatable = false;
     }
 
     public void addOnUseActionFor( String withItemID, ItemAction action ) {
-        getItemUseInfo( withItemID ).addOnUseAction( action );
+        getItemUseInfoForChange( withItemID ).actions.add( action );
     }
 
     public String useWith( Item withItem ) {
-        if( itemCanBeUsedAtAllWith( withItem ) == false )
+        ItemUseInfo info = authored.itemUseInfos.get( withItem.id() );
+        if( info == null )
             return itemsCannotBeUsedTogetherUsedWithText;
-        return getItemUseInfo( withItem.id() ).use();
+        if( alreadyUsedWithIDs.contains( withItem.id() ) && !info.useIsRepeatable )
+            return itemsAlreadyUsedText;
+        enactAll( info.actions );
+        setAlreadyUsedWith( withItem.id() );
+        return info.usedWithText;
     }
 
-    private boolean itemCanBeUsedAtAllWith( Item withItem ) {
-        return itemUseInfos.containsKey( withItem.id() );
+    public boolean used() {
+        return used;
+    }
+
+    public void setUsed( boolean used ) {
+        boolean changed = this.used != used;
+        this.used = used;
+        if( changed )
+            publish( ModelEvent.Type.ITEM_USE_CHANGED );
+    }
+
+    public List<String> itemIDsAlreadyUsedWith() {
+        return new ArrayList<String>( alreadyUsedWithIDs );
+    }
+
+    public void setAlreadyUsedWith( String withItemID ) {
+        if( alreadyUsedWithIDs.add( withItemID ) )
+            publish( ModelEvent.Type.ITEM_USE_CHANGED );
     }
 
     public void setVisible( boolean visible ) {
+        boolean changed = this.visible != visible;
         this.visible = visible;
+        if( changed )
+            publish( ModelEvent.Type.ITEM_VISIBILITY_CHANGED );
     }
 
     public boolean visible() {
@@ -248,11 +477,10 @@ public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource {
 
     public void examine() {
         if( itemCanBeExaminedNow() )
-            for( ItemAction action : onExamineActions )
-                action.enact();
+            enactAll( authored.onExamineActions );
         else
             setExamineText( "" );
-        examined = true;
+        setExamined( true );
     }
 
     private boolean itemCanBeExaminedNow() {
@@ -260,7 +488,7 @@ public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource {
     }
 
     public void addOnExamineAction( ItemAction action ) {
-        onExamineActions.add( action );
+        authoredForChange().onExamineActions.add( action );
     }
 
     public String examineText() {
@@ -268,7 +496,10 @@ public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource {
     }
 
     public void setExamineText( String text ) {
+        boolean changed = differ( this.examineText, text );
         this.examineText = text;
+        if( changed )
+            publish( ModelEvent.Type.ITEM_EXAMINE_TEXT_CHANGED );
     }
 
     public void setExamineActionIsNotRepeatable() {
@@ -279,6 +510,17 @@ public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource {
         return !examineActionIsRepeatable;
     }
 
+    public boolean examined() {
+        return examined;
+    }
+
+    public void setExamined( boolean examined ) {
+        boolean changed = this.examined != examined;
+        this.examined = examined;
+        if( changed )
+            publish( ModelEvent.Type.ITEM_EXAMINED_CHANGED );
+    }
+
     public boolean canTalkTo() {
         return canTalkTo;
     }
@@ -291,92 +533,77 @@ public class NormalItem implements Item, TalkPhraseSink, TalkPhraseSource {
         return this;
     }
 
-    private class Phrase {
-        private String shortContent;
-        private String content;
-
-        public Phrase( String content ) {
-            this.content = content;
-        }
-
-        public Phrase( String shortContent, String content ) {
-            this.shortContent = shortContent;
-            this.content = content;
-        }
-
-        public String shortContent() {
-            return shortContent;
-        }
-
-        public String content() {
-            return content;
-        }
-    }
-
-    private List<String> initialPhraseIds = new ArrayList<String>();
-    private Map<String, Phrase> phrases = new HashMap<String, Phrase>();
-    private Map<String, Phrase> responses = new HashMap<String, Phrase>();
-    private Map<String, Set<String>> followUpPhrases = new HashMap<String, Set<String>>();
-    private Map<String, Set<ItemAction>> phraseActions = new HashMap<String, Set<ItemAction>>();
-
     public void addInitialPhrase( String id, String shortContent, String content ) {
         canTalkTo = true;
-        initialPhraseIds.add( id );
-        phrases.put( id, new Phrase( shortContent, content ) );
+        authoredForChange().initialPhraseIds.add( id );
+        authored.phrases.put( id, new Phrase( shortContent, content ) );
     }
 
     public void addResponse( String id, String response ) {
-        responses.put( id, new Phrase( response ) );
+        authoredForChange().responses.put( id, new Phrase( response ) );
     }
 
     public void addFollowUpPhrase( String parentId, String newPhraseId, String shortContent, String content ) {
         addFollowUpPhrase( parentId, newPhraseId );
-        phrases.put( newPhraseId, new Phrase( shortContent, content ) );
+        authored.phrases.put( newPhraseId, new Phrase( shortContent, content ) );
     }
 
     public void addFollowUpPhrase( String parentId, String newPhraseId ) {
+        Map<String, Set<String>> followUpPhrases = authoredForChange().followUpPhrases;
         if( followUpPhrases.containsKey( parentId ) == false )
-            followUpPhrases.put( parentId, new HashSet<String>() );
+            followUpPhrases.put( parentId, new LinkedHashSet<String>() );
         followUpPhrases.get( parentId ).add( newPhraseId );
     }
 
     public void addActionInResponseTo( String id, ItemAction action ) {
+        Map<String, Set<ItemAction>> phraseActions = authoredForChange().phraseActions;
         if( phraseActions.containsKey( id ) == false )
-            phraseActions.put( id, new HashSet<ItemAction>() );
+            phraseActions.put( id, new LinkedHashSet<ItemAction>() );
         phraseActions.get( id ).add( action );
     }
 
+    // The item's talk phrases, compiled the first time they are needed
+    // after any is added.
+    public DialogueGraph dialogue() {
+        return authored.dialogue();
+    }
+
     public List<String> initialPhraseIds() {
-        return initialPhraseIds;
+        return dialogue().initialIDs();
     }
 
     public String shortPhraseById( String id ) {
-        if( phrases.containsKey( id ) == false )
-            return "";
-        return phrases.get( id ).shortContent();
+        DialogueGraph dialogue = dialogue();
+        int node = dialogue.node( id );
+        return node == DialogueGraph.NO_NODE ? "" : dialogue.shortText( node );
     }
 
     public String phraseById( String id ) {
-        if( phrases.containsKey( id ) == false )
-            return "";
-        return phrases.get( id ).content();
+        DialogueGraph dialogue = dialogue();
+        int node = dialogue.node( id );
+        return node == DialogueGraph.NO_NODE ? "" : dialogue.text( node );
     }
 
     public String responseToPhraseById( String id ) {
-        if( responses.containsKey( id ) == false )
-            return "";
-        return responses.get( id ).content();
+        DialogueGraph dialogue = dialogue();
+        int node = dialogue.node( id );
+        return node == DialogueGraph.NO_NODE ? "" : dialogue.response( node );
     }
 
     public List<String> followOnPhrasesIdsForPhraseById( String id ) {
-        if( followUpPhrases.containsKey( id ) )
-            return new ArrayList<String>( followUpPhrases.get( id ) );
-        return new ArrayList<String>();
+        DialogueGraph dialogue = dialogue();
+        int node = dialogue.node( id );
+        if( node == DialogueGraph.NO_NODE )
+            return Collections.<String>emptyList();
+        return dialogue.childIDs( node );
     }
 
     public void executeActionsForPhraseById( String id ) {
-        if( phraseActions.containsKey( id ) )
-            for( ItemAction a : phraseActions.get( id ) )
-                a.enact();
+        DialogueGraph dialogue = dialogue();
+        int node = dialogue.node( id );
+        if( node == DialogueGraph.NO_NODE )
+            return;
+        for( int i = 0; i < dialogue.actionCount( node ); ++i )
+            bound( dialogue.action( node, i ) ).enact();
     }
 }
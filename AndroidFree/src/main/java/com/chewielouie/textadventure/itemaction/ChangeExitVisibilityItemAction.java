@@ -2,13 +2,15 @@ package com.chewielouie.textadventure.itemaction;
 
 import com.chewielouie.textadventure.TextAdventureModel;
 import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.item.Item;
 import java.util.ArrayList;
 import java.util.List;
 
-public class ChangeExitVisibilityItemAction implements ItemAction {
+public class ChangeExitVisibilityItemAction implements LinkableItemAction, CopyableItemAction {
     private TextAdventureModel model;
     private String exitID = "";
     private boolean visibility = true;
+    private Exit exit = null;
 
     public ChangeExitVisibilityItemAction( String arguments, TextAdventureModel model ) {
         this.model = model;
@@ -18,6 +20,13 @@ public class ChangeExitVisibilityItemAction implements ItemAction {
         }
     }
 
+    private ChangeExitVisibilityItemAction( ChangeExitVisibilityItemAction original,
+                                            TextAdventureModel model ) {
+        this.model = model;
+        this.exitID = original.exitID;
+        this.visibility = original.visibility;
+    }
+
     private String extractExitID( String arguments ) {
         int endOfID = arguments.indexOf( ":" );
         if( endOfID != -1 )
@@ -39,8 +48,14 @@ public class ChangeExitVisibilityItemAction implements ItemAction {
         return model;
     }
 
+    public boolean link() {
+        exit = model.findExitByID( exitID );
+        return exit != null;
+    }
+
     public void enact() {
-        Exit exit = model.findExitByID( exitID );
+        if( exit == null )
+            link();
         if( exit != null )
             if( visibility )
                 exit.setVisible();
@@ -48,6 +63,10 @@ public class ChangeExitVisibilityItemAction implements ItemAction {
                 exit.setInvisible();
     }
 
+    public ItemAction copyFor( Item item, TextAdventureModel model ) {
+        return new ChangeExitVisibilityItemAction( this, model );
+    }
+
     public String name() {
         return "change exit visibility";
     }
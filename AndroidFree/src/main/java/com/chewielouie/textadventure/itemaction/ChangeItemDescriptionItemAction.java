@@ -1,10 +1,11 @@
 package com.chewielouie.textadventure.itemaction;
 
 import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.TextAdventureModel;
 import java.util.ArrayList;
 import java.util.List;
 
-public class ChangeItemDescriptionItemAction implements ItemAction {
+public class ChangeItemDescriptionItemAction implements CopyableItemAction {
     private String description;
     private Item item;
 
@@ -21,6 +22,10 @@ public class ChangeItemDescriptionItemAction implements ItemAction {
         item.setDescription( description );
     }
 
+    public ItemAction copyFor( Item item, TextAdventureModel model ) {
+        return new ChangeItemDescriptionItemAction( description, item );
+    }
+
     public String name() {
         return "change item description";
     }
@@ -1,10 +1,11 @@
 package com.chewielouie.textadventure.itemaction;
 
 import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.TextAdventureModel;
 import java.util.ArrayList;
 import java.util.List;
 
-public class ChangeItemNameItemAction implements ItemAction {
+public class ChangeItemNameItemAction implements CopyableItemAction {
     private String name;
     private Item item;
 
@@ -21,6 +22,10 @@ public class ChangeItemNameItemAction implements ItemAction {
         item.setName( name );
     }
 
+    public ItemAction copyFor( Item item, TextAdventureModel model ) {
+        return new ChangeItemNameItemAction( name, item );
+    }
+
     public String name() {
         return "change item name";
     }
@@ -5,10 +5,11 @@ import com.chewielouie.textadventure.item.Item;
 import java.util.ArrayList;
 import java.util.List;
 
-public class ChangeItemVisibilityItemAction implements ItemAction {
+public class ChangeItemVisibilityItemAction implements LinkableItemAction, CopyableItemAction {
     private TextAdventureModel model;
     private String itemID = "";
     private boolean visibility = true;
+    private Item item = null;
 
     public ChangeItemVisibilityItemAction( String arguments, TextAdventureModel model ) {
         this.model = model;
@@ -18,6 +19,13 @@ public class ChangeItemVisibilityItemAction implements ItemAction {
         }
     }
 
+    private ChangeItemVisibilityItemAction( ChangeItemVisibilityItemAction original,
+                                            TextAdventureModel model ) {
+        this.model = model;
+        this.itemID = original.itemID;
+        this.visibility = original.visibility;
+    }
+
     private String extractItemID( String arguments ) {
         int endOfID = arguments.indexOf( ":" );
         if( endOfID != -1 )
@@ -39,12 +47,22 @@ public class ChangeItemVisibilityItemAction implements ItemAction {
         return model;
     }
 
+    public boolean link() {
+        item = model.findItemByID( itemID );
+        return item != null;
+    }
+
     public void enact() {
-        Item item = model.findItemByID( itemID );
+        if( item == null )
+            link();
         if( item != null )
             item.setVisible( visibility );
     }
 
+    public ItemAction copyFor( Item item, TextAdventureModel model ) {
+        return new ChangeItemVisibilityItemAction( this, model );
+    }
+
     public String name() {
         return "change item visibility";
     }
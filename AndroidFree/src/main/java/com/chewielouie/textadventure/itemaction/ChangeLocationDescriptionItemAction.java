@@ -2,13 +2,15 @@ package com.chewielouie.textadventure.itemaction;
 
 import com.chewielouie.textadventure.TextAdventureModel;
 import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.item.Item;
 import java.util.ArrayList;
 import java.util.List;
 
-public class ChangeLocationDescriptionItemAction implements ItemAction {
+public class ChangeLocationDescriptionItemAction implements LinkableItemAction, CopyableItemAction {
     private TextAdventureModel model;
     private String locationID = "";
     private String newDescription = "";
+    private ModelLocation location = null;
 
     public ChangeLocationDescriptionItemAction( String arguments,
                                                 TextAdventureModel model ) {
@@ -19,6 +21,13 @@ public class ChangeLocationDescriptionItemAction implements ItemAction {
         }
     }
 
+    private ChangeLocationDescriptionItemAction( ChangeLocationDescriptionItemAction original,
+                                                 TextAdventureModel model ) {
+        this.model = model;
+        this.locationID = original.locationID;
+        this.newDescription = original.newDescription;
+    }
+
     private void extractLocationID( String arguments ) {
         int endOfID = arguments.indexOf( ":" );
         if( endOfID != -1 )
@@ -35,13 +44,20 @@ public class ChangeLocationDescriptionItemAction implements ItemAction {
         return model;
     }
 
+    public boolean link() {
+        location = model.findLocationByID( locationID );
+        return location != null;
+    }
+
     public void enact() {
-        for( ModelLocation loc : model.locations() ) {
-            if( loc.id().equals( locationID ) ) {
-                loc.setLocationDescription( newDescription );
-                break;
-            }
-        }
+        if( location == null )
+            link();
+        if( location != null )
+            location.setLocationDescription( newDescription );
+    }
+
+    public ItemAction copyFor( Item item, TextAdventureModel model ) {
+        return new ChangeLocationDescriptionItemAction( this, model );
     }
 
     public String name() {
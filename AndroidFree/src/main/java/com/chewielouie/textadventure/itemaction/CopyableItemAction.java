@@ -0,0 +1,11 @@
+package com.chewielouie.textadventure.itemaction;
+
+import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.item.Item;
+
+// An item action that can be copied to act on another item or model,
+// sharing what was parsed from its content rather than parsing it again.
+// Copies of an action that is linked start unlinked.
+public interface CopyableItemAction extends ItemAction {
+    public ItemAction copyFor( Item item, TextAdventureModel model );
+}
@@ -0,0 +1,28 @@
+package com.chewielouie.textadventure.itemaction;
+
+import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.item.Item;
+import java.util.Map;
+
+// Creates a game's item actions by copying ones already parsed from the
+// same content, as a WorldTemplate parses its own once, so that the games
+// made from it share the text of their actions rather than each parsing
+// it again. Content with no copyable parsed action is parsed as usual.
+public class CopyingItemActionFactory implements ItemActionFactory {
+    private Map<String, ItemAction> parsed;
+    private TextAdventureModel model;
+    private ItemActionFactory parser;
+
+    public CopyingItemActionFactory( Map<String, ItemAction> parsed, TextAdventureModel model ) {
+        this.parsed = parsed;
+        this.model = model;
+        this.parser = new NormalItemActionFactory( model );
+    }
+
+    public ItemAction create( String content, Item item ) {
+        ItemAction action = parsed.get( content );
+        if( action instanceof CopyableItemAction )
+            return ((CopyableItemAction)action).copyFor( item, model );
+        return parser.create( content, item );
+    }
+}
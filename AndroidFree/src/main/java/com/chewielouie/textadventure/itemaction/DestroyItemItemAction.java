@@ -1,24 +1,46 @@
 package com.chewielouie.textadventure.itemaction;
 
 import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.item.Item;
 import java.util.ArrayList;
 import java.util.List;
 
-public class DestroyItemItemAction implements ItemAction {
+public class DestroyItemItemAction implements LinkableItemAction, CopyableItemAction {
     private String itemID;
     private TextAdventureModel model;
+    private Item item = null;
 
     public DestroyItemItemAction( String itemID, TextAdventureModel model ) {
         this.itemID = itemID;
         this.model = model;
     }
 
+    private DestroyItemItemAction( DestroyItemItemAction original,
+                                   TextAdventureModel model ) {
+        this.model = model;
+        this.itemID = original.itemID;
+    }
+
     public TextAdventureModel model() {
         return model;
     }
 
+    // The model takes the item out of wherever it is when enacted, so
+    // linking finds the item and the model finds where it is.
+    public boolean link() {
+        item = model.findItemByID( itemID );
+        return item != null;
+    }
+
     public void enact() {
-        model.destroyItem( itemID );
+        if( item == null )
+            link();
+        if( item != null )
+            model.destroyItem( item );
+    }
+
+    public ItemAction copyFor( Item item, TextAdventureModel model ) {
+        return new DestroyItemItemAction( this, model );
     }
 
     public String name() {
@@ -1,10 +1,11 @@
 package com.chewielouie.textadventure.itemaction;
 
 import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.item.Item;
 import java.util.ArrayList;
 import java.util.List;
 
-public class IncrementScoreItemAction implements ItemAction {
+public class IncrementScoreItemAction implements CopyableItemAction {
     private TextAdventureModel model;
 
     public IncrementScoreItemAction( TextAdventureModel model ) {
@@ -19,6 +20,10 @@ public class IncrementScoreItemAction implements ItemAction {
         model.setCurrentScore( model.currentScore() + 1 );
     }
 
+    public ItemAction copyFor( Item item, TextAdventureModel model ) {
+        return new IncrementScoreItemAction( model );
+    }
+
     public String name() {
         return "increment score";
     }
@@ -0,0 +1,41 @@
+package com.chewielouie.textadventure.itemaction;
+
+import com.chewielouie.textadventure.item.Item;
+import java.util.Arrays;
+
+// Binds the UnboundItemActions an item or exit shares with its template to
+// one game, creating each bound action the first time it is asked for. An
+// item has only a few actions, so they are kept in a pair of small arrays
+// searched in turn rather than in a map.
+public class ItemActionBinder {
+    private ItemActionFactory factory;
+    private Item owner;
+    private ItemAction[] unbound = null;
+    private ItemAction[] bound = null;
+    private int size = 0;
+
+    public ItemActionBinder( ItemActionFactory factory, Item owner ) {
+        this.factory = factory;
+        this.owner = owner;
+    }
+
+    public ItemAction bind( ItemAction action ) {
+        if( action instanceof UnboundItemAction == false )
+            return action;
+        for( int i = 0; i < size; ++i )
+            if( unbound[i] == action )
+                return bound[i];
+        ItemAction boundAction = ((UnboundItemAction)action).bind( factory, owner );
+        if( unbound == null ) {
+            unbound = new ItemAction[2];
+            bound = new ItemAction[2];
+        } else if( size == unbound.length ) {
+            unbound = Arrays.copyOf( unbound, size * 2 );
+            bound = Arrays.copyOf( bound, size * 2 );
+        }
+        unbound[size] = action;
+        bound[size] = boundAction;
+        size++;
+        return boundAction;
+    }
+}
@@ -0,0 +1,10 @@
+package com.chewielouie.textadventure.itemaction;
+
+import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.item.Item;
+
+// Creates one kind of item action from the text after its name and the
+// first ':' of its line in the world content.
+public interface ItemActionConstructor {
+    public ItemAction create( String arguments, Item item, TextAdventureModel model );
+}
@@ -0,0 +1,64 @@
+package com.chewielouie.textadventure.itemaction;
+
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.item.Item;
+import java.util.ArrayList;
+import java.util.List;
+
+// Links every action of the items and exits in a model, including those
+// enacted in response to talk phrases, to what they refer to. Run once
+// the world has been loaded, as items and exits may refer to ones that
+// come later in the world content, and before it is played, so enacting
+// an action needs no lookup. Returns a description of each reference that
+// is not in the world, as a mistake in the content the world should not
+// load with.
+//
+// Actions not yet bound to the model, as a WorldTemplate's are, are bound
+// through the factory given only to be checked. Each game made from the
+// template binds and links its own when it is populated.
+public class ItemActionLinker {
+    private TextAdventureModel model;
+    private ItemActionFactory bindingFactory;
+    private List<String> unresolved = new ArrayList<String>();
+
+    public ItemActionLinker( TextAdventureModel model ) {
+        this( model, new NormalItemActionFactory( model ) );
+    }
+
+    public ItemActionLinker( TextAdventureModel model, ItemActionFactory bindingFactory ) {
+        this.model = model;
+        this.bindingFactory = bindingFactory;
+    }
+
+    public List<String> link() {
+        unresolved.clear();
+        for( Item item : model.inventoryItems() )
+            linkAll( item.allActions(), item, "inventory item", item.id() );
+        for( ModelLocation location : model.locations() ) {
+            for( Exit exit : location.exitsIncludingInvisibleOnes() )
+                linkAll( exit.actions(), null, "exit", exit.id() );
+            for( Item item : location.items() )
+                linkAll( item.allActions(), item, "item", item.id() );
+        }
+        return unresolved;
+    }
+
+    private void linkAll( List<ItemAction> actions, Item owner, String ownerKind, String ownerID ) {
+        for( ItemAction action : actions ) {
+            if( action instanceof UnboundItemAction )
+                action = ((UnboundItemAction)action).bind( bindingFactory, owner );
+            if( action instanceof LinkableItemAction &&
+                ((LinkableItemAction)action).link() == false )
+                unresolved.add( "'" + action.name() + "' action of " + ownerKind +
+                                " '" + ownerID + "' refers to '" + target( action ) +
+                                "', which is not in the world" );
+        }
+    }
+
+    private static String target( ItemAction action ) {
+        List<String> arguments = action.arguments();
+        return arguments.isEmpty() ? "" : arguments.get( 0 );
+    }
+}
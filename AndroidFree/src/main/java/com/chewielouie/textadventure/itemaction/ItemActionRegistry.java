@@ -0,0 +1,83 @@
+package com.chewielouie.textadventure.itemaction;
+
+import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.item.Item;
+import java.util.HashMap;
+import java.util.Map;
+
+// The kinds of item action a NormalItemActionFactory can create, by the
+// name that starts their lines in the world content. standard() holds
+// those the game comes with; other kinds are added with register().
+public class ItemActionRegistry {
+    private Map<String, ItemActionConstructor> constructors =
+        new HashMap<String, ItemActionConstructor>();
+
+    public static ItemActionRegistry standard() {
+        ItemActionRegistry registry = new ItemActionRegistry();
+        registry.register( new ChangeItemDescriptionItemAction( null, null ).name(),
+            new ItemActionConstructor() {
+                public ItemAction create( String arguments, Item item, TextAdventureModel model ) {
+                    return new ChangeItemDescriptionItemAction( arguments, item );
+                }
+            } );
+        registry.register( new ChangeItemNameItemAction( null, null ).name(),
+            new ItemActionConstructor() {
+                public ItemAction create( String arguments, Item item, TextAdventureModel model ) {
+                    return new ChangeItemNameItemAction( arguments, item );
+                }
+            } );
+        registry.register( new ChangeExitVisibilityItemAction( null, null ).name(),
+            new ItemActionConstructor() {
+                public ItemAction create( String arguments, Item item, TextAdventureModel model ) {
+                    return new ChangeExitVisibilityItemAction( arguments, model );
+                }
+            } );
+        registry.register( new MakeExitVisibleItemAction( null, null ).name(),
+            new ItemActionConstructor() {
+                public ItemAction create( String arguments, Item item, TextAdventureModel model ) {
+                    return new MakeExitVisibleItemAction( arguments, model );
+                }
+            } );
+        registry.register( new DestroyItemItemAction( null, null ).name(),
+            new ItemActionConstructor() {
+                public ItemAction create( String arguments, Item item, TextAdventureModel model ) {
+                    return new DestroyItemItemAction( arguments, model );
+                }
+            } );
+        registry.register( new ChangeItemVisibilityItemAction( null, null ).name(),
+            new ItemActionConstructor() {
+                public ItemAction create( String arguments, Item item, TextAdventureModel model ) {
+                    return new ChangeItemVisibilityItemAction( arguments, model );
+                }
+            } );
+        registry.register( new IncrementScoreItemAction( null ).name(),
+            new ItemActionConstructor() {
+                public ItemAction create( String arguments, Item item, TextAdventureModel model ) {
+                    return new IncrementScoreItemAction( model );
+                }
+            } );
+        registry.register( new ChangeLocationDescriptionItemAction( null, null ).name(),
+            new ItemActionConstructor() {
+                public ItemAction create( String arguments, Item item, TextAdventureModel model ) {
+                    return new ChangeLocationDescriptionItemAction( arguments, model );
+                }
+            } );
+        registry.register( new TakeItemItemAction( null, null ).name(),
+            new ItemActionConstructor() {
+                public ItemAction create( String arguments, Item item, TextAdventureModel model ) {
+                    return new TakeItemItemAction( arguments, model );
+                }
+            } );
+        return registry;
+    }
+
+    // Replaces any kind already registered with the same name.
+    public ItemActionRegistry register( String name, ItemActionConstructor constructor ) {
+        constructors.put( name, constructor );
+        return this;
+    }
+
+    public ItemActionConstructor constructorFor( String name ) {
+        return constructors.get( name );
+    }
+}
@@ -0,0 +1,11 @@
+package com.chewielouie.textadventure.itemaction;
+
+// An item action that refers to part of the world by ID. Linking finds
+// what it refers to once, after the world has been loaded, so that
+// enacting it needs no lookup. An action that has not been linked links
+// itself when it is enacted, until what it refers to is found.
+public interface LinkableItemAction extends ItemAction {
+    // Returns false if what the action refers to is not in the world, in
+    // which case enacting it does nothing.
+    public boolean link();
+}
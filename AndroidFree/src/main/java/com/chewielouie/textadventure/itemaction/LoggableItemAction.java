@@ -4,7 +4,7 @@ import com.chewielouie.textadventure.Logger;
 import com.chewielouie.textadventure.item.Item;
 import java.util.List;
 
-public class LoggableItemAction implements ItemAction {
+public class LoggableItemAction implements LinkableItemAction {
     private ItemAction action;
     private Logger logger;
     private String content;
@@ -17,6 +17,12 @@ public class LoggableItemAction implements ItemAction {
         this.item = item;
     }
 
+    public boolean link() {
+        if( action instanceof LinkableItemAction )
+            return ((LinkableItemAction)action).link();
+        return true;
+    }
+
     public void enact() {
         if( item != null )
             logger.log( "'" + action.name() + "' item action enacted on item id '" +
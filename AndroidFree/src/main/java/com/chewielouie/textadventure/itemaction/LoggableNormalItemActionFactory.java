@@ -15,6 +15,13 @@ public class LoggableNormalItemActionFactory implements ItemActionFactory {
         this.factory = new NormalItemActionFactory( model );
     }
 
+    public LoggableNormalItemActionFactory( Logger logger, TextAdventureModel model,
+                                            ItemActionRegistry registry ) {
+        this.logger = logger;
+        this.model = model;
+        this.factory = new NormalItemActionFactory( model, registry );
+    }
+
     public ItemAction create( String content, Item item ) {
         ItemAction action = factory.create( content, item );
         if( action instanceof NullItemAction )
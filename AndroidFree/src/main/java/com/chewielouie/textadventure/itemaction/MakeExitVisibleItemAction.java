@@ -2,12 +2,14 @@ package com.chewielouie.textadventure.itemaction;
 
 import com.chewielouie.textadventure.Exit;
 import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.item.Item;
 import java.util.ArrayList;
 import java.util.List;
 
-public class MakeExitVisibleItemAction implements ItemAction {
+public class MakeExitVisibleItemAction implements LinkableItemAction, CopyableItemAction {
     private String exitID;
     private TextAdventureModel model;
+    private Exit exit = null;
 
     public MakeExitVisibleItemAction( String exitID, 
            TextAdventureModel model ) {
@@ -15,16 +17,32 @@ public class MakeExitVisibleItemAction implements ItemAction {
         this.model = model;
     }
 
+    private MakeExitVisibleItemAction( MakeExitVisibleItemAction original,
+                                       TextAdventureModel model ) {
+        this.model = model;
+        this.exitID = original.exitID;
+    }
+
     public TextAdventureModel model() {
         return model;
     }
 
+    public boolean link() {
+        exit = model.findExitByID( exitID );
+        return exit != null;
+    }
+
     public void enact() {
-        Exit exit = model.findExitByID( exitID );
+        if( exit == null )
+            link();
         if( exit != null )
             exit.setVisible();
     }
 
+    public ItemAction copyFor( Item item, TextAdventureModel model ) {
+        return new MakeExitVisibleItemAction( this, model );
+    }
+
     public String name() {
         return "make exit visible";
     }
@@ -6,9 +6,10 @@ import com.chewielouie.textadventure.TextAdventureModel;
 import java.util.ArrayList;
 import java.util.List;
 
-public class TakeItemItemAction implements ItemAction {
+public class TakeItemItemAction implements LinkableItemAction, CopyableItemAction {
     private TextAdventureModel model;
     private String itemID = "";
+    private Item item = null;
 
     public TakeItemItemAction( String arguments,
                                TextAdventureModel model ) {
@@ -17,12 +18,31 @@ public class TakeItemItemAction implements ItemAction {
             itemID = arguments;
     }
 
+    private TakeItemItemAction( TakeItemItemAction original, TextAdventureModel model ) {
+        this.model = model;
+        this.itemID = original.itemID;
+    }
+
     public TextAdventureModel model() {
         return model;
     }
 
+    // Only the model knows which location holds the item when it is
+    // taken, so linking finds the item and the model finds where it is.
+    public boolean link() {
+        item = model.findItemByID( itemID );
+        return item != null;
+    }
+
     public void enact() {
-        model.moveItemToInventory( itemID );
+        if( item == null )
+            link();
+        if( item != null )
+            model.moveItemToInventory( item );
+    }
+
+    public ItemAction copyFor( Item item, TextAdventureModel model ) {
+        return new TakeItemItemAction( this, model );
     }
 
     public String name() {
@@ -0,0 +1,40 @@
+package com.chewielouie.textadventure.itemaction;
+
+import com.chewielouie.textadventure.item.Item;
+import java.util.ArrayList;
+import java.util.List;
+
+// An item action as written in the world content, before there is a model
+// for it to act on. Items and exits made from a WorldTemplate share these
+// and bind them to their own game with an ItemActionBinder.
+public class UnboundItemAction implements ItemAction {
+    private String content;
+    private boolean actsOnOwner;
+
+    public UnboundItemAction( String content, boolean actsOnOwner ) {
+        this.content = content;
+        this.actsOnOwner = actsOnOwner;
+    }
+
+    public String content() {
+        return content;
+    }
+
+    public ItemAction bind( ItemActionFactory factory, Item owner ) {
+        return factory.create( content, actsOnOwner ? owner : null );
+    }
+
+    public void enact() {
+        throw new IllegalStateException( "Item action '" + content + "' has not been bound to a model" );
+    }
+
+    public String name() {
+        return "unbound item action";
+    }
+
+    public List<String> arguments() {
+        List<String> args = new ArrayList<String>();
+        args.add( this.content );
+        return args;
+    }
+}
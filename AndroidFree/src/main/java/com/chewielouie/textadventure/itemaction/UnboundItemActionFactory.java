@@ -0,0 +1,9 @@
+package com.chewielouie.textadventure.itemaction;
+
+import com.chewielouie.textadventure.item.Item;
+
+public class UnboundItemActionFactory implements ItemActionFactory {
+    public ItemAction create( String content, Item item ) {
+        return new UnboundItemAction( content, item != null );
+    }
+}
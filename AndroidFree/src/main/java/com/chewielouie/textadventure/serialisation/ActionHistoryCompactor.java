@@ -0,0 +1,43 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.ActionHistoryTextFormat.*;
+
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.ActionRecord;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+// Removes from an action history the actions that change nothing when
+// replayed. Those that only open a menu of follow-up actions - show
+// inventory, take an item, examine an item, inventory item, use with and
+// talk - do nothing when triggered, and a replay creates every action from
+// its own record rather than from the one before it, so they are not
+// needed. Actions with any other name are kept.
+public class ActionHistoryCompactor {
+    private static final Set<String> noEffectActionNames = new HashSet<String>( Arrays.asList(
+        ACTION_NAME_SHOW_INVENTORY,
+        ACTION_NAME_TAKE_AN_ITEM,
+        ACTION_NAME_EXAMINE_AN_ITEM,
+        ACTION_NAME_INVENTORY_ITEM,
+        ACTION_NAME_USE_WITH,
+        ACTION_NAME_TALK_TO ) );
+
+    public static boolean hasNoEffect( ActionRecord record ) {
+        return record.action() == null ||
+               noEffectActionNames.contains( record.action().name() );
+    }
+
+    // Compacts the history in place and returns how many actions were
+    // removed.
+    public int compact( ActionHistory history ) {
+        ActionHistory original = history.snapshot();
+        history.clear();
+        for( int i = 0; i < original.size(); ++i ) {
+            ActionRecord record = original.getRecord( i );
+            if( hasNoEffect( record ) == false )
+                history.addActionWithParameters( record.action(), record.params() );
+        }
+        return original.size() - history.size();
+    }
+}
@@ -1,16 +1,31 @@
 package com.chewielouie.textadventure.serialisation;
 
 import static com.chewielouie.textadventure.serialisation.ActionHistoryTextFormat.*;
+import static com.chewielouie.textadventure.serialisation.BinaryActionHistoryFormat.*;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Scanner;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 import com.chewielouie.textadventure.Exit;
 import com.chewielouie.textadventure.ModelLocation;
 import com.chewielouie.textadventure.TextAdventureModel;
 import com.chewielouie.textadventure.UserInventory;
 import com.chewielouie.textadventure.action.Action;
 import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.ActionParameters;
 import com.chewielouie.textadventure.item.Item;
 
 public class ActionHistoryDeserialiser {
@@ -34,22 +49,222 @@ public class ActionHistoryDeserialiser {
     public List<Action> deserialise( String input ) {
         List<Action> actions = new ArrayList<Action>();
         if( factory != null ) {
-            Scanner scanner = new Scanner( input );
-            while( scanner.hasNextLine() )
-                createActionFromLine( scanner.nextLine(), actions );
+            for( String line : lines( input ) )
+                createActionFromLine( line, actions );
         }
         return actions;
     }
 
+    public void deserialiseInto( String input, ActionHistory history ) {
+        if( factory != null ) {
+            for( String line : lines( input ) )
+                recordActionFromLine( line, history );
+        }
+    }
+
+    // Splits as Scanner.nextLine() does, without its regular expressions,
+    // which took most of the time spent reading a long history.
+    private static List<String> lines( String input ) {
+        List<String> lines = new ArrayList<String>();
+        int startOfLine = 0;
+        while( startOfLine < input.length() ) {
+            int endOfLine = input.indexOf( '\n', startOfLine );
+            if( endOfLine == -1 )
+                endOfLine = input.length();
+            int endOfText = endOfLine;
+            if( endOfText > startOfLine && input.charAt( endOfText - 1 ) == '\r' )
+                endOfText--;
+            lines.add( input.substring( startOfLine, endOfText ) );
+            startOfLine = endOfLine + 1;
+        }
+        return lines;
+    }
+
+    // Reads either a binary or a text action history, whichever it is given.
+    public List<Action> deserialise( byte[] input ) {
+        if( !isBinaryActionHistory( input ) )
+            return deserialise( text( input ) );
+        List<Action> actions = new ArrayList<Action>();
+        if( factory != null )
+            readBinary( input, actions, null );
+        return actions;
+    }
+
+    public void deserialiseInto( byte[] input, ActionHistory history ) {
+        if( !isBinaryActionHistory( input ) )
+            deserialiseInto( text( input ), history );
+        else if( factory != null )
+            readBinary( input, null, history );
+    }
+
+    // Reads a binary or text action history an action at a time, as each is
+    // asked for, so replay can start before the input has all been read and
+    // without holding all of it. IDs are looked up as each action is read,
+    // so against the model as the actions before it have left it. A binary
+    // history's checksum can only be checked once it has all been read, by
+    // when its actions will have been used, so a mismatch is just reported.
+    // The input is not closed.
+    public Iterable<Action> stream( InputStream input ) {
+        return new ActionStream( input );
+    }
+
+    public Iterable<Action> stream( ReadableByteChannel input ) {
+        return stream( Channels.newInputStream( input ) );
+    }
+
+    // Records the actions into the history as they are streamed, so the
+    // history read is never held whole as well as recorded.
+    public void deserialiseInto( InputStream input, ActionHistory history ) {
+        for( Action action : stream( input ) )
+            history.addActionWithParameters( action,
+                new ActionParameters( string != "" ? string : null,
+                                      item, extraItem, exit, location ) );
+    }
+
+    private class ActionStream implements Iterable<Action>, Iterator<Action> {
+        private BufferedInputStream input;
+        private boolean started = false;
+        private BufferedReader lines = null;
+        private CheckedInputStream records = null;
+        private String[] strings;
+        private int recordsLeft = 0;
+        private Action next = null;
+        private boolean haveNext = false;
+
+        ActionStream( InputStream input ) {
+            this.input = new BufferedInputStream( input );
+        }
+
+        public Iterator<Action> iterator() {
+            return this;
+        }
+
+        public boolean hasNext() {
+            if( !haveNext && factory != null ) {
+                try {
+                    if( !started )
+                        start();
+                    haveNext = lines != null ? readLine() : readRecord();
+                } catch( IOException e ) {
+                    System.out.println( "Bad action history - " + e.getMessage() );
+                    lines = null;
+                    recordsLeft = 0;
+                }
+            }
+            return haveNext;
+        }
+
+        public Action next() {
+            if( !hasNext() )
+                throw new NoSuchElementException();
+            haveNext = false;
+            return next;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void start() throws IOException {
+            started = true;
+            input.mark( MAGIC.length );
+            byte[] magic = new byte[MAGIC.length];
+            int read = readFully( input, magic );
+            input.reset();
+            if( read < MAGIC.length || !isBinaryActionHistory( magic ) ) {
+                lines = new BufferedReader( new InputStreamReader( input, CHARSET ) );
+                return;
+            }
+            records = new CheckedInputStream( input, new CRC32() );
+            readFully( records, magic );
+            int version = readVarint( records );
+            if( version != VERSION )
+                throw new IOException( "unknown version " + version );
+            strings = readStringTable( records );
+            recordsLeft = readVarint( records );
+            if( recordsLeft == 0 )
+                checkChecksum();
+        }
+
+        private boolean readLine() throws IOException {
+            String line;
+            while( (line = lines.readLine()) != null ) {
+                String actionName = extractActionAndParameters( line );
+                if( actionName != "" ) {
+                    next = makeActionByName( actionName );
+                    return true;
+                }
+            }
+            lines = null;
+            return false;
+        }
+
+        private boolean readRecord() throws IOException {
+            while( recordsLeft > 0 ) {
+                String actionName = readActionAndParameters( records, strings );
+                if( --recordsLeft == 0 )
+                    checkChecksum();
+                if( actionName != null ) {
+                    next = makeActionByName( actionName );
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void checkChecksum() throws IOException {
+            long expected = records.getChecksum().getValue();
+            byte[] stored = new byte[CHECKSUM_BYTES];
+            if( readFully( input, stored ) < CHECKSUM_BYTES )
+                throw new IOException( "no checksum" );
+            long value = 0;
+            for( byte b : stored )
+                value = (value << 8) | (b & 0xff);
+            if( value != expected )
+                System.out.println( "Bad checksum in action history" );
+        }
+    }
+
+    private static int readFully( InputStream in, byte[] bytes ) throws IOException {
+        int total = 0;
+        while( total < bytes.length ) {
+            int read = in.read( bytes, total, bytes.length - total );
+            if( read == -1 )
+                break;
+            total += read;
+        }
+        return total;
+    }
+
+    private static String text( byte[] input ) {
+        try {
+            return new String( input, CHARSET );
+        } catch( UnsupportedEncodingException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
     private void createActionFromLine( String line, List<Action> actions ) {
+        String actionName = extractActionAndParameters( line );
+        if( actionName != "" )
+            actions.add( makeActionByName( actionName ) );
+    }
+
+    private void recordActionFromLine( String line, ActionHistory history ) {
+        String actionName = extractActionAndParameters( line );
+        if( actionName != "" )
+            history.addActionWithParameters( makeActionByName( actionName ),
+                new ActionParameters( string != "" ? string : null,
+                                      item, extraItem, exit, location ) );
+    }
+
+    private String extractActionAndParameters( String line ) {
         extractString( line );
         extractItem( line );
         extractExtraItem( line );
         extractExit( line );
         extractLocation( line );
-        String actionName = findTagValue( line, ACTION_NAME_TAG );
-        if( actionName != "" )
-            actions.add( makeActionByName( actionName ) );
+        return findTagValue( line, ACTION_NAME_TAG );
     }
 
     private void extractString( String line ) {
@@ -88,8 +303,82 @@ public class ActionHistoryDeserialiser {
             location = null;
     }
 
+    // Actions are added to the list if one is given, else to the history.
+    private void readBinary( byte[] input, List<Action> actions, ActionHistory history ) {
+        if( !checksumMatches( input ) ) {
+            System.out.println( "Bad checksum in action history" );
+            return;
+        }
+        ByteArrayInputStream in = new ByteArrayInputStream( input, MAGIC.length,
+            input.length - MAGIC.length - CHECKSUM_BYTES );
+        try {
+            int version = readVarint( in );
+            if( version != VERSION ) {
+                System.out.println( "Unknown action history version - " + version );
+                return;
+            }
+            String[] strings = readStringTable( in );
+            int count = readVarint( in );
+            for( int i = 0; i < count; i++ ) {
+                String actionName = readActionAndParameters( in, strings );
+                if( actionName == null )
+                    continue;
+                Action action = makeActionByName( actionName );
+                if( actions != null )
+                    actions.add( action );
+                else
+                    history.addActionWithParameters( action,
+                        new ActionParameters( string, item, extraItem, exit, location ) );
+            }
+        } catch( IOException e ) {
+            System.out.println( "Bad action history - " + e.getMessage() );
+        }
+    }
+
+    private static String[] readStringTable( InputStream in ) throws IOException {
+        String[] strings = new String[readVarint( in )];
+        for( int i = 0; i < strings.length; i++ ) {
+            byte[] bytes = new byte[readVarint( in )];
+            if( readFully( in, bytes ) != bytes.length )
+                throw new IOException( "String table ends early" );
+            strings[i] = new String( bytes, CHARSET );
+        }
+        return strings;
+    }
+
+    private String readActionAndParameters( InputStream in, String[] strings )
+        throws IOException {
+        int opcode = readVarint( in );
+        String actionName = null;
+        if( opcode == NAMED_ACTION )
+            actionName = readString( in, strings );
+        else if( opcode >= FIRST_ACTION_OPCODE &&
+                 opcode < FIRST_ACTION_OPCODE + ACTION_NAMES.length )
+            actionName = ACTION_NAMES[opcode - FIRST_ACTION_OPCODE];
+        else if( opcode != NO_ACTION )
+            throw new IOException( "Unknown action opcode " + opcode );
+
+        int flags = readVarint( in );
+        string = (flags & HAS_STRING) != 0 ? readString( in, strings ) : null;
+        item = (flags & HAS_ITEM) != 0 ? model.findItemByID( readString( in, strings ) ) : null;
+        extraItem = (flags & HAS_EXTRA_ITEM) != 0 ?
+            model.findItemByID( readString( in, strings ) ) : null;
+        exit = (flags & HAS_EXIT) != 0 ? model.findExitByID( readString( in, strings ) ) : null;
+        location = (flags & HAS_LOCATION) != 0 ?
+            model.findLocationByID( readString( in, strings ) ) : null;
+        return actionName;
+    }
+
+    private static String readString( InputStream in, String[] strings )
+        throws IOException {
+        int index = readVarint( in );
+        if( index >= strings.length )
+            throw new IOException( "No string " + index + " in string table" );
+        return strings[index];
+    }
+
     private String findTagValue( String line, String tag ) {
-        int startOfTag = line.indexOf( tag );
+        int startOfTag = findTag( line, tag );
         if( startOfTag != -1 ) {
             int startOfActionName = startOfTag + tag.length() + SEPERATOR.length();
             int endOfActionName = line.indexOf( SEPERATOR, startOfActionName );
@@ -99,6 +388,21 @@ public class ActionHistoryDeserialiser {
         return "";
     }
 
+    // A tag starts the line or follows a separator, so one tag found inside
+    // another ("item id" in "extra item id") or inside a value ("string" in
+    // an ID) is passed over.
+    private int findTag( String line, String tag ) {
+        int startOfTag = line.indexOf( tag );
+        while( startOfTag != -1 && isTagAt( line, tag, startOfTag ) == false )
+            startOfTag = line.indexOf( tag, startOfTag + 1 );
+        return startOfTag;
+    }
+
+    private boolean isTagAt( String line, String tag, int index ) {
+        return ( index == 0 || line.startsWith( SEPERATOR, index - SEPERATOR.length() ) ) &&
+               line.startsWith( SEPERATOR, index + tag.length() );
+    }
+
     private Action makeActionByName( String actionName ) {
         Action action = null;
         if( actionName.equals( ACTION_NAME_EXAMINE_AN_ITEM ) )
@@ -29,8 +29,12 @@ public class ActionHistorySerialiser {
     }
 
     public String serialise() {
+        return serialiseFrom( 0 );
+    }
+
+    public String serialiseFrom( int firstIndex ) {
         stringBuilder = new StringBuilder();
-        for( int i = 0; i < history.size(); ++i ) {
+        for( int i = firstIndex; i < history.size(); ++i ) {
             ActionRecord record = history.getRecord( i );
             serialiseActionType( record.action() );
             serialiseActionParameters( record.params() );
@@ -0,0 +1,101 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.ActionHistoryTextFormat.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+// A saved action history as bytes:
+//   magic, version
+//   string count, then each string as its UTF-8 length and bytes
+//   action count, then each action as
+//     opcode (NAMED_ACTION is followed by the name's string index)
+//     parameter flags, then a string index for each parameter present
+//   CRC32 of everything before it, as four bytes
+// All counts, lengths, opcodes, flags and indices are varints: seven bits
+// to a byte, low bits first, with the top bit set on all but the last.
+public class BinaryActionHistoryFormat {
+    public static final byte[] MAGIC = { 'T', 'A', 'H', 1 };
+    public static final int VERSION = 1;
+    public static final String CHARSET = "UTF-8";
+
+    public static final int NO_ACTION = 0;
+    public static final int NAMED_ACTION = 1;
+    // Opcodes for the actions the game records, in order from 2.
+    public static final String[] ACTION_NAMES = {
+        ACTION_NAME_EXAMINE_AN_ITEM,
+        ACTION_NAME_EXAMINE,
+        ACTION_NAME_EXIT,
+        ACTION_NAME_INVENTORY_ITEM,
+        ACTION_NAME_SHOW_INVENTORY,
+        ACTION_NAME_TAKE_AN_ITEM,
+        ACTION_NAME_TAKE_SPECIFIC_ITEM,
+        ACTION_NAME_USE_WITH_SPECIFIC_ITEM,
+        ACTION_NAME_USE_WITH,
+        ACTION_NAME_TALK_TO,
+        ACTION_NAME_SAY };
+    public static final int FIRST_ACTION_OPCODE = 2;
+
+    public static final int HAS_STRING = 1;
+    public static final int HAS_ITEM = 2;
+    public static final int HAS_EXTRA_ITEM = 4;
+    public static final int HAS_EXIT = 8;
+    public static final int HAS_LOCATION = 16;
+
+    public static final int CHECKSUM_BYTES = 4;
+
+    public static boolean isBinaryActionHistory( byte[] content ) {
+        if( content == null || content.length < MAGIC.length )
+            return false;
+        for( int i = 0; i < MAGIC.length; i++ )
+            if( content[i] != MAGIC[i] )
+                return false;
+        return true;
+    }
+
+    public static long checksum( byte[] bytes, int length ) {
+        CRC32 crc = new CRC32();
+        crc.update( bytes, 0, length );
+        return crc.getValue();
+    }
+
+    public static boolean checksumMatches( byte[] content ) {
+        int length = content.length - CHECKSUM_BYTES;
+        if( length < MAGIC.length )
+            return false;
+        long stored = 0;
+        for( int i = length; i < content.length; i++ )
+            stored = (stored << 8) | (content[i] & 0xff);
+        return stored == checksum( content, length );
+    }
+
+    public static int opcodeFor( String actionName ) {
+        for( int i = 0; i < ACTION_NAMES.length; i++ )
+            if( ACTION_NAMES[i].equals( actionName ) )
+                return FIRST_ACTION_OPCODE + i;
+        return NAMED_ACTION;
+    }
+
+    public static void writeVarint( ByteArrayOutputStream out, int value ) {
+        while( (value & ~0x7f) != 0 ) {
+            out.write( (value & 0x7f) | 0x80 );
+            value >>>= 7;
+        }
+        out.write( value );
+    }
+
+    public static int readVarint( InputStream in ) throws IOException {
+        int value = 0;
+        for( int shift = 0; shift < 35; shift += 7 ) {
+            int b = in.read();
+            if( b == -1 )
+                throw new IOException( "Action history ends inside a number" );
+            value |= (b & 0x7f) << shift;
+            if( (b & 0x80) == 0 )
+                return value;
+        }
+        throw new IOException( "Action history number is too long" );
+    }
+}
@@ -0,0 +1,119 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.BinaryActionHistoryFormat.*;
+
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.ActionParameters;
+import com.chewielouie.textadventure.action.ActionRecord;
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes an action history in the BinaryActionHistoryFormat. Every ID and
+// string is written once, in the string table, and each action refers to
+// them by index.
+public class BinaryActionHistorySerialiser {
+    private ActionHistory history;
+    private Map<String,Integer> stringIndexes;
+    private List<String> strings;
+
+    public BinaryActionHistorySerialiser( ActionHistory history ) {
+        this.history = history;
+    }
+
+    public byte[] serialise() {
+        stringIndexes = new HashMap<String,Integer>();
+        strings = new ArrayList<String>();
+        ByteArrayOutputStream actions = new ByteArrayOutputStream();
+        writeVarint( actions, history.size() );
+        for( int i = 0; i < history.size(); ++i )
+            serialiseRecord( history.getRecord( i ), actions );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream( actions.size() + 1024 );
+        out.write( MAGIC, 0, MAGIC.length );
+        writeVarint( out, VERSION );
+        serialiseStringTable( out );
+        byte[] actionBytes = actions.toByteArray();
+        out.write( actionBytes, 0, actionBytes.length );
+        writeChecksum( out );
+        return out.toByteArray();
+    }
+
+    private void serialiseRecord( ActionRecord record, ByteArrayOutputStream out ) {
+        if( record.action() == null )
+            writeVarint( out, NO_ACTION );
+        else {
+            String name = record.action().name();
+            int opcode = opcodeFor( name );
+            writeVarint( out, opcode );
+            if( opcode == NAMED_ACTION )
+                writeVarint( out, indexOf( name ) );
+        }
+        serialiseParameters( record.params(), out );
+    }
+
+    private void serialiseParameters( ActionParameters params, ByteArrayOutputStream out ) {
+        if( params == null ) {
+            writeVarint( out, 0 );
+            return;
+        }
+        String item = params.item() == null ? null : params.item().id();
+        String extraItem = params.extraItem() == null ? null : params.extraItem().id();
+        String exit = params.exit() == null ? null : params.exit().id();
+        String location = params.location() == null ? null : params.location().id();
+        writeVarint( out, (params.string() != null ? HAS_STRING : 0) |
+                          (item != null ? HAS_ITEM : 0) |
+                          (extraItem != null ? HAS_EXTRA_ITEM : 0) |
+                          (exit != null ? HAS_EXIT : 0) |
+                          (location != null ? HAS_LOCATION : 0) );
+        serialiseParameter( params.string(), out );
+        serialiseParameter( item, out );
+        serialiseParameter( extraItem, out );
+        serialiseParameter( exit, out );
+        serialiseParameter( location, out );
+    }
+
+    private void serialiseParameter( String value, ByteArrayOutputStream out ) {
+        if( value != null )
+            writeVarint( out, indexOf( value ) );
+    }
+
+    private int indexOf( String value ) {
+        Integer index = stringIndexes.get( value );
+        if( index == null ) {
+            index = strings.size();
+            stringIndexes.put( value, index );
+            strings.add( value );
+        }
+        return index;
+    }
+
+    private void serialiseStringTable( ByteArrayOutputStream out ) {
+        writeVarint( out, strings.size() );
+        for( String string : strings ) {
+            byte[] bytes = utf8( string );
+            writeVarint( out, bytes.length );
+            out.write( bytes, 0, bytes.length );
+        }
+    }
+
+    private static byte[] utf8( String string ) {
+        try {
+            return string.getBytes( CHARSET );
+        } catch( UnsupportedEncodingException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static void writeChecksum( ByteArrayOutputStream out ) {
+        byte[] bytes = out.toByteArray();
+        long value = checksum( bytes, bytes.length );
+        out.write( (int)(value >>> 24) );
+        out.write( (int)(value >>> 16) );
+        out.write( (int)(value >>> 8) );
+        out.write( (int)value );
+    }
+}
@@ -0,0 +1,410 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.BinaryWorldFormat.*;
+
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.ExitFactory;
+import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.ModelLocationFactory;
+import com.chewielouie.textadventure.PlainTextModelPopulator;
+import com.chewielouie.textadventure.StreamingModelPopulator;
+import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.UserInventory;
+import com.chewielouie.textadventure.WorldTemplate;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.ItemFactory;
+import com.chewielouie.textadventure.item.TalkPhraseSink;
+import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compiles the plain text world into a binary image. Rather than
+// re-implementing the plain text parser, the existing parser is run
+// against recording stand-ins for the model, items, locations, exits and
+// item actions. Every call the parser makes on them is written out as an
+// opcode with its already split arguments, and BinaryWorldLoader replays
+// those calls on the real objects, so both paths build the same graph.
+public class BinaryWorldCompiler {
+    private static final Map<String,Byte> modelOps = new HashMap<String,Byte>();
+    private static final Map<String,Byte> itemOps = new HashMap<String,Byte>();
+    private static final Map<String,Byte> locationOps = new HashMap<String,Byte>();
+    private static final Map<String,Byte> exitOps = new HashMap<String,Byte>();
+    private static final Map<String,Byte> itemActionOps = new HashMap<String,Byte>();
+
+    static {
+        modelOps.put( "setMaximumScore/1", SET_MAXIMUM_SCORE );
+        modelOps.put( "addLocationArea/2", ADD_LOCATION_AREA );
+        modelOps.put( "addLocation/1", ADD_LOCATION );
+        modelOps.put( "addToInventory/1", ADD_TO_INVENTORY );
+
+        itemOps.put( "setName/1", ITEM_SET_NAME );
+        itemOps.put( "setDescription/1", ITEM_SET_DESCRIPTION );
+        itemOps.put( "setId/1", ITEM_SET_ID );
+        itemOps.put( "setCountableNounPrefix/1", ITEM_SET_COUNTABLE_NOUN_PREFIX );
+        itemOps.put( "setMidSentenceCasedName/1", ITEM_SET_MID_SENTENCE_CASED_NAME );
+        itemOps.put( "setProperNoun/0", ITEM_SET_PROPER_NOUN );
+        itemOps.put( "setPlural/0", ITEM_SET_PLURAL );
+        itemOps.put( "setUntakeable/0", ITEM_SET_UNTAKEABLE );
+        itemOps.put( "setUsedWithTextFor/2", ITEM_SET_USED_WITH_TEXT_FOR );
+        itemOps.put( "setUseIsNotRepeatableFor/1", ITEM_SET_USE_IS_NOT_REPEATABLE_FOR );
+        itemOps.put( "addOnUseActionFor/2", ITEM_ADD_ON_USE_ACTION_FOR );
+        itemOps.put( "setVisible/1", ITEM_SET_VISIBLE );
+        itemOps.put( "setExamineText/1", ITEM_SET_EXAMINE_TEXT );
+        itemOps.put( "setExamineActionIsNotRepeatable/0", ITEM_SET_EXAMINE_ACTION_IS_NOT_REPEATABLE );
+        itemOps.put( "addOnExamineAction/1", ITEM_ADD_ON_EXAMINE_ACTION );
+        itemOps.put( "addInitialPhrase/3", TALK_ADD_INITIAL_PHRASE );
+        itemOps.put( "addResponse/2", TALK_ADD_RESPONSE );
+        itemOps.put( "addFollowUpPhrase/2", TALK_ADD_FOLLOW_UP_PHRASE );
+        itemOps.put( "addFollowUpPhrase/4", TALK_ADD_FOLLOW_UP_PHRASE_WITH_CONTENT );
+        itemOps.put( "addActionInResponseTo/2", TALK_ADD_ACTION_IN_RESPONSE_TO );
+
+        locationOps.put( "setX/1", LOCATION_SET_X );
+        locationOps.put( "setY/1", LOCATION_SET_Y );
+        locationOps.put( "setId/1", LOCATION_SET_ID );
+        locationOps.put( "setAreaID/1", LOCATION_SET_AREA_ID );
+        locationOps.put( "setLocationDescription/1", LOCATION_SET_DESCRIPTION );
+        locationOps.put( "setTextForFirstEntry/1", LOCATION_SET_TEXT_FOR_FIRST_ENTRY );
+        locationOps.put( "addExit/1", LOCATION_ADD_EXIT );
+        locationOps.put( "addItem/1", LOCATION_ADD_ITEM );
+
+        exitOps.put( "setLabel/1", EXIT_SET_LABEL );
+        exitOps.put( "setDestination/1", EXIT_SET_DESTINATION );
+        exitOps.put( "setDirectionHint/1", EXIT_SET_DIRECTION_HINT );
+        exitOps.put( "setInvisible/0", EXIT_SET_INVISIBLE );
+        exitOps.put( "setID/1", EXIT_SET_ID );
+        exitOps.put( "addOnUseAction/1", EXIT_ADD_ON_USE_ACTION );
+    }
+
+    private ByteArrayOutputStream opBytes;
+    private DataOutputStream ops;
+    private List<String> strings;
+    private Map<String,Integer> stringIndices;
+    private Map<Object,Integer> handles;
+    private int nextHandle;
+    private Object model;
+    // The last name each location area was added with, by ID, in the order
+    // the areas were first added.
+    private Map<String,String> locationAreas;
+
+    public byte[] compile( String content ) {
+        startRecording();
+        ItemActionFactory itemActionFactory = itemActionFactory();
+        ItemFactory itemFactory = itemFactory();
+        ItemDeserialiser itemDeserialiser = new StreamingItemDeserialiser( itemActionFactory );
+        new StreamingModelPopulator( (TextAdventureModel)model,
+            locationFactory(),
+            (UserInventory)model,
+            itemFactory,
+            new StreamingModelLocationDeserialiser(
+                itemFactory, exitFactory(),
+                itemDeserialiser,
+                new StreamingExitDeserialiser( itemActionFactory ) ),
+            itemDeserialiser,
+            content );
+        return finishRecording();
+    }
+
+    // Compiles with the original plain text parser. The world loaded from
+    // its image should be the same as the one loaded from compile()'s.
+    public byte[] compileWithPlainTextParser( String content ) {
+        startRecording();
+        ItemActionFactory itemActionFactory = itemActionFactory();
+        ItemFactory itemFactory = itemFactory();
+        ItemDeserialiser itemDeserialiser = new PlainTextItemDeserialiser( itemActionFactory );
+        new PlainTextModelPopulator( (TextAdventureModel)model,
+            locationFactory(),
+            (UserInventory)model,
+            itemFactory,
+            new PlainTextModelLocationDeserialiser(
+                itemFactory, exitFactory(),
+                itemDeserialiser,
+                new PlainTextExitDeserialiser( itemActionFactory ) ),
+            itemDeserialiser,
+            content );
+        return finishRecording();
+    }
+
+    // Loads the image through BinaryWorldLoader and records the calls it
+    // makes. The loader is only equivalent to the plain text path if
+    // this reproduces the compiled image exactly.
+    public byte[] recompile( byte[] image ) throws IOException {
+        startRecording();
+        new BinaryWorldLoader( (TextAdventureModel)model, locationFactory(),
+                               (UserInventory)model, itemFactory(),
+                               exitFactory(), itemActionFactory() )
+            .load( new ByteArrayInputStream( image ) );
+        return finishRecording();
+    }
+
+    public boolean loadsEquivalently( String content, byte[] image ) {
+        try {
+            return Arrays.equals( compile( content ), image ) &&
+                   Arrays.equals( recompile( image ), image );
+        } catch( IOException e ) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private void startRecording() {
+        opBytes = new ByteArrayOutputStream();
+        ops = new DataOutputStream( opBytes );
+        strings = new ArrayList<String>();
+        stringIndices = new HashMap<String,Integer>();
+        handles = new HashMap<Object,Integer>();
+        nextHandle = 0;
+        locationAreas = new LinkedHashMap<String,String>();
+        model = record( modelOps, false, TextAdventureModel.class, UserInventory.class );
+    }
+
+    private byte[] finishRecording() {
+        try {
+            writeLocationAreas();
+            writeOp( END );
+            ByteArrayOutputStream image = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream( image );
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeInt( strings.size() );
+            for( String s : strings ) {
+                byte[] bytes = s.getBytes( "UTF-8" );
+                out.writeInt( bytes.length );
+                out.write( bytes );
+            }
+            opBytes.writeTo( out );
+            out.flush();
+            return image.toByteArray();
+        } catch( IOException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private ItemFactory itemFactory() {
+        return new ItemFactory() {
+            public Item create() {
+                writeOp( NEW_ITEM );
+                return (Item)record( itemOps, true, Item.class, TalkPhraseSink.class );
+            }
+        };
+    }
+
+    private ModelLocationFactory locationFactory() {
+        return new ModelLocationFactory() {
+            public ModelLocation create() {
+                writeOp( NEW_LOCATION );
+                return (ModelLocation)record( locationOps, true, ModelLocation.class );
+            }
+        };
+    }
+
+    private ExitFactory exitFactory() {
+        return new ExitFactory() {
+            public Exit create() {
+                writeOp( NEW_EXIT );
+                return (Exit)record( exitOps, true, Exit.class );
+            }
+        };
+    }
+
+    private ItemActionFactory itemActionFactory() {
+        return new ItemActionFactory() {
+            public ItemAction create( String content, Item item ) {
+                writeOp( NEW_ITEM_ACTION );
+                writeString( content );
+                writeHandle( item );
+                return (ItemAction)record( itemActionOps, true, ItemAction.class );
+            }
+        };
+    }
+
+    private Object record( Map<String,Byte> opcodes, boolean hasHandle, Class<?>... interfaces ) {
+        Recorder recorder = new Recorder( opcodes, hasHandle );
+        Object proxy = Proxy.newProxyInstance( getClass().getClassLoader(),
+                                               interfaces, recorder );
+        recorder.proxy = proxy;
+        if( hasHandle )
+            handles.put( recorder, nextHandle++ );
+        return proxy;
+    }
+
+    private class Recorder implements InvocationHandler {
+        private Map<String,Byte> opcodes;
+        private boolean hasHandle;
+        Object proxy;
+
+        Recorder( Map<String,Byte> opcodes, boolean hasHandle ) {
+            this.opcodes = opcodes;
+            this.hasHandle = hasHandle;
+        }
+
+        public Object invoke( Object proxy, Method method, Object[] args ) {
+            if( method.getDeclaringClass() == Object.class )
+                return invokeObjectMethod( proxy, method, args );
+            if( method.getName().equals( "getTalkPhraseSink" ) )
+                return proxy;
+            Class<?>[] types = method.getParameterTypes();
+            Byte opcode = opcodes.get( method.getName() + "/" + types.length );
+            if( opcode != null && opcode == ADD_LOCATION_AREA ) {
+                locationAreas.put( (String)args[0], (String)args[1] );
+                return null;
+            }
+            if( opcode != null ) {
+                writeOp( opcode );
+                if( hasHandle )
+                    writeInt( handles.get( this ) );
+                for( int i = 0; i < types.length; ++i )
+                    writeArgument( types[i], args[i] );
+                return null;
+            }
+            if( method.getReturnType() == void.class )
+                throw new UnsupportedOperationException(
+                    "World compiler cannot record call to " + method );
+            return defaultValueFor( method.getReturnType() );
+        }
+
+        private Object invokeObjectMethod( Object proxy, Method method, Object[] args ) {
+            if( method.getName().equals( "equals" ) )
+                return proxy == args[0];
+            if( method.getName().equals( "hashCode" ) )
+                return System.identityHashCode( proxy );
+            return "recorded " + handles.get( this );
+        }
+    }
+
+    private static Object defaultValueFor( Class<?> type ) {
+        if( type == boolean.class )
+            return false;
+        if( type == int.class )
+            return 0;
+        return null;
+    }
+
+    private void writeArgument( Class<?> type, Object arg ) {
+        if( type == String.class )
+            writeString( (String)arg );
+        else if( type == int.class )
+            writeInt( (Integer)arg );
+        else if( type == boolean.class )
+            writeOp( (byte)((Boolean)arg ? 1 : 0) );
+        else if( type == Exit.DirectionHint.class )
+            writeOp( (byte)((Exit.DirectionHint)arg).ordinal() );
+        else
+            writeHandle( arg );
+    }
+
+    private void writeHandle( Object object ) {
+        if( object == null )
+            writeInt( NO_HANDLE );
+        else {
+            Integer handle = handles.get( Proxy.getInvocationHandler( object ) );
+            if( handle == null )
+                throw new UnsupportedOperationException(
+                    "World compiler cannot record reference to " + object );
+            writeInt( handle );
+        }
+    }
+
+    private void writeString( String s ) {
+        if( s == null ) {
+            writeInt( NULL_STRING );
+            return;
+        }
+        Integer index = stringIndices.get( s );
+        if( index == null ) {
+            strings.add( s );
+            index = strings.size();
+            stringIndices.put( s, index );
+        }
+        writeInt( index );
+    }
+
+    // The plain text populator adds each location area many times over, at
+    // first with the name of the area before it. Adding an area again
+    // replaces its name, so each area is written once, with the last name
+    // it was added with, at the end of the image.
+    private void writeLocationAreas() {
+        for( Map.Entry<String,String> area : locationAreas.entrySet() ) {
+            writeOp( ADD_LOCATION_AREA );
+            writeString( area.getKey() );
+            writeString( area.getValue() );
+        }
+    }
+
+    private void writeOp( byte op ) {
+        try {
+            ops.writeByte( op );
+        } catch( IOException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private void writeInt( int value ) {
+        try {
+            ops.writeInt( value );
+        } catch( IOException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    // Reads the file the same way the app reads raw resources: line by
+    // line with every line, including the last, ending in a newline.
+    public static String readWorldFile( String path ) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader( new FileInputStream( path ), "UTF-8" ) );
+        StringBuilder text = new StringBuilder();
+        try {
+            String line;
+            while( (line = reader.readLine()) != null ) {
+                text.append( line );
+                text.append( '\n' );
+            }
+        } finally {
+            reader.close();
+        }
+        return text.toString();
+    }
+
+    public static void main( String[] args ) throws IOException {
+        if( args.length != 2 ) {
+            System.err.println( "Usage: BinaryWorldCompiler <model_content.txt> <output image>" );
+            System.exit( 1 );
+        }
+        String content = readWorldFile( args[0] );
+        BinaryWorldCompiler compiler = new BinaryWorldCompiler();
+        byte[] image = compiler.compile( content );
+        if( compiler.loadsEquivalently( content, image ) == false ) {
+            System.err.println( "Compiled world image does not load equivalently to " + args[0] );
+            System.exit( 1 );
+        }
+        try {
+            new WorldTemplate( image );
+        } catch( IOException e ) {
+            System.err.println( e.getMessage() );
+            System.exit( 1 );
+        }
+        FileOutputStream out = new FileOutputStream( args[1] );
+        try {
+            out.write( image );
+        } finally {
+            out.close();
+        }
+        System.out.println( "Compiled " + args[0] + " (" + content.length() +
+                            " chars) to " + args[1] + " (" + image.length + " bytes)" );
+    }
+}
@@ -0,0 +1,64 @@
+package com.chewielouie.textadventure.serialisation;
+
+public class BinaryWorldFormat {
+    public static final int MAGIC = 0x54415731; // "TAW1"
+    public static final int VERSION = 1;
+    public static final int NO_HANDLE = -1;
+    public static final int NULL_STRING = 0;
+
+    // Model and inventory
+    public static final byte SET_MAXIMUM_SCORE = 1;
+    public static final byte ADD_LOCATION_AREA = 2;
+    public static final byte ADD_LOCATION = 3;
+    public static final byte ADD_TO_INVENTORY = 4;
+
+    // Object creation, each new object takes the next handle
+    public static final byte NEW_ITEM = 10;
+    public static final byte NEW_LOCATION = 11;
+    public static final byte NEW_EXIT = 12;
+    public static final byte NEW_ITEM_ACTION = 13;
+
+    // Item
+    public static final byte ITEM_SET_NAME = 20;
+    public static final byte ITEM_SET_DESCRIPTION = 21;
+    public static final byte ITEM_SET_ID = 22;
+    public static final byte ITEM_SET_COUNTABLE_NOUN_PREFIX = 23;
+    public static final byte ITEM_SET_MID_SENTENCE_CASED_NAME = 24;
+    public static final byte ITEM_SET_PROPER_NOUN = 25;
+    public static final byte ITEM_SET_PLURAL = 26;
+    public static final byte ITEM_SET_UNTAKEABLE = 27;
+    public static final byte ITEM_SET_USED_WITH_TEXT_FOR = 28;
+    public static final byte ITEM_SET_USE_IS_NOT_REPEATABLE_FOR = 29;
+    public static final byte ITEM_ADD_ON_USE_ACTION_FOR = 30;
+    public static final byte ITEM_SET_VISIBLE = 31;
+    public static final byte ITEM_SET_EXAMINE_TEXT = 32;
+    public static final byte ITEM_SET_EXAMINE_ACTION_IS_NOT_REPEATABLE = 33;
+    public static final byte ITEM_ADD_ON_EXAMINE_ACTION = 34;
+
+    // Talk phrases
+    public static final byte TALK_ADD_INITIAL_PHRASE = 40;
+    public static final byte TALK_ADD_RESPONSE = 41;
+    public static final byte TALK_ADD_FOLLOW_UP_PHRASE = 42;
+    public static final byte TALK_ADD_FOLLOW_UP_PHRASE_WITH_CONTENT = 43;
+    public static final byte TALK_ADD_ACTION_IN_RESPONSE_TO = 44;
+
+    // Location
+    public static final byte LOCATION_SET_X = 50;
+    public static final byte LOCATION_SET_Y = 51;
+    public static final byte LOCATION_SET_ID = 52;
+    public static final byte LOCATION_SET_AREA_ID = 53;
+    public static final byte LOCATION_SET_DESCRIPTION = 54;
+    public static final byte LOCATION_SET_TEXT_FOR_FIRST_ENTRY = 55;
+    public static final byte LOCATION_ADD_EXIT = 56;
+    public static final byte LOCATION_ADD_ITEM = 57;
+
+    // Exit
+    public static final byte EXIT_SET_LABEL = 60;
+    public static final byte EXIT_SET_DESTINATION = 61;
+    public static final byte EXIT_SET_DIRECTION_HINT = 62;
+    public static final byte EXIT_SET_INVISIBLE = 63;
+    public static final byte EXIT_SET_ID = 64;
+    public static final byte EXIT_ADD_ON_USE_ACTION = 65;
+
+    public static final byte END = 127;
+}
@@ -0,0 +1,293 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.BinaryWorldFormat.*;
+
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.ExitFactory;
+import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.ModelLocationFactory;
+import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.UserInventory;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.ItemFactory;
+import com.chewielouie.textadventure.item.TalkPhraseSink;
+import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BinaryWorldLoader {
+    private TextAdventureModel model;
+    private ModelLocationFactory locationFactory;
+    private UserInventory inventory;
+    private ItemFactory itemFactory;
+    private ExitFactory exitFactory;
+    private ItemActionFactory itemActionFactory;
+    private DataInputStream in;
+    private String[] strings;
+    private List<Object> objects = new ArrayList<Object>();
+
+    public BinaryWorldLoader( TextAdventureModel model,
+                              ModelLocationFactory locationFactory,
+                              UserInventory inventory,
+                              ItemFactory itemFactory,
+                              ExitFactory exitFactory,
+                              ItemActionFactory itemActionFactory ) {
+        this.model = model;
+        this.locationFactory = locationFactory;
+        this.inventory = inventory;
+        this.itemFactory = itemFactory;
+        this.exitFactory = exitFactory;
+        this.itemActionFactory = itemActionFactory;
+    }
+
+    public void load( InputStream input ) throws IOException {
+        in = new DataInputStream( new BufferedInputStream( input ) );
+        objects.clear();
+        readHeader();
+        readStringTable();
+        byte op;
+        while( (op = in.readByte()) != END )
+            enact( op );
+    }
+
+    private void readHeader() throws IOException {
+        if( in.readInt() != MAGIC )
+            throw new IOException( "Not a compiled world image" );
+        int version = in.readInt();
+        if( version != VERSION )
+            throw new IOException( "Unsupported compiled world version " + version );
+    }
+
+    private void readStringTable() throws IOException {
+        int count = in.readInt();
+        strings = new String[count + 1];
+        strings[NULL_STRING] = null;
+        for( int i = 1; i <= count; ++i ) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully( bytes );
+            strings[i] = new String( bytes, "UTF-8" );
+        }
+    }
+
+    private void enact( byte op ) throws IOException {
+        switch( op ) {
+            case SET_MAXIMUM_SCORE:
+                model.setMaximumScore( in.readInt() );
+                break;
+            case ADD_LOCATION_AREA: {
+                String id = string();
+                model.addLocationArea( id, string() );
+                break;
+            }
+            case ADD_LOCATION:
+                model.addLocation( location() );
+                break;
+            case ADD_TO_INVENTORY:
+                inventory.addToInventory( item() );
+                break;
+
+            case NEW_ITEM:
+                objects.add( itemFactory.create() );
+                break;
+            case NEW_LOCATION:
+                objects.add( locationFactory.create() );
+                break;
+            case NEW_EXIT:
+                objects.add( exitFactory.create() );
+                break;
+            case NEW_ITEM_ACTION: {
+                String content = string();
+                objects.add( itemActionFactory.create( content, item() ) );
+                break;
+            }
+
+            case ITEM_SET_NAME:
+                item().setName( string() );
+                break;
+            case ITEM_SET_DESCRIPTION:
+                item().setDescription( string() );
+                break;
+            case ITEM_SET_ID:
+                item().setId( string() );
+                break;
+            case ITEM_SET_COUNTABLE_NOUN_PREFIX:
+                item().setCountableNounPrefix( string() );
+                break;
+            case ITEM_SET_MID_SENTENCE_CASED_NAME:
+                item().setMidSentenceCasedName( string() );
+                break;
+            case ITEM_SET_PROPER_NOUN:
+                item().setProperNoun();
+                break;
+            case ITEM_SET_PLURAL:
+                item().setPlural();
+                break;
+            case ITEM_SET_UNTAKEABLE:
+                item().setUntakeable();
+                break;
+            case ITEM_SET_USED_WITH_TEXT_FOR: {
+                Item item = item();
+                String withItemID = string();
+                item.setUsedWithTextFor( withItemID, string() );
+                break;
+            }
+            case ITEM_SET_USE_IS_NOT_REPEATABLE_FOR:
+                item().setUseIsNotRepeatableFor( string() );
+                break;
+            case ITEM_ADD_ON_USE_ACTION_FOR: {
+                Item item = item();
+                String withItemID = string();
+                item.addOnUseActionFor( withItemID, itemAction() );
+                break;
+            }
+            case ITEM_SET_VISIBLE:
+                item().setVisible( in.readByte() != 0 );
+                break;
+            case ITEM_SET_EXAMINE_TEXT:
+                item().setExamineText( string() );
+                break;
+            case ITEM_SET_EXAMINE_ACTION_IS_NOT_REPEATABLE:
+                item().setExamineActionIsNotRepeatable();
+                break;
+            case ITEM_ADD_ON_EXAMINE_ACTION: {
+                Item item = item();
+                item.addOnExamineAction( itemAction() );
+                break;
+            }
+
+            case TALK_ADD_INITIAL_PHRASE: {
+                TalkPhraseSink sink = talkPhraseSink();
+                String id = string();
+                String shortContent = string();
+                String content = string();
+                if( sink != null )
+                    sink.addInitialPhrase( id, shortContent, content );
+                break;
+            }
+            case TALK_ADD_RESPONSE: {
+                TalkPhraseSink sink = talkPhraseSink();
+                String id = string();
+                String response = string();
+                if( sink != null )
+                    sink.addResponse( id, response );
+                break;
+            }
+            case TALK_ADD_FOLLOW_UP_PHRASE: {
+                TalkPhraseSink sink = talkPhraseSink();
+                String parentId = string();
+                String newPhraseId = string();
+                if( sink != null )
+                    sink.addFollowUpPhrase( parentId, newPhraseId );
+                break;
+            }
+            case TALK_ADD_FOLLOW_UP_PHRASE_WITH_CONTENT: {
+                TalkPhraseSink sink = talkPhraseSink();
+                String parentId = string();
+                String newPhraseId = string();
+                String shortContent = string();
+                String content = string();
+                if( sink != null )
+                    sink.addFollowUpPhrase( parentId, newPhraseId, shortContent, content );
+                break;
+            }
+            case TALK_ADD_ACTION_IN_RESPONSE_TO: {
+                TalkPhraseSink sink = talkPhraseSink();
+                String id = string();
+                ItemAction action = itemAction();
+                if( sink != null )
+                    sink.addActionInResponseTo( id, action );
+                break;
+            }
+
+            case LOCATION_SET_X:
+                location().setX( in.readInt() );
+                break;
+            case LOCATION_SET_Y:
+                location().setY( in.readInt() );
+                break;
+            case LOCATION_SET_ID:
+                location().setId( string() );
+                break;
+            case LOCATION_SET_AREA_ID:
+                location().setAreaID( string() );
+                break;
+            case LOCATION_SET_DESCRIPTION:
+                location().setLocationDescription( string() );
+                break;
+            case LOCATION_SET_TEXT_FOR_FIRST_ENTRY:
+                location().setTextForFirstEntry( string() );
+                break;
+            case LOCATION_ADD_EXIT: {
+                ModelLocation location = location();
+                location.addExit( exit() );
+                break;
+            }
+            case LOCATION_ADD_ITEM: {
+                ModelLocation location = location();
+                location.addItem( item() );
+                break;
+            }
+
+            case EXIT_SET_LABEL:
+                exit().setLabel( string() );
+                break;
+            case EXIT_SET_DESTINATION:
+                exit().setDestination( string() );
+                break;
+            case EXIT_SET_DIRECTION_HINT:
+                exit().setDirectionHint( Exit.DirectionHint.values()[in.readByte()] );
+                break;
+            case EXIT_SET_INVISIBLE:
+                exit().setInvisible();
+                break;
+            case EXIT_SET_ID:
+                exit().setID( string() );
+                break;
+            case EXIT_ADD_ON_USE_ACTION: {
+                Exit exit = exit();
+                exit.addOnUseAction( itemAction() );
+                break;
+            }
+
+            default:
+                throw new IOException( "Unknown compiled world opcode " + op );
+        }
+    }
+
+    private String string() throws IOException {
+        return strings[in.readInt()];
+    }
+
+    private Object object() throws IOException {
+        int handle = in.readInt();
+        if( handle == NO_HANDLE )
+            return null;
+        return objects.get( handle );
+    }
+
+    private Item item() throws IOException {
+        return (Item)object();
+    }
+
+    private TalkPhraseSink talkPhraseSink() throws IOException {
+        Item item = item();
+        return item == null ? null : item.getTalkPhraseSink();
+    }
+
+    private ModelLocation location() throws IOException {
+        return (ModelLocation)object();
+    }
+
+    private Exit exit() throws IOException {
+        return (Exit)object();
+    }
+
+    private ItemAction itemAction() throws IOException {
+        return (ItemAction)object();
+    }
+}
@@ -0,0 +1,32 @@
+package com.chewielouie.textadventure.serialisation;
+
+// Decides when a model state checkpoint should be saved while playing: once
+// a given number of actions have been recorded since the last, or as soon
+// as the score goes up, so that loading a game only has to replay the
+// actions after the newest checkpoint.
+public class CheckpointPolicy {
+    public static final int DEFAULT_INTERVAL = 100;
+    private int interval;
+    private int lastHistoryIndex = 0;
+    private int lastScore = 0;
+
+    public CheckpointPolicy() {
+        this( DEFAULT_INTERVAL );
+    }
+
+    public CheckpointPolicy( int interval ) {
+        this.interval = interval;
+    }
+
+    public boolean checkpointDue( int historyIndex, int score ) {
+        if( historyIndex <= lastHistoryIndex )
+            return false;
+        return score > lastScore || historyIndex - lastHistoryIndex >= interval;
+    }
+
+    // Called whenever a checkpoint is saved, or a game is loaded from one.
+    public void checkpointTaken( int historyIndex, int score ) {
+        lastHistoryIndex = historyIndex;
+        lastScore = score;
+    }
+}
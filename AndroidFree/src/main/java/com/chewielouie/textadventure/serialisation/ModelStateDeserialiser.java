@@ -0,0 +1,457 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.ModelStateTextFormat.*;
+
+import com.chewielouie.textadventure.DeserialiserUtils;
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.UserInventory;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.item.Item;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+public class ModelStateDeserialiser {
+
+    private class LocationState {
+        String id = "";
+        String description = null;
+        String firstEntryText = null;
+        List<String> itemIDs = new ArrayList<String>();
+    }
+
+    private class ExitState {
+        String id = "";
+        boolean visible = true;
+    }
+
+    private class ItemState {
+        String id = "";
+        String name = null;
+        String description = null;
+        String examineText = null;
+        String usedWithText = null;
+        boolean visible = true;
+        boolean used = false;
+        boolean examined = false;
+        List<String> alreadyUsedWithIDs = new ArrayList<String>();
+    }
+
+    private TextAdventureModel model;
+    private UserInventory inventory;
+    private String currentLocationID = "";
+    private int currentScore = 0;
+    private int actionHistorySize = 0;
+    private boolean actionHistorySizeGiven = false;
+    private boolean checksumMatches = true;
+    private long stateDigest = 0;
+    private boolean stateDigestGiven = false;
+    private int saveGeneration = 0;
+    private Set<String> exploredAreaIDs = new LinkedHashSet<String>();
+    private List<String> inventoryItemIDs = new ArrayList<String>();
+    private List<LocationState> locationStates = new ArrayList<LocationState>();
+    private List<ExitState> exitStates = new ArrayList<ExitState>();
+    private List<ItemState> itemStates = new ArrayList<ItemState>();
+    private String actionHistoryContent = "";
+    private String section = "";
+
+    public ModelStateDeserialiser( TextAdventureModel model, UserInventory inventory ) {
+        this.model = model;
+        this.inventory = inventory;
+    }
+
+    // The model is left as it was if the content is not a valid model
+    // state, which it is not if its checksum does not match or its current
+    // location is not in the model.
+    public boolean restore( String content ) {
+        if( parse( content ) == false || valid() == false )
+            return false;
+        apply();
+        return true;
+    }
+
+    // As restore(), but the state is also not valid if it was saved at a
+    // different point in the history to the history saved with it. The
+    // history is still read if the state is not valid, so it can be
+    // replayed from the start instead.
+    public boolean restoreWithActionHistory( String content,
+                                             ActionHistoryDeserialiser deserialiser,
+                                             ActionHistory history ) {
+        if( parse( content ) == false )
+            return false;
+        // The recorded actions refer to items by ID so must be resolved
+        // before any destroyed items are removed from the model.
+        history.clear();
+        deserialiser.deserialiseInto( actionHistoryContent, history );
+        return restoreOnActionHistory( history );
+    }
+
+    // As restoreWithActionHistory( String, ... ), reading the model state
+    // from the input and then streaming the history after it, so neither
+    // the save nor its history is ever held whole. The history is not kept
+    // as content, so actionHistoryContent() is empty. The input must
+    // support mark and is not closed.
+    public boolean restoreWithActionHistory( InputStream input,
+                                             ActionHistoryDeserialiser deserialiser,
+                                             ActionHistory history ) throws IOException {
+        if( parse( input ) == false )
+            return false;
+        history.clear();
+        deserialiser.deserialiseInto( input, history );
+        return restoreOnActionHistory( history );
+    }
+
+    // Reads the input up to the action history saved with a model state,
+    // so the history can be read from it alone. The input must support
+    // mark and is not closed.
+    public static void skipToActionHistory( InputStream input ) throws IOException {
+        if( ModelStateTextFormat.isModelState( input ) == false )
+            return;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while( readLine( input, line ) )
+            if( text( line ).equals( ACTION_HISTORY_SECTION ) )
+                return;
+    }
+
+    private boolean restoreOnActionHistory( ActionHistory history ) {
+        if( valid() == false )
+            return false;
+        if( actionHistorySizeGiven && history.size() != actionHistorySize ) {
+            System.out.println( "Model state is of action " + actionHistorySize +
+                                " but " + history.size() + " actions were saved with it" );
+            return false;
+        }
+        apply();
+        return true;
+    }
+
+    private boolean valid() {
+        if( checksumMatches == false ) {
+            System.out.println( "Bad checksum in model state" );
+            return false;
+        }
+        if( currentLocationID.length() > 0 && model.findLocationByID( currentLocationID ) == null ) {
+            System.out.println( "Model state is at unknown location - '" + currentLocationID + "'" );
+            return false;
+        }
+        return true;
+    }
+
+    // Whether the model, once restored, has the state digest it was saved
+    // with. If not, something about the model was not saved or not put
+    // back, and the history should be replayed on a new model instead.
+    public boolean restoredStateMatchesDigest() {
+        if( stateDigestGiven && model.stateDigest() != stateDigest ) {
+            System.out.println( "Restored model state digest " + model.stateDigest() +
+                                " is not the " + stateDigest + " saved" );
+            return false;
+        }
+        return true;
+    }
+
+    public int actionHistorySize() {
+        return actionHistorySize;
+    }
+
+    // Read even if the model state is not valid, as the save journal that
+    // follows on from the snapshot is still of its generation.
+    public int saveGeneration() {
+        return saveGeneration;
+    }
+
+    public Set<String> exploredAreaIDs() {
+        return exploredAreaIDs;
+    }
+
+    public String actionHistoryContent() {
+        return actionHistoryContent;
+    }
+
+    private boolean parse( String content ) {
+        if( ModelStateTextFormat.isModelState( content ) == false )
+            return false;
+        int startOfLine = 0;
+        while( startOfLine < content.length() ) {
+            int endOfLine = content.indexOf( "\n", startOfLine );
+            if( endOfLine == DeserialiserUtils.NOT_FOUND )
+                endOfLine = content.length();
+            String line = content.substring( startOfLine, endOfLine );
+            startOfLine = endOfLine + 1;
+            if( line.equals( ACTION_HISTORY_SECTION ) ) {
+                if( startOfLine < content.length() )
+                    actionHistoryContent = content.substring( startOfLine );
+                break;
+            }
+            if( line.startsWith( MODEL_STATE_CHECKSUM_TAG + SEPERATOR ) )
+                checkChecksum( line,
+                    checksum( content.substring( 0, startOfLine - line.length() - 1 ) ) );
+            else
+                parseLine( line );
+        }
+        return true;
+    }
+
+    // As parse( String ), leaving the input just after the line that starts
+    // the action history, with the checksum kept up to date as each line
+    // is read.
+    private boolean parse( InputStream input ) throws IOException {
+        if( ModelStateTextFormat.isModelState( input ) == false )
+            return false;
+        CRC32 crc = new CRC32();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        while( readLine( input, bytes ) ) {
+            String line = text( bytes );
+            if( line.equals( ACTION_HISTORY_SECTION ) )
+                break;
+            if( line.startsWith( MODEL_STATE_CHECKSUM_TAG + SEPERATOR ) )
+                checkChecksum( line, crc.getValue() );
+            else
+                parseLine( line );
+            crc.update( bytes.toByteArray() );
+            crc.update( '\n' );
+        }
+        return true;
+    }
+
+    // Reads the bytes of a line, without its '\n', into the buffer given.
+    // Returns false if the input had ended.
+    private static boolean readLine( InputStream input, ByteArrayOutputStream line )
+        throws IOException {
+        line.reset();
+        int b = input.read();
+        if( b == -1 )
+            return false;
+        while( b != -1 && b != '\n' ) {
+            line.write( b );
+            b = input.read();
+        }
+        return true;
+    }
+
+    private static String text( ByteArrayOutputStream line ) throws IOException {
+        return line.toString( "UTF-8" );
+    }
+
+    private void checkChecksum( String line, long checksumOfContent ) {
+        String value = line.substring( MODEL_STATE_CHECKSUM_TAG.length() + SEPERATOR.length() );
+        try {
+            checksumMatches = Long.parseLong( value ) == checksumOfContent;
+        } catch( NumberFormatException e ) {
+            checksumMatches = false;
+        }
+    }
+
+    private void parseLine( String line ) {
+        int endOfTag = line.indexOf( SEPERATOR );
+        if( endOfTag == DeserialiserUtils.NOT_FOUND )
+            startSection( line );
+        else
+            parseTagAndValue( line.substring( 0, endOfTag ),
+                DeserialiserUtils.convertEncodedNewLines( line.substring( endOfTag + 1 ) ) );
+    }
+
+    private void startSection( String line ) {
+        section = line;
+        if( section.equals( LOCATION_SECTION ) )
+            locationStates.add( new LocationState() );
+        else if( section.equals( EXIT_SECTION ) )
+            exitStates.add( new ExitState() );
+        else if( section.equals( ITEM_SECTION ) )
+            itemStates.add( new ItemState() );
+    }
+
+    private void parseTagAndValue( String tag, String value ) {
+        if( section.equals( MODEL_STATE_SECTION ) )
+            parseGlobalState( tag, value );
+        else if( section.equals( LOCATION_SECTION ) )
+            parseLocationState( lastOf( locationStates ), tag, value );
+        else if( section.equals( EXIT_SECTION ) )
+            parseExitState( lastOf( exitStates ), tag, value );
+        else if( section.equals( ITEM_SECTION ) )
+            parseItemState( lastOf( itemStates ), tag, value );
+    }
+
+    private <T> T lastOf( List<T> list ) {
+        return list.get( list.size() - 1 );
+    }
+
+    private void parseGlobalState( String tag, String value ) {
+        if( tag.equals( CURRENT_LOCATION_ID_TAG ) )
+            currentLocationID = value;
+        else if( tag.equals( CURRENT_SCORE_TAG ) )
+            currentScore = parseNumber( value );
+        else if( tag.equals( ACTION_HISTORY_SIZE_TAG ) ) {
+            actionHistorySize = parseNumber( value );
+            actionHistorySizeGiven = true;
+        }
+        else if( tag.equals( MODEL_STATE_DIGEST_TAG ) )
+            parseStateDigest( value );
+        else if( tag.equals( EXPLORED_AREA_ID_TAG ) )
+            exploredAreaIDs.add( value );
+        else if( tag.equals( INVENTORY_ITEM_ID_TAG ) )
+            inventoryItemIDs.add( value );
+        else if( tag.equals( SAVE_GENERATION_TAG ) )
+            saveGeneration = parseNumber( value );
+    }
+
+    private void parseStateDigest( String value ) {
+        try {
+            stateDigest = Long.parseLong( value );
+            stateDigestGiven = true;
+        } catch( NumberFormatException e ) {
+            System.out.println("Bad state digest in model state - '" + value + "'");
+        }
+    }
+
+    private int parseNumber( String value ) {
+        try {
+            return Integer.parseInt( value );
+        } catch( NumberFormatException e ) {
+            System.out.println("Bad number format in model state - '" + value + "'");
+        }
+        return 0;
+    }
+
+    private void parseLocationState( LocationState l, String tag, String value ) {
+        if( tag.equals( LOCATION_ID_TAG ) )
+            l.id = value;
+        else if( tag.equals( LOCATION_DESCRIPTION_TAG ) )
+            l.description = value;
+        else if( tag.equals( LOCATION_FIRST_ENTRY_TEXT_TAG ) )
+            l.firstEntryText = value;
+        else if( tag.equals( LOCATION_ITEM_ID_TAG ) )
+            l.itemIDs.add( value );
+    }
+
+    private void parseExitState( ExitState e, String tag, String value ) {
+        if( tag.equals( EXIT_ID_TAG ) )
+            e.id = value;
+        else if( tag.equals( EXIT_VISIBILITY_TAG ) )
+            e.visible = !value.equals( INVISIBLE );
+    }
+
+    private void parseItemState( ItemState i, String tag, String value ) {
+        if( tag.equals( ITEM_ID_TAG ) )
+            i.id = value;
+        else if( tag.equals( ITEM_NAME_TAG ) )
+            i.name = value;
+        else if( tag.equals( ITEM_DESCRIPTION_TAG ) )
+            i.description = value;
+        else if( tag.equals( ITEM_VISIBILITY_TAG ) )
+            i.visible = !value.equals( INVISIBLE );
+        else if( tag.equals( ITEM_EXAMINE_MESSAGE_TAG ) )
+            i.examineText = value;
+        else if( tag.equals( ITEM_USED_WITH_TEXT_TAG ) )
+            i.usedWithText = value;
+        else if( tag.equals( ITEM_HAS_BEEN_USED_TAG ) )
+            i.used = true;
+        else if( tag.equals( ITEM_HAS_BEEN_EXAMINED_TAG ) )
+            i.examined = true;
+        else if( tag.equals( ITEM_ALREADY_USED_WITH_TAG ) )
+            i.alreadyUsedWithIDs.add( value );
+    }
+
+    private void apply() {
+        Map<String,Item> allItems = removeAllItemsFromTheirContainers();
+        destroyItemsNotInState( allItems );
+        placeItems( allItems );
+        applyItemStates( allItems );
+        applyExitStates();
+        model.setCurrentScore( currentScore );
+        if( model.findLocationByID( currentLocationID ) != null )
+            model.setCurrentLocation( currentLocationID );
+        applyLocationStates();
+    }
+
+    private Map<String,Item> removeAllItemsFromTheirContainers() {
+        Map<String,Item> allItems = new HashMap<String,Item>();
+        for( Item item : new ArrayList<Item>( inventory.inventoryItems() ) ) {
+            allItems.put( item.id(), item );
+            inventory.removeFromInventory( item );
+        }
+        for( ModelLocation location : model.locations() ) {
+            for( Item item : new ArrayList<Item>( location.items() ) ) {
+                allItems.put( item.id(), item );
+                location.removeItem( item );
+            }
+        }
+        return allItems;
+    }
+
+    private void destroyItemsNotInState( Map<String,Item> allItems ) {
+        Set<String> placedItemIDs = new HashSet<String>( inventoryItemIDs );
+        for( LocationState l : locationStates )
+            placedItemIDs.addAll( l.itemIDs );
+        for( String id : allItems.keySet() )
+            if( placedItemIDs.contains( id ) == false )
+                model.destroyItem( id );
+    }
+
+    private void placeItems( Map<String,Item> allItems ) {
+        for( String id : inventoryItemIDs )
+            if( allItems.containsKey( id ) )
+                inventory.addToInventory( allItems.get( id ) );
+        for( LocationState l : locationStates ) {
+            ModelLocation location = model.findLocationByID( l.id );
+            if( location != null )
+                for( String id : l.itemIDs )
+                    if( allItems.containsKey( id ) )
+                        location.addItem( allItems.get( id ) );
+        }
+    }
+
+    private void applyItemStates( Map<String,Item> allItems ) {
+        for( ItemState i : itemStates ) {
+            Item item = allItems.get( i.id );
+            if( item == null )
+                continue;
+            if( i.name != null )
+                item.setName( i.name );
+            if( i.description != null )
+                item.setDescription( i.description );
+            if( i.examineText != null )
+                item.setExamineText( i.examineText );
+            if( i.usedWithText != null )
+                item.setUsedWithText( i.usedWithText );
+            item.setVisible( i.visible );
+            item.setUsed( i.used );
+            item.setExamined( i.examined );
+            for( String withItemID : i.alreadyUsedWithIDs )
+                item.setAlreadyUsedWith( withItemID );
+        }
+    }
+
+    private void applyExitStates() {
+        for( ExitState e : exitStates ) {
+            Exit exit = model.findExitByID( e.id );
+            if( exit != null ) {
+                if( e.visible )
+                    exit.setVisible();
+                else
+                    exit.setInvisible();
+            }
+        }
+    }
+
+    private void applyLocationStates() {
+        for( LocationState l : locationStates ) {
+            ModelLocation location = model.findLocationByID( l.id );
+            if( location == null )
+                continue;
+            if( l.description != null )
+                location.setLocationDescription( l.description );
+            if( l.firstEntryText != null )
+                location.setTextForFirstEntry( l.firstEntryText );
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.ModelStateTextFormat.*;
+
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.item.Item;
+import java.io.IOException;
+import java.lang.StringBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ModelStateSerialiser {
+    private TextAdventureModel model;
+    private ActionHistory actionHistory = null;
+    private Collection<String> exploredAreaIDs = new ArrayList<String>();
+    private int saveGeneration = 0;
+    private StringBuilder stringBuilder = null;
+
+    public ModelStateSerialiser( TextAdventureModel model ) {
+        this.model = model;
+    }
+
+    public void setActionHistory( ActionHistory history ) {
+        this.actionHistory = history;
+    }
+
+    public void setExploredAreaIDs( Collection<String> ids ) {
+        this.exploredAreaIDs = ids;
+    }
+
+    public void setSaveGeneration( int generation ) {
+        this.saveGeneration = generation;
+    }
+
+    public String serialise() {
+        serialiseModel();
+        serialiseActionHistory( actionHistory, stringBuilder );
+        return stringBuilder.toString();
+    }
+
+    // Serialises the model now, but the action history, which is most of
+    // a save, from a snapshot of it when the returned snapshot is.
+    public SaveWriter.Snapshot snapshot() {
+        serialiseModel();
+        final String modelState = stringBuilder.toString();
+        final ActionHistory history = actionHistory == null ? null : actionHistory.snapshot();
+        return new SaveWriter.Snapshot() {
+            public byte[] serialise() throws IOException {
+                StringBuilder s = new StringBuilder( modelState );
+                serialiseActionHistory( history, s );
+                return s.toString().getBytes( "UTF-8" );
+            }
+        };
+    }
+
+    private void serialiseModel() {
+        stringBuilder = new StringBuilder();
+        List<Item> items = new ArrayList<Item>();
+        serialiseGlobalState();
+        for( Item item : model.inventoryItems() ) {
+            appendTagAndValue( INVENTORY_ITEM_ID_TAG, item.id() );
+            items.add( item );
+        }
+        for( ModelLocation location : model.locations() ) {
+            serialiseLocation( location );
+            items.addAll( location.items() );
+        }
+        for( ModelLocation location : model.locations() )
+            for( Exit exit : location.exitsIncludingInvisibleOnes() )
+                serialiseExit( exit );
+        for( Item item : items )
+            serialiseItem( item );
+        appendTagAndValue( MODEL_STATE_CHECKSUM_TAG,
+                           Long.toString( checksum( stringBuilder.toString() ) ) );
+    }
+
+    private void serialiseGlobalState() {
+        appendSection( MODEL_STATE_SECTION );
+        appendTagAndValue( VERSION_TAG, Integer.toString( CURRENT_VERSION ) );
+        appendTagAndValue( CURRENT_LOCATION_ID_TAG, model.currentLocation().id() );
+        appendTagAndValue( CURRENT_SCORE_TAG, Integer.toString( model.currentScore() ) );
+        appendTagAndValue( MODEL_STATE_DIGEST_TAG, Long.toString( model.stateDigest() ) );
+        if( actionHistory != null )
+            appendTagAndValue( ACTION_HISTORY_SIZE_TAG, Integer.toString( actionHistory.size() ) );
+        for( String areaID : exploredAreaIDs )
+            appendTagAndValue( EXPLORED_AREA_ID_TAG, areaID );
+        if( saveGeneration != 0 )
+            appendTagAndValue( SAVE_GENERATION_TAG, Integer.toString( saveGeneration ) );
+    }
+
+    private void serialiseLocation( ModelLocation location ) {
+        appendSection( LOCATION_SECTION );
+        appendTagAndValue( LOCATION_ID_TAG, location.id() );
+        appendTagAndValue( LOCATION_DESCRIPTION_TAG, location.description() );
+        appendTagAndValue( LOCATION_FIRST_ENTRY_TEXT_TAG, location.contextualText() );
+        for( Item item : location.items() )
+            appendTagAndValue( LOCATION_ITEM_ID_TAG, item.id() );
+    }
+
+    private void serialiseExit( Exit exit ) {
+        appendSection( EXIT_SECTION );
+        appendTagAndValue( EXIT_ID_TAG, exit.id() );
+        appendTagAndValue( EXIT_VISIBILITY_TAG, exit.visible() ? VISIBLE : INVISIBLE );
+    }
+
+    private void serialiseItem( Item item ) {
+        appendSection( ITEM_SECTION );
+        appendTagAndValue( ITEM_ID_TAG, item.id() );
+        appendTagAndValue( ITEM_NAME_TAG, item.name() );
+        appendTagAndValue( ITEM_DESCRIPTION_TAG, item.description() );
+        appendTagAndValue( ITEM_VISIBILITY_TAG, item.visible() ? VISIBLE : INVISIBLE );
+        appendTagAndValue( ITEM_EXAMINE_MESSAGE_TAG, item.examineText() );
+        appendTagAndValue( ITEM_USED_WITH_TEXT_TAG, item.usedWithText() );
+        if( item.used() )
+            appendTagAndValue( ITEM_HAS_BEEN_USED_TAG, "" );
+        if( item.examined() )
+            appendTagAndValue( ITEM_HAS_BEEN_EXAMINED_TAG, "" );
+        for( String id : item.itemIDsAlreadyUsedWith() )
+            appendTagAndValue( ITEM_ALREADY_USED_WITH_TAG, id );
+    }
+
+    private static void serialiseActionHistory( ActionHistory history, StringBuilder s ) {
+        if( history != null ) {
+            s.append( ACTION_HISTORY_SECTION );
+            s.append( "\n" );
+            s.append( new ActionHistorySerialiser( history ).serialise() );
+        }
+    }
+
+    private void appendSection( String section ) {
+        stringBuilder.append( section );
+        stringBuilder.append( "\n" );
+    }
+
+    private void appendTagAndValue( String tag, String value ) {
+        stringBuilder.append( tag );
+        stringBuilder.append( SEPERATOR );
+        if( value != null )
+            stringBuilder.append( value.replace( "\n", ENCODED_NEWLINE ) );
+        stringBuilder.append( "\n" );
+    }
+}
@@ -0,0 +1,87 @@
+package com.chewielouie.textadventure.serialisation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.zip.CRC32;
+
+public class ModelStateTextFormat {
+    public static final String SEPERATOR = ":";
+    public static final String ENCODED_NEWLINE = "<newline>";
+
+    public static final String MODEL_STATE_SECTION = "MODEL STATE";
+    public static final String LOCATION_SECTION = "LOCATION";
+    public static final String EXIT_SECTION = "EXIT";
+    public static final String ITEM_SECTION = "ITEM";
+    public static final String ACTION_HISTORY_SECTION = "ACTION HISTORY";
+
+    public static final String VERSION_TAG = "model state version";
+    public static final String CURRENT_LOCATION_ID_TAG = "current location id";
+    public static final String CURRENT_SCORE_TAG = "current score";
+    public static final String ACTION_HISTORY_SIZE_TAG = "action history size";
+    public static final String EXPLORED_AREA_ID_TAG = "explored area id";
+    public static final String INVENTORY_ITEM_ID_TAG = "inventory item id";
+    // The model's state digest when it was saved, which it should have
+    // again once restored.
+    public static final String MODEL_STATE_DIGEST_TAG = "model state digest";
+    // Changes each time the saved history is compacted, which renumbers its
+    // actions, so that only save journal blocks numbered as this snapshot
+    // is are replayed on it. Not written for generation 0.
+    public static final String SAVE_GENERATION_TAG = "save generation";
+    // The CRC32 of the UTF-8 bytes of everything before it. It ends the
+    // model state, just before any action history.
+    public static final String MODEL_STATE_CHECKSUM_TAG = "model state checksum";
+
+    public static final String LOCATION_ID_TAG = "location id";
+    public static final String LOCATION_DESCRIPTION_TAG = "location description";
+    public static final String LOCATION_FIRST_ENTRY_TEXT_TAG = "text to show on first entry";
+    public static final String LOCATION_ITEM_ID_TAG = "location item id";
+
+    public static final String EXIT_ID_TAG = "exit id";
+    public static final String EXIT_VISIBILITY_TAG = "exit visibility";
+
+    public static final String ITEM_ID_TAG = "item id";
+    public static final String ITEM_NAME_TAG = "item name";
+    public static final String ITEM_DESCRIPTION_TAG = "item description";
+    public static final String ITEM_VISIBILITY_TAG = "item visibility";
+    public static final String ITEM_EXAMINE_MESSAGE_TAG = "item examine message";
+    public static final String ITEM_USED_WITH_TEXT_TAG = "item used with text";
+    public static final String ITEM_HAS_BEEN_USED_TAG = "item has been used";
+    public static final String ITEM_HAS_BEEN_EXAMINED_TAG = "item has been examined";
+    public static final String ITEM_ALREADY_USED_WITH_TAG = "item already used with";
+
+    public static final String VISIBLE = "visible";
+    public static final String INVISIBLE = "invisible";
+
+    public static final int CURRENT_VERSION = 1;
+
+    public static long checksum( String content ) {
+        CRC32 crc = new CRC32();
+        try {
+            byte[] bytes = content.getBytes( "UTF-8" );
+            crc.update( bytes, 0, bytes.length );
+        } catch( UnsupportedEncodingException e ) {
+            throw new IllegalStateException( e );
+        }
+        return crc.getValue();
+    }
+
+    public static boolean isModelState( String content ) {
+        return content != null && content.startsWith( MODEL_STATE_SECTION + "\n" );
+    }
+
+    // Looks at the start of the input without consuming it, so the input
+    // must support mark.
+    public static boolean isModelState( InputStream input ) throws IOException {
+        byte[] start = (MODEL_STATE_SECTION + "\n").getBytes( "UTF-8" );
+        input.mark( start.length );
+        try {
+            for( byte b : start )
+                if( input.read() != (b & 0xff) )
+                    return false;
+            return true;
+        } finally {
+            input.reset();
+        }
+    }
+}
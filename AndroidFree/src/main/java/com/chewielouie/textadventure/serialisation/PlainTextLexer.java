@@ -0,0 +1,133 @@
+package com.chewielouie.textadventure.serialisation;
+
+import com.chewielouie.textadventure.DeserialiserUtils;
+
+// Walks plain text model content once, a line at a time. Each line is
+// either a section header, a "tag:value" pair or free text continuing a
+// multi-line value. Lines are addressed by offset into the original
+// content so no per-section substrings are made.
+public class PlainTextLexer {
+    public static final String PROPERTIES_SECTION = "PROPERTIES";
+    public static final String INVENTORY_ITEM_SECTION = "INVENTORY ITEM";
+    public static final String LOCATION_AREA_SECTION = "LOCATION AREA";
+    public static final String LOCATION_SECTION = "LOCATION";
+    public static final String EXIT_SECTION = "EXIT";
+    public static final String ITEM_SECTION = "ITEM";
+    private static final String[] sections = { PROPERTIES_SECTION, INVENTORY_ITEM_SECTION,
+                                               LOCATION_AREA_SECTION, LOCATION_SECTION,
+                                               EXIT_SECTION, ITEM_SECTION };
+    private String content;
+    private int end;
+    private int lineStart = 0;
+    private int lineEnd = 0;
+    private int nextLineStart = 0;
+
+    public PlainTextLexer( String content ) {
+        this( content, 0, content.length() );
+    }
+
+    // Reads only the lines between the start and end offsets of the content.
+    public PlainTextLexer( String content, int start, int end ) {
+        this.content = content;
+        this.end = end;
+        this.lineStart = this.lineEnd = this.nextLineStart = start;
+    }
+
+    public boolean next() {
+        if( nextLineStart >= end ) {
+            lineStart = lineEnd = end;
+            return false;
+        }
+        lineStart = nextLineStart;
+        lineEnd = content.indexOf( '\n', lineStart );
+        if( lineEnd == DeserialiserUtils.NOT_FOUND || lineEnd > end )
+            lineEnd = end;
+        nextLineStart = lineEnd + 1;
+        return true;
+    }
+
+    public int nextLineStart() {
+        return Math.min( nextLineStart, end );
+    }
+
+    // Makes the next call to next() return the current line again, so a
+    // deserialiser can stop at a section header and leave it for its caller.
+    public void pushBack() {
+        nextLineStart = lineStart;
+    }
+
+    public int lineStart() {
+        return lineStart;
+    }
+
+    public int lineEnd() {
+        return lineEnd;
+    }
+
+    public boolean isSectionHeader() {
+        for( String section : sections )
+            if( isSection( section ) )
+                return true;
+        return false;
+    }
+
+    public boolean isSection( String section ) {
+        return lineEnd - lineStart == section.length() &&
+               content.startsWith( section, lineStart );
+    }
+
+    public boolean hasTag( String tag ) {
+        return lineEnd - lineStart >= tag.length() &&
+               content.startsWith( tag, lineStart );
+    }
+
+    public String valueAfter( String tag ) {
+        return DeserialiserUtils.convertEncodedNewLines( rawValueAfter( tag ) );
+    }
+
+    public String rawValueAfter( String tag ) {
+        return content.substring( lineStart + tag.length(), lineEnd );
+    }
+
+    public String text( int start, int end ) {
+        return content.substring( start, end );
+    }
+
+    public boolean isTopLevelSectionHeader() {
+        return isSection( PROPERTIES_SECTION ) || isSection( INVENTORY_ITEM_SECTION ) ||
+               isSection( LOCATION_AREA_SECTION ) || isSection( LOCATION_SECTION );
+    }
+
+    // Skips the body of the current section, returning it as text for
+    // deserialisers that only understand whole section content.
+    public String skipSection() {
+        return skipSection( false );
+    }
+
+    // As skipSection() but EXIT and ITEM sections are taken to be part of
+    // the body, as they are for locations.
+    public String skipTopLevelSection() {
+        return skipSection( true );
+    }
+
+    // Skips the body of the current top level section without copying it,
+    // returning the offset where it ends.
+    public int skipToEndOfTopLevelSection() {
+        return skipToEndOfSection( true );
+    }
+
+    private String skipSection( boolean topLevelOnly ) {
+        int start = nextLineStart();
+        return content.substring( start, Math.max( start, skipToEndOfSection( topLevelOnly ) ) );
+    }
+
+    private int skipToEndOfSection( boolean topLevelOnly ) {
+        while( next() ) {
+            if( topLevelOnly ? isTopLevelSectionHeader() : isSectionHeader() ) {
+                pushBack();
+                return lineStart;
+            }
+        }
+        return end;
+    }
+}
@@ -0,0 +1,314 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.SaveJournalTextFormat.*;
+
+import com.chewielouie.textadventure.action.ActionHistory;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.StringBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Each call to append() writes one block: the serialised actions recorded
+// since the previous append followed by a footer line of the form
+//   journal block end:<first action index>:<action count>:<payload bytes>:<crc32>:<generation>:
+// The file is synced before append() returns. A block without a complete,
+// matching footer is a torn write and is truncated away on the next read().
+//
+// The generation is that of the snapshot the block follows on from. It
+// changes when a history is compacted, as that renumbers its actions, and
+// blocks of any other generation are never read. Footers written before
+// there were generations are of generation 0.
+public class SaveJournal {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 500;
+    private File file;
+    private int compactionThreshold;
+    private int journalledActionCount = 0;
+    private int generation = 0;
+
+    public SaveJournal( File file ) {
+        this( file, DEFAULT_COMPACTION_THRESHOLD );
+    }
+
+    public SaveJournal( File file, int compactionThreshold ) {
+        this.file = file;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public int journalledActionCount() {
+        return journalledActionCount;
+    }
+
+    public boolean needsCompaction() {
+        return journalledActionCount >= compactionThreshold;
+    }
+
+    public int generation() {
+        return generation;
+    }
+
+    // Blocks are read and appended as of this generation from now on.
+    public void setGeneration( int generation ) {
+        this.generation = generation;
+    }
+
+    // Moves on to a generation after any in the journal, for a history
+    // that does not follow on from the last snapshot.
+    public void startNewGeneration() {
+        int latest = generation;
+        for( Block block : validBlocks( readFile() ) )
+            latest = Math.max( latest, block.generation );
+        generation = latest + 1;
+    }
+
+    public boolean append( ActionHistory history, int firstIndex ) {
+        int count = history.size() - firstIndex;
+        if( count <= 0 )
+            return true;
+        try {
+            byte[] payload = new ActionHistorySerialiser( history )
+                                    .serialiseFrom( firstIndex ).getBytes( CHARSET );
+            byte[] footer = footerFor( firstIndex, count, payload ).getBytes( CHARSET );
+            FileOutputStream out = new FileOutputStream( file, true );
+            try {
+                out.write( payload );
+                out.write( footer );
+                out.flush();
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            journalledActionCount += count;
+            return true;
+        } catch( IOException e ) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private String footerFor( int firstIndex, int count, byte[] payload ) {
+        return BLOCK_END_TAG + SEPERATOR + firstIndex + SEPERATOR + count + SEPERATOR +
+               payload.length + SEPERATOR + checksum( payload, 0, payload.length ) +
+               SEPERATOR + generation + SEPERATOR + "\n";
+    }
+
+    private static long checksum( byte[] bytes, int offset, int length ) {
+        CRC32 crc = new CRC32();
+        crc.update( bytes, offset, length );
+        return crc.getValue();
+    }
+
+    // Returns the serialised actions from the given history index onwards,
+    // of the journal's generation. Blocks wholly before that index were
+    // already folded into a snapshot. Blocks that do not follow on from it
+    // are not read but are kept, as a later snapshot may still be written
+    // that they follow on from; only a torn block at the end is truncated
+    // away.
+    public String read( int fromIndex ) {
+        journalledActionCount = 0;
+        byte[] bytes = readFile();
+        List<Block> blocks = validBlocks( bytes );
+        StringBuilder actions = new StringBuilder();
+        int nextIndex = fromIndex;
+        boolean followsOn = true;
+        for( Block block : blocks ) {
+            if( block.generation != generation )
+                continue;
+            if( block.firstIndex > nextIndex )
+                followsOn = false;
+            if( followsOn ) {
+                appendActionsFrom( actions, bytes, block.start, block.footerStart,
+                                   nextIndex - block.firstIndex );
+                nextIndex = Math.max( nextIndex, block.firstIndex + block.count );
+            }
+            journalledActionCount += block.count;
+        }
+        if( validLength( blocks ) < bytes.length )
+            truncate( validLength( blocks ) );
+        return actions.toString();
+    }
+
+    // Drops the blocks wholly before the given history index, and those of
+    // other generations, once a snapshot of the journal's generation
+    // holding those actions is on disk. Later blocks are kept, as they hold
+    // actions that no snapshot does yet.
+    public void discardBefore( int index ) {
+        byte[] bytes = readFile();
+        List<Block> blocks = validBlocks( bytes );
+        List<Block> kept = new ArrayList<Block>();
+        int keptCount = 0;
+        for( Block block : blocks )
+            if( block.generation == generation && block.firstIndex + block.count > index ) {
+                kept.add( block );
+                keptCount += block.count;
+            }
+        if( kept.size() == blocks.size() && validLength( blocks ) == bytes.length )
+            return;
+        if( kept.isEmpty() )
+            truncate( 0 );
+        else
+            replaceWith( bytes, kept );
+        journalledActionCount = keptCount;
+    }
+
+    private static int validLength( List<Block> blocks ) {
+        return blocks.isEmpty() ? 0 : blocks.get( blocks.size() - 1 ).end;
+    }
+
+    public void clear() {
+        journalledActionCount = 0;
+        truncate( 0 );
+    }
+
+    private static List<Block> validBlocks( byte[] bytes ) {
+        List<Block> blocks = new ArrayList<Block>();
+        int blockStart = 0;
+        int lineStart = 0;
+        while( lineStart < bytes.length ) {
+            int lineEnd = indexOfNewline( bytes, lineStart );
+            if( lineEnd == -1 )
+                break;
+            Block block = parseFooter( bytes, lineStart, lineEnd );
+            if( block != null ) {
+                block.start = blockStart;
+                block.footerStart = lineStart;
+                block.end = lineEnd + 1;
+                if( block.isValidFor( bytes ) == false )
+                    break;
+                blocks.add( block );
+                blockStart = block.end;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return blocks;
+    }
+
+    // Written beside the journal and renamed over it, so that a crash part
+    // way through leaves either the old journal or the new one.
+    private void replaceWith( byte[] bytes, List<Block> blocks ) {
+        File temporary = new File( file.getPath() + ".tmp" );
+        try {
+            FileOutputStream out = new FileOutputStream( temporary );
+            try {
+                for( Block block : blocks )
+                    out.write( bytes, block.start, block.end - block.start );
+                out.flush();
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            if( temporary.renameTo( file ) == false )
+                throw new IOException( "Cannot replace " + file );
+        } catch( IOException e ) {
+            e.printStackTrace();
+            temporary.delete();
+        }
+    }
+
+    private byte[] readFile() {
+        if( file.exists() == false )
+            return new byte[0];
+        try {
+            byte[] bytes = new byte[(int)file.length()];
+            FileInputStream in = new FileInputStream( file );
+            try {
+                int read = 0;
+                while( read < bytes.length ) {
+                    int n = in.read( bytes, read, bytes.length - read );
+                    if( n == -1 )
+                        break;
+                    read += n;
+                }
+            } finally {
+                in.close();
+            }
+            return bytes;
+        } catch( IOException e ) {
+            e.printStackTrace();
+        }
+        return new byte[0];
+    }
+
+    private void truncate( long length ) {
+        if( file.exists() == false )
+            return;
+        try {
+            RandomAccessFile f = new RandomAccessFile( file, "rw" );
+            try {
+                f.setLength( length );
+                f.getFD().sync();
+            } finally {
+                f.close();
+            }
+        } catch( IOException e ) {
+            e.printStackTrace();
+        }
+    }
+
+    private static int indexOfNewline( byte[] bytes, int from ) {
+        for( int i = from; i < bytes.length; ++i )
+            if( bytes[i] == '\n' )
+                return i;
+        return -1;
+    }
+
+    private void appendActionsFrom( StringBuilder actions, byte[] bytes,
+                                    int start, int end, int linesToSkip ) {
+        int lineStart = start;
+        for( int skipped = 0; skipped < linesToSkip && lineStart < end; ++skipped )
+            lineStart = indexOfNewline( bytes, lineStart ) + 1;
+        if( lineStart < end ) {
+            try {
+                actions.append( new String( bytes, lineStart, end - lineStart, CHARSET ) );
+            } catch( IOException e ) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static class Block {
+        int firstIndex;
+        int count;
+        int length;
+        long checksum;
+        int generation = 0;
+        int start;
+        int footerStart;
+        int end;
+
+        boolean isValidFor( byte[] bytes ) {
+            return footerStart - start == length &&
+                   SaveJournal.checksum( bytes, start, length ) == checksum;
+        }
+    }
+
+    private static Block parseFooter( byte[] bytes, int start, int end ) {
+        String line;
+        try {
+            line = new String( bytes, start, end - start, CHARSET );
+        } catch( IOException e ) {
+            return null;
+        }
+        if( line.startsWith( BLOCK_END_TAG + SEPERATOR ) == false )
+            return null;
+        String[] fields = line.substring( BLOCK_END_TAG.length() + 1 ).split( SEPERATOR );
+        if( fields.length < 4 )
+            return null;
+        try {
+            Block footer = new Block();
+            footer.firstIndex = Integer.parseInt( fields[0] );
+            footer.count = Integer.parseInt( fields[1] );
+            footer.length = Integer.parseInt( fields[2] );
+            footer.checksum = Long.parseLong( fields[3] );
+            if( fields.length > 4 )
+                footer.generation = Integer.parseInt( fields[4] );
+            return footer;
+        } catch( NumberFormatException e ) {
+            return null;
+        }
+    }
+}
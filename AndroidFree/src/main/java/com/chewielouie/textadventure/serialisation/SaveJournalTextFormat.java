@@ -0,0 +1,7 @@
+package com.chewielouie.textadventure.serialisation;
+
+public class SaveJournalTextFormat {
+    public static final String SEPERATOR = ":";
+    public static final String BLOCK_END_TAG = "journal block end";
+    public static final String CHARSET = "UTF-8";
+}
@@ -0,0 +1,130 @@
+package com.chewielouie.textadventure.serialisation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Writes saves on a thread of its own so that asking for a save does not
+// wait for it to be serialised or written. Each save is written to a
+// temporary file beside the save, synced, and renamed over the save, so the
+// save on disk is always either the old one or the new one in full. Saves
+// are held as snapshots: one may be being written while one more waits to
+// be, and a save asked for while one is waiting replaces it, so only the
+// newest of a burst of saves is written.
+public class SaveWriter {
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private final File file;
+    private final File temporaryFile;
+    private final Executor executor;
+    private Snapshot pending = null;
+    private boolean writing = false;
+    private long requestedCount = 0;
+    private long writtenCount = 0;
+    private int fileWriteCount = 0;
+    private boolean lastWriteSucceeded = true;
+
+    // Whatever is to be saved, captured so that it no longer changes and
+    // can be serialised on the writer's thread.
+    public interface Snapshot {
+        public byte[] serialise() throws IOException;
+    }
+
+    public SaveWriter( File file ) {
+        this( file, Executors.newSingleThreadExecutor( new ThreadFactory() {
+            public Thread newThread( Runnable r ) {
+                Thread thread = new Thread( r, "save writer" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } ) );
+    }
+
+    public SaveWriter( File file, Executor executor ) {
+        this.file = file;
+        this.temporaryFile = new File( file.getPath() + TEMPORARY_SUFFIX );
+        this.executor = executor;
+    }
+
+    public synchronized void save( Snapshot snapshot ) {
+        pending = snapshot;
+        requestedCount++;
+        if( writing == false ) {
+            writing = true;
+            executor.execute( new Runnable() {
+                public void run() {
+                    writePendingSaves();
+                }
+            } );
+        }
+    }
+
+    // Waits for every save asked for before the call to be written, for at
+    // most the given time. Returns whether they were, and the last write
+    // succeeded.
+    public synchronized boolean flush( long timeoutMilliseconds ) throws InterruptedException {
+        long target = requestedCount;
+        long end = System.currentTimeMillis() + timeoutMilliseconds;
+        while( writtenCount < target ) {
+            long remaining = end - System.currentTimeMillis();
+            if( remaining <= 0 )
+                return false;
+            wait( remaining );
+        }
+        return lastWriteSucceeded;
+    }
+
+    // The number of times the save file has been replaced.
+    public synchronized int fileWriteCount() {
+        return fileWriteCount;
+    }
+
+    private void writePendingSaves() {
+        while( true ) {
+            Snapshot snapshot;
+            long upTo;
+            synchronized( this ) {
+                if( pending == null ) {
+                    writing = false;
+                    return;
+                }
+                snapshot = pending;
+                pending = null;
+                upTo = requestedCount;
+            }
+            boolean succeeded = write( snapshot );
+            synchronized( this ) {
+                writtenCount = upTo;
+                lastWriteSucceeded = succeeded;
+                if( succeeded )
+                    fileWriteCount++;
+                notifyAll();
+            }
+        }
+    }
+
+    private boolean write( Snapshot snapshot ) {
+        try {
+            byte[] bytes = snapshot.serialise();
+            FileOutputStream out = new FileOutputStream( temporaryFile );
+            try {
+                out.write( bytes );
+                out.flush();
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            if( temporaryFile.renameTo( file ) == false )
+                throw new IOException( "Could not replace " + file );
+            return true;
+        } catch( IOException e ) {
+            e.printStackTrace();
+        } catch( RuntimeException e ) {
+            e.printStackTrace();
+        }
+        temporaryFile.delete();
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package com.chewielouie.textadventure.serialisation;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import com.chewielouie.textadventure.itemaction.ItemAction;
+
+// Reads exits from the same format as PlainTextExitDeserialiser in one pass
+// over the lines of the exit section, making the same calls on the exit.
+public class StreamingExitDeserialiser implements ExitDeserialiser {
+    private final String exitLabelTag = "exit label:";
+    private final String exitDestinationTag = "exit destination:";
+    private final String exitDirectionHintTag = "exit direction hint:";
+    private final String exitIsNotVisibleTag = "exit is not visible:";
+    private final String exitIDTag = "exit id:";
+    private final String exitOnUseActionTag = "exit on use action:";
+    private ItemActionFactory itemActionFactory = null;
+
+    public StreamingExitDeserialiser( ItemActionFactory f ) {
+        itemActionFactory = f;
+    }
+
+    public void deserialise( Exit exit, String content ) {
+        deserialise( exit, new PlainTextLexer( content ) );
+    }
+
+    public void deserialise( Exit exit, PlainTextLexer lexer ) {
+        String label = null;
+        String destination = null;
+        String directionHint = null;
+        String id = null;
+        boolean notVisible = false;
+        List<String> onUseActions = new ArrayList<String>();
+
+        while( lexer.next() ) {
+            if( lexer.isSectionHeader() ) {
+                lexer.pushBack();
+                break;
+            }
+            if( label == null && lexer.hasTag( exitLabelTag ) )
+                label = lexer.valueAfter( exitLabelTag );
+            else if( destination == null && lexer.hasTag( exitDestinationTag ) )
+                destination = lexer.valueAfter( exitDestinationTag );
+            else if( directionHint == null && lexer.hasTag( exitDirectionHintTag ) )
+                directionHint = lexer.valueAfter( exitDirectionHintTag );
+            else if( id == null && lexer.hasTag( exitIDTag ) )
+                id = lexer.valueAfter( exitIDTag );
+            else if( lexer.hasTag( exitIsNotVisibleTag ) )
+                notVisible = true;
+            else if( lexer.hasTag( exitOnUseActionTag ) )
+                onUseActions.add( lexer.valueAfter( exitOnUseActionTag ) );
+        }
+
+        exit.setLabel( valueOrEmpty( label ) );
+        exit.setDestination( valueOrEmpty( destination ) );
+        exit.setDirectionHint( stringToDirectionHint( valueOrEmpty( directionHint ) ) );
+        if( notVisible )
+            exit.setInvisible();
+        exit.setID( valueOrEmpty( id ) );
+        addOnUseActions( exit, onUseActions );
+    }
+
+    private String valueOrEmpty( String value ) {
+        return value == null ? "" : value;
+    }
+
+    private void addOnUseActions( Exit exit, List<String> onUseActions ) {
+        if( itemActionFactory == null )
+            return;
+        List<ItemAction> actions = new ArrayList<ItemAction>();
+        for( String action : onUseActions )
+            actions.add( itemActionFactory.create( action, null ) );
+        for( ItemAction action : actions )
+            exit.addOnUseAction( action );
+    }
+
+    private Exit.DirectionHint stringToDirectionHint( String hint ) {
+        if( hint.equals( "North" ) )
+            return Exit.DirectionHint.North;
+        if( hint.equals( "South" ) )
+            return Exit.DirectionHint.South;
+        if( hint.equals( "East" ) )
+            return Exit.DirectionHint.East;
+        if( hint.equals( "West" ) )
+            return Exit.DirectionHint.West;
+        return Exit.DirectionHint.DontCare;
+    }
+}
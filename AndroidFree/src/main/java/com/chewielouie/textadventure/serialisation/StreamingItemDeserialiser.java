@@ -0,0 +1,244 @@
+package com.chewielouie.textadventure.serialisation;
+
+import com.chewielouie.textadventure.DeserialiserUtils;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.TalkPhraseSink;
+import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads items from the same format as PlainTextItemDeserialiser in one pass
+// over the lines of the item section. Values are gathered as the lines go
+// by and applied to the item afterwards in the order the plain text
+// deserialiser applies them.
+public class StreamingItemDeserialiser implements ItemDeserialiser {
+    private final String argumentSeperator = ":";
+    private final String itemNameTag = "item name:";
+    private final String itemDescriptionTag = "item description:";
+    private final String itemIDTag = "item id:";
+    private final String itemCountableNounPrefixTag = "item countable noun prefix:";
+    private final String itemMidSentenceCasedNameTag = "item mid sentence cased name:";
+    private final String itemIsProperNounTag = "item is proper noun:";
+    private final String itemIsPluralTag = "item is plural:";
+    private final String itemIsUntakeableTag = "item is untakeable:";
+    private final String itemCanBeUsedWithTag = "item can be used with:";
+    private final String itemSuccessfulUseMessageTag = "item successful use message:";
+    private final String itemUseIsNotRepeatableTag = "item use is not repeatable:";
+    private final String itemUseActionTag = "item use action:";
+    private final String itemVisibilityTag = "item visibility:";
+    private final String itemExamineMessageTag = "item examine message:";
+    private final String itemExamineActionIsNotRepeatableTag = "item examine action is not repeatable:";
+    private final String itemOnExamineActionTag = "item on examine action:";
+    private final String itemInitialTalkPhraseTag = "item talk initial phrase:";
+    private final String itemTalkResponseToTag = "item talk response to:";
+    private final String itemTalkFollowUpPhraseTag = "item talk follow up phrase to:";
+    private final String itemTalkActionTag = "item talk action in response to:";
+    private ItemActionFactory itemActionFactory;
+
+    class IdAndArgPair {
+        public String id;
+        public String arg;
+
+        IdAndArgPair( String id, String arg ) {
+            this.id = id;
+            this.arg = arg;
+        }
+    }
+
+    class ItemUse {
+        String usedWithItemID;
+        String successfulUseMessage = null;
+        boolean notRepeatable = false;
+        List<String> actions = new ArrayList<String>();
+
+        ItemUse( String usedWithItemID ) {
+            this.usedWithItemID = usedWithItemID;
+        }
+    }
+
+    class ItemFields {
+        String name = null;
+        String description = null;
+        String id = null;
+        String countableNounPrefix = null;
+        String midSentenceCasedName = null;
+        String visibility = null;
+        String examineText = null;
+        boolean properNoun = false;
+        boolean plural = false;
+        boolean untakeable = false;
+        boolean examineActionIsNotRepeatable = false;
+        List<IdAndArgPair> initialTalkPhrases = new ArrayList<IdAndArgPair>();
+        List<IdAndArgPair> talkResponses = new ArrayList<IdAndArgPair>();
+        List<IdAndArgPair> followUpPhrases = new ArrayList<IdAndArgPair>();
+        List<IdAndArgPair> talkActions = new ArrayList<IdAndArgPair>();
+        List<ItemUse> uses = new ArrayList<ItemUse>();
+        List<String> examineActions = new ArrayList<String>();
+    }
+
+    public StreamingItemDeserialiser( ItemActionFactory itemActionFactory ) {
+        this.itemActionFactory = itemActionFactory;
+    }
+
+    public void deserialise( Item item, String content ) {
+        deserialise( item, new PlainTextLexer( content ) );
+    }
+
+    public void deserialise( Item item, PlainTextLexer lexer ) {
+        ItemFields fields = new ItemFields();
+        while( lexer.next() ) {
+            if( lexer.isSectionHeader() ) {
+                lexer.pushBack();
+                break;
+            }
+            readLine( lexer, fields );
+        }
+        apply( item, fields );
+    }
+
+    private void readLine( PlainTextLexer lexer, ItemFields f ) {
+        if( f.name == null && lexer.hasTag( itemNameTag ) )
+            f.name = lexer.valueAfter( itemNameTag );
+        else if( f.description == null && lexer.hasTag( itemDescriptionTag ) )
+            f.description = lexer.valueAfter( itemDescriptionTag );
+        else if( f.id == null && lexer.hasTag( itemIDTag ) )
+            f.id = lexer.valueAfter( itemIDTag );
+        else if( f.countableNounPrefix == null && lexer.hasTag( itemCountableNounPrefixTag ) )
+            f.countableNounPrefix = lexer.valueAfter( itemCountableNounPrefixTag );
+        else if( f.midSentenceCasedName == null && lexer.hasTag( itemMidSentenceCasedNameTag ) )
+            f.midSentenceCasedName = lexer.valueAfter( itemMidSentenceCasedNameTag );
+        else if( lexer.hasTag( itemIsProperNounTag ) )
+            f.properNoun = true;
+        else if( lexer.hasTag( itemIsPluralTag ) )
+            f.plural = true;
+        else if( lexer.hasTag( itemIsUntakeableTag ) )
+            f.untakeable = true;
+        else if( lexer.hasTag( itemInitialTalkPhraseTag ) )
+            addIdAndArgPair( f.initialTalkPhrases, lexer, itemInitialTalkPhraseTag );
+        else if( lexer.hasTag( itemTalkResponseToTag ) )
+            addIdAndArgPair( f.talkResponses, lexer, itemTalkResponseToTag );
+        else if( lexer.hasTag( itemTalkFollowUpPhraseTag ) )
+            addIdAndArgPair( f.followUpPhrases, lexer, itemTalkFollowUpPhraseTag );
+        else if( lexer.hasTag( itemTalkActionTag ) )
+            addIdAndArgPair( f.talkActions, lexer, itemTalkActionTag );
+        else if( lexer.hasTag( itemCanBeUsedWithTag ) )
+            f.uses.add( new ItemUse( lexer.valueAfter( itemCanBeUsedWithTag ) ) );
+        else if( lexer.hasTag( itemSuccessfulUseMessageTag ) )
+            readSuccessfulUseMessage( lexer, f );
+        else if( lexer.hasTag( itemUseIsNotRepeatableTag ) ) {
+            if( f.uses.isEmpty() == false )
+                lastUse( f ).notRepeatable = true;
+        }
+        else if( lexer.hasTag( itemUseActionTag ) ) {
+            if( f.uses.isEmpty() == false )
+                lastUse( f ).actions.add( lexer.valueAfter( itemUseActionTag ) );
+        }
+        else if( f.visibility == null && lexer.hasTag( itemVisibilityTag ) )
+            f.visibility = lexer.valueAfter( itemVisibilityTag );
+        else if( f.examineText == null && lexer.hasTag( itemExamineMessageTag ) )
+            f.examineText = lexer.valueAfter( itemExamineMessageTag );
+        else if( lexer.hasTag( itemExamineActionIsNotRepeatableTag ) )
+            f.examineActionIsNotRepeatable = true;
+        else if( lexer.hasTag( itemOnExamineActionTag ) )
+            f.examineActions.add( lexer.valueAfter( itemOnExamineActionTag ) );
+    }
+
+    private ItemUse lastUse( ItemFields f ) {
+        return f.uses.get( f.uses.size() - 1 );
+    }
+
+    private void readSuccessfulUseMessage( PlainTextLexer lexer, ItemFields f ) {
+        if( f.uses.isEmpty() == false && lastUse( f ).successfulUseMessage == null )
+            lastUse( f ).successfulUseMessage = lexer.valueAfter( itemSuccessfulUseMessageTag );
+    }
+
+    private void addIdAndArgPair( List<IdAndArgPair> pairs, PlainTextLexer lexer, String tag ) {
+        String value = lexer.rawValueAfter( tag );
+        int argumentSeperatorIndex = value.indexOf( argumentSeperator, 1 );
+        if( argumentSeperatorIndex != DeserialiserUtils.NOT_FOUND )
+            pairs.add( new IdAndArgPair( value.substring( 0, argumentSeperatorIndex ),
+                DeserialiserUtils.convertEncodedNewLines(
+                    value.substring( argumentSeperatorIndex + 1 ) ) ) );
+    }
+
+    private void apply( Item item, ItemFields f ) {
+        item.setName( valueOrEmpty( f.name ) );
+        item.setDescription( valueOrEmpty( f.description ) );
+        item.setId( valueOrEmpty( f.id ) );
+        item.setCountableNounPrefix( valueOrEmpty( f.countableNounPrefix ) );
+        if( valueOrEmpty( f.midSentenceCasedName ).length() > 0 )
+            item.setMidSentenceCasedName( f.midSentenceCasedName );
+        if( f.properNoun )
+            item.setProperNoun();
+        if( f.plural )
+            item.setPlural();
+        if( f.untakeable )
+            item.setUntakeable();
+        applyTalkPhrases( item, f );
+        applyItemUses( item, f );
+        item.setVisible( valueOrEmpty( f.visibility ).equals( "invisible" ) == false );
+        item.setExamineText( valueOrEmpty( f.examineText ) );
+        if( f.examineActionIsNotRepeatable )
+            item.setExamineActionIsNotRepeatable();
+        for( ItemAction action : createActions( f.examineActions, item ) )
+            item.addOnExamineAction( action );
+    }
+
+    private String valueOrEmpty( String value ) {
+        return value == null ? "" : value;
+    }
+
+    private void applyTalkPhrases( Item item, ItemFields f ) {
+        TalkPhraseSink talkPhraseSink = item.getTalkPhraseSink();
+        if( talkPhraseSink == null )
+            return;
+        for( IdAndArgPair pair : f.initialTalkPhrases )
+            talkPhraseSink.addInitialPhrase( pair.id,
+                                             pair.arg.split( argumentSeperator )[0],
+                                             pair.arg.split( argumentSeperator )[1] );
+        for( IdAndArgPair pair : f.talkResponses )
+            talkPhraseSink.addResponse( pair.id, pair.arg );
+        for( IdAndArgPair pair : f.followUpPhrases ) {
+            if( pair.arg.indexOf( argumentSeperator ) == DeserialiserUtils.NOT_FOUND )
+                talkPhraseSink.addFollowUpPhrase( pair.id, pair.arg );
+            else
+                talkPhraseSink.addFollowUpPhrase( pair.id,
+                                                  pair.arg.split( argumentSeperator )[0],
+                                                  pair.arg.split( argumentSeperator )[1],
+                                                  pair.arg.split( argumentSeperator )[2] );
+        }
+        if( itemActionFactory != null )
+            for( IdAndArgPair pair : f.talkActions )
+                talkPhraseSink.addActionInResponseTo( pair.id,
+                    itemActionFactory.create( pair.arg, item ) );
+    }
+
+    private void applyItemUses( Item item, ItemFields f ) {
+        // A use without its own success message takes the next one found
+        // further on in the item, as the plain text deserialiser does.
+        String nextSuccessfulUseMessage = "";
+        for( int i = f.uses.size() - 1; i >= 0; i-- ) {
+            ItemUse use = f.uses.get( i );
+            if( use.successfulUseMessage == null )
+                use.successfulUseMessage = nextSuccessfulUseMessage;
+            else
+                nextSuccessfulUseMessage = use.successfulUseMessage;
+        }
+        for( ItemUse use : f.uses ) {
+            item.setUsedWithTextFor( use.usedWithItemID, use.successfulUseMessage );
+            if( use.notRepeatable )
+                item.setUseIsNotRepeatableFor( use.usedWithItemID );
+            for( ItemAction action : createActions( use.actions, item ) )
+                item.addOnUseActionFor( use.usedWithItemID, action );
+        }
+    }
+
+    private List<ItemAction> createActions( List<String> actionContent, Item item ) {
+        List<ItemAction> actions = new ArrayList<ItemAction>();
+        if( itemActionFactory != null )
+            for( String content : actionContent )
+                actions.add( itemActionFactory.create( content, item ) );
+        return actions;
+    }
+}
@@ -0,0 +1,166 @@
+package com.chewielouie.textadventure.serialisation;
+
+import com.chewielouie.textadventure.DeserialiserUtils;
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.ExitFactory;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.ItemFactory;
+import com.chewielouie.textadventure.ModelLocation;
+
+// Reads locations from the same format as PlainTextModelLocationDeserialiser
+// in one pass. Multi-line descriptions are taken as a single slice of the
+// content between the offsets where they start and end. Exits and items are
+// handed the lexer directly when their deserialisers can stream, otherwise
+// they get the text of their section.
+public class StreamingModelLocationDeserialiser implements ModelLocationDeserialiser {
+    private final String xTag = "x:";
+    private final String yTag = "y:";
+    private final String locationIDTag = "location id:";
+    private final String locationAreaIDTag = "location area id:";
+    private final String locationDescriptionTag = "location description:";
+    private final String textToShowOnFirstEntryTag = "text to show on first entry:";
+    private ItemFactory itemFactory;
+    private ExitFactory exitFactory;
+    private ItemDeserialiser itemDeserialiser;
+    private ExitDeserialiser exitDeserialiser;
+
+    class LocationFields {
+        String x = null;
+        String y = null;
+        String id = null;
+        String areaID = null;
+        int descriptionStart = -1;
+        int descriptionEnd = -1;
+        int firstEntryTextStart = -1;
+        int firstEntryTextEnd = -1;
+        boolean applied = false;
+    }
+
+    public StreamingModelLocationDeserialiser( ItemFactory itemFactory,
+                                               ExitFactory exitFactory ) {
+        this.itemFactory = itemFactory;
+        this.exitFactory = exitFactory;
+    }
+
+    public StreamingModelLocationDeserialiser( ItemFactory itemFactory,
+                  ExitFactory exitFactory,
+                  ItemDeserialiser itemDeserialiser,
+                  ExitDeserialiser exitDeserialiser ) {
+        this.itemFactory = itemFactory;
+        this.exitFactory = exitFactory;
+        this.itemDeserialiser = itemDeserialiser;
+        this.exitDeserialiser = exitDeserialiser;
+    }
+
+    public void deserialise( ModelLocation location, String content ) {
+        deserialise( location, new PlainTextLexer( content ) );
+    }
+
+    public void deserialise( ModelLocation location, PlainTextLexer lexer ) {
+        LocationFields fields = new LocationFields();
+        while( lexer.next() ) {
+            if( lexer.isTopLevelSectionHeader() ) {
+                lexer.pushBack();
+                break;
+            }
+            if( lexer.isSection( PlainTextLexer.EXIT_SECTION ) ) {
+                applyFields( location, lexer, fields, lexer.lineStart() );
+                deserialiseExit( location, lexer );
+            }
+            else if( lexer.isSection( PlainTextLexer.ITEM_SECTION ) ) {
+                applyFields( location, lexer, fields, lexer.lineStart() );
+                deserialiseItem( location, lexer );
+            }
+            else
+                readLine( lexer, fields );
+        }
+        applyFields( location, lexer, fields, lexer.lineStart() );
+    }
+
+    private void readLine( PlainTextLexer lexer, LocationFields f ) {
+        if( f.x == null && lexer.hasTag( xTag ) )
+            f.x = lexer.valueAfter( xTag );
+        else if( f.y == null && lexer.hasTag( yTag ) )
+            f.y = lexer.valueAfter( yTag );
+        else if( f.id == null && lexer.hasTag( locationIDTag ) )
+            f.id = lexer.valueAfter( locationIDTag );
+        else if( f.areaID == null && lexer.hasTag( locationAreaIDTag ) )
+            f.areaID = lexer.valueAfter( locationAreaIDTag );
+        else if( f.descriptionStart == -1 && lexer.hasTag( locationDescriptionTag ) ) {
+            endOpenValues( f, lexer.lineStart() );
+            f.descriptionStart = lexer.lineStart() + locationDescriptionTag.length();
+        }
+        else if( lexer.hasTag( textToShowOnFirstEntryTag ) ) {
+            endOpenValues( f, lexer.lineStart() );
+            if( f.firstEntryTextStart == -1 )
+                f.firstEntryTextStart = lexer.lineStart() + textToShowOnFirstEntryTag.length();
+        }
+    }
+
+    private void endOpenValues( LocationFields f, int end ) {
+        if( f.descriptionStart != -1 && f.descriptionEnd == -1 )
+            f.descriptionEnd = end;
+        if( f.firstEntryTextStart != -1 && f.firstEntryTextEnd == -1 )
+            f.firstEntryTextEnd = end;
+    }
+
+    private void applyFields( ModelLocation location, PlainTextLexer lexer,
+                              LocationFields f, int end ) {
+        if( f.applied )
+            return;
+        f.applied = true;
+        endOpenValues( f, end );
+        if( f.x != null && f.x.length() > 0 )
+            location.setX( Integer.parseInt( f.x ) );
+        if( f.y != null && f.y.length() > 0 )
+            location.setY( Integer.parseInt( f.y ) );
+        location.setId( valueOrEmpty( f.id ) );
+        location.setAreaID( valueOrEmpty( f.areaID ) );
+        if( f.descriptionStart != -1 )
+            location.setLocationDescription( textBetween( lexer,
+                f.descriptionStart, f.descriptionEnd ) );
+        if( f.firstEntryTextStart != -1 )
+            location.setTextForFirstEntry( textBetween( lexer,
+                f.firstEntryTextStart, f.firstEntryTextEnd ) );
+    }
+
+    private String textBetween( PlainTextLexer lexer, int start, int end ) {
+        return DeserialiserUtils.convertEncodedNewLines( lexer.text( start, end ) );
+    }
+
+    private String valueOrEmpty( String value ) {
+        return value == null ? "" : value;
+    }
+
+    private void deserialiseExit( ModelLocation location, PlainTextLexer lexer ) {
+        if( exitFactory == null ) {
+            lexer.skipSection();
+            return;
+        }
+        Exit exit = exitFactory.create();
+        if( exitDeserialiser instanceof StreamingExitDeserialiser )
+            ((StreamingExitDeserialiser)exitDeserialiser).deserialise( exit, lexer );
+        else {
+            String content = lexer.skipSection();
+            if( exitDeserialiser != null )
+                exitDeserialiser.deserialise( exit, content );
+        }
+        location.addExit( exit );
+    }
+
+    private void deserialiseItem( ModelLocation location, PlainTextLexer lexer ) {
+        if( itemFactory == null ) {
+            lexer.skipSection();
+            return;
+        }
+        Item item = itemFactory.create();
+        if( itemDeserialiser instanceof StreamingItemDeserialiser )
+            ((StreamingItemDeserialiser)itemDeserialiser).deserialise( item, lexer );
+        else {
+            String content = lexer.skipSection();
+            if( itemDeserialiser != null )
+                itemDeserialiser.deserialise( item, content );
+        }
+        location.addItem( item );
+    }
+}
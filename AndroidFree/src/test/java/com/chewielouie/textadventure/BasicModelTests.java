@@ -6,13 +6,16 @@ import static org.mockito.Mockito.*;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import org.jmock.*;
 import org.jmock.integration.junit4.JMock;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.NormalItem;
 
 @RunWith(JMock.class)
 public class BasicModelTests {
@@ -448,8 +451,8 @@ public class BasicModelTests {
         final ModelLocation loc1 = mockery.mock( ModelLocation.class, "loc1" );
         final ModelLocation loc2 = mockery.mock( ModelLocation.class, "loc2" );
         final Exit north = mockery.mock( Exit.class );
-        final MovementEventSubscriber movementEventSubscriber =
-            mockery.mock( MovementEventSubscriber.class );
+        final ModelEventSubscriber movementEventSubscriber =
+            mockery.mock( ModelEventSubscriber.class );
         mockery.checking( new Expectations() {{
             allowing( loc1 ).exitable( north );
             will( returnValue( true ) );
@@ -460,7 +463,8 @@ public class BasicModelTests {
             will( returnValue( "loc2" ) );
             ignoring( loc2 );
             ignoring( north );
-            oneOf( movementEventSubscriber ).currentLocationChanged();
+            oneOf( movementEventSubscriber ).modelChanged(
+                new ModelEvent( ModelEvent.Type.CURRENT_LOCATION_CHANGED, "loc2" ) );
             ignoring( movementEventSubscriber );
         }});
         BasicModel model = new BasicModel();
@@ -474,10 +478,11 @@ public class BasicModelTests {
     @Test
     public void subscribers_do_not_receive_current_location_change_event_on_failed_exit() {
         final Exit north = mockery.mock( Exit.class );
-        final MovementEventSubscriber movementEventSubscriber =
-            mockery.mock( MovementEventSubscriber.class );
+        final ModelEventSubscriber movementEventSubscriber =
+            mockery.mock( ModelEventSubscriber.class );
         mockery.checking( new Expectations() {{
-            never( movementEventSubscriber ).currentLocationChanged();
+            never( movementEventSubscriber ).modelChanged(
+                with( any( ModelEvent.class ) ) );
             ignoring( north );
         }});
         BasicModel model = new BasicModel();
@@ -492,7 +497,7 @@ public class BasicModelTests {
         when( loc1.id() ).thenReturn( "loc1id" );
         ModelLocation loc2 = mock( ModelLocation.class );
         when( loc2.id() ).thenReturn( "loc2id" );
-        MovementEventSubscriber movementEventSubscriber = mock( MovementEventSubscriber.class );
+        ModelEventSubscriber movementEventSubscriber = mock( ModelEventSubscriber.class );
         BasicModel model = new BasicModel();
         model.addLocation( loc1 );
         model.addLocation( loc2 );
@@ -500,7 +505,8 @@ public class BasicModelTests {
 
         model.setCurrentLocation( "loc2id" );
 
-        verify( movementEventSubscriber ).currentLocationChanged();
+        verify( movementEventSubscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.CURRENT_LOCATION_CHANGED, "loc2id" ) );
     }
 
     @Test
@@ -576,5 +582,365 @@ public class BasicModelTests {
         verify( exit ).use();
     }
 
-}
+    @Test
+    public void remove_from_inventory_removes_only_that_item() {
+        BasicModel model = new BasicModel();
+        Item itemToRemove = mock( Item.class );
+        when( itemToRemove.id() ).thenReturn( "itemid" );
+        Item itemToLeave = mock( Item.class );
+        when( itemToLeave.id() ).thenReturn( "otheritemid" );
+        model.addToInventory( itemToRemove );
+        model.addToInventory( itemToLeave );
+
+        model.removeFromInventory( itemToRemove );
+
+        assertEquals( 1, model.inventoryItems().size() );
+        assertEquals( itemToLeave, model.inventoryItems().get( 0 ) );
+    }
+
+    @Test
+    public void subscribers_that_take_model_events_are_told_of_changes_to_items_in_locations() {
+        Location location = new Location( "hall", "", null, null );
+        NormalItem item = new NormalItem();
+        item.setId( "lamp" );
+        location.addItem( item );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        BasicModel model = new BasicModel();
+        model.addLocation( location );
+        model.subscribeForEvents( subscriber );
+
+        item.setName( "Broken lamp" );
+
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_NAME_CHANGED, "lamp" ) );
+    }
+
+    @Test
+    public void subscribers_that_take_model_events_are_told_of_score_and_inventory_changes() {
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        BasicModel model = new BasicModel();
+        model.subscribeForEvents( subscriber );
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( "lamp" );
+
+        model.setCurrentScore( 1 );
+        model.addToInventory( item );
+
+        verify( subscriber ).modelChanged( new ModelEvent( ModelEvent.Type.SCORE_CHANGED, null ) );
+        verify( subscriber ).modelChanged( new ModelEvent( ModelEvent.Type.INVENTORY_CHANGED, null ) );
+    }
+
+    @Test
+    public void subscribers_are_only_told_of_the_types_of_event_they_subscribe_for() {
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        BasicModel model = new BasicModel();
+        model.subscribeForEvents( subscriber, ModelEvent.Type.INVENTORY_CHANGED );
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( "lamp" );
+
+        model.setCurrentScore( 1 );
+        model.addToInventory( item );
+
+        verify( subscriber ).modelChanged( new ModelEvent( ModelEvent.Type.INVENTORY_CHANGED, null ) );
+        verifyNoMoreInteractions( subscriber );
+    }
+
+    @Test
+    public void events_raised_in_a_batch_are_delivered_once_at_the_commit() {
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        BasicModel model = new BasicModel();
+        model.subscribeForEvents( subscriber );
+
+        model.beginEventBatch();
+        model.setCurrentScore( 1 );
+        model.setCurrentScore( 2 );
+        verifyZeroInteractions( subscriber );
+        model.commitEventBatch();
+
+        verify( subscriber, times( 1 ) ).modelChanged(
+            new ModelEvent( ModelEvent.Type.SCORE_CHANGED, null ) );
+        assertEquals( 2, model.currentScore() );
+    }
+
+    @Test
+    public void the_model_is_kept_up_to_date_while_its_events_are_batched() {
+        Location location = new Location( "hall", "A hall.", null, null );
+        BasicModel model = new BasicModel();
+        model.addLocation( location );
+        model.subscribeForEvents( mock( ModelEventSubscriber.class ) );
+        model.currentLocationDescription();
+
+        model.beginEventBatch();
+        location.setLocationDescription( "A dark hall." );
+
+        assertEquals( "A dark hall.", model.currentLocationDescription() );
+        model.commitEventBatch();
+    }
+
+    @Test
+    public void current_location_description_follows_changes_to_the_location() {
+        Location location = new Location( "hall", "A hall.", null, null );
+        BasicModel model = new BasicModel();
+        model.addLocation( location );
+        model.currentLocationDescription();
+
+        location.setLocationDescription( "A ruined hall." );
+
+        assertThat( model.currentLocationDescription(), is( "A ruined hall." ) );
+    }
+
+    private NormalItem itemWithID( String id ) {
+        NormalItem item = new NormalItem();
+        item.setId( id );
+        return item;
+    }
+
+    @Test
+    public void items_added_to_a_location_after_it_joined_the_model_can_be_found() {
+        Location location = new Location( "hall", "", null, null );
+        BasicModel model = new BasicModel();
+        model.addLocation( location );
+        NormalItem lamp = itemWithID( "lamp" );
+
+        location.addItem( lamp );
+
+        assertEquals( lamp, model.findItemByID( "lamp" ) );
+    }
+
+    @Test
+    public void move_item_to_inventory_follows_items_moved_between_locations() {
+        Location hall = new Location( "hall", "", null, null );
+        Location kitchen = new Location( "kitchen", "", null, null );
+        NormalItem lamp = itemWithID( "lamp" );
+        hall.addItem( lamp );
+        BasicModel model = new BasicModel();
+        model.addLocation( hall );
+        model.addLocation( kitchen );
+        hall.removeItem( lamp );
+        kitchen.addItem( lamp );
+
+        model.moveItemToInventory( "lamp" );
+
+        assertThat( kitchen.items(), not( hasItem( (Item)lamp ) ) );
+        assertThat( model.inventoryItems(), hasItem( (Item)lamp ) );
+    }
+
+    @Test
+    public void destroy_item_removes_it_from_the_location_that_holds_it_now() {
+        Location hall = new Location( "hall", "", null, null );
+        Location kitchen = new Location( "kitchen", "", null, null );
+        NormalItem lamp = itemWithID( "lamp" );
+        BasicModel model = new BasicModel();
+        model.addLocation( hall );
+        model.addLocation( kitchen );
+        kitchen.addItem( lamp );
+
+        model.destroyItem( "lamp" );
+
+        assertTrue( kitchen.items().isEmpty() );
+        assertNull( model.findItemByID( "lamp" ) );
+    }
+
+    @Test
+    public void an_item_already_found_is_moved_to_the_inventory_from_where_it_is_now() {
+        Location hall = new Location( "hall", "", null, null );
+        Location kitchen = new Location( "kitchen", "", null, null );
+        NormalItem lamp = itemWithID( "lamp" );
+        hall.addItem( lamp );
+        BasicModel model = new BasicModel();
+        model.addLocation( hall );
+        model.addLocation( kitchen );
+        hall.removeItem( lamp );
+        kitchen.addItem( lamp );
+
+        model.moveItemToInventory( lamp );
+        model.moveItemToInventory( lamp );
+
+        assertTrue( kitchen.items().isEmpty() );
+        assertThat( model.inventoryItems(), is( Arrays.asList( (Item)lamp ) ) );
+    }
+
+    @Test
+    public void an_item_already_found_is_destroyed_wherever_it_is() {
+        Location hall = new Location( "hall", "", null, null );
+        NormalItem lamp = itemWithID( "lamp" );
+        NormalItem key = itemWithID( "key" );
+        hall.addItem( lamp );
+        BasicModel model = new BasicModel();
+        model.addLocation( hall );
+        model.addToInventory( key );
+
+        model.destroyItem( lamp );
+        model.destroyItem( key );
+
+        assertTrue( hall.items().isEmpty() );
+        assertTrue( model.inventoryItems().isEmpty() );
+        assertNull( model.findItemByID( "lamp" ) );
+        assertNull( model.findItemByID( "key" ) );
+    }
+
+    @Test
+    public void an_item_removed_from_a_location_is_no_longer_moved_from_it() {
+        Location hall = new Location( "hall", "", null, null );
+        NormalItem lamp = itemWithID( "lamp" );
+        hall.addItem( lamp );
+        BasicModel model = new BasicModel();
+        model.addLocation( hall );
+        hall.removeItem( lamp );
+
+        model.moveItemToInventory( "lamp" );
+
+        assertTrue( model.inventoryItems().isEmpty() );
+    }
 
+    @Test
+    public void a_model_sharing_handles_starts_empty_and_finds_what_is_added_to_it() {
+        BasicModel world = new BasicModel();
+        world.addLocation( new Location( "hall", "", null, null ) );
+        BasicModel model = world.emptyModelSharingHandles();
+        Location hall = new Location( "hall", "", null, null );
+        Location cellar = new Location( "cellar", "", null, null );
+        NormalItem lamp = itemWithID( "lamp" );
+        cellar.addItem( lamp );
+
+        assertNull( model.findLocationByID( "hall" ) );
+        model.addLocation( hall );
+        model.addLocation( cellar );
+
+        assertEquals( hall, model.findLocationByID( "hall" ) );
+        assertEquals( cellar, model.findLocationByID( "cellar" ) );
+        assertEquals( lamp, model.findItemByID( "lamp" ) );
+        assertNull( world.findLocationByID( "cellar" ) );
+    }
+
+    @Test
+    public void locations_are_given_in_the_order_they_were_added() {
+        BasicModel model = new BasicModel();
+        Location hall = new Location( "hall", "", null, null );
+        Location garden = new Location( "garden", "", null, null );
+        Location cellar = new Location( "cellar", "", null, null );
+        model.addLocation( hall );
+        model.addLocation( garden );
+        model.addLocation( cellar );
+
+        assertThat( new ArrayList<ModelLocation>( model.locations() ),
+                    is( Arrays.asList( (ModelLocation)hall, garden, cellar ) ) );
+    }
+
+    private BasicModel modelWithHallAndGarden() {
+        Location hall = new Location( "hall", "A hall.", null, null );
+        hall.addItem( itemWithID( "lamp" ) );
+        hall.addItem( itemWithID( "key" ) );
+        LocationExit north = new LocationExit();
+        north.setID( "hallnorth" );
+        hall.addExit( north );
+        BasicModel model = new BasicModel();
+        model.addLocation( hall );
+        model.addLocation( new Location( "garden", "A garden.", null, null ) );
+        return model;
+    }
+
+    @Test
+    public void models_in_the_same_state_have_the_same_digest() {
+        assertThat( modelWithHallAndGarden().stateDigest(),
+                    is( modelWithHallAndGarden().stateDigest() ) );
+    }
+
+    @Test
+    public void state_digest_does_not_depend_on_the_order_of_changes() {
+        BasicModel first = modelWithHallAndGarden();
+        first.moveItemToInventory( "lamp" );
+        first.moveItemToInventory( "key" );
+        first.setCurrentScore( 2 );
+        BasicModel second = modelWithHallAndGarden();
+        second.setCurrentScore( 2 );
+        second.moveItemToInventory( "key" );
+        second.moveItemToInventory( "lamp" );
+
+        assertThat( first.stateDigest(), is( second.stateDigest() ) );
+    }
+
+    @Test
+    public void state_digest_returns_to_its_old_value_when_a_change_is_undone() {
+        BasicModel model = modelWithHallAndGarden();
+        long before = model.stateDigest();
+
+        model.findItemByID( "lamp" ).setVisible( false );
+        model.findExitByID( "hallnorth" ).setInvisible();
+        model.setCurrentLocation( "garden" );
+        model.findItemByID( "lamp" ).setExamineText( "It flickers." );
+        model.findItemByID( "lamp" ).setVisible( true );
+        model.findExitByID( "hallnorth" ).setVisible();
+        model.findItemByID( "lamp" ).setExamineText( "" );
+        model.setCurrentLocation( "hall" );
+
+        assertThat( model.stateDigest(), is( before ) );
+    }
+
+    @Test
+    public void state_digest_changes_with_each_part_of_the_state() {
+        BasicModel model = modelWithHallAndGarden();
+        List<Long> digests = new ArrayList<Long>();
+        digests.add( model.stateDigest() );
+        Item lamp = model.findItemByID( "lamp" );
+
+        model.setCurrentLocation( "garden" );
+        digests.add( model.stateDigest() );
+        model.setCurrentScore( 1 );
+        digests.add( model.stateDigest() );
+        model.moveItemToInventory( "lamp" );
+        digests.add( model.stateDigest() );
+        lamp.setName( "Broken lamp" );
+        digests.add( model.stateDigest() );
+        lamp.setDescription( "a broken lamp" );
+        digests.add( model.stateDigest() );
+        lamp.setVisible( false );
+        digests.add( model.stateDigest() );
+        lamp.setUsed( true );
+        digests.add( model.stateDigest() );
+        lamp.setExamined( true );
+        digests.add( model.stateDigest() );
+        lamp.setAlreadyUsedWith( "key" );
+        digests.add( model.stateDigest() );
+        lamp.setExamineText( "It flickers." );
+        digests.add( model.stateDigest() );
+        lamp.setUsedWithText( "It lights up." );
+        digests.add( model.stateDigest() );
+        model.findLocationByID( "hall" ).setTextForFirstEntry( "The hall is quiet." );
+        digests.add( model.stateDigest() );
+        model.findExitByID( "hallnorth" ).setInvisible();
+        digests.add( model.stateDigest() );
+        model.findLocationByID( "hall" ).setLocationDescription( "A ruined hall." );
+        digests.add( model.stateDigest() );
+        model.destroyItem( "key" );
+        digests.add( model.stateDigest() );
+
+        assertThat( new HashSet<Long>( digests ).size(), is( digests.size() ) );
+    }
+
+    @Test
+    public void text_whose_string_hash_codes_collide_gives_different_digests() {
+        assertThat( "Aa".hashCode(), is( "BB".hashCode() ) );
+        BasicModel first = modelWithHallAndGarden();
+        first.findItemByID( "lamp" ).setDescription( "Aa" );
+        first.findLocationByID( "garden" ).setLocationDescription( "AaAa" );
+        BasicModel second = modelWithHallAndGarden();
+        second.findItemByID( "lamp" ).setDescription( "BB" );
+        second.findLocationByID( "garden" ).setLocationDescription( "BBBB" );
+
+        assertThat( first.stateDigest(), is( not( second.stateDigest() ) ) );
+        first.findLocationByID( "garden" ).setLocationDescription( "BBBB" );
+        assertThat( first.stateDigest(), is( not( second.stateDigest() ) ) );
+    }
+
+    @Test
+    public void destroying_an_item_takes_all_of_it_out_of_the_digest() {
+        BasicModel model = modelWithHallAndGarden();
+        model.findItemByID( "lamp" ).setUsed( true );
+        model.destroyItem( "lamp" );
+        BasicModel other = modelWithHallAndGarden();
+        other.destroyItem( "lamp" );
+
+        assertThat( model.stateDigest(), is( other.stateDigest() ) );
+    }
+}
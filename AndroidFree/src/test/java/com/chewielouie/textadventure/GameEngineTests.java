@@ -0,0 +1,51 @@
+package com.chewielouie.textadventure;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class GameEngineTests {
+
+    @Test
+    public void sessions_do_not_share_game_state() {
+        GameEngine engine = new GameEngine( GameSessionTests.world );
+        GameSession first = engine.newSession();
+        GameSession second = engine.newSession();
+
+        first.useExit( GameSessionTests.exitIndex( first.viewState(), "north" ) );
+
+        assertThat( first.viewState().mainText(), containsString( "A garden." ) );
+        assertThat( second.viewState().mainText(), containsString( "A hall." ) );
+    }
+
+    @Test
+    public void sessions_can_be_played_on_separate_threads() throws Exception {
+        final GameEngine engine = new GameEngine( GameSessionTests.world );
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try {
+            List<Future<ViewState>> results = new ArrayList<Future<ViewState>>();
+            for( int i = 0; i < 20; i++ )
+                results.add( executor.submit( new Callable<ViewState>() {
+                    public ViewState call() {
+                        GameSession session = engine.newSession();
+                        for( int move = 0; move < 10; move++ ) {
+                            String exit = move % 2 == 0 ? "north" : "south";
+                            session.useExit( GameSessionTests.exitIndex( session.viewState(), exit ) );
+                        }
+                        return session.viewState();
+                    }
+                } ) );
+            for( Future<ViewState> result : results )
+                assertThat( result.get().mainText(), containsString( "A hall." ) );
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
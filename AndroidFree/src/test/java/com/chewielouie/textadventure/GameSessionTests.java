@@ -0,0 +1,323 @@
+package com.chewielouie.textadventure;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static com.chewielouie.textadventure.serialisation.ModelStateTextFormat.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class GameSessionTests {
+    static final String world = "LOCATION\n" +
+                                "location id:hall\n" +
+                                "location description:A hall.\n" +
+                                "EXIT\n" +
+                                "exit label:north\n" +
+                                "exit destination:garden\n" +
+                                "exit id:hallnorth\n" +
+                                "ITEM\n" +
+                                "item name:Lamp\n" +
+                                "item description:a lamp\n" +
+                                "item id:lamp\n" +
+                                "item countable noun prefix:a\n" +
+                                "LOCATION\n" +
+                                "location id:garden\n" +
+                                "location description:A garden.\n" +
+                                "EXIT\n" +
+                                "exit label:south\n" +
+                                "exit destination:hall\n" +
+                                "exit id:gardensouth\n";
+
+    private GameSession createSession() {
+        return new GameEngine( world ).newSession();
+    }
+
+    static int actionIndex( ViewState state, String label ) {
+        int index = state.actionLabels().indexOf( label );
+        assertTrue( "no action labelled " + label, index != -1 );
+        return index;
+    }
+
+    static int exitIndex( ViewState state, String label ) {
+        int index = state.exitLabels().indexOf( label );
+        assertTrue( "no exit labelled " + label, index != -1 );
+        return index;
+    }
+
+    @Test
+    public void new_session_shows_the_first_location() {
+        ViewState state = createSession().viewState();
+
+        assertThat( state.mainText(), containsString( "A hall." ) );
+        assertThat( state.exitLabels().size(), is( 1 ) );
+        assertThat( state.exitLabels().get( 0 ), is( "north" ) );
+    }
+
+    @Test
+    public void new_session_offers_the_actions_of_the_first_location() {
+        ViewState state = createSession().viewState();
+
+        assertThat( state.actionLabels().indexOf( "Show inventory" ), is( not( -1 ) ) );
+        assertThat( state.actionLabels().indexOf( "Take an item" ), is( not( -1 ) ) );
+    }
+
+    @Test
+    public void using_an_exit_moves_to_its_destination() {
+        GameSession session = createSession();
+
+        ViewState state = session.useExit( exitIndex( session.viewState(), "north" ) );
+
+        assertThat( state.mainText(), containsString( "A garden." ) );
+        assertThat( state.exitLabels().get( 0 ), is( "south" ) );
+    }
+
+    @Test
+    public void action_needing_a_follow_up_offers_the_follow_up_actions() {
+        GameSession session = createSession();
+
+        ViewState state = session.enact( actionIndex( session.viewState(), "Take an item" ) );
+
+        assertThat( session.inAnActionChain(), is( true ) );
+        assertThat( state.actionLabels().size(), is( 1 ) );
+    }
+
+    @Test
+    public void cancelling_an_action_chain_offers_the_location_actions_again() {
+        GameSession session = createSession();
+        session.enact( actionIndex( session.viewState(), "Take an item" ) );
+
+        ViewState state = session.cancelActionChain();
+
+        assertThat( session.inAnActionChain(), is( false ) );
+        assertThat( state.actionLabels().indexOf( "Take an item" ), is( not( -1 ) ) );
+    }
+
+    @Test
+    public void taking_an_item_removes_it_from_the_location() {
+        GameSession session = createSession();
+        session.enact( actionIndex( session.viewState(), "Take an item" ) );
+
+        ViewState state = session.enact( 0 );
+
+        assertThat( state.availableItemsText(), not( containsString( "lamp" ) ) );
+        assertThat( state.actionLabels().indexOf( "Take an item" ), is( -1 ) );
+    }
+
+    @Test( expected = IndexOutOfBoundsException.class )
+    public void enacting_an_action_that_is_not_on_offer_is_an_error() {
+        GameSession session = createSession();
+
+        session.enact( session.viewState().actionLabels().size() );
+    }
+
+    @Test( expected = IndexOutOfBoundsException.class )
+    public void using_an_exit_that_is_not_shown_is_an_error() {
+        GameSession session = createSession();
+
+        session.useExit( 1 );
+    }
+
+    @Test
+    public void enacted_actions_are_recorded_in_the_action_history() {
+        GameSession session = createSession();
+
+        session.useExit( exitIndex( session.viewState(), "north" ) );
+        session.useExit( exitIndex( session.viewState(), "south" ) );
+
+        assertThat( session.actionHistorySize(), is( 2 ) );
+    }
+
+    @Test
+    public void replaying_a_sessions_history_reaches_the_same_view() {
+        GameSession session = createSession();
+        session.enact( actionIndex( session.viewState(), "Take an item" ) );
+        session.enact( 0 );
+        session.useExit( exitIndex( session.viewState(), "north" ) );
+
+        GameSession replayed = createSession();
+        ViewState state = replayed.replay( session.serialisedActionHistory() );
+
+        assertThat( state.mainText(), is( session.viewState().mainText() ) );
+        assertThat( state.actionLabels(), is( session.viewState().actionLabels() ) );
+        assertThat( replayed.actionHistorySize(), is( session.actionHistorySize() ) );
+    }
+
+    @Test
+    public void replaying_a_history_from_a_stream_reaches_the_same_view() throws Exception {
+        GameSession session = createSession();
+        session.enact( actionIndex( session.viewState(), "Take an item" ) );
+        session.enact( 0 );
+        session.useExit( exitIndex( session.viewState(), "north" ) );
+
+        GameSession replayed = createSession();
+        ViewState state = replayed.replay( new ByteArrayInputStream(
+            session.serialisedActionHistory().getBytes( "UTF-8" ) ) );
+
+        assertThat( state.mainText(), is( session.viewState().mainText() ) );
+        assertThat( replayed.actionHistorySize(), is( session.actionHistorySize() ) );
+    }
+
+    @Test
+    public void restoring_a_checkpoint_reaches_the_same_view() {
+        GameSession session = createSession();
+        session.enact( actionIndex( session.viewState(), "Take an item" ) );
+        session.enact( 0 );
+        session.useExit( exitIndex( session.viewState(), "north" ) );
+
+        GameSession restored = createSession();
+        ViewState state = restored.restore( session.checkpoint() );
+
+        assertThat( state.mainText(), containsString( "A garden." ) );
+        assertThat( state.exitLabels(), is( session.viewState().exitLabels() ) );
+        assertThat( restored.actionHistorySize(), is( session.actionHistorySize() ) );
+        assertThat( restored.checkpoint(), is( session.checkpoint() ) );
+    }
+
+    @Test
+    public void restoring_a_corrupted_checkpoint_replays_its_history_instead() {
+        GameSession session = createSession();
+        session.enact( actionIndex( session.viewState(), "Take an item" ) );
+        session.enact( 0 );
+        session.useExit( exitIndex( session.viewState(), "north" ) );
+        String corrupted = session.checkpoint().replace( "current score:0", "current score:5" );
+
+        GameSession restored = createSession();
+        ViewState state = restored.restore( corrupted );
+
+        assertThat( state.mainText(), containsString( "A garden." ) );
+        assertThat( state.currentScore(), is( 0 ) );
+        assertThat( restored.actionHistorySize(), is( session.actionHistorySize() ) );
+        assertThat( restored.checkpoint(), is( session.checkpoint() ) );
+    }
+
+    @Test
+    public void restoring_a_checkpoint_with_the_wrong_digest_still_reaches_its_state() {
+        GameSession session = createSession();
+        session.enact( actionIndex( session.viewState(), "Take an item" ) );
+        session.enact( 0 );
+        String checkpoint = session.checkpoint();
+        String digestLine = MODEL_STATE_DIGEST_TAG + SEPERATOR + session.stateDigest() + "\n";
+        String state = checkpoint.substring( 0, checkpoint.indexOf( MODEL_STATE_CHECKSUM_TAG ) )
+                                 .replace( digestLine, MODEL_STATE_DIGEST_TAG + SEPERATOR + "1\n" );
+        String wrongDigest = state + MODEL_STATE_CHECKSUM_TAG + SEPERATOR + checksum( state ) +
+                             "\n" + checkpoint.substring( checkpoint.indexOf( ACTION_HISTORY_SECTION ) );
+
+        GameSession restored = createSession();
+        restored.restore( wrongDigest );
+
+        assertThat( restored.stateDigest(), is( session.stateDigest() ) );
+        assertThat( restored.actionHistorySize(), is( session.actionHistorySize() ) );
+        assertThat( restored.checkpoint(), is( checkpoint ) );
+    }
+
+    @Test
+    public void sessions_that_reach_the_same_state_have_the_same_digest() {
+        GameSession first = createSession();
+        first.useExit( exitIndex( first.viewState(), "north" ) );
+        first.useExit( exitIndex( first.viewState(), "south" ) );
+        GameSession second = createSession();
+
+        assertThat( first.stateDigest(), is( second.stateDigest() ) );
+        second.enact( actionIndex( second.viewState(), "Take an item" ) );
+        second.enact( 0 );
+        assertThat( first.stateDigest(), is( not( second.stateDigest() ) ) );
+    }
+
+    @Test
+    public void compacted_history_replays_to_the_same_view() {
+        GameSession session = createSession();
+        session.enact( actionIndex( session.viewState(), "Take an item" ) );
+        session.enact( 0 );
+        session.useExit( exitIndex( session.viewState(), "north" ) );
+
+        assertThat( session.compactActionHistory(), is( 1 ) );
+        GameSession replayed = createSession();
+        ViewState state = replayed.replay( session.serialisedActionHistory() );
+
+        assertThat( replayed.actionHistorySize(), is( 2 ) );
+        assertThat( state.mainText(), is( session.viewState().mainText() ) );
+        assertThat( replayed.checkpoint(), is( session.checkpoint() ) );
+    }
+
+    @Test
+    public void view_state_does_not_change_after_later_actions() {
+        GameSession session = createSession();
+        ViewState before = session.viewState();
+
+        session.useExit( exitIndex( before, "north" ) );
+
+        assertThat( before.mainText(), containsString( "A hall." ) );
+    }
+
+    private static class QueuedExecutor implements Executor {
+        List<Runnable> tasks = new ArrayList<Runnable>();
+
+        public void execute( Runnable task ) {
+            tasks.add( task );
+        }
+
+        void runAll() {
+            while( tasks.isEmpty() == false )
+                tasks.remove( 0 ).run();
+        }
+    }
+
+    @Test
+    public void snapshot_holds_the_history_and_digest_after_each_change() {
+        GameSession session = createSession();
+        long digestBefore = session.snapshot().stateDigest();
+
+        session.useExit( exitIndex( session.viewState(), "north" ) );
+
+        SessionSnapshot snapshot = session.snapshot();
+        assertThat( snapshot.actionHistorySize(), is( 1 ) );
+        assertThat( snapshot.stateDigest(), is( not( digestBefore ) ) );
+        assertThat( snapshot.viewState().mainText(), containsString( "A garden." ) );
+        assertThat( snapshot.inAnActionChain(), is( false ) );
+    }
+
+    @Test
+    public void change_given_without_waiting_is_made_by_the_engines_executor() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        GameSession session = new GameEngine( world, executor ).newSession();
+
+        Future<ViewState> moved = session.useExitLater( exitIndex( session.viewState(), "north" ) );
+
+        assertThat( session.viewState().mainText(), containsString( "A hall." ) );
+        executor.runAll();
+        assertThat( moved.get().mainText(), containsString( "A garden." ) );
+        assertThat( session.viewState().mainText(), containsString( "A garden." ) );
+    }
+
+    @Test
+    public void changes_given_without_waiting_are_made_in_order() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        GameSession session = new GameEngine( world, executor ).newSession();
+
+        session.useExitLater( exitIndex( session.viewState(), "north" ) );
+        Future<ViewState> back = session.useExitLater( 0 );
+        executor.runAll();
+
+        assertThat( back.get().mainText(), containsString( "A hall." ) );
+        assertThat( session.actionHistorySize(), is( 2 ) );
+    }
+
+    @Test
+    public void checkpoint_given_without_waiting_holds_the_changes_before_it() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        GameSession session = new GameEngine( world, executor ).newSession();
+
+        session.useExitLater( exitIndex( session.viewState(), "north" ) );
+        Future<String> checkpoint = session.checkpointLater();
+        executor.runAll();
+
+        assertThat( checkpoint.get(), is( session.checkpoint() ) );
+        assertThat( createSession().restore( checkpoint.get() ).mainText(),
+                    containsString( "A garden." ) );
+    }
+}
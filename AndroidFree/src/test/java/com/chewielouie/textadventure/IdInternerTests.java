@@ -0,0 +1,69 @@
+package com.chewielouie.textadventure;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class IdInternerTests {
+
+    @Test
+    public void handles_count_up_from_zero_in_the_order_ids_are_interned() {
+        IdInterner interner = new IdInterner();
+
+        assertEquals( 0, interner.intern( "hall" ) );
+        assertEquals( 1, interner.intern( "garden" ) );
+        assertEquals( 2, interner.size() );
+    }
+
+    @Test
+    public void interning_an_id_again_gives_the_same_handle() {
+        IdInterner interner = new IdInterner();
+        interner.intern( "hall" );
+        interner.intern( "garden" );
+
+        assertEquals( 0, interner.intern( "hall" ) );
+        assertEquals( 2, interner.size() );
+    }
+
+    @Test
+    public void unknown_ids_have_no_handle() {
+        IdInterner interner = new IdInterner();
+        interner.intern( "hall" );
+
+        assertEquals( IdInterner.NO_HANDLE, interner.handleOf( "garden" ) );
+    }
+
+    @Test
+    public void ids_can_be_found_from_their_handles() {
+        IdInterner interner = new IdInterner();
+        interner.intern( "hall" );
+        interner.intern( "garden" );
+
+        assertEquals( "garden", interner.idOf( 1 ) );
+    }
+
+    @Test
+    public void child_knows_the_parents_handles_and_numbers_new_ids_after_them() {
+        IdInterner parent = new IdInterner();
+        parent.intern( "hall" );
+        parent.intern( "garden" );
+        IdInterner child = new IdInterner( parent );
+
+        assertEquals( 1, child.handleOf( "garden" ) );
+        assertEquals( 2, child.intern( "cellar" ) );
+        assertEquals( "cellar", child.idOf( 2 ) );
+        assertEquals( "hall", child.idOf( 0 ) );
+    }
+
+    @Test
+    public void child_does_not_add_to_its_parent() {
+        IdInterner parent = new IdInterner();
+        parent.intern( "hall" );
+        IdInterner child = new IdInterner( parent );
+
+        child.intern( "cellar" );
+
+        assertEquals( 1, parent.size() );
+        assertEquals( IdInterner.NO_HANDLE, parent.handleOf( "cellar" ) );
+    }
+}
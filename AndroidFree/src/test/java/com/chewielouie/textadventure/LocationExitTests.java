@@ -7,6 +7,8 @@ import static org.junit.Assert.*;
 
 import org.junit.Test;
 import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import com.chewielouie.textadventure.itemaction.UnboundItemAction;
 
 public class LocationExitTests {
 
@@ -119,5 +121,97 @@ public class LocationExitTests {
         verify( action1 ).enact();
         verify( action2 ).enact();
     }
-}
 
+    @Test
+    public void exit_made_from_template_starts_in_the_same_state() {
+        LocationExit template = new LocationExit();
+        template.setID( "id" );
+        template.setLabel( "north" );
+        template.setDestination( "hall" );
+        template.setDirectionHint( Exit.DirectionHint.North );
+        template.setInvisible();
+
+        LocationExit exit = new LocationExit( template, mock( ItemActionFactory.class ) );
+
+        assertEquals( "id", exit.id() );
+        assertEquals( "north", exit.label() );
+        assertEquals( "hall", exit.destination() );
+        assertEquals( Exit.DirectionHint.North, exit.directionHint() );
+        assertFalse( exit.visible() );
+    }
+
+    @Test
+    public void exit_made_from_template_changes_visibility_independently() {
+        LocationExit template = new LocationExit();
+        LocationExit exit = new LocationExit( template, mock( ItemActionFactory.class ) );
+
+        exit.setInvisible();
+
+        assertTrue( template.visible() );
+    }
+
+    @Test
+    public void exit_made_from_template_binds_unbound_actions_before_enacting_them() {
+        LocationExit template = new LocationExit();
+        template.addOnUseAction( new UnboundItemAction( "action content", false ) );
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        ItemAction bound = mock( ItemAction.class );
+        when( factory.create( "action content", null ) ).thenReturn( bound );
+        LocationExit exit = new LocationExit( template, factory );
+
+        exit.use();
+
+        verify( bound ).enact();
+    }
+
+    @Test
+    public void adding_an_action_to_an_exit_made_from_template_leaves_the_template_alone() {
+        LocationExit template = new LocationExit();
+        LocationExit exit = new LocationExit( template, mock( ItemActionFactory.class ) );
+        ItemAction action = mock( ItemAction.class );
+        exit.addOnUseAction( action );
+
+        template.use();
+
+        verify( action, never() ).enact();
+    }
+
+    @Test
+    public void adding_an_action_to_a_shared_template_leaves_exits_made_from_it_alone() {
+        LocationExit template = new LocationExit();
+        template.shareOnUseActions();
+        LocationExit exit = new LocationExit( template, mock( ItemActionFactory.class ) );
+        ItemAction action = mock( ItemAction.class );
+        template.addOnUseAction( action );
+
+        exit.use();
+
+        verify( action, never() ).enact();
+    }
+
+    @Test
+    public void exit_publishes_changes_to_its_visibility() {
+        LocationExit exit = new LocationExit();
+        exit.setID( "north" );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        exit.publishModelEventsTo( subscriber );
+
+        exit.setInvisible();
+        exit.setInvisible();
+
+        verify( subscriber, times( 1 ) ).modelChanged(
+            new ModelEvent( ModelEvent.Type.EXIT_VISIBILITY_CHANGED, "north" ) );
+    }
+
+    @Test
+    public void actions_of_an_exit_made_from_template_are_bound() {
+        LocationExit template = new LocationExit();
+        template.addOnUseAction( new UnboundItemAction( "action content", false ) );
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        ItemAction bound = mock( ItemAction.class );
+        when( factory.create( "action content", null ) ).thenReturn( bound );
+        LocationExit exit = new LocationExit( template, factory );
+
+        assertThat( exit.actions(), contains( bound ) );
+    }
+}
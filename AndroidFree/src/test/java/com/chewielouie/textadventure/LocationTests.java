@@ -9,6 +9,7 @@ import com.chewielouie.textadventure.action.Action;
 import com.chewielouie.textadventure.action.ActionFactory;
 import com.chewielouie.textadventure.action.TalkToAction;
 import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.NormalItem;
 import java.util.ArrayList;
 import java.util.List;
 import org.jmock.*;
@@ -433,5 +434,71 @@ public class LocationTests {
         l.exited();
         assertEquals( "",  l.contextualText() );
     }
-}
 
+    @Test
+    public void location_publishes_changes_to_its_description_and_items() {
+        Location l = new Location( "hall", "", null, null );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        l.publishModelEventsTo( subscriber );
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( "lamp" );
+
+        l.setLocationDescription( "A hall." );
+        l.addItem( item );
+        l.removeItem( item );
+
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.LOCATION_DESCRIPTION_CHANGED, "hall" ) );
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_ADDED_TO_LOCATION, "hall", "lamp" ) );
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_REMOVED_FROM_LOCATION, "hall", "lamp" ) );
+    }
+
+    @Test
+    public void location_does_not_publish_a_description_that_changes_nothing() {
+        Location l = new Location( "hall", "A hall.", null, null );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        l.publishModelEventsTo( subscriber );
+
+        l.setLocationDescription( "A hall." );
+
+        verifyZeroInteractions( subscriber );
+    }
+
+    @Test
+    public void location_publishes_its_first_entry_text_being_used_up() {
+        Location l = new Location( "hall", "", null, null );
+        l.setTextForFirstEntry( "The hall is quiet." );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        l.publishModelEventsTo( subscriber );
+
+        l.exited();
+        l.exited();
+
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.LOCATION_FIRST_ENTRY_TEXT_CHANGED, "hall" ) );
+        verifyNoMoreInteractions( subscriber );
+    }
+
+    @Test
+    public void location_attaches_its_subscriber_to_its_exits_and_items() {
+        Location l = createLocation();
+        LocationExit exit = new LocationExit();
+        exit.setID( "north" );
+        NormalItem item = new NormalItem();
+        item.setId( "lamp" );
+        l.addExit( exit );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        l.publishModelEventsTo( subscriber );
+        l.addItem( item );
+
+        exit.setInvisible();
+        item.setVisible( false );
+
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.EXIT_VISIBILITY_CHANGED, "north" ) );
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_VISIBILITY_CHANGED, "lamp" ) );
+    }
+}
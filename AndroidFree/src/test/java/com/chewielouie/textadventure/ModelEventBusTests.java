@@ -0,0 +1,158 @@
+package com.chewielouie.textadventure;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class ModelEventBusTests {
+    private ModelEvent scoreChanged = new ModelEvent( ModelEvent.Type.SCORE_CHANGED, null );
+    private ModelEvent movedToHall =
+        new ModelEvent( ModelEvent.Type.CURRENT_LOCATION_CHANGED, "hall" );
+    private ModelEvent movedToKitchen =
+        new ModelEvent( ModelEvent.Type.CURRENT_LOCATION_CHANGED, "kitchen" );
+
+    @Test
+    public void subscribers_are_told_of_every_event_if_no_types_are_given() {
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        ModelEventBus bus = new ModelEventBus();
+        bus.subscribe( subscriber );
+
+        bus.publish( scoreChanged );
+        bus.publish( movedToHall );
+
+        verify( subscriber ).modelChanged( scoreChanged );
+        verify( subscriber ).modelChanged( movedToHall );
+    }
+
+    @Test
+    public void subscribers_are_only_told_of_events_of_the_types_given() {
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        ModelEventBus bus = new ModelEventBus();
+        bus.subscribe( subscriber, ModelEvent.Type.CURRENT_LOCATION_CHANGED );
+
+        bus.publish( scoreChanged );
+        bus.publish( movedToHall );
+
+        verify( subscriber, never() ).modelChanged( scoreChanged );
+        verify( subscriber ).modelChanged( movedToHall );
+    }
+
+    @Test
+    public void events_in_a_batch_are_delivered_at_the_commit() {
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        ModelEventBus bus = new ModelEventBus();
+        bus.subscribe( subscriber );
+
+        bus.beginBatch();
+        bus.publish( scoreChanged );
+        verifyZeroInteractions( subscriber );
+
+        bus.commitBatch();
+        verify( subscriber ).modelChanged( scoreChanged );
+    }
+
+    @Test
+    public void each_distinct_event_in_a_batch_is_delivered_once_in_the_order_last_published() {
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        ModelEventBus bus = new ModelEventBus();
+        bus.subscribe( subscriber );
+
+        bus.beginBatch();
+        bus.publish( movedToHall );
+        bus.publish( scoreChanged );
+        bus.publish( movedToKitchen );
+        bus.publish( scoreChanged );
+        bus.publish( movedToHall );
+        bus.commitBatch();
+
+        InOrder inOrder = inOrder( subscriber );
+        inOrder.verify( subscriber ).modelChanged( movedToKitchen );
+        inOrder.verify( subscriber ).modelChanged( scoreChanged );
+        inOrder.verify( subscriber ).modelChanged( movedToHall );
+        verifyNoMoreInteractions( subscriber );
+    }
+
+    @Test
+    public void last_move_delivered_from_a_batch_is_to_where_the_player_ended_up() {
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        ModelEventBus bus = new ModelEventBus();
+        bus.subscribe( subscriber, ModelEvent.Type.CURRENT_LOCATION_CHANGED );
+
+        bus.beginBatch();
+        bus.publish( movedToHall );
+        bus.publish( movedToKitchen );
+        bus.publish( movedToHall );
+        bus.commitBatch();
+
+        InOrder inOrder = inOrder( subscriber );
+        inOrder.verify( subscriber ).modelChanged( movedToKitchen );
+        inOrder.verify( subscriber ).modelChanged( movedToHall );
+        verifyNoMoreInteractions( subscriber );
+    }
+
+    @Test
+    public void nested_batches_are_delivered_at_the_outermost_commit() {
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        ModelEventBus bus = new ModelEventBus();
+        bus.subscribe( subscriber );
+
+        bus.beginBatch();
+        bus.beginBatch();
+        bus.publish( scoreChanged );
+        bus.commitBatch();
+        verifyZeroInteractions( subscriber );
+        assertTrue( bus.batching() );
+
+        bus.commitBatch();
+        verify( subscriber ).modelChanged( scoreChanged );
+        assertFalse( bus.batching() );
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void committing_without_a_batch_fails() {
+        new ModelEventBus().commitBatch();
+    }
+
+    @Test
+    public void events_published_while_a_batch_is_delivered_are_delivered_straight_away() {
+        final ModelEventBus bus = new ModelEventBus();
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        bus.subscribe( new ModelEventSubscriber() {
+            public void modelChanged( ModelEvent event ) {
+                if( event.type() == ModelEvent.Type.CURRENT_LOCATION_CHANGED )
+                    bus.publish( scoreChanged );
+            }
+        } );
+        bus.subscribe( subscriber );
+
+        bus.beginBatch();
+        bus.publish( movedToHall );
+        bus.commitBatch();
+
+        verify( subscriber ).modelChanged( scoreChanged );
+        verify( subscriber ).modelChanged( movedToHall );
+    }
+
+    @Test
+    public void keeps_the_time_each_subscriber_spends_on_its_events() {
+        ModelEventSubscriber everything = mock( ModelEventSubscriber.class );
+        ModelEventSubscriber moves = mock( ModelEventSubscriber.class );
+        ModelEventBus bus = new ModelEventBus();
+        bus.subscribe( everything );
+        bus.subscribe( moves, ModelEvent.Type.CURRENT_LOCATION_CHANGED );
+
+        bus.publish( scoreChanged );
+        bus.publish( movedToHall );
+
+        assertEquals( 2, bus.timings().size() );
+        DispatchTiming first = bus.timings().get( 0 );
+        DispatchTiming second = bus.timings().get( 1 );
+        assertSame( everything, first.subscriber() );
+        assertEquals( 2, first.deliveries() );
+        assertSame( moves, second.subscriber() );
+        assertEquals( 1, second.deliveries() );
+        assertTrue( first.totalNanos() >= first.maximumNanos() );
+    }
+}
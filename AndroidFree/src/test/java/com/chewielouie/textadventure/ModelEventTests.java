@@ -0,0 +1,31 @@
+package com.chewielouie.textadventure;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ModelEventTests {
+
+    @Test
+    public void events_of_the_same_type_and_subject_are_equal() {
+        ModelEvent a = new ModelEvent( ModelEvent.Type.ITEM_NAME_CHANGED, "lamp" );
+        ModelEvent b = new ModelEvent( ModelEvent.Type.ITEM_NAME_CHANGED, "lamp" );
+
+        assertEquals( a, b );
+        assertEquals( a.hashCode(), b.hashCode() );
+    }
+
+    @Test
+    public void events_without_a_subject_are_equal_by_type() {
+        assertEquals( new ModelEvent( ModelEvent.Type.SCORE_CHANGED, null ),
+                      new ModelEvent( ModelEvent.Type.SCORE_CHANGED, null ) );
+        assertNotEquals( new ModelEvent( ModelEvent.Type.SCORE_CHANGED, null ),
+                         new ModelEvent( ModelEvent.Type.INVENTORY_CHANGED, null ) );
+    }
+
+    @Test
+    public void events_with_different_subjects_are_not_equal() {
+        assertNotEquals( new ModelEvent( ModelEvent.Type.ITEM_NAME_CHANGED, "lamp" ),
+                         new ModelEvent( ModelEvent.Type.ITEM_NAME_CHANGED, "key" ) );
+    }
+}
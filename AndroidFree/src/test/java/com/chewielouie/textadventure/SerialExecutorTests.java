@@ -0,0 +1,236 @@
+package com.chewielouie.textadventure;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class SerialExecutorTests {
+
+    private static class QueuedExecutor implements Executor {
+        List<Runnable> tasks = new ArrayList<Runnable>();
+
+        public synchronized void execute( Runnable task ) {
+            tasks.add( task );
+        }
+
+        void runAll() {
+            while( true ) {
+                Runnable task;
+                synchronized( this ) {
+                    if( tasks.isEmpty() )
+                        return;
+                    task = tasks.remove( 0 );
+                }
+                task.run();
+            }
+        }
+    }
+
+    private static Runnable recorder( final List<String> log, final String name ) {
+        return new Runnable() {
+            public void run() {
+                log.add( name );
+            }
+        };
+    }
+
+    @Test
+    public void tasks_are_run_in_the_order_given() {
+        QueuedExecutor executor = new QueuedExecutor();
+        SerialExecutor serial = new SerialExecutor( executor );
+        List<String> log = new ArrayList<String>();
+
+        serial.execute( recorder( log, "a" ) );
+        serial.execute( recorder( log, "b" ) );
+        serial.execute( recorder( log, "c" ) );
+        executor.runAll();
+
+        assertThat( log, is( Arrays.asList( "a", "b", "c" ) ) );
+    }
+
+    @Test
+    public void only_one_task_at_a_time_is_handed_to_the_executor() {
+        QueuedExecutor executor = new QueuedExecutor();
+        SerialExecutor serial = new SerialExecutor( executor );
+        List<String> log = new ArrayList<String>();
+
+        serial.execute( recorder( log, "a" ) );
+        serial.execute( recorder( log, "b" ) );
+
+        assertThat( executor.tasks.size(), is( 1 ) );
+    }
+
+    @Test
+    public void a_call_with_nothing_pending_is_run_by_the_caller() {
+        QueuedExecutor executor = new QueuedExecutor();
+        SerialExecutor serial = new SerialExecutor( executor );
+
+        Thread runner = serial.call( new Callable<Thread>() {
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        } );
+
+        assertThat( runner, is( Thread.currentThread() ) );
+        assertThat( executor.tasks.isEmpty(), is( true ) );
+    }
+
+    @Test
+    public void a_call_is_run_after_the_tasks_given_before_it() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        final SerialExecutor serial = new SerialExecutor( executor );
+        final List<String> log = new ArrayList<String>();
+        serial.execute( recorder( log, "a" ) );
+
+        Thread caller = new Thread() {
+            public void run() {
+                serial.call( new Callable<Void>() {
+                    public Void call() {
+                        log.add( "b" );
+                        return null;
+                    }
+                } );
+            }
+        };
+        caller.start();
+        while( caller.getState() != Thread.State.WAITING && caller.isAlive() )
+            Thread.yield();
+        executor.runAll();
+        caller.join( 5000 );
+
+        assertThat( caller.isAlive(), is( false ) );
+        assertThat( log, is( Arrays.asList( "a", "b" ) ) );
+    }
+
+    @Test
+    public void a_call_from_a_task_is_run_at_once() {
+        final SerialExecutor serial = new SerialExecutor( new QueuedExecutor() );
+
+        String result = serial.call( new Callable<String>() {
+            public String call() {
+                return serial.call( new Callable<String>() {
+                    public String call() {
+                        return "inner";
+                    }
+                } );
+            }
+        } );
+
+        assertThat( result, is( "inner" ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void exception_thrown_by_a_call_is_rethrown_to_the_caller() {
+        SerialExecutor serial = new SerialExecutor( new QueuedExecutor() );
+
+        serial.call( new Callable<Void>() {
+            public Void call() {
+                throw new IllegalArgumentException();
+            }
+        } );
+    }
+
+    @Test
+    public void tasks_after_one_that_throws_are_still_run() {
+        QueuedExecutor executor = new QueuedExecutor();
+        SerialExecutor serial = new SerialExecutor( executor );
+        List<String> log = new ArrayList<String>();
+        final List<Throwable> uncaught = new ArrayList<Throwable>();
+        Thread current = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = current.getUncaughtExceptionHandler();
+        current.setUncaughtExceptionHandler( new Thread.UncaughtExceptionHandler() {
+            public void uncaughtException( Thread t, Throwable e ) {
+                uncaught.add( e );
+            }
+        } );
+        try {
+            serial.execute( new Runnable() {
+                public void run() {
+                    throw new IllegalStateException();
+                }
+            } );
+            serial.execute( recorder( log, "after" ) );
+            executor.runAll();
+        } finally {
+            current.setUncaughtExceptionHandler( handler );
+        }
+
+        assertThat( uncaught.size(), is( 1 ) );
+        assertThat( log, is( Arrays.asList( "after" ) ) );
+    }
+
+    @Test
+    public void tasks_after_one_that_throws_an_error_are_still_run() {
+        QueuedExecutor executor = new QueuedExecutor();
+        SerialExecutor serial = new SerialExecutor( executor );
+        final List<Throwable> uncaught = new ArrayList<Throwable>();
+        Thread current = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = current.getUncaughtExceptionHandler();
+        current.setUncaughtExceptionHandler( new Thread.UncaughtExceptionHandler() {
+            public void uncaughtException( Thread t, Throwable e ) {
+                uncaught.add( e );
+            }
+        } );
+        try {
+            serial.execute( new Runnable() {
+                public void run() {
+                    throw new AssertionError();
+                }
+            } );
+            executor.runAll();
+        } finally {
+            current.setUncaughtExceptionHandler( handler );
+        }
+
+        String result = serial.call( new Callable<String>() {
+            public String call() {
+                return "still running";
+            }
+        } );
+
+        assertThat( uncaught.size(), is( 1 ) );
+        assertThat( result, is( "still running" ) );
+    }
+
+    @Test
+    public void tasks_given_during_a_call_are_handed_to_the_executor() {
+        QueuedExecutor executor = new QueuedExecutor();
+        final SerialExecutor serial = new SerialExecutor( executor );
+        final List<String> log = new ArrayList<String>();
+
+        serial.call( new Callable<Void>() {
+            public Void call() {
+                serial.execute( recorder( log, "later" ) );
+                log.add( "call" );
+                return null;
+            }
+        } );
+
+        assertThat( log, is( Arrays.asList( "call" ) ) );
+        executor.runAll();
+        assertThat( log, is( Arrays.asList( "call", "later" ) ) );
+    }
+
+    @Test
+    public void submitted_task_gives_its_result_once_run() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        SerialExecutor serial = new SerialExecutor( executor );
+
+        Future<String> result = serial.submit( new Callable<String>() {
+            public String call() {
+                return "done";
+            }
+        } );
+
+        assertThat( result.isDone(), is( false ) );
+        executor.runAll();
+        assertThat( result.get(), is( "done" ) );
+    }
+}
@@ -9,6 +9,8 @@ import java.util.List;
 import com.chewielouie.textadventure.action.Action;
 import com.chewielouie.textadventure.action.ActionFactory;
 import org.jmock.*;
+import org.jmock.api.Invocation;
+import org.jmock.lib.action.CustomAction;
 import org.jmock.integration.junit4.JMock;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -521,7 +523,7 @@ public class TextAdventurePresenterTests {
         }});
         TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
         p.enact( action );
-        p.currentLocationChanged();
+        p.modelChanged( playerMoved() );
     }
 
     @Test
@@ -536,7 +538,7 @@ public class TextAdventurePresenterTests {
             ignoring( view );
         }});
         TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
-        p.currentLocationChanged();
+        p.modelChanged( playerMoved() );
     }
 
     @Test
@@ -551,7 +553,7 @@ public class TextAdventurePresenterTests {
             ignoring( view );
         }});
         TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
-        p.currentLocationChanged();
+        p.modelChanged( playerMoved() );
     }
 
     @Test
@@ -573,7 +575,7 @@ public class TextAdventurePresenterTests {
             ignoring( south );
         }});
         TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
-        p.currentLocationChanged();
+        p.modelChanged( playerMoved() );
     }
 
     @Test
@@ -588,7 +590,7 @@ public class TextAdventurePresenterTests {
             ignoring( view );
         }});
         TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
-        p.currentLocationChanged();
+        p.modelChanged( playerMoved() );
     }
 
 
@@ -598,7 +600,7 @@ public class TextAdventurePresenterTests {
         TextAdventurePresenter p = new TextAdventurePresenter( view, null, null, null );
 
         p.disableViewUpdates();
-        p.currentLocationChanged();
+        p.modelChanged( playerMoved() );
     }
 
     @Test
@@ -622,5 +624,166 @@ public class TextAdventurePresenterTests {
         p.disableViewUpdates();
         p.enact( action );
     }
-}
 
+    @Test
+    public void replay_only_triggers_the_actions() {
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final Action action1 = mockery.mock( Action.class, "action1" );
+        final Action action2 = mockery.mock( Action.class, "action2" );
+        mockery.checking( new Expectations() {{
+            ignoring( model );
+            oneOf( action1 ).trigger();
+            oneOf( action2 ).trigger();
+        }});
+        final TextAdventureView view = mockery.mock( TextAdventureView.class );
+        TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
+        p.disableViewUpdates();
+        List<Action> actions = new ArrayList<Action>();
+        actions.add( action1 );
+        actions.add( action2 );
+
+        p.replay( actions );
+    }
+
+    @Test
+    public void replay_renders_once_at_the_end_without_any_action_text() {
+        final TextAdventureView view = mockery.mock( TextAdventureView.class );
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final Action action = mockery.mock( Action.class );
+        mockery.checking( new Expectations() {{
+            allowing( model ).currentLocationDescription();
+            will( returnValue( "some room text" ) );
+            ignoring( model );
+        }});
+        final TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
+        mockery.checking( new Expectations() {{
+            exactly( 2 ).of( action ).trigger();
+            will( new CustomAction( "move to a new location" ) {
+                public Object invoke( Invocation invocation ) {
+                    p.modelChanged( playerMoved() );
+                    return null;
+                }
+            } );
+            oneOf( view ).showMainText( "some room text" );
+            ignoring( view );
+        }});
+        List<Action> actions = new ArrayList<Action>();
+        actions.add( action );
+        actions.add( action );
+
+        p.replay( actions );
+    }
+
+    @Test
+    public void enact_pushes_nothing_but_actions_when_nothing_shown_has_changed() {
+        final TextAdventureView view = mockery.mock( TextAdventureView.class );
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final Action action = mockery.mock( Action.class );
+        final States enacting = mockery.states( "enacting" ).startsAs( "no" );
+        mockery.checking( new Expectations() {{
+            ignoring( model );
+            ignoring( action );
+            ignoring( view ); when( enacting.is( "no" ) );
+            allowing( view ).setActions( with( any( List.class ) ) );
+        }});
+        TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
+        p.render();
+        enacting.become( "yes" );
+
+        p.enact( action );
+    }
+
+    @Test
+    public void enact_pushes_only_the_parts_of_the_view_a_model_change_affects() {
+        final TextAdventureView view = mockery.mock( TextAdventureView.class );
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final Action action = mockery.mock( Action.class );
+        final States enacting = mockery.states( "enacting" ).startsAs( "no" );
+        mockery.checking( new Expectations() {{
+            ignoring( view ); when( enacting.is( "no" ) );
+            allowing( model ).currentScore();
+            will( returnValue( 2 ) );
+            ignoring( model );
+            ignoring( action );
+            allowing( view ).setActions( with( any( List.class ) ) );
+            oneOf( view ).currentScore( 2 );
+            oneOf( view ).maximumScore( with( any( Integer.class ) ) );
+            oneOf( view ).showLocationExits( with( any( List.class ) ) );
+        }});
+        TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
+        p.render();
+        enacting.become( "yes" );
+
+        p.modelChanged( new ModelEvent( ModelEvent.Type.SCORE_CHANGED, null ) );
+        p.modelChanged( new ModelEvent( ModelEvent.Type.EXIT_VISIBILITY_CHANGED, "north" ) );
+        p.enact( action );
+    }
+
+    @Test
+    public void enact_pushes_main_text_when_the_action_has_text_to_show() {
+        final TextAdventureView view = mockery.mock( TextAdventureView.class );
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final Action action = mockery.mock( Action.class );
+        final States enacting = mockery.states( "enacting" ).startsAs( "no" );
+        mockery.checking( new Expectations() {{
+            ignoring( view ); when( enacting.is( "no" ) );
+            ignoring( model );
+            allowing( action ).userTextAvailable();
+            will( returnValue( true ) );
+            allowing( action ).userText();
+            will( returnValue( "You take the lamp." ) );
+            ignoring( action );
+            allowing( view ).setActions( with( any( List.class ) ) );
+            oneOf( view ).showMainText( with( containsString( "You take the lamp." ) ) );
+        }});
+        TextAdventurePresenter p = new TextAdventurePresenter( view, model, null, null );
+        p.render();
+        enacting.become( "yes" );
+
+        p.enact( action );
+    }
+
+    @Test
+    public void enact_batches_the_events_the_model_raises_while_the_action_is_triggered() {
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final Action action = mockery.mock( Action.class );
+        final Sequence enacting = mockery.sequence( "enacting" );
+        mockery.checking( new Expectations() {{
+            oneOf( model ).beginEventBatch(); inSequence( enacting );
+            oneOf( action ).trigger(); inSequence( enacting );
+            oneOf( model ).commitEventBatch(); inSequence( enacting );
+            ignoring( action );
+            ignoring( model );
+        }});
+        TextAdventurePresenter p = new TextAdventurePresenter( null, model, null, null );
+        p.disableViewUpdates();
+
+        p.enact( action );
+    }
+
+    @Test
+    public void replay_batches_the_events_of_all_the_actions() {
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final Action action1 = mockery.mock( Action.class, "action1" );
+        final Action action2 = mockery.mock( Action.class, "action2" );
+        final Sequence replaying = mockery.sequence( "replaying" );
+        mockery.checking( new Expectations() {{
+            oneOf( model ).beginEventBatch(); inSequence( replaying );
+            oneOf( action1 ).trigger(); inSequence( replaying );
+            oneOf( action2 ).trigger(); inSequence( replaying );
+            oneOf( model ).commitEventBatch(); inSequence( replaying );
+            ignoring( model );
+        }});
+        TextAdventurePresenter p = new TextAdventurePresenter( null, model, null, null );
+        p.disableViewUpdates();
+        List<Action> actions = new ArrayList<Action>();
+        actions.add( action1 );
+        actions.add( action2 );
+
+        p.replay( actions );
+    }
+
+    private static ModelEvent playerMoved() {
+        return new ModelEvent( ModelEvent.Type.CURRENT_LOCATION_CHANGED, "location" );
+    }
+}
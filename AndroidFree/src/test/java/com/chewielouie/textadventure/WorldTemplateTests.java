@@ -0,0 +1,130 @@
+package com.chewielouie.textadventure;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.serialisation.BinaryWorldCompiler;
+import java.io.IOException;
+import org.junit.Test;
+
+public class WorldTemplateTests {
+    private static final String world = "LOCATION AREA\n" +
+                                        "location area id:town\n" +
+                                        "location area name:Town\n" +
+                                        "LOCATION\n" +
+                                        "location id:hall\n" +
+                                        "location area id:town\n" +
+                                        "location description:A hall.\n" +
+                                        "EXIT\n" +
+                                        "exit label:north\n" +
+                                        "exit destination:garden\n" +
+                                        "exit id:hallnorth\n" +
+                                        "ITEM\n" +
+                                        "item name:Lamp\n" +
+                                        "item description:a lamp\n" +
+                                        "item id:lamp\n" +
+                                        "item on examine action:change item description:a shiny lamp\n" +
+                                        "item on examine action:destroy item:key\n" +
+                                        "ITEM\n" +
+                                        "item name:Key\n" +
+                                        "item description:a key\n" +
+                                        "item id:key\n" +
+                                        "LOCATION\n" +
+                                        "location id:garden\n" +
+                                        "location area id:town\n" +
+                                        "location description:A garden.\n" +
+                                        "EXIT\n" +
+                                        "exit label:south\n" +
+                                        "exit destination:hall\n" +
+                                        "exit id:gardensouth\n";
+
+    private WorldTemplate createTemplate() throws IOException {
+        return new WorldTemplate( new BinaryWorldCompiler().compile( world ) );
+    }
+
+    private BasicModel populate( WorldTemplate template ) {
+        BasicModel model = template.newModel();
+        template.populate( model, mock( ActionFactory.class ) );
+        return model;
+    }
+
+    @Test
+    public void populated_model_holds_the_world() throws IOException {
+        BasicModel model = populate( createTemplate() );
+
+        assertThat( model.currentLocation().id(), is( "hall" ) );
+        assertThat( model.currentLocationAreaName(), is( "Town" ) );
+        assertThat( model.findLocationByID( "garden" ).description(), containsString( "A garden." ) );
+        assertThat( model.findExitByID( "hallnorth" ).destination(), is( "garden" ) );
+        assertThat( model.findItemByID( "lamp" ).description(), is( "a lamp" ) );
+        assertThat( model.currentLocation().items().size(), is( 2 ) );
+    }
+
+    @Test
+    public void each_populated_model_has_its_own_items_and_exits() throws IOException {
+        WorldTemplate template = createTemplate();
+        BasicModel first = populate( template );
+        BasicModel second = populate( template );
+
+        assertNotSame( first.findItemByID( "lamp" ), second.findItemByID( "lamp" ) );
+        assertNotSame( first.findExitByID( "hallnorth" ), second.findExitByID( "hallnorth" ) );
+        assertNotSame( first.findLocationByID( "hall" ), second.findLocationByID( "hall" ) );
+    }
+
+    @Test
+    public void item_actions_only_act_on_their_own_model() throws IOException {
+        WorldTemplate template = createTemplate();
+        BasicModel first = populate( template );
+        BasicModel second = populate( template );
+
+        first.findItemByID( "lamp" ).examine();
+
+        assertThat( first.findItemByID( "lamp" ).description(), is( "a shiny lamp" ) );
+        assertThat( first.findItemByID( "key" ), is( nullValue() ) );
+        assertThat( second.findItemByID( "lamp" ).description(), is( "a lamp" ) );
+        assertThat( second.findItemByID( "key" ), is( notNullValue() ) );
+    }
+
+    @Test
+    public void moving_in_one_populated_model_leaves_others_alone() throws IOException {
+        WorldTemplate template = createTemplate();
+        BasicModel first = populate( template );
+        BasicModel second = populate( template );
+        Item lamp = first.findItemByID( "lamp" );
+
+        first.moveItemToInventory( "lamp" );
+        first.findExitByID( "hallnorth" ).setInvisible();
+
+        assertThat( first.inventoryItems().size(), is( 1 ) );
+        assertThat( first.inventoryItems().get( 0 ), is( sameInstance( lamp ) ) );
+        assertThat( second.inventoryItems().size(), is( 0 ) );
+        assertThat( second.currentLocation().items().size(), is( 2 ) );
+        assertTrue( second.findExitByID( "hallnorth" ).visible() );
+    }
+
+    @Test
+    public void a_plain_model_can_be_populated_too() throws IOException {
+        BasicModel model = new BasicModel();
+
+        createTemplate().populate( model, mock( ActionFactory.class ) );
+
+        assertThat( model.findItemByID( "lamp" ), is( notNullValue() ) );
+        assertThat( model.findExitByID( "hallnorth" ), is( notNullValue() ) );
+    }
+
+    @Test
+    public void world_with_item_actions_that_refer_to_nothing_in_it_is_not_loaded() {
+        try {
+            new WorldTemplate( new BinaryWorldCompiler().compile(
+                world.replace( "destroy item:key", "destroy item:kye" ) ) );
+            fail( "loaded a world with an unresolved reference" );
+        } catch( IOException e ) {
+            assertThat( e.getMessage(), containsString(
+                "'destroy item' action of item 'lamp' refers to 'kye', which is not in the world" ) );
+        }
+    }
+}
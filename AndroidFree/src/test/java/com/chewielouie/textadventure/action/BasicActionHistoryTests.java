@@ -55,4 +55,18 @@ public class BasicActionHistoryTests {
 
         assertThat( history.size(), is( 0 ) );
     }
+
+    @Test
+    public void snapshot_is_not_changed_by_later_actions() {
+        BasicActionHistory history = new BasicActionHistory();
+        Action action = mock( Action.class );
+        history.addActionWithParameters( action, null );
+
+        ActionHistory snapshot = history.snapshot();
+        history.addActionWithParameters( null, null );
+        history.clear();
+
+        assertThat( snapshot.size(), is( 1 ) );
+        assertThat( snapshot.getRecord( 0 ).action(), is( action ) );
+    }
 }
@@ -0,0 +1,152 @@
+package com.chewielouie.textadventure.action;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.serialisation.ActionHistorySerialiser;
+
+public class CompactActionHistoryTests {
+
+    private Action actionNamed( String name ) {
+        Action action = mock( Action.class );
+        when( action.name() ).thenReturn( name );
+        return action;
+    }
+
+    private Item itemWithID( String id ) {
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( id );
+        return item;
+    }
+
+    @Test
+    public void size_starts_at_zero() {
+        assertThat( new CompactActionHistory().size(), is( 0 ) );
+    }
+
+    @Test
+    public void size_is_equal_to_the_number_of_actions_added() {
+        CompactActionHistory history = new CompactActionHistory();
+        for( int i = 0; i < 100; i++ )
+            history.addActionWithParameters( null, null );
+
+        assertThat( history.size(), is( 100 ) );
+    }
+
+    @Test
+    public void records_give_back_the_action_name_and_parameters() {
+        Item item = itemWithID( "lamp" );
+        Item extraItem = itemWithID( "oil" );
+        Exit exit = mock( Exit.class );
+        ModelLocation location = mock( ModelLocation.class );
+        CompactActionHistory history = new CompactActionHistory();
+
+        history.addActionWithParameters( actionNamed( "use with specific item" ),
+            new ActionParameters( "hello", item, extraItem, exit, location ) );
+
+        ActionRecord record = history.getRecord( 0 );
+        assertThat( record.action().name(), is( "use with specific item" ) );
+        assertThat( record.params().string(), is( "hello" ) );
+        assertThat( record.params().item(), is( sameInstance( item ) ) );
+        assertThat( record.params().extraItem(), is( sameInstance( extraItem ) ) );
+        assertThat( record.params().exit(), is( sameInstance( exit ) ) );
+        assertThat( record.params().location(), is( sameInstance( location ) ) );
+    }
+
+    @Test
+    public void records_without_an_action_or_parameters_give_back_nulls() {
+        CompactActionHistory history = new CompactActionHistory();
+
+        history.addActionWithParameters( null, null );
+
+        assertThat( history.getRecord( 0 ).action(), is( nullValue() ) );
+        assertThat( history.getRecord( 0 ).params(), is( nullValue() ) );
+    }
+
+    @Test
+    public void the_history_does_not_hold_on_to_the_actions_recorded() {
+        Action action = actionNamed( "examine" );
+        CompactActionHistory history = new CompactActionHistory();
+
+        history.addActionWithParameters( action, null );
+
+        assertThat( history.getRecord( 0 ).action(), is( not( sameInstance( action ) ) ) );
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void recorded_actions_cannot_be_triggered() {
+        CompactActionHistory history = new CompactActionHistory();
+        history.addActionWithParameters( actionNamed( "examine" ), null );
+
+        history.getRecord( 0 ).action().trigger();
+    }
+
+    @Test
+    public void saves_the_same_as_a_basic_history() {
+        Item lamp = itemWithID( "lamp" );
+        Item oil = itemWithID( "oil" );
+        Exit north = mock( Exit.class );
+        when( north.id() ).thenReturn( "hallnorth" );
+        ActionHistory basic = new BasicActionHistory();
+        ActionHistory compact = new CompactActionHistory();
+        for( ActionHistory history : new ActionHistory[] { basic, compact } ) {
+            history.addActionWithParameters( actionNamed( "exit" ), new ActionParameters( north ) );
+            history.addActionWithParameters( actionNamed( "examine" ), new ActionParameters( lamp ) );
+            history.addActionWithParameters( actionNamed( "use with specific item" ),
+                                             new ActionParameters( lamp, oil ) );
+            history.addActionWithParameters( actionNamed( "say" ),
+                                             new ActionParameters( "hello", lamp ) );
+            history.addActionWithParameters( actionNamed( "examine" ), new ActionParameters( oil ) );
+        }
+
+        assertThat( new ActionHistorySerialiser( compact ).serialise(),
+                    is( new ActionHistorySerialiser( basic ).serialise() ) );
+    }
+
+    @Test
+    public void clear_empties_the_history() {
+        CompactActionHistory history = new CompactActionHistory();
+        history.addActionWithParameters( actionNamed( "examine" ),
+                                         new ActionParameters( itemWithID( "lamp" ) ) );
+
+        history.clear();
+        history.addActionWithParameters( actionNamed( "exit" ), null );
+
+        assertThat( history.size(), is( 1 ) );
+        assertThat( history.getRecord( 0 ).action().name(), is( "exit" ) );
+    }
+
+    @Test
+    public void snapshot_is_not_changed_by_later_actions() {
+        CompactActionHistory history = new CompactActionHistory();
+        history.addActionWithParameters( actionNamed( "examine" ),
+            new ActionParameters( null, itemWithID( "lamp" ), null, null, null ) );
+
+        ActionHistory snapshot = history.snapshot();
+        history.addActionWithParameters( actionNamed( "exit" ), null );
+        history.clear();
+
+        assertThat( snapshot.size(), is( 1 ) );
+        assertThat( snapshot.getRecord( 0 ).action().name(), is( "examine" ) );
+        assertThat( snapshot.getRecord( 0 ).params().item().id(), is( "lamp" ) );
+    }
+
+    @Test
+    public void snapshot_can_be_added_to_without_changing_the_history() {
+        CompactActionHistory history = new CompactActionHistory();
+        history.addActionWithParameters( actionNamed( "examine" ), null );
+
+        ActionHistory snapshot = history.snapshot();
+        for( int i = 0; i < 100; i++ )
+            snapshot.addActionWithParameters( actionNamed( "exit" ), null );
+
+        assertThat( history.size(), is( 1 ) );
+        assertThat( snapshot.size(), is( 101 ) );
+        assertThat( snapshot.getRecord( 100 ).action().name(), is( "exit" ) );
+    }
+}
@@ -1,6 +1,7 @@
 package com.chewielouie.textadventure.action;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
@@ -86,6 +87,19 @@ public class ExamineAnItemTests {
 
         assertEquals( object1.hashCode(), object2.hashCode() );
     }
-}
 
+    @Test
+    public void follow_up_actions_are_only_made_when_first_asked_for() {
+        Item item = mock( Item.class );
+        List<Item> items = new ArrayList<Item>();
+        items.add( item );
+        ActionFactory actionFactory = mock( ActionFactory.class );
+        ExamineAnItem action = new ExamineAnItem( items, actionFactory );
+
+        verifyZeroInteractions( actionFactory );
+        action.followUpActions();
+        action.followUpActions();
 
+        verify( actionFactory, times( 1 ) ).createExamineAction( item );
+    }
+}
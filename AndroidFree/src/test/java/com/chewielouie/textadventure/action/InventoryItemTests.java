@@ -1,6 +1,7 @@
 package com.chewielouie.textadventure.action;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
@@ -118,5 +119,18 @@ public class InventoryItemTests {
 
         assertEquals( object1.hashCode(), object2.hashCode() );
     }
-}
 
+    @Test
+    public void follow_up_actions_are_only_made_when_first_asked_for() {
+        Item item = mock( Item.class );
+        ActionFactory actionFactory = mock( ActionFactory.class );
+        InventoryItem action = new InventoryItem( item, null, null, actionFactory );
+
+        verifyZeroInteractions( actionFactory );
+        action.followUpActions();
+        action.followUpActions();
+
+        verify( actionFactory, times( 1 ) ).createExamineAction( item );
+        verify( actionFactory, times( 1 ) ).createUseWithAction( item, null, null );
+    }
+}
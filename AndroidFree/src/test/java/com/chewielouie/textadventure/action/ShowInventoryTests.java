@@ -133,5 +133,22 @@ public class ShowInventoryTests {
 
         assertFalse( action.userTextAvailable() );
     }
-}
 
+    @Test
+    public void follow_up_actions_are_made_once_each_time_the_inventory_is_shown() {
+        Item item = mock( Item.class );
+        when( item.visible() ).thenReturn( true );
+        UserInventory inventory = mock( UserInventory.class );
+        when( inventory.inventoryItems() ).thenReturn( list( item, item ) );
+        ActionFactory actionFactory = mock( ActionFactory.class );
+        ShowInventory showInventory = new ShowInventory( inventory, null, actionFactory );
+
+        showInventory.trigger();
+        showInventory.followUpActions();
+        showInventory.followUpActions();
+        showInventory.trigger();
+        showInventory.followUpActions();
+
+        verify( actionFactory, times( 4 ) ).createInventoryItemAction( item, inventory, null );
+    }
+}
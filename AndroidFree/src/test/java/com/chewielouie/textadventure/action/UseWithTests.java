@@ -139,6 +139,8 @@ public class UseWithTests {
         ActionFactory actionFactory = mock( ActionFactory.class );
         UseWith u = new UseWith( item, inventory, null, actionFactory );
 
+        u.followUpActions();
+
         verify( actionFactory ).createUseWithSpecificItemAction( item, visibleItem );
         verify( actionFactory, never() ).createUseWithSpecificItemAction( item, invisibleItem );
     }
@@ -166,4 +168,19 @@ public class UseWithTests {
 
         assertEquals( object1.hashCode(), object2.hashCode() );
     }
+
+    @Test
+    public void follow_up_actions_are_only_made_when_first_asked_for() {
+        Item item = mock( Item.class );
+        Item target = makeVisibleItem();
+        UserInventory inventory = makeInventoryWithItems( target, makeInvisibleItem() );
+        ActionFactory actionFactory = mock( ActionFactory.class );
+        UseWith action = new UseWith( item, inventory, null, actionFactory );
+
+        verifyZeroInteractions( inventory, actionFactory );
+        action.followUpActions();
+        action.followUpActions();
+
+        verify( actionFactory, times( 1 ) ).createUseWithSpecificItemAction( item, target );
+    }
 }
@@ -0,0 +1,87 @@
+package com.chewielouie.textadventure.item;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import org.junit.Test;
+import com.chewielouie.textadventure.itemaction.ItemAction;
+
+public class DialogueGraphTests {
+    private ItemAction action = mock( ItemAction.class );
+
+    private DialogueGraph createGraph() {
+        return new DialogueGraph(
+            new String[] { "hello", "weather", "bye" },
+            new String[] { "Hi", "Weather?", "Bye" },
+            new String[] { "Hello there", "Nice weather", "Goodbye" },
+            new String[] { "Hello", "Yes", "" },
+            new int[][] { { 1, 2 }, { 2 }, {} },
+            new ItemAction[][] { {}, {}, { action } },
+            new int[] { 0 } );
+    }
+
+    @Test
+    public void finds_nodes_by_phrase_id() {
+        DialogueGraph graph = createGraph();
+
+        assertEquals( 3, graph.nodeCount() );
+        assertEquals( 1, graph.node( "weather" ) );
+        assertEquals( "weather", graph.id( 1 ) );
+    }
+
+    @Test
+    public void unknown_phrase_ids_have_no_node() {
+        assertEquals( DialogueGraph.NO_NODE, createGraph().node( "rain" ) );
+    }
+
+    @Test
+    public void nodes_hold_their_texts_and_response() {
+        DialogueGraph graph = createGraph();
+
+        assertEquals( "Weather?", graph.shortText( 1 ) );
+        assertEquals( "Nice weather", graph.text( 1 ) );
+        assertEquals( "Yes", graph.response( 1 ) );
+    }
+
+    @Test
+    public void nodes_hold_their_children_in_order() {
+        DialogueGraph graph = createGraph();
+
+        assertEquals( 2, graph.childCount( 0 ) );
+        assertEquals( 1, graph.child( 0, 0 ) );
+        assertEquals( 2, graph.child( 0, 1 ) );
+        assertThat( graph.childIDs( 0 ), is( Arrays.asList( "weather", "bye" ) ) );
+        assertEquals( 0, graph.childIDs( 2 ).size() );
+    }
+
+    @Test
+    public void nodes_hold_their_actions() {
+        DialogueGraph graph = createGraph();
+
+        assertEquals( 0, graph.actionCount( 0 ) );
+        assertEquals( 1, graph.actionCount( 2 ) );
+        assertSame( action, graph.action( 2, 0 ) );
+    }
+
+    @Test
+    public void holds_the_initial_phrases() {
+        DialogueGraph graph = createGraph();
+
+        assertEquals( 1, graph.initialNodeCount() );
+        assertEquals( 0, graph.initialNode( 0 ) );
+        assertThat( graph.initialIDs(), is( Arrays.asList( "hello" ) ) );
+    }
+
+    @Test
+    public void lists_of_phrase_ids_cannot_be_changed() {
+        DialogueGraph graph = createGraph();
+        try {
+            graph.childIDs( 0 ).add( "rain" );
+            fail( "children of a node were changed" );
+        } catch( UnsupportedOperationException e ) {
+        }
+    }
+}
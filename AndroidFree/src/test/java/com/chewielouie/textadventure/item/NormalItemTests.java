@@ -6,12 +6,18 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.jmock.*;
 import org.jmock.integration.junit4.JMock;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import com.chewielouie.textadventure.itemaction.ItemAction;
+import com.chewielouie.textadventure.ModelEvent;
+import com.chewielouie.textadventure.ModelEventSubscriber;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import com.chewielouie.textadventure.itemaction.UnboundItemAction;
 
 @RunWith(JMock.class)
 public class NormalItemTests {
@@ -592,5 +598,293 @@ public class NormalItemTests {
 
         assertNotEquals( item1.hashCode(), item2.hashCode() );
     }
-}
 
+    @Test
+    public void item_records_which_items_it_has_already_been_used_with() {
+        NormalItem item = new NormalItem();
+        item.setUsedWithTextFor( "itemB", "text" );
+        item.setUsedWithTextFor( "itemC", "text" );
+
+        item.setAlreadyUsedWith( "itemC" );
+
+        assertEquals( 1, item.itemIDsAlreadyUsedWith().size() );
+        assertEquals( "itemC", item.itemIDsAlreadyUsedWith().get( 0 ) );
+    }
+
+    @Test
+    public void used_and_examined_state_can_be_set() {
+        NormalItem item = new NormalItem();
+
+        item.setUsed( true );
+        item.setExamined( true );
+
+        assertTrue( item.used() );
+        assertTrue( item.examined() );
+    }
+
+    @Test
+    public void item_made_from_template_starts_in_the_same_state() {
+        NormalItem template = new NormalItem();
+        template.setId( "id" );
+        template.setName( "Lamp" );
+        template.setDescription( "A lamp" );
+        template.setExamineText( "It is brass" );
+        template.setVisible( false );
+        template.setUntakeable();
+        template.addInitialPhrase( "p1", "Hi", "Hello there" );
+
+        NormalItem item = new NormalItem( template, mock( ItemActionFactory.class ) );
+
+        assertEquals( "id", item.id() );
+        assertEquals( "Lamp", item.name() );
+        assertEquals( "A lamp", item.description() );
+        assertEquals( "It is brass", item.examineText() );
+        assertFalse( item.visible() );
+        assertFalse( item.takeable() );
+        assertTrue( item.canTalkTo() );
+        assertEquals( "Hello there", item.phraseById( "p1" ) );
+    }
+
+    @Test
+    public void changing_item_made_from_template_leaves_the_template_alone() {
+        NormalItem template = new NormalItem();
+        template.setName( "Lamp" );
+        template.setUsedWithTextFor( "itemB", "text" );
+        NormalItem item = new NormalItem( template, mock( ItemActionFactory.class ) );
+
+        item.setName( "Broken lamp" );
+        item.setVisible( false );
+        item.useWith( itemWithID( "itemB" ) );
+
+        assertEquals( "Lamp", template.name() );
+        assertTrue( template.visible() );
+        assertEquals( 0, template.itemIDsAlreadyUsedWith().size() );
+    }
+
+    @Test
+    public void item_made_from_template_binds_unbound_actions_to_itself() {
+        NormalItem template = new NormalItem();
+        template.addOnUseAction( new UnboundItemAction( "use action", true ) );
+        template.addOnExamineAction( new UnboundItemAction( "examine action", true ) );
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        ItemAction useAction = mock( ItemAction.class );
+        ItemAction examineAction = mock( ItemAction.class );
+        NormalItem item = new NormalItem( template, factory );
+        when( factory.create( "use action", item ) ).thenReturn( useAction );
+        when( factory.create( "examine action", item ) ).thenReturn( examineAction );
+
+        item.use();
+        item.examine();
+
+        verify( useAction ).enact();
+        verify( examineAction ).enact();
+    }
+
+    @Test
+    public void item_made_from_template_binds_each_action_only_once() {
+        NormalItem template = new NormalItem();
+        template.addOnUseAction( new UnboundItemAction( "use action", true ) );
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        NormalItem item = new NormalItem( template, factory );
+        when( factory.create( "use action", item ) ).thenReturn( mock( ItemAction.class ) );
+
+        item.use();
+        item.use();
+
+        verify( factory, times( 1 ) ).create( "use action", item );
+    }
+
+    @Test
+    public void adding_to_item_made_from_template_leaves_the_template_alone() {
+        NormalItem template = new NormalItem();
+        template.addInitialPhrase( "p1", "Hi", "Hello there" );
+        NormalItem item = new NormalItem( template, mock( ItemActionFactory.class ) );
+
+        item.addFollowUpPhrase( "p1", "p2", "Bye", "Goodbye" );
+        item.addOnUseActionFor( "itemB", mock( ItemAction.class ) );
+
+        assertEquals( 0, template.followOnPhrasesIdsForPhraseById( "p1" ).size() );
+        assertEquals( "", template.phraseById( "p2" ) );
+        assertEquals( "Nothing happens.", template.useWith( itemWithID( "itemB" ) ) );
+        assertEquals( 1, item.followOnPhrasesIdsForPhraseById( "p1" ).size() );
+    }
+
+    @Test
+    public void adding_to_a_shared_template_leaves_items_made_from_it_alone() {
+        NormalItem template = new NormalItem();
+        template.addInitialPhrase( "p1", "Hi", "Hello there" );
+        template.shareAuthored();
+        NormalItem item = new NormalItem( template, mock( ItemActionFactory.class ) );
+
+        template.addFollowUpPhrase( "p1", "p2", "Bye", "Goodbye" );
+
+        assertEquals( 0, item.followOnPhrasesIdsForPhraseById( "p1" ).size() );
+        assertEquals( 1, template.followOnPhrasesIdsForPhraseById( "p1" ).size() );
+    }
+
+    @Test
+    public void follow_up_phrases_are_in_the_order_they_were_added() {
+        NormalItem item = new NormalItem();
+        for( String id : new String[] { "e", "b", "d", "a", "c" } )
+            item.addFollowUpPhrase( "parent", id, "", "content " + id );
+
+        assertThat( item.followOnPhrasesIdsForPhraseById( "parent" ),
+                    is( Arrays.asList( "e", "b", "d", "a", "c" ) ) );
+    }
+
+    @Test
+    public void actions_in_response_to_a_phrase_are_enacted_in_the_order_they_were_added() {
+        NormalItem item = new NormalItem();
+        ItemAction first = mock( ItemAction.class );
+        ItemAction second = mock( ItemAction.class );
+        item.addActionInResponseTo( "id", first );
+        item.addActionInResponseTo( "id", second );
+
+        item.executeActionsForPhraseById( "id" );
+
+        InOrder inOrder = inOrder( first, second );
+        inOrder.verify( first ).enact();
+        inOrder.verify( second ).enact();
+    }
+
+    @Test
+    public void items_made_from_a_template_share_its_compiled_dialogue() {
+        NormalItem template = new NormalItem();
+        template.addInitialPhrase( "p1", "Hi", "Hello there" );
+        NormalItem item = new NormalItem( template, mock( ItemActionFactory.class ) );
+
+        assertSame( template.dialogue(), item.dialogue() );
+    }
+
+    @Test
+    public void dialogue_is_compiled_again_once_a_phrase_is_added() {
+        NormalItem item = new NormalItem();
+        item.addInitialPhrase( "p1", "Hi", "Hello there" );
+        DialogueGraph before = item.dialogue();
+
+        item.addFollowUpPhrase( "p1", "p2", "Bye", "Goodbye" );
+
+        assertNotSame( before, item.dialogue() );
+        assertThat( item.followOnPhrasesIdsForPhraseById( "p1" ), is( Arrays.asList( "p2" ) ) );
+    }
+
+    private Item itemWithID( String id ) {
+        NormalItem item = new NormalItem();
+        item.setId( id );
+        return item;
+    }
+
+    @Test
+    public void item_publishes_changes_to_its_name_description_and_visibility() {
+        NormalItem item = new NormalItem();
+        item.setId( "lamp" );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        item.publishModelEventsTo( subscriber );
+
+        item.setName( "Lamp" );
+        item.setDescription( "A lamp" );
+        item.setVisible( false );
+
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_NAME_CHANGED, "lamp" ) );
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_DESCRIPTION_CHANGED, "lamp" ) );
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_VISIBILITY_CHANGED, "lamp" ) );
+    }
+
+    @Test
+    public void item_does_not_publish_settings_that_change_nothing() {
+        NormalItem item = new NormalItem();
+        item.setName( "Lamp" );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        item.publishModelEventsTo( subscriber );
+
+        item.setName( "Lamp" );
+        item.setVisible( true );
+
+        verifyZeroInteractions( subscriber );
+    }
+
+    @Test
+    public void item_publishes_being_used_and_examined() {
+        NormalItem item = new NormalItem();
+        item.setId( "lamp" );
+        NormalItem key = new NormalItem();
+        key.setId( "key" );
+        item.setUsedWithTextFor( "key", "" );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        item.publishModelEventsTo( subscriber );
+
+        item.use();
+        item.examine();
+        item.useWith( key );
+
+        verify( subscriber, times( 2 ) ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_USE_CHANGED, "lamp" ) );
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_EXAMINED_CHANGED, "lamp" ) );
+    }
+
+    @Test
+    public void item_publishes_changes_to_its_examine_and_used_with_text() {
+        NormalItem item = new NormalItem();
+        item.setId( "lamp" );
+        item.setExamineText( "It flickers." );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        item.publishModelEventsTo( subscriber );
+
+        item.setExamineText( "It flickers." );
+        item.setUsedWithText( "It lights up." );
+        item.setExamineText( "" );
+
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_USED_WITH_TEXT_CHANGED, "lamp" ) );
+        verify( subscriber ).modelChanged(
+            new ModelEvent( ModelEvent.Type.ITEM_EXAMINE_TEXT_CHANGED, "lamp" ) );
+        verifyNoMoreInteractions( subscriber );
+    }
+
+    @Test
+    public void item_does_not_publish_being_used_or_examined_again() {
+        NormalItem item = new NormalItem();
+        item.setUsed( true );
+        item.setExamined( true );
+        item.setAlreadyUsedWith( "key" );
+        ModelEventSubscriber subscriber = mock( ModelEventSubscriber.class );
+        item.publishModelEventsTo( subscriber );
+
+        item.use();
+        item.examine();
+        item.setAlreadyUsedWith( "key" );
+
+        verifyZeroInteractions( subscriber );
+    }
+
+    @Test
+    public void all_actions_include_those_on_use_examine_use_with_and_talk() {
+        NormalItem item = new NormalItem();
+        ItemAction onUse = mock( ItemAction.class, "on use" );
+        ItemAction onExamine = mock( ItemAction.class, "on examine" );
+        ItemAction onUseWith = mock( ItemAction.class, "on use with" );
+        ItemAction onPhrase = mock( ItemAction.class, "on phrase" );
+        item.addOnUseAction( onUse );
+        item.addOnExamineAction( onExamine );
+        item.addOnUseActionFor( "key", onUseWith );
+        item.addActionInResponseTo( "hello", onPhrase );
+
+        assertThat( item.allActions(), containsInAnyOrder( onUse, onExamine, onUseWith, onPhrase ) );
+    }
+
+    @Test
+    public void all_actions_of_an_item_made_from_template_are_bound() {
+        NormalItem template = new NormalItem();
+        template.addOnExamineAction( new UnboundItemAction( "action content", true ) );
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        ItemAction bound = mock( ItemAction.class );
+        NormalItem item = new NormalItem( template, factory );
+        when( factory.create( "action content", item ) ).thenReturn( bound );
+
+        assertThat( item.allActions(), contains( bound ) );
+    }
+}
@@ -123,4 +123,39 @@ public class ChangeExitVisibilityItemActionTests {
 
         assertEquals( "invisible", action.arguments().get( 1 ) );
     }
+
+    @Test
+    public void exit_is_only_looked_up_when_linked() {
+        final TextAdventureModel model =
+            mockery.mock( TextAdventureModel.class );
+        ChangeExitVisibilityItemAction action =
+            new ChangeExitVisibilityItemAction( "exitid:invisible", model );
+        final Exit exit = mockery.mock( Exit.class );
+        mockery.checking( new Expectations() {{
+            oneOf( model ).findExitByID( "exitid" );
+            will( returnValue( exit ) );
+            exactly( 2 ).of( exit ).setInvisible();
+        }});
+
+        assertTrue( action.link() );
+        action.enact();
+        action.enact();
+    }
+
+    @Test
+    public void link_fails_for_an_exit_not_in_the_model_until_there_is_one() {
+        final TextAdventureModel model =
+            mockery.mock( TextAdventureModel.class );
+        ChangeExitVisibilityItemAction action =
+            new ChangeExitVisibilityItemAction( "exitid:visible", model );
+        final Exit exit = mockery.mock( Exit.class );
+        mockery.checking( new Expectations() {{
+            exactly( 2 ).of( model ).findExitByID( "exitid" );
+            will( onConsecutiveCalls( returnValue( null ), returnValue( exit ) ) );
+            oneOf( exit ).setVisible();
+        }});
+
+        assertFalse( action.link() );
+        action.enact();
+    }
 }
@@ -84,5 +84,39 @@ public class ChangeItemVisibilityItemActionTests {
 
         action.enact();
     }
-}
 
+    @Test
+    public void item_is_only_looked_up_when_linked() {
+        final TextAdventureModel model =
+            mockery.mock( TextAdventureModel.class );
+        ChangeItemVisibilityItemAction action =
+            new ChangeItemVisibilityItemAction( "itemid:invisible", model );
+        final Item item = mockery.mock( Item.class );
+        mockery.checking( new Expectations() {{
+            oneOf( model ).findItemByID( "itemid" );
+            will( returnValue( item ) );
+            exactly( 2 ).of( item ).setVisible( false );
+        }});
+
+        assertTrue( action.link() );
+        action.enact();
+        action.enact();
+    }
+
+    @Test
+    public void link_fails_for_an_item_not_in_the_model_until_there_is_one() {
+        final TextAdventureModel model =
+            mockery.mock( TextAdventureModel.class );
+        ChangeItemVisibilityItemAction action =
+            new ChangeItemVisibilityItemAction( "itemid:visible", model );
+        final Item item = mockery.mock( Item.class );
+        mockery.checking( new Expectations() {{
+            exactly( 2 ).of( model ).findItemByID( "itemid" );
+            will( onConsecutiveCalls( returnValue( null ), returnValue( item ) ) );
+            oneOf( item ).setVisible( true );
+        }});
+
+        assertFalse( action.link() );
+        action.enact();
+    }
+}
@@ -28,6 +28,8 @@ public class ChangeLocationDescriptionItemActionTests {
         mockery.checking( new Expectations() {{
             allowing( model ).locations();
             will( returnValue( locations ) );
+            allowing( model ).findLocationByID( "locid2" );
+            will( returnValue( location2 ) );
             ignoring( model );
             allowing( location1 ).id();
             will( returnValue( "locid1" ) );
@@ -40,7 +42,37 @@ public class ChangeLocationDescriptionItemActionTests {
 
         action.enact();
     }
-}
 
+    @Test
+    public void location_is_only_looked_up_when_linked() {
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final ModelLocation location = mockery.mock( ModelLocation.class );
+        ChangeLocationDescriptionItemAction action =
+            new ChangeLocationDescriptionItemAction( "locid:new description", model );
+        mockery.checking( new Expectations() {{
+            oneOf( model ).findLocationByID( "locid" );
+            will( returnValue( location ) );
+            exactly( 2 ).of( location ).setLocationDescription( "new description\n" );
+        }});
+
+        assertTrue( action.link() );
+        action.enact();
+        action.enact();
+    }
 
+    @Test
+    public void link_fails_for_a_location_not_in_the_model_until_there_is_one() {
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        ChangeLocationDescriptionItemAction action =
+            new ChangeLocationDescriptionItemAction( "locid:new description", model );
+        final ModelLocation location = mockery.mock( ModelLocation.class );
+        mockery.checking( new Expectations() {{
+            exactly( 2 ).of( model ).findLocationByID( "locid" );
+            will( onConsecutiveCalls( returnValue( null ), returnValue( location ) ) );
+            oneOf( location ).setLocationDescription( "new description\n" );
+        }});
 
+        assertFalse( action.link() );
+        action.enact();
+    }
+}
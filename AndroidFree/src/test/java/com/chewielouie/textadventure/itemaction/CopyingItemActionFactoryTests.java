@@ -0,0 +1,82 @@
+package com.chewielouie.textadventure.itemaction;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.BasicModel;
+import com.chewielouie.textadventure.Location;
+import com.chewielouie.textadventure.item.NormalItem;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class CopyingItemActionFactoryTests {
+
+    private Map<String, ItemAction> parsed = new HashMap<String, ItemAction>();
+
+    private BasicModel modelWithLamp( NormalItem lamp ) {
+        BasicModel model = new BasicModel();
+        Location hall = new Location( "hall", "", model, null );
+        hall.addItem( lamp );
+        model.addLocation( hall );
+        return model;
+    }
+
+    private NormalItem lamp() {
+        NormalItem lamp = new NormalItem();
+        lamp.setId( "lamp" );
+        return lamp;
+    }
+
+    @Test
+    public void copy_of_a_parsed_action_acts_on_the_model_given() {
+        NormalItem templateLamp = lamp();
+        String content = "change item visibility:lamp:invisible";
+        parsed.put( content, new NormalItemActionFactory(
+            modelWithLamp( templateLamp ) ).create( content, null ) );
+        NormalItem lamp = lamp();
+        BasicModel model = modelWithLamp( lamp );
+
+        ItemAction action = new CopyingItemActionFactory( parsed, model ).create( content, null );
+        action.enact();
+
+        assertThat( lamp.visible(), is( false ) );
+        assertThat( templateLamp.visible(), is( true ) );
+    }
+
+    @Test
+    public void copy_of_a_parsed_action_acts_on_the_item_given() {
+        String content = "change item name:Old lamp";
+        parsed.put( content, new NormalItemActionFactory(
+            new BasicModel() ).create( content, lamp() ) );
+        NormalItem lamp = lamp();
+
+        new CopyingItemActionFactory( parsed, new BasicModel() ).create( content, lamp ).enact();
+
+        assertThat( lamp.name(), is( "Old lamp" ) );
+    }
+
+    @Test
+    public void content_not_parsed_already_is_parsed() {
+        NormalItem lamp = lamp();
+        BasicModel model = modelWithLamp( lamp );
+
+        new CopyingItemActionFactory( parsed, model )
+            .create( "change item visibility:lamp:invisible", null ).enact();
+
+        assertThat( lamp.visible(), is( false ) );
+    }
+
+    @Test
+    public void parsed_action_that_cannot_be_copied_is_parsed_again() {
+        ItemAction uncopyable = mock( ItemAction.class );
+        parsed.put( "increment score:", uncopyable );
+        BasicModel model = new BasicModel();
+
+        new CopyingItemActionFactory( parsed, model ).create( "increment score:", null ).enact();
+
+        assertThat( model.currentScore(), is( 1 ) );
+        verifyZeroInteractions( uncopyable );
+    }
+}
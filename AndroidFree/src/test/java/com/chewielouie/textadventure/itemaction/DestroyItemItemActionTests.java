@@ -7,6 +7,7 @@ import org.jmock.integration.junit4.JMock;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import com.chewielouie.textadventure.TextAdventureModel;
+import com.chewielouie.textadventure.item.Item;
 
 @RunWith(JMock.class)
 public class DestroyItemItemActionTests {
@@ -14,16 +15,35 @@ public class DestroyItemItemActionTests {
     private Mockery mockery = new Mockery();
 
     @Test
-    public void enact_destroys_item_in_the_model() {
+    public void enact_destroys_the_linked_item_in_the_model() {
         final TextAdventureModel model =
             mockery.mock( TextAdventureModel.class );
+        final Item item = mockery.mock( Item.class );
         DestroyItemItemAction action =
             new DestroyItemItemAction( "itemid", model );
         mockery.checking( new Expectations() {{
-            oneOf( model ).destroyItem( "itemid" );
+            oneOf( model ).findItemByID( "itemid" );
+            will( returnValue( item ) );
+            oneOf( model ).destroyItem( item );
         }});
 
+        action.link();
         action.enact();
     }
-}
 
+    @Test
+    public void link_checks_the_item_is_in_the_model() {
+        final TextAdventureModel model =
+            mockery.mock( TextAdventureModel.class );
+        final Item item = mockery.mock( Item.class );
+        mockery.checking( new Expectations() {{
+            allowing( model ).findItemByID( "itemid" );
+            will( returnValue( item ) );
+            allowing( model ).findItemByID( "missing" );
+            will( returnValue( null ) );
+        }});
+
+        assertTrue( new DestroyItemItemAction( "itemid", model ).link() );
+        assertFalse( new DestroyItemItemAction( "missing", model ).link() );
+    }
+}
@@ -0,0 +1,43 @@
+package com.chewielouie.textadventure.itemaction;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.item.Item;
+import org.junit.Test;
+
+public class ItemActionBinderTests {
+
+    @Test
+    public void bound_actions_are_returned_as_they_are() {
+        ItemAction action = mock( ItemAction.class );
+
+        assertSame( action, new ItemActionBinder( mock( ItemActionFactory.class ), null )
+                                .bind( action ) );
+    }
+
+    @Test
+    public void unbound_actions_are_created_through_the_factory_for_the_owner() {
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        Item owner = mock( Item.class );
+        ItemAction action = mock( ItemAction.class );
+        when( factory.create( "content", owner ) ).thenReturn( action );
+
+        assertSame( action, new ItemActionBinder( factory, owner )
+                                .bind( new UnboundItemAction( "content", true ) ) );
+    }
+
+    @Test
+    public void each_unbound_action_is_bound_only_once() {
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        when( factory.create( "content", null ) ).thenReturn( mock( ItemAction.class ) );
+        ItemActionBinder binder = new ItemActionBinder( factory, null );
+        UnboundItemAction unbound = new UnboundItemAction( "content", false );
+
+        ItemAction first = binder.bind( unbound );
+        ItemAction second = binder.bind( unbound );
+
+        assertSame( first, second );
+        verify( factory, times( 1 ) ).create( "content", null );
+    }
+}
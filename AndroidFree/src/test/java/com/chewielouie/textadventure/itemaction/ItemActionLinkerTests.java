@@ -0,0 +1,96 @@
+package com.chewielouie.textadventure.itemaction;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.BasicModel;
+import com.chewielouie.textadventure.Location;
+import com.chewielouie.textadventure.LocationExit;
+import com.chewielouie.textadventure.item.NormalItem;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class ItemActionLinkerTests {
+
+    private BasicModel model = new BasicModel();
+    private Location hall = new Location( "hall", "A hall.", model, null );
+    private LocationExit north = new LocationExit();
+    private NormalItem lamp = itemWithID( "lamp" );
+
+    public ItemActionLinkerTests() {
+        north.setID( "hallnorth" );
+        hall.addExit( north );
+        hall.addItem( lamp );
+        model.addLocation( hall );
+    }
+
+    private NormalItem itemWithID( String id ) {
+        NormalItem item = new NormalItem();
+        item.setId( id );
+        return item;
+    }
+
+    private ItemAction action( String content, NormalItem owner ) {
+        return new NormalItemActionFactory( model ).create( content, owner );
+    }
+
+    @Test
+    public void references_that_are_in_the_world_are_linked() {
+        ItemAction hideLamp = action( "change item visibility:lamp:invisible", lamp );
+        lamp.addOnUseAction( hideLamp );
+        lamp.addOnExamineAction( action( "change exit visibility:hallnorth:invisible", lamp ) );
+        lamp.addOnUseActionFor( "key", action( "change location description:hall:A dark hall.", lamp ) );
+        lamp.addActionInResponseTo( "hello", action( "take item:lamp", lamp ) );
+
+        assertThat( new ItemActionLinker( model ).link(), is( empty() ) );
+        hideLamp.enact();
+        assertThat( lamp.visible(), is( false ) );
+    }
+
+    @Test
+    public void references_that_are_not_in_the_world_are_reported() {
+        lamp.addOnUseAction( action( "change item visibility:lamb:invisible", lamp ) );
+        north.addOnUseAction( action( "make exit visible:hallsouth", null ) );
+        lamp.addActionInResponseTo( "hello", action( "destroy item:key", lamp ) );
+
+        List<String> unresolved = new ItemActionLinker( model ).link();
+
+        assertThat( unresolved, containsInAnyOrder(
+            "'change item visibility' action of item 'lamp' refers to 'lamb', which is not in the world",
+            "'make exit visible' action of exit 'hallnorth' refers to 'hallsouth', which is not in the world",
+            "'destroy item' action of item 'lamp' refers to 'key', which is not in the world" ) );
+    }
+
+    @Test
+    public void actions_of_inventory_items_are_linked() {
+        NormalItem key = itemWithID( "key" );
+        key.addOnUseAction( action( "change location description:cellar:A cellar.", key ) );
+        model.addToInventory( key );
+
+        assertThat( new ItemActionLinker( model ).link(), is( Arrays.asList(
+            "'change location description' action of inventory item 'key' refers to 'cellar', which is not in the world" ) ) );
+    }
+
+    @Test
+    public void unbound_actions_are_bound_through_the_factory_to_be_checked() {
+        lamp.addOnUseAction( new UnboundItemAction( "make exit visible:hallsouth", false ) );
+        LinkableItemAction bound = mock( LinkableItemAction.class );
+        when( bound.link() ).thenReturn( true );
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        when( factory.create( "make exit visible:hallsouth", null ) ).thenReturn( bound );
+
+        new ItemActionLinker( model, factory ).link();
+
+        verify( bound ).link();
+    }
+
+    @Test
+    public void actions_that_refer_to_nothing_are_not_reported() {
+        lamp.addOnUseAction( action( "increment score:", lamp ) );
+        lamp.addOnUseAction( action( "change item name:Old lamp", lamp ) );
+
+        assertThat( new ItemActionLinker( model ).link(), is( empty() ) );
+    }
+}
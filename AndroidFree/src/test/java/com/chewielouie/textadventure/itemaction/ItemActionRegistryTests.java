@@ -0,0 +1,42 @@
+package com.chewielouie.textadventure.itemaction;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+
+public class ItemActionRegistryTests {
+    @Test
+    public void standard_registry_knows_every_kind_of_action_the_game_comes_with() {
+        ItemActionRegistry registry = ItemActionRegistry.standard();
+
+        for( String name : new String[] { "change item description", "change item name",
+                                          "change exit visibility", "make exit visible",
+                                          "destroy item", "change item visibility",
+                                          "increment score", "change location description",
+                                          "take item" } )
+            assertNotNull( name, registry.constructorFor( name ) );
+    }
+
+    @Test
+    public void knows_nothing_of_unregistered_names() {
+        assertNull( ItemActionRegistry.standard().constructorFor( "fly away" ) );
+    }
+
+    @Test
+    public void registering_a_name_again_replaces_its_constructor() {
+        ItemActionConstructor constructor = mock( ItemActionConstructor.class );
+
+        ItemActionRegistry registry = ItemActionRegistry.standard()
+                                          .register( "take item", constructor );
+
+        assertSame( constructor, registry.constructorFor( "take item" ) );
+    }
+
+    @Test
+    public void standard_registries_are_independent_of_each_other() {
+        ItemActionRegistry.standard().register( "custom", mock( ItemActionConstructor.class ) );
+
+        assertNull( ItemActionRegistry.standard().constructorFor( "custom" ) );
+    }
+}
@@ -45,5 +45,21 @@ public class MakeExitVisibleItemActionTests {
 
         action.enact();
     }
-}
 
+    @Test
+    public void exit_is_only_looked_up_when_linked() {
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final Exit exit = mockery.mock( Exit.class );
+        MakeExitVisibleItemAction action =
+            new MakeExitVisibleItemAction( "exit id", model );
+        mockery.checking( new Expectations() {{
+            oneOf( model ).findExitByID( "exit id" );
+            will( returnValue( exit ) );
+            exactly( 2 ).of( exit ).setVisible();
+        }});
+
+        assertTrue( action.link() );
+        action.enact();
+        action.enact();
+    }
+}
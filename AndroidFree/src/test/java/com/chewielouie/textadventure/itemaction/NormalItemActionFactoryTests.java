@@ -9,6 +9,7 @@ import org.jmock.integration.junit4.JMock;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.TextAdventureModel;
 
 public class NormalItemActionFactoryTests {
 
@@ -112,4 +113,50 @@ public class NormalItemActionFactoryTests {
 
         assertTrue( action instanceof TakeItemItemAction );
     }
+
+    @Test
+    public void passes_the_text_after_the_action_name_to_the_action() {
+        NormalItemActionFactory factory = new NormalItemActionFactory( null );
+
+        ItemAction action = factory.create( "take item:itemid", null );
+
+        assertThat( action.arguments(), hasItem( "itemid" ) );
+    }
+
+    @Test
+    public void creates_NullItemActions_for_unknown_action_names() {
+        NormalItemActionFactory factory = new NormalItemActionFactory( null );
+
+        ItemAction action = factory.create( "fly away:itemid", null );
+
+        assertTrue( action instanceof NullItemAction );
+    }
+
+    @Test
+    public void creates_NullItemActions_for_content_without_a_separator() {
+        NormalItemActionFactory factory = new NormalItemActionFactory( null );
+
+        ItemAction action = factory.create( "increment score", null );
+
+        assertTrue( action instanceof NullItemAction );
+    }
+
+    @Test
+    public void creates_actions_of_kinds_added_to_its_registry() {
+        final ItemAction custom = mockery.mock( ItemAction.class );
+        final Item item = mockery.mock( Item.class );
+        final TextAdventureModel model = mockery.mock( TextAdventureModel.class );
+        final ItemActionConstructor constructor =
+            mockery.mock( ItemActionConstructor.class );
+        mockery.checking( new Expectations() {{
+            oneOf( constructor ).create( "a:b", item, model );
+            will( returnValue( custom ) );
+        }});
+        NormalItemActionFactory factory = new NormalItemActionFactory( model,
+            ItemActionRegistry.standard().register( "custom", constructor ) );
+
+        assertSame( custom, factory.create( "custom:a:b", item ) );
+        assertTrue( factory.create( "take item:itemid", item ) instanceof TakeItemItemAction );
+        mockery.assertIsSatisfied();
+    }
 }
@@ -21,12 +21,24 @@ public class TakeItemItemActionTests {
     private Mockery mockery = new Mockery();
 
     @Test
-    public void enact_removes_item_from_location() {
+    public void enact_moves_the_linked_item_to_the_inventory() {
         TextAdventureModel model = mock( TextAdventureModel.class );
+        Item item = mock( Item.class );
+        when( model.findItemByID( "itemid" ) ).thenReturn( item );
         TakeItemItemAction action = new TakeItemItemAction( "itemid", model );
 
+        action.link();
         action.enact();
+        action.enact();
+
+        verify( model, times( 1 ) ).findItemByID( "itemid" );
+        verify( model, times( 2 ) ).moveItemToInventory( item );
+    }
+
+    @Test
+    public void link_fails_for_an_item_not_in_the_model() {
+        TextAdventureModel model = mock( TextAdventureModel.class );
 
-        verify( model ).moveItemToInventory( "itemid" );
+        assertThat( new TakeItemItemAction( "itemid", model ).link(), is( false ) );
     }
 }
@@ -0,0 +1,30 @@
+package com.chewielouie.textadventure.itemaction;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.item.Item;
+import org.junit.Test;
+
+public class UnboundItemActionFactoryTests {
+
+    @Test
+    public void creates_unbound_actions_holding_the_content() {
+        ItemAction action = new UnboundItemActionFactory().create( "destroy item:key", null );
+
+        assertTrue( action instanceof UnboundItemAction );
+        assertEquals( "destroy item:key", ((UnboundItemAction)action).content() );
+    }
+
+    @Test
+    public void action_created_for_an_item_binds_to_the_owner_of_the_copy() {
+        ItemActionFactory sessionFactory = mock( ItemActionFactory.class );
+        Item owner = mock( Item.class );
+        UnboundItemAction action = (UnboundItemAction)new UnboundItemActionFactory()
+            .create( "change item name:x", mock( Item.class ) );
+
+        action.bind( sessionFactory, owner );
+
+        verify( sessionFactory ).create( "change item name:x", owner );
+    }
+}
@@ -0,0 +1,35 @@
+package com.chewielouie.textadventure.itemaction;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.item.Item;
+import org.junit.Test;
+
+public class UnboundItemActionTests {
+
+    @Test
+    public void binding_creates_the_action_with_the_owner_when_it_acts_on_its_owner() {
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        Item owner = mock( Item.class );
+        ItemAction action = mock( ItemAction.class );
+        when( factory.create( "content", owner ) ).thenReturn( action );
+
+        assertSame( action, new UnboundItemAction( "content", true ).bind( factory, owner ) );
+    }
+
+    @Test
+    public void binding_creates_the_action_without_an_owner_when_it_does_not_act_on_one() {
+        ItemActionFactory factory = mock( ItemActionFactory.class );
+        ItemAction action = mock( ItemAction.class );
+        when( factory.create( "content", null ) ).thenReturn( action );
+
+        assertSame( action, new UnboundItemAction( "content", false )
+                                .bind( factory, mock( Item.class ) ) );
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void enacting_before_binding_is_an_error() {
+        new UnboundItemAction( "content", true ).enact();
+    }
+}
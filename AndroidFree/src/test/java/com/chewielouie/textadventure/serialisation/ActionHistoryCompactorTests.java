@@ -0,0 +1,104 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.ActionHistoryTextFormat.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.action.Action;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.ActionParameters;
+import com.chewielouie.textadventure.action.BasicActionHistory;
+import com.chewielouie.textadventure.action.CompactActionHistory;
+import com.chewielouie.textadventure.item.Item;
+import org.junit.Test;
+
+public class ActionHistoryCompactorTests {
+
+    private Action actionNamed( String name ) {
+        Action action = mock( Action.class );
+        when( action.name() ).thenReturn( name );
+        return action;
+    }
+
+    private void addAction( ActionHistory history, String name ) {
+        history.addActionWithParameters( actionNamed( name ), null );
+    }
+
+    @Test
+    public void removes_actions_that_only_offer_follow_up_actions() {
+        ActionHistory history = new BasicActionHistory();
+        addAction( history, ACTION_NAME_SHOW_INVENTORY );
+        addAction( history, ACTION_NAME_TAKE_AN_ITEM );
+        addAction( history, ACTION_NAME_EXAMINE_AN_ITEM );
+        addAction( history, ACTION_NAME_INVENTORY_ITEM );
+        addAction( history, ACTION_NAME_USE_WITH );
+        addAction( history, ACTION_NAME_TALK_TO );
+
+        new ActionHistoryCompactor().compact( history );
+
+        assertThat( history.size(), is( 0 ) );
+    }
+
+    @Test
+    public void keeps_actions_that_change_the_model_in_order() {
+        ActionHistory history = new BasicActionHistory();
+        addAction( history, ACTION_NAME_EXIT );
+        addAction( history, ACTION_NAME_SHOW_INVENTORY );
+        addAction( history, ACTION_NAME_TAKE_SPECIFIC_ITEM );
+        addAction( history, ACTION_NAME_EXAMINE );
+        addAction( history, ACTION_NAME_USE_WITH_SPECIFIC_ITEM );
+        addAction( history, ACTION_NAME_SAY );
+
+        new ActionHistoryCompactor().compact( history );
+
+        assertThat( history.size(), is( 5 ) );
+        assertThat( history.getRecord( 0 ).action().name(), is( ACTION_NAME_EXIT ) );
+        assertThat( history.getRecord( 1 ).action().name(), is( ACTION_NAME_TAKE_SPECIFIC_ITEM ) );
+        assertThat( history.getRecord( 4 ).action().name(), is( ACTION_NAME_SAY ) );
+    }
+
+    @Test
+    public void keeps_actions_it_does_not_know() {
+        ActionHistory history = new BasicActionHistory();
+        addAction( history, "some new action" );
+
+        new ActionHistoryCompactor().compact( history );
+
+        assertThat( history.size(), is( 1 ) );
+    }
+
+    @Test
+    public void removes_records_without_an_action() {
+        ActionHistory history = new BasicActionHistory();
+        history.addActionWithParameters( null, null );
+
+        new ActionHistoryCompactor().compact( history );
+
+        assertThat( history.size(), is( 0 ) );
+    }
+
+    @Test
+    public void kept_actions_keep_their_parameters() {
+        ActionHistory history = new CompactActionHistory();
+        Item item = mock( Item.class );
+        addAction( history, ACTION_NAME_TAKE_AN_ITEM );
+        history.addActionWithParameters( actionNamed( ACTION_NAME_TAKE_SPECIFIC_ITEM ),
+            new ActionParameters( item ) );
+
+        new ActionHistoryCompactor().compact( history );
+
+        assertThat( history.getRecord( 0 ).action().name(), is( ACTION_NAME_TAKE_SPECIFIC_ITEM ) );
+        assertThat( history.getRecord( 0 ).params().item(), is( item ) );
+    }
+
+    @Test
+    public void returns_how_many_actions_were_removed() {
+        ActionHistory history = new BasicActionHistory();
+        addAction( history, ACTION_NAME_TAKE_AN_ITEM );
+        addAction( history, ACTION_NAME_TAKE_SPECIFIC_ITEM );
+        addAction( history, ACTION_NAME_SHOW_INVENTORY );
+
+        assertThat( new ActionHistoryCompactor().compact( history ), is( 2 ) );
+    }
+}
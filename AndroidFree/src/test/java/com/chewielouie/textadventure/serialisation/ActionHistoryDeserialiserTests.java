@@ -11,8 +11,14 @@ import com.chewielouie.textadventure.TextAdventureModel;
 import com.chewielouie.textadventure.UserInventory;
 import com.chewielouie.textadventure.action.Action;
 import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.action.ActionHistory;
 import com.chewielouie.textadventure.action.ActionParameters;
+import com.chewielouie.textadventure.action.BasicActionHistory;
 import com.chewielouie.textadventure.item.Item;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -228,4 +234,227 @@ public class ActionHistoryDeserialiserTests {
         verify( model ).findItemByID( "itemid" );
         verify( factory ).createSayAction( Mockito.eq( "phraseid" ), Mockito.eq( item ) );
     }
- }
+ 
+    private Action actionNamed( String name ) {
+        Action action = mock( Action.class );
+        when( action.name() ).thenReturn( name );
+        return action;
+    }
+
+    private byte[] binaryHistoryOfSayingPhraseToItem( Item item ) {
+        ActionHistory history = new BasicActionHistory();
+        history.addActionWithParameters( actionNamed( "say" ),
+            new ActionParameters( "phraseid", item, null, null, null ) );
+        return new BinaryActionHistorySerialiser( history ).serialise();
+    }
+
+    @Test
+    public void deserialises_binary_history() {
+        ActionFactory factory = mock( ActionFactory.class );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( "itemid" );
+        when( model.findItemByID( "itemid" ) ).thenReturn( item );
+
+        new ActionHistoryDeserialiser( factory, null, model ).deserialise(
+            binaryHistoryOfSayingPhraseToItem( item ) );
+
+        verify( factory ).createSayAction( Mockito.eq( "phraseid" ), Mockito.eq( item ) );
+    }
+
+    @Test
+    public void deserialises_binary_history_into_history_with_parameters() {
+        ActionFactory factory = mock( ActionFactory.class );
+        Action say = mock( Action.class );
+        when( factory.createSayAction( Mockito.anyString(), Mockito.any( Item.class ) ) ).thenReturn( say );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( "itemid" );
+        when( model.findItemByID( "itemid" ) ).thenReturn( item );
+        ActionHistory history = new BasicActionHistory();
+
+        new ActionHistoryDeserialiser( factory, null, model ).deserialiseInto(
+            binaryHistoryOfSayingPhraseToItem( item ), history );
+
+        assertThat( history.size(), is( 1 ) );
+        assertThat( history.getRecord( 0 ).action(), is( say ) );
+        assertThat( history.getRecord( 0 ).params().string(), is( "phraseid" ) );
+        assertThat( history.getRecord( 0 ).params().item(), is( item ) );
+    }
+
+    @Test
+    public void streams_history_into_history_with_parameters() {
+        ActionFactory factory = mock( ActionFactory.class );
+        Action say = mock( Action.class );
+        when( factory.createSayAction( Mockito.anyString(), Mockito.any( Item.class ) ) ).thenReturn( say );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( "itemid" );
+        when( model.findItemByID( "itemid" ) ).thenReturn( item );
+        ActionHistory history = new BasicActionHistory();
+
+        new ActionHistoryDeserialiser( factory, null, model ).deserialiseInto(
+            new ByteArrayInputStream( binaryHistoryOfSayingPhraseToItem( item ) ), history );
+
+        assertThat( history.size(), is( 1 ) );
+        assertThat( history.getRecord( 0 ).action(), is( say ) );
+        assertThat( history.getRecord( 0 ).params().string(), is( "phraseid" ) );
+        assertThat( history.getRecord( 0 ).params().item(), is( item ) );
+    }
+
+    @Test
+    public void tags_inside_ids_and_other_tags_are_not_taken_as_parameters() {
+        ActionFactory factory = mock( ActionFactory.class );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+        Item item = mock( Item.class );
+        when( model.findItemByID( "string_of_beads" ) ).thenReturn( item );
+        ActionHistory history = new BasicActionHistory();
+
+        new ActionHistoryDeserialiser( factory, null, model ).deserialiseInto(
+            ACTION_NAME_TAG + SEPERATOR + ACTION_NAME_USE_WITH_SPECIFIC_ITEM + SEPERATOR +
+            EXTRA_ITEM_ID_TAG + SEPERATOR + "string_of_beads" + SEPERATOR + "\n", history );
+
+        assertThat( history.getRecord( 0 ).params().string(), is( nullValue() ) );
+        assertThat( history.getRecord( 0 ).params().item(), is( nullValue() ) );
+        assertThat( history.getRecord( 0 ).params().extraItem(), is( item ) );
+    }
+
+    @Test
+    public void deserialises_text_history_given_as_bytes() {
+        ActionFactory factory = mock( ActionFactory.class );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+        Item item = mock( Item.class );
+        when( model.findItemByID( "itemid" ) ).thenReturn( item );
+
+        new ActionHistoryDeserialiser( factory, null, model ).deserialise( (
+            ACTION_NAME_TAG + SEPERATOR + "talk" + SEPERATOR +
+            ITEM_ID_TAG + SEPERATOR + "itemid" + SEPERATOR + "\n" ).getBytes() );
+
+        verify( factory ).createTalkToAction( Mockito.eq( item ) );
+    }
+
+    @Test
+    public void binary_history_with_bad_checksum_deserialises_to_nothing() {
+        ActionFactory factory = mock( ActionFactory.class );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( "itemid" );
+        byte[] bytes = binaryHistoryOfSayingPhraseToItem( item );
+        bytes[bytes.length - 5]++;
+
+        List<Action> actions =
+            new ActionHistoryDeserialiser( factory, null, model ).deserialise( bytes );
+
+        assertThat( actions.size(), is( 0 ) );
+        verifyZeroInteractions( factory );
+    }
+
+    private static class CountingInputStream extends ByteArrayInputStream {
+        CountingInputStream( byte[] bytes ) {
+            super( bytes );
+        }
+
+        int bytesRead() {
+            return pos;
+        }
+    }
+
+    private byte[] textHistoryOfExits( int count ) {
+        StringBuilder s = new StringBuilder();
+        for( int i = 0; i < count; i++ )
+            s.append( ACTION_NAME_TAG + SEPERATOR + "exit" + SEPERATOR +
+                      EXIT_ID_TAG + SEPERATOR + "exitid" + SEPERATOR + "\n" );
+        return s.toString().getBytes();
+    }
+
+    @Test
+    public void streams_text_history_an_action_at_a_time() {
+        ActionFactory factory = mock( ActionFactory.class );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+        Action exit = mock( Action.class );
+        when( factory.createExitAction( Mockito.any( Exit.class ),
+                                        Mockito.any( TextAdventureModel.class ) ) )
+            .thenReturn( exit );
+        byte[] bytes = textHistoryOfExits( 10000 );
+        CountingInputStream input = new CountingInputStream( bytes );
+
+        Iterator<Action> actions =
+            new ActionHistoryDeserialiser( factory, null, model ).stream( input ).iterator();
+
+        assertThat( actions.next(), is( exit ) );
+        assertThat( input.bytesRead(), is( lessThan( bytes.length / 4 ) ) );
+        verify( factory, times( 1 ) ).createExitAction(
+            Mockito.any( Exit.class ), Mockito.any( TextAdventureModel.class ) );
+    }
+
+    @Test
+    public void streams_every_action_in_a_text_history() {
+        ActionFactory factory = mock( ActionFactory.class );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+        when( factory.createExitAction( Mockito.any( Exit.class ),
+                                        Mockito.any( TextAdventureModel.class ) ) )
+            .thenReturn( mock( Action.class ) );
+
+        int count = 0;
+        for( Action action : new ActionHistoryDeserialiser( factory, null, model )
+                                 .stream( new ByteArrayInputStream( textHistoryOfExits( 3 ) ) ) )
+            count++;
+
+        assertThat( count, is( 3 ) );
+    }
+
+    @Test
+    public void looks_up_ids_as_each_action_is_streamed() {
+        ActionFactory factory = mock( ActionFactory.class );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+
+        Iterator<Action> actions = new ActionHistoryDeserialiser( factory, null, model )
+            .stream( new ByteArrayInputStream( textHistoryOfExits( 2 ) ) ).iterator();
+        actions.next();
+
+        verify( model, times( 1 ) ).findExitByID( "exitid" );
+    }
+
+    @Test
+    public void streams_binary_history() {
+        ActionFactory factory = mock( ActionFactory.class );
+        Action say = mock( Action.class );
+        when( factory.createSayAction( Mockito.anyString(), Mockito.any( Item.class ) ) )
+            .thenReturn( say );
+        TextAdventureModel model = mock( TextAdventureModel.class );
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( "itemid" );
+        when( model.findItemByID( "itemid" ) ).thenReturn( item );
+
+        Iterator<Action> actions = new ActionHistoryDeserialiser( factory, null, model )
+            .stream( new ByteArrayInputStream( binaryHistoryOfSayingPhraseToItem( item ) ) )
+            .iterator();
+
+        assertThat( actions.next(), is( say ) );
+        assertThat( actions.hasNext(), is( false ) );
+        verify( factory ).createSayAction( "phraseid", item );
+    }
+
+    @Test
+    public void streaming_stops_at_a_read_error() {
+        ActionFactory factory = mock( ActionFactory.class );
+        InputStream failing = new InputStream() {
+            public int read() throws IOException {
+                throw new IOException( "disk on fire" );
+            }
+        };
+
+        Iterator<Action> actions = new ActionHistoryDeserialiser( factory, null, null )
+            .stream( failing ).iterator();
+
+        assertThat( actions.hasNext(), is( false ) );
+    }
+
+    @Test
+    public void streams_nothing_without_a_factory() {
+        Iterator<Action> actions = new ActionHistoryDeserialiser( null, null, null )
+            .stream( new ByteArrayInputStream( textHistoryOfExits( 1 ) ) ).iterator();
+
+        assertThat( actions.hasNext(), is( false ) );
+    }
+}
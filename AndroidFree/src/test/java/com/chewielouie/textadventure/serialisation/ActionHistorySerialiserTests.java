@@ -157,4 +157,23 @@ public class ActionHistorySerialiserTests {
         assertThat( new ActionHistorySerialiser( history ).serialise(),
                     is( "action name:name:item id:itemid:\n" ) );
     }
+
+    @Test
+    public void serialise_from_skips_earlier_records() {
+        Action action1 = mock( Action.class );
+        when( action1.name() ).thenReturn( "first" );
+        Action action2 = mock( Action.class );
+        when( action2.name() ).thenReturn( "second" );
+        ActionRecord record1 = mock( ActionRecord.class );
+        when( record1.action() ).thenReturn( action1 );
+        ActionRecord record2 = mock( ActionRecord.class );
+        when( record2.action() ).thenReturn( action2 );
+        ActionHistory history = mock( ActionHistory.class );
+        when( history.size() ).thenReturn( 2 );
+        when( history.getRecord( 0 ) ).thenReturn( record1 );
+        when( history.getRecord( 1 ) ).thenReturn( record2 );
+
+        assertThat( new ActionHistorySerialiser( history ).serialiseFrom( 1 ),
+                    is( "action name:second:\n" ) );
+    }
 }
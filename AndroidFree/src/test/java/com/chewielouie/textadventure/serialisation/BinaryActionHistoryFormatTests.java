@@ -0,0 +1,64 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class BinaryActionHistoryFormatTests {
+
+    @Test
+    public void small_numbers_take_one_byte() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryActionHistoryFormat.writeVarint( out, 127 );
+
+        assertThat( out.toByteArray().length, is( 1 ) );
+    }
+
+    @Test
+    public void larger_numbers_take_a_byte_per_seven_bits() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryActionHistoryFormat.writeVarint( out, 128 );
+        BinaryActionHistoryFormat.writeVarint( out, 16384 );
+
+        assertThat( out.toByteArray().length, is( 5 ) );
+    }
+
+    @Test
+    public void numbers_read_back_as_written() throws IOException {
+        int[] numbers = { 0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for( int number : numbers )
+            BinaryActionHistoryFormat.writeVarint( out, number );
+
+        ByteArrayInputStream in = new ByteArrayInputStream( out.toByteArray() );
+        for( int number : numbers )
+            assertThat( BinaryActionHistoryFormat.readVarint( in ), is( number ) );
+    }
+
+    @Test( expected = IOException.class )
+    public void reading_a_number_cut_short_fails() throws IOException {
+        BinaryActionHistoryFormat.readVarint(
+            new ByteArrayInputStream( new byte[] { (byte)0x80 } ) );
+    }
+
+    @Test
+    public void recognises_binary_history_by_its_magic() {
+        assertThat( BinaryActionHistoryFormat.isBinaryActionHistory(
+            new byte[] { 'T', 'A', 'H', 1, 0 } ), is( true ) );
+        assertThat( BinaryActionHistoryFormat.isBinaryActionHistory(
+            "action name:exit:\n".getBytes() ), is( false ) );
+        assertThat( BinaryActionHistoryFormat.isBinaryActionHistory( new byte[0] ), is( false ) );
+    }
+
+    @Test
+    public void known_action_names_have_their_own_opcodes() {
+        assertThat( BinaryActionHistoryFormat.opcodeFor( "exit" ),
+                    is( greaterThanOrEqualTo( BinaryActionHistoryFormat.FIRST_ACTION_OPCODE ) ) );
+        assertThat( BinaryActionHistoryFormat.opcodeFor( "dance" ),
+                    is( BinaryActionHistoryFormat.NAMED_ACTION ) );
+    }
+}
@@ -0,0 +1,74 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.action.Action;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.ActionParameters;
+import com.chewielouie.textadventure.action.BasicActionHistory;
+import com.chewielouie.textadventure.item.Item;
+import org.junit.Test;
+
+public class BinaryActionHistorySerialiserTests {
+
+    private Action actionNamed( String name ) {
+        Action action = mock( Action.class );
+        when( action.name() ).thenReturn( name );
+        return action;
+    }
+
+    private Item itemWithID( String id ) {
+        Item item = mock( Item.class );
+        when( item.id() ).thenReturn( id );
+        return item;
+    }
+
+    @Test
+    public void starts_with_magic() {
+        byte[] bytes = new BinaryActionHistorySerialiser( new BasicActionHistory() ).serialise();
+
+        assertThat( BinaryActionHistoryFormat.isBinaryActionHistory( bytes ), is( true ) );
+    }
+
+    @Test
+    public void ends_with_checksum_of_the_rest() {
+        ActionHistory history = new BasicActionHistory();
+        history.addActionWithParameters( actionNamed( "exit" ), null );
+
+        byte[] bytes = new BinaryActionHistorySerialiser( history ).serialise();
+
+        assertThat( BinaryActionHistoryFormat.checksumMatches( bytes ), is( true ) );
+        bytes[bytes.length - 5]++;
+        assertThat( BinaryActionHistoryFormat.checksumMatches( bytes ), is( false ) );
+    }
+
+    @Test
+    public void repeated_ids_are_written_once() {
+        Item item = itemWithID( "a rather long item id" );
+        ActionHistory once = new BasicActionHistory();
+        once.addActionWithParameters( actionNamed( "examine" ),
+            new ActionParameters( null, item, null, null, null ) );
+        ActionHistory twice = new BasicActionHistory();
+        twice.addActionWithParameters( actionNamed( "examine" ),
+            new ActionParameters( null, item, null, null, null ) );
+        twice.addActionWithParameters( actionNamed( "examine" ),
+            new ActionParameters( null, item, null, null, null ) );
+
+        int onceLength = new BinaryActionHistorySerialiser( once ).serialise().length;
+        int twiceLength = new BinaryActionHistorySerialiser( twice ).serialise().length;
+
+        assertThat( twiceLength - onceLength, is( 3 ) );
+    }
+
+    @Test
+    public void unknown_action_names_are_kept() {
+        ActionHistory history = new BasicActionHistory();
+        history.addActionWithParameters( actionNamed( "dance" ), null );
+
+        String bytes = new String( new BinaryActionHistorySerialiser( history ).serialise() );
+
+        assertThat( bytes, containsString( "dance" ) );
+    }
+}
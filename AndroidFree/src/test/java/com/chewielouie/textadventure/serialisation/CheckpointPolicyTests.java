@@ -0,0 +1,64 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+
+public class CheckpointPolicyTests {
+
+    @Test
+    public void checkpoint_is_not_due_before_the_interval_has_passed() {
+        CheckpointPolicy policy = new CheckpointPolicy( 10 );
+
+        assertThat( policy.checkpointDue( 9, 0 ), is( false ) );
+    }
+
+    @Test
+    public void checkpoint_is_due_once_the_interval_has_passed() {
+        CheckpointPolicy policy = new CheckpointPolicy( 10 );
+
+        assertThat( policy.checkpointDue( 10, 0 ), is( true ) );
+    }
+
+    @Test
+    public void interval_is_counted_from_the_last_checkpoint() {
+        CheckpointPolicy policy = new CheckpointPolicy( 10 );
+        policy.checkpointTaken( 15, 0 );
+
+        assertThat( policy.checkpointDue( 24, 0 ), is( false ) );
+        assertThat( policy.checkpointDue( 25, 0 ), is( true ) );
+    }
+
+    @Test
+    public void checkpoint_is_due_when_the_score_goes_up() {
+        CheckpointPolicy policy = new CheckpointPolicy( 10 );
+        policy.checkpointTaken( 5, 2 );
+
+        assertThat( policy.checkpointDue( 6, 3 ), is( true ) );
+    }
+
+    @Test
+    public void checkpoint_is_not_due_when_the_score_is_unchanged() {
+        CheckpointPolicy policy = new CheckpointPolicy( 10 );
+        policy.checkpointTaken( 5, 2 );
+
+        assertThat( policy.checkpointDue( 6, 2 ), is( false ) );
+    }
+
+    @Test
+    public void checkpoint_is_not_due_without_new_actions() {
+        CheckpointPolicy policy = new CheckpointPolicy( 10 );
+        policy.checkpointTaken( 5, 2 );
+
+        assertThat( policy.checkpointDue( 5, 3 ), is( false ) );
+    }
+
+    @Test
+    public void default_interval_is_used_when_none_is_given() {
+        CheckpointPolicy policy = new CheckpointPolicy();
+
+        assertThat( policy.checkpointDue( CheckpointPolicy.DEFAULT_INTERVAL - 1, 0 ), is( false ) );
+        assertThat( policy.checkpointDue( CheckpointPolicy.DEFAULT_INTERVAL, 0 ), is( true ) );
+    }
+}
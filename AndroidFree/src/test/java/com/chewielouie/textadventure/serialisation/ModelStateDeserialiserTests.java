@@ -0,0 +1,365 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.BasicModel;
+import com.chewielouie.textadventure.Location;
+import com.chewielouie.textadventure.LocationExit;
+import com.chewielouie.textadventure.action.Action;
+import com.chewielouie.textadventure.action.ActionFactory;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.BasicActionHistory;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.NormalItem;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Scanner;
+import org.junit.Test;
+
+public class ModelStateDeserialiserTests {
+
+    private class World {
+        BasicModel model = new BasicModel();
+        Location loc1 = new Location( "loc1", "loc1 description", model, null );
+        Location loc2 = new Location( "loc2", "loc2 description", model, null );
+        LocationExit exit = new LocationExit();
+        NormalItem itemA = createItem( "itemA" );
+        NormalItem itemB = createItem( "itemB" );
+        NormalItem itemC = createItem( "itemC" );
+
+        World() {
+            exit.setID( "exit1" );
+            exit.setDestination( "loc2" );
+            loc1.addExit( exit );
+            loc1.addItem( itemA );
+            loc1.addItem( itemB );
+            loc2.addItem( itemC );
+            loc2.setTextForFirstEntry( "first time in loc2" );
+            model.addLocation( loc1 );
+            model.addLocation( loc2 );
+        }
+    }
+
+    private NormalItem createItem( String id ) {
+        NormalItem item = new NormalItem();
+        item.setId( id );
+        item.setName( "name of " + id );
+        item.setDescription( "description of " + id );
+        return item;
+    }
+
+    private String playAndSerialise() {
+        World played = new World();
+        played.loc1.removeItem( played.itemA );
+        played.model.addToInventory( played.itemA );
+        played.model.destroyItem( "itemB" );
+        played.itemA.setDescription( "a changed description" );
+        played.itemA.setVisible( false );
+        played.itemA.setExamined( true );
+        played.itemC.setUsed( true );
+        played.itemC.setAlreadyUsedWith( "itemA" );
+        played.exit.setInvisible();
+        played.loc1.setLocationDescription( "loc1 with\na newline" );
+        played.model.setCurrentScore( 3 );
+        played.model.setCurrentLocation( "loc2" );
+        return new ModelStateSerialiser( played.model ).serialise();
+    }
+
+    @Test
+    public void does_not_restore_content_that_is_not_a_model_state() {
+        World world = new World();
+
+        assertThat( new ModelStateDeserialiser( world.model, world.model )
+                        .restore( "action name:exit:\n" ), is( false ) );
+        assertThat( world.loc1.items().size(), is( 2 ) );
+    }
+
+    @Test
+    public void restores_item_positions_and_destroys_missing_items() {
+        World world = new World();
+
+        new ModelStateDeserialiser( world.model, world.model ).restore( playAndSerialise() );
+
+        assertThat( world.model.inventoryItems().size(), is( 1 ) );
+        assertThat( world.model.inventoryItems().get( 0 ), is( (Item)world.itemA ) );
+        assertThat( world.loc1.items().size(), is( 0 ) );
+        assertThat( world.loc2.items().size(), is( 1 ) );
+        assertThat( world.model.findItemByID( "itemB" ), is( nullValue() ) );
+    }
+
+    @Test
+    public void restores_item_properties() {
+        World world = new World();
+
+        new ModelStateDeserialiser( world.model, world.model ).restore( playAndSerialise() );
+
+        assertThat( world.itemA.description(), is( "a changed description" ) );
+        assertThat( world.itemA.visible(), is( false ) );
+        assertThat( world.itemA.examined(), is( true ) );
+        assertThat( world.itemC.used(), is( true ) );
+        assertThat( world.itemC.itemIDsAlreadyUsedWith().size(), is( 1 ) );
+        assertThat( world.itemC.itemIDsAlreadyUsedWith().get( 0 ), is( "itemA" ) );
+    }
+
+    @Test
+    public void restores_exit_visibility_score_and_current_location() {
+        World world = new World();
+
+        new ModelStateDeserialiser( world.model, world.model ).restore( playAndSerialise() );
+
+        assertThat( world.exit.visible(), is( false ) );
+        assertThat( world.model.currentScore(), is( 3 ) );
+        assertThat( world.model.currentLocation(), is( (Object)world.loc2 ) );
+    }
+
+    @Test
+    public void restores_location_text_including_newlines() {
+        World world = new World();
+
+        new ModelStateDeserialiser( world.model, world.model ).restore( playAndSerialise() );
+
+        assertThat( world.loc1.description(), is( "loc1 with\na newline" ) );
+        assertThat( world.loc2.contextualText(), is( "first time in loc2" ) );
+    }
+
+    @Test
+    public void round_trip_produces_identical_serialisation() {
+        World world = new World();
+        String saved = playAndSerialise();
+
+        new ModelStateDeserialiser( world.model, world.model ).restore( saved );
+
+        assertThat( new ModelStateSerialiser( world.model ).serialise(), is( saved ) );
+    }
+
+    @Test
+    public void restores_explored_areas() {
+        World world = new World();
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( world.model );
+        serialiser.setExploredAreaIDs( java.util.Arrays.asList( "area1" ) );
+        ModelStateDeserialiser d = new ModelStateDeserialiser( world.model, world.model );
+
+        d.restore( serialiser.serialise() );
+
+        assertThat( d.exploredAreaIDs().size(), is( 1 ) );
+        assertThat( d.exploredAreaIDs().contains( "area1" ), is( true ) );
+    }
+
+    @Test
+    public void restores_save_generation() {
+        World world = new World();
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( world.model );
+        serialiser.setSaveGeneration( 2 );
+        ModelStateDeserialiser d = new ModelStateDeserialiser( world.model, world.model );
+
+        d.restore( serialiser.serialise() );
+
+        assertThat( d.saveGeneration(), is( 2 ) );
+    }
+
+    @Test
+    public void model_state_saved_without_a_generation_is_of_the_first() {
+        World world = new World();
+        ModelStateDeserialiser d = new ModelStateDeserialiser( world.model, world.model );
+
+        d.restore( new ModelStateSerialiser( world.model ).serialise() );
+
+        assertThat( d.saveGeneration(), is( 0 ) );
+    }
+
+    @Test
+    public void records_action_history_without_triggering_actions() {
+        World world = new World();
+        Action action = mock( Action.class );
+        when( action.name() ).thenReturn( "examine" );
+        ActionFactory factory = mock( ActionFactory.class );
+        when( factory.createExamineAction( world.itemB ) ).thenReturn( action );
+        ActionHistory history = new BasicActionHistory();
+        String saved = playAndSerialise() +
+            ModelStateTextFormat.ACTION_HISTORY_SECTION + "\n" +
+            ActionHistoryTextFormat.ACTION_NAME_TAG + ActionHistoryTextFormat.SEPERATOR +
+            "examine" + ActionHistoryTextFormat.SEPERATOR +
+            ActionHistoryTextFormat.ITEM_ID_TAG + ActionHistoryTextFormat.SEPERATOR +
+            "itemB" + ActionHistoryTextFormat.SEPERATOR + "\n";
+
+        new ModelStateDeserialiser( world.model, world.model ).restoreWithActionHistory(
+            saved, new ActionHistoryDeserialiser( factory, world.model, world.model ), history );
+
+        assertThat( history.size(), is( 1 ) );
+        assertThat( history.getRecord( 0 ).action(), is( action ) );
+        assertThat( history.getRecord( 0 ).params().item(), is( (Item)world.itemB ) );
+        verify( action, never() ).trigger();
+    }
+
+    private static InputStream input( String saved ) throws IOException {
+        return new ByteArrayInputStream( saved.getBytes( "UTF-8" ) );
+    }
+
+    private static final String examineItemBHistory =
+        ActionHistoryTextFormat.ACTION_NAME_TAG + ActionHistoryTextFormat.SEPERATOR +
+        "examine" + ActionHistoryTextFormat.SEPERATOR +
+        ActionHistoryTextFormat.ITEM_ID_TAG + ActionHistoryTextFormat.SEPERATOR +
+        "itemB" + ActionHistoryTextFormat.SEPERATOR + "\n";
+
+    @Test
+    public void restores_a_model_state_and_records_its_history_as_they_are_read()
+        throws IOException {
+        World world = new World();
+        Action action = mock( Action.class );
+        when( action.name() ).thenReturn( "examine" );
+        ActionFactory factory = mock( ActionFactory.class );
+        when( factory.createExamineAction( world.itemB ) ).thenReturn( action );
+        ActionHistory history = new BasicActionHistory();
+        String saved = playAndSerialise() +
+            ModelStateTextFormat.ACTION_HISTORY_SECTION + "\n" + examineItemBHistory;
+
+        boolean restored = new ModelStateDeserialiser( world.model, world.model )
+            .restoreWithActionHistory( input( saved ),
+                new ActionHistoryDeserialiser( factory, world.model, world.model ), history );
+
+        assertThat( restored, is( true ) );
+        assertThat( world.itemA.description(), is( "a changed description" ) );
+        assertThat( history.size(), is( 1 ) );
+        assertThat( history.getRecord( 0 ).params().item(), is( (Item)world.itemB ) );
+        verify( action, never() ).trigger();
+    }
+
+    @Test
+    public void does_not_restore_a_model_state_read_with_a_checksum_that_does_not_match()
+        throws IOException {
+        World world = new World();
+        String saved = playAndSerialise().replace( "a changed description", "a changed descriptiom" ) +
+            ModelStateTextFormat.ACTION_HISTORY_SECTION + "\n";
+
+        boolean restored = new ModelStateDeserialiser( world.model, world.model )
+            .restoreWithActionHistory( input( saved ),
+                new ActionHistoryDeserialiser( mock( ActionFactory.class ), world.model, world.model ),
+                new BasicActionHistory() );
+
+        assertThat( restored, is( false ) );
+        assertThat( world.itemA.description(), is( "description of itemA" ) );
+    }
+
+    @Test
+    public void skipping_a_model_state_leaves_the_history_saved_with_it_to_be_read()
+        throws IOException {
+        InputStream input = input( playAndSerialise() +
+            ModelStateTextFormat.ACTION_HISTORY_SECTION + "\n" + examineItemBHistory );
+
+        ModelStateDeserialiser.skipToActionHistory( input );
+
+        assertThat( new Scanner( input, "UTF-8" ).useDelimiter( "\\A" ).next(),
+                    is( examineItemBHistory ) );
+    }
+
+    private String withoutChecksum( String saved ) {
+        int start = saved.indexOf( ModelStateTextFormat.MODEL_STATE_CHECKSUM_TAG );
+        return saved.substring( 0, start ) + saved.substring( saved.indexOf( "\n", start ) + 1 );
+    }
+
+    @Test
+    public void does_not_restore_a_model_state_whose_checksum_does_not_match() {
+        World world = new World();
+        String saved = playAndSerialise().replace( "a changed description", "a changed descriptiom" );
+
+        assertThat( new ModelStateDeserialiser( world.model, world.model ).restore( saved ),
+                    is( false ) );
+        assertThat( world.loc1.items().size(), is( 2 ) );
+        assertThat( world.itemA.description(), is( "description of itemA" ) );
+    }
+
+    @Test
+    public void restores_a_model_state_saved_without_a_checksum() {
+        World world = new World();
+
+        assertThat( new ModelStateDeserialiser( world.model, world.model )
+                        .restore( withoutChecksum( playAndSerialise() ) ), is( true ) );
+        assertThat( world.itemA.description(), is( "a changed description" ) );
+    }
+
+    @Test
+    public void does_not_restore_a_model_state_at_an_unknown_location() {
+        World world = new World();
+        String saved = withoutChecksum( playAndSerialise() ).replace(
+            ModelStateTextFormat.CURRENT_LOCATION_ID_TAG + ModelStateTextFormat.SEPERATOR + "loc2",
+            ModelStateTextFormat.CURRENT_LOCATION_ID_TAG + ModelStateTextFormat.SEPERATOR + "loc3" );
+
+        assertThat( new ModelStateDeserialiser( world.model, world.model ).restore( saved ),
+                    is( false ) );
+        assertThat( world.model.inventoryItems().size(), is( 0 ) );
+    }
+
+    @Test
+    public void does_not_restore_a_model_state_of_a_different_point_in_the_history() {
+        World world = new World();
+        Action action = mock( Action.class );
+        when( action.name() ).thenReturn( "examine" );
+        ActionFactory factory = mock( ActionFactory.class );
+        when( factory.createExamineAction( world.itemB ) ).thenReturn( action );
+        ActionHistory history = new BasicActionHistory();
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( world.model );
+        serialiser.setActionHistory( new BasicActionHistory() );
+        String saved = serialiser.serialise() +
+            ModelStateTextFormat.ACTION_HISTORY_SECTION + "\n" +
+            ActionHistoryTextFormat.ACTION_NAME_TAG + ActionHistoryTextFormat.SEPERATOR +
+            "examine" + ActionHistoryTextFormat.SEPERATOR +
+            ActionHistoryTextFormat.ITEM_ID_TAG + ActionHistoryTextFormat.SEPERATOR +
+            "itemB" + ActionHistoryTextFormat.SEPERATOR + "\n";
+
+        boolean restored = new ModelStateDeserialiser( world.model, world.model )
+            .restoreWithActionHistory( saved,
+                new ActionHistoryDeserialiser( factory, world.model, world.model ), history );
+
+        assertThat( restored, is( false ) );
+        assertThat( history.size(), is( 1 ) );
+    }
+
+    @Test
+    public void history_is_read_when_the_model_state_is_not_valid() {
+        World world = new World();
+        ActionHistory history = new BasicActionHistory();
+        ModelStateDeserialiser d = new ModelStateDeserialiser( world.model, world.model );
+        String saved = playAndSerialise().replace( "a changed description", "corrupted" ) +
+            ModelStateTextFormat.ACTION_HISTORY_SECTION + "\n" +
+            ActionHistoryTextFormat.ACTION_NAME_TAG + ActionHistoryTextFormat.SEPERATOR +
+            "inventory" + ActionHistoryTextFormat.SEPERATOR + "\n";
+
+        boolean restored = d.restoreWithActionHistory( saved,
+            new ActionHistoryDeserialiser( mock( ActionFactory.class ), world.model, world.model ),
+            history );
+
+        assertThat( restored, is( false ) );
+        assertThat( d.actionHistoryContent(), containsString( "inventory" ) );
+        assertThat( world.loc1.items().size(), is( 2 ) );
+    }
+
+    @Test
+    public void restored_model_has_the_state_digest_it_was_saved_with() {
+        World world = new World();
+        ModelStateDeserialiser d = new ModelStateDeserialiser( world.model, world.model );
+
+        d.restore( playAndSerialise() );
+
+        assertThat( d.restoredStateMatchesDigest(), is( true ) );
+    }
+
+    @Test
+    public void restored_model_does_not_match_a_different_state_digest() {
+        World world = new World();
+        String saved = playAndSerialise();
+        String digestLine = ModelStateTextFormat.MODEL_STATE_DIGEST_TAG + ModelStateTextFormat.SEPERATOR;
+        int start = saved.indexOf( digestLine ) + digestLine.length();
+        String state = saved.substring( 0, start ) + "1" +
+                       saved.substring( saved.indexOf( "\n", start ),
+                                        saved.indexOf( ModelStateTextFormat.MODEL_STATE_CHECKSUM_TAG ) );
+        String content = state + ModelStateTextFormat.MODEL_STATE_CHECKSUM_TAG +
+                         ModelStateTextFormat.SEPERATOR + ModelStateTextFormat.checksum( state ) + "\n";
+        ModelStateDeserialiser d = new ModelStateDeserialiser( world.model, world.model );
+
+        assertThat( d.restore( content ), is( true ) );
+        assertThat( d.restoredStateMatchesDigest(), is( false ) );
+    }
+}
@@ -0,0 +1,177 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static com.chewielouie.textadventure.serialisation.ModelStateTextFormat.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import com.chewielouie.textadventure.BasicModel;
+import com.chewielouie.textadventure.Location;
+import com.chewielouie.textadventure.LocationExit;
+import com.chewielouie.textadventure.action.Action;
+import com.chewielouie.textadventure.action.BasicActionHistory;
+import com.chewielouie.textadventure.item.NormalItem;
+import java.util.Arrays;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ModelStateSerialiserTests {
+
+    private BasicModel model = new BasicModel();
+
+    private Location addLocation( String id ) {
+        Location location = new Location( id, "description of " + id, model, null );
+        model.addLocation( location );
+        return location;
+    }
+
+    private NormalItem createItem( String id ) {
+        NormalItem item = new NormalItem();
+        item.setId( id );
+        item.setName( "name of " + id );
+        return item;
+    }
+
+    @Test
+    public void output_is_recognised_as_model_state() {
+        addLocation( "loc1" );
+
+        assertThat( isModelState( new ModelStateSerialiser( model ).serialise() ), is( true ) );
+    }
+
+    @Test
+    public void serialises_current_location_and_score() {
+        addLocation( "loc1" );
+        addLocation( "loc2" );
+        model.setCurrentLocation( "loc2" );
+        model.setCurrentScore( 7 );
+
+        String output = new ModelStateSerialiser( model ).serialise();
+
+        assertThat( output, containsString( CURRENT_LOCATION_ID_TAG + SEPERATOR + "loc2\n" ) );
+        assertThat( output, containsString( CURRENT_SCORE_TAG + SEPERATOR + "7\n" ) );
+    }
+
+    @Test
+    public void serialises_inventory_and_location_item_ids() {
+        Location location = addLocation( "loc1" );
+        location.addItem( createItem( "itemA" ) );
+        model.addToInventory( createItem( "itemB" ) );
+
+        String output = new ModelStateSerialiser( model ).serialise();
+
+        assertThat( output, containsString( INVENTORY_ITEM_ID_TAG + SEPERATOR + "itemB\n" ) );
+        assertThat( output, containsString( LOCATION_ITEM_ID_TAG + SEPERATOR + "itemA\n" ) );
+        assertThat( output, containsString( ITEM_ID_TAG + SEPERATOR + "itemA\n" ) );
+        assertThat( output, containsString( ITEM_ID_TAG + SEPERATOR + "itemB\n" ) );
+    }
+
+    @Test
+    public void serialises_exit_visibility() {
+        Location location = addLocation( "loc1" );
+        LocationExit exit = new LocationExit();
+        exit.setID( "exit1" );
+        exit.setInvisible();
+        location.addExit( exit );
+
+        String output = new ModelStateSerialiser( model ).serialise();
+
+        assertThat( output, containsString( EXIT_SECTION + "\n" +
+                                             EXIT_ID_TAG + SEPERATOR + "exit1\n" +
+                                             EXIT_VISIBILITY_TAG + SEPERATOR + INVISIBLE + "\n" ) );
+    }
+
+    @Test
+    public void encodes_newlines_in_values() {
+        Location location = addLocation( "loc1" );
+        location.setLocationDescription( "line one\nline two" );
+
+        String output = new ModelStateSerialiser( model ).serialise();
+
+        assertThat( output, containsString( LOCATION_DESCRIPTION_TAG + SEPERATOR +
+                                            "line one" + ENCODED_NEWLINE + "line two\n" ) );
+    }
+
+    @Test
+    public void serialises_used_and_examined_item_state() {
+        Location location = addLocation( "loc1" );
+        NormalItem item = createItem( "itemA" );
+        item.setUsed( true );
+        item.setExamined( true );
+        item.setAlreadyUsedWith( "itemB" );
+        location.addItem( item );
+
+        String output = new ModelStateSerialiser( model ).serialise();
+
+        assertThat( output, containsString( ITEM_HAS_BEEN_USED_TAG + SEPERATOR + "\n" ) );
+        assertThat( output, containsString( ITEM_HAS_BEEN_EXAMINED_TAG + SEPERATOR + "\n" ) );
+        assertThat( output, containsString( ITEM_ALREADY_USED_WITH_TAG + SEPERATOR + "itemB\n" ) );
+    }
+
+    @Test
+    public void serialises_explored_areas() {
+        addLocation( "loc1" );
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+        serialiser.setExploredAreaIDs( Arrays.asList( "area1", "area2" ) );
+
+        String output = serialiser.serialise();
+
+        assertThat( output, containsString( EXPLORED_AREA_ID_TAG + SEPERATOR + "area1\n" +
+                                            EXPLORED_AREA_ID_TAG + SEPERATOR + "area2\n" ) );
+    }
+
+    @Test
+    public void serialises_save_generation_when_not_the_first() {
+        addLocation( "loc1" );
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+
+        assertThat( serialiser.serialise(), not( containsString( SAVE_GENERATION_TAG ) ) );
+        serialiser.setSaveGeneration( 3 );
+        assertThat( serialiser.serialise(), containsString( SAVE_GENERATION_TAG + SEPERATOR + "3\n" ) );
+    }
+
+    @Test
+    public void appends_action_history_section_when_history_set() {
+        addLocation( "loc1" );
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+        serialiser.setActionHistory( new BasicActionHistory() );
+
+        String output = serialiser.serialise();
+
+        assertThat( output, containsString( ACTION_HISTORY_SIZE_TAG + SEPERATOR + "0\n" ) );
+        assertThat( output, endsWith( ACTION_HISTORY_SECTION + "\n" ) );
+    }
+
+    private Action actionNamed( String name ) {
+        Action action = Mockito.mock( Action.class );
+        Mockito.when( action.name() ).thenReturn( name );
+        return action;
+    }
+
+    @Test
+    public void snapshot_serialises_the_same_as_serialise() throws Exception {
+        addLocation( "loc1" );
+        BasicActionHistory history = new BasicActionHistory();
+        history.addActionWithParameters( actionNamed( "exit" ), null );
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+        serialiser.setActionHistory( history );
+
+        assertThat( new String( serialiser.snapshot().serialise(), "UTF-8" ),
+                    is( serialiser.serialise() ) );
+    }
+
+    @Test
+    public void snapshot_is_of_the_model_and_history_when_it_was_taken() throws Exception {
+        Location location = addLocation( "loc1" );
+        BasicActionHistory history = new BasicActionHistory();
+        history.addActionWithParameters( actionNamed( "exit" ), null );
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+        serialiser.setActionHistory( history );
+        String expected = serialiser.serialise();
+
+        SaveWriter.Snapshot snapshot = serialiser.snapshot();
+        location.addItem( createItem( "itemA" ) );
+        history.addActionWithParameters( actionNamed( "examine" ), null );
+
+        assertThat( new String( snapshot.serialise(), "UTF-8" ), is( expected ) );
+    }
+}
@@ -0,0 +1,127 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+
+public class PlainTextLexerTests {
+
+    @Test
+    public void next_moves_through_content_a_line_at_a_time() {
+        PlainTextLexer lexer = new PlainTextLexer( "first\nsecond" );
+
+        assertThat( lexer.next(), is( true ) );
+        assertThat( lexer.text( lexer.lineStart(), lexer.lineEnd() ), is( "first" ) );
+        assertThat( lexer.next(), is( true ) );
+        assertThat( lexer.text( lexer.lineStart(), lexer.lineEnd() ), is( "second" ) );
+        assertThat( lexer.next(), is( false ) );
+    }
+
+    @Test
+    public void pushed_back_line_is_read_again() {
+        PlainTextLexer lexer = new PlainTextLexer( "first\nsecond\n" );
+        lexer.next();
+        lexer.next();
+        lexer.pushBack();
+
+        lexer.next();
+
+        assertThat( lexer.text( lexer.lineStart(), lexer.lineEnd() ), is( "second" ) );
+    }
+
+    @Test
+    public void section_header_must_be_the_whole_line() {
+        PlainTextLexer lexer = new PlainTextLexer( "ITEM\niITEM\nITEMS\nLOCATION AREA\n" );
+
+        lexer.next();
+        assertThat( lexer.isSectionHeader(), is( true ) );
+        lexer.next();
+        assertThat( lexer.isSectionHeader(), is( false ) );
+        lexer.next();
+        assertThat( lexer.isSectionHeader(), is( false ) );
+        lexer.next();
+        assertThat( lexer.isSection( PlainTextLexer.LOCATION_AREA_SECTION ), is( true ) );
+        assertThat( lexer.isSection( PlainTextLexer.LOCATION_SECTION ), is( false ) );
+    }
+
+    @Test
+    public void exits_and_items_are_not_top_level_sections() {
+        PlainTextLexer lexer = new PlainTextLexer( "EXIT\nITEM\nINVENTORY ITEM\n" );
+
+        lexer.next();
+        assertThat( lexer.isTopLevelSectionHeader(), is( false ) );
+        lexer.next();
+        assertThat( lexer.isTopLevelSectionHeader(), is( false ) );
+        lexer.next();
+        assertThat( lexer.isTopLevelSectionHeader(), is( true ) );
+    }
+
+    @Test
+    public void tag_must_start_the_line() {
+        PlainTextLexer lexer = new PlainTextLexer( "item id:knife\nan item id:fork\n" );
+
+        lexer.next();
+        assertThat( lexer.hasTag( "item id:" ), is( true ) );
+        lexer.next();
+        assertThat( lexer.hasTag( "item id:" ), is( false ) );
+    }
+
+    @Test
+    public void value_after_tag_has_encoded_newlines_converted() {
+        PlainTextLexer lexer = new PlainTextLexer( "message:one<newline>two\n" );
+        lexer.next();
+
+        assertThat( lexer.valueAfter( "message:" ), is( "one\ntwo" ) );
+        assertThat( lexer.rawValueAfter( "message:" ), is( "one<newline>two" ) );
+    }
+
+    @Test
+    public void skip_section_returns_body_and_stops_before_next_header() {
+        PlainTextLexer lexer = new PlainTextLexer( "EXIT\nexit id:a\nmore\nITEM\nitem id:b\n" );
+        lexer.next();
+
+        assertThat( lexer.skipSection(), is( "exit id:a\nmore\n" ) );
+        lexer.next();
+        assertThat( lexer.isSection( PlainTextLexer.ITEM_SECTION ), is( true ) );
+    }
+
+    @Test
+    public void skip_top_level_section_includes_exits_and_items() {
+        PlainTextLexer lexer = new PlainTextLexer( "LOCATION\nx:1\nEXIT\nITEM\nLOCATION\n" );
+        lexer.next();
+
+        assertThat( lexer.skipTopLevelSection(), is( "x:1\nEXIT\nITEM\n" ) );
+        lexer.next();
+        assertThat( lexer.isSection( PlainTextLexer.LOCATION_SECTION ), is( true ) );
+    }
+
+    @Test
+    public void skip_section_at_end_of_content_returns_the_rest() {
+        PlainTextLexer lexer = new PlainTextLexer( "ITEM\nitem id:b" );
+        lexer.next();
+
+        assertThat( lexer.skipSection(), is( "item id:b" ) );
+        assertThat( lexer.next(), is( false ) );
+    }
+
+    @Test
+    public void lexer_over_part_of_content_stops_at_its_end() {
+        PlainTextLexer lexer = new PlainTextLexer( "LOCATION\nx:1\ny:2\nLOCATION\n", 9, 17 );
+
+        lexer.next();
+        assertThat( lexer.valueAfter( "x:" ), is( "1" ) );
+        lexer.next();
+        assertThat( lexer.valueAfter( "y:" ), is( "2" ) );
+        assertThat( lexer.next(), is( false ) );
+    }
+
+    @Test
+    public void skipping_to_end_of_top_level_section_gives_its_end_offset() {
+        PlainTextLexer lexer = new PlainTextLexer( "LOCATION\nx:1\nEXIT\nLOCATION\n" );
+        lexer.next();
+
+        assertThat( lexer.nextLineStart(), is( 9 ) );
+        assertThat( lexer.skipToEndOfTopLevelSection(), is( 18 ) );
+    }
+}
@@ -0,0 +1,286 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.action.Action;
+import com.chewielouie.textadventure.action.ActionHistory;
+import com.chewielouie.textadventure.action.BasicActionHistory;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SaveJournalTests {
+
+    private File file;
+
+    @Before
+    public void createJournalFile() throws IOException {
+        file = File.createTempFile( "save_journal", ".txt" );
+        file.delete();
+    }
+
+    @After
+    public void deleteJournalFile() {
+        file.delete();
+    }
+
+    private void addAction( ActionHistory history, String name ) {
+        Action action = mock( Action.class );
+        when( action.name() ).thenReturn( name );
+        history.addActionWithParameters( action, null );
+    }
+
+    @Test
+    public void reading_a_missing_journal_gives_no_actions() {
+        assertThat( new SaveJournal( file ).read( 0 ), is( "" ) );
+    }
+
+    @Test
+    public void appends_only_actions_after_the_given_index() {
+        ActionHistory history = new BasicActionHistory();
+        addAction( history, "one" );
+        addAction( history, "two" );
+        SaveJournal journal = new SaveJournal( file );
+
+        journal.append( history, 1 );
+
+        assertThat( new SaveJournal( file ).read( 1 ), is( "action name:two:\n" ) );
+    }
+
+    @Test
+    public void successive_appends_are_read_back_in_order() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        journal.append( history, 0 );
+        addAction( history, "two" );
+        addAction( history, "three" );
+        journal.append( history, 1 );
+
+        SaveJournal reader = new SaveJournal( file );
+
+        assertThat( reader.read( 0 ),
+                    is( "action name:one:\naction name:two:\naction name:three:\n" ) );
+        assertThat( reader.journalledActionCount(), is( 3 ) );
+    }
+
+    @Test
+    public void skips_actions_already_included_in_the_snapshot() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        addAction( history, "two" );
+        journal.append( history, 0 );
+        addAction( history, "three" );
+        journal.append( history, 2 );
+
+        assertThat( new SaveJournal( file ).read( 1 ),
+                    is( "action name:two:\naction name:three:\n" ) );
+    }
+
+    @Test
+    public void torn_final_block_is_ignored_and_truncated() throws IOException {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        journal.append( history, 0 );
+        long goodLength = file.length();
+        addAction( history, "two" );
+        journal.append( history, 1 );
+        RandomAccessFile f = new RandomAccessFile( file, "rw" );
+        f.setLength( file.length() - 5 );
+        f.close();
+
+        assertThat( new SaveJournal( file ).read( 0 ), is( "action name:one:\n" ) );
+        assertThat( file.length(), is( goodLength ) );
+    }
+
+    @Test
+    public void block_with_corrupt_payload_is_rejected() throws IOException {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        journal.append( history, 0 );
+        RandomAccessFile f = new RandomAccessFile( file, "rw" );
+        f.seek( 12 );
+        f.write( 'X' );
+        f.close();
+
+        assertThat( new SaveJournal( file ).read( 0 ), is( "" ) );
+        assertThat( file.length(), is( 0L ) );
+    }
+
+    @Test
+    public void block_that_does_not_follow_on_from_the_snapshot_is_rejected() {
+        ActionHistory history = new BasicActionHistory();
+        addAction( history, "one" );
+        addAction( history, "two" );
+        new SaveJournal( file ).append( history, 1 );
+
+        assertThat( new SaveJournal( file ).read( 0 ), is( "" ) );
+    }
+
+    @Test
+    public void needs_compaction_once_threshold_is_reached() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file, 2 );
+        addAction( history, "one" );
+        journal.append( history, 0 );
+        assertThat( journal.needsCompaction(), is( false ) );
+
+        addAction( history, "two" );
+        journal.append( history, 1 );
+
+        assertThat( journal.needsCompaction(), is( true ) );
+    }
+
+    @Test
+    public void clear_empties_the_journal() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        journal.append( history, 0 );
+
+        journal.clear();
+
+        assertThat( journal.journalledActionCount(), is( 0 ) );
+        assertThat( new SaveJournal( file ).read( 0 ), is( "" ) );
+    }
+
+    @Test
+    public void block_that_does_not_follow_on_is_kept_for_a_later_snapshot() {
+        ActionHistory history = new BasicActionHistory();
+        addAction( history, "one" );
+        addAction( history, "two" );
+        new SaveJournal( file ).append( history, 1 );
+
+        new SaveJournal( file ).read( 0 );
+
+        assertThat( new SaveJournal( file ).read( 1 ), is( "action name:two:\n" ) );
+    }
+
+    @Test
+    public void discarding_before_an_index_keeps_the_blocks_after_it() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        journal.append( history, 0 );
+        addAction( history, "two" );
+        journal.append( history, 1 );
+
+        journal.discardBefore( 1 );
+
+        assertThat( journal.journalledActionCount(), is( 1 ) );
+        assertThat( new SaveJournal( file ).read( 1 ), is( "action name:two:\n" ) );
+    }
+
+    @Test
+    public void discarding_keeps_a_block_that_only_starts_before_the_index() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        addAction( history, "two" );
+        journal.append( history, 0 );
+
+        journal.discardBefore( 1 );
+
+        assertThat( new SaveJournal( file ).read( 1 ), is( "action name:two:\n" ) );
+    }
+
+    // A snapshot of the first two actions is taken, but is still being
+    // written when the third is journalled. Once it is on disk the journal
+    // is cut back before it, and the fourth action journalled after that.
+    @Test
+    public void actions_journalled_while_a_snapshot_is_written_survive_it() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        addAction( history, "two" );
+        journal.append( history, 0 );
+        int snapshotActionCount = history.size();
+        addAction( history, "three" );
+        journal.append( history, 2 );
+
+        journal.discardBefore( snapshotActionCount );
+        addAction( history, "four" );
+        journal.append( history, 3 );
+
+        assertThat( new SaveJournal( file ).read( snapshotActionCount ),
+                    is( "action name:three:\naction name:four:\n" ) );
+    }
+
+    @Test
+    public void blocks_of_another_generation_are_not_read() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        journal.append( history, 0 );
+
+        SaveJournal reader = new SaveJournal( file );
+        reader.setGeneration( 1 );
+
+        assertThat( reader.read( 0 ), is( "" ) );
+        assertThat( new SaveJournal( file ).read( 0 ), is( "action name:one:\n" ) );
+    }
+
+    @Test
+    public void new_generation_follows_any_in_the_journal() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        journal.setGeneration( 4 );
+        addAction( history, "one" );
+        journal.append( history, 0 );
+
+        SaveJournal next = new SaveJournal( file );
+        next.startNewGeneration();
+
+        assertThat( next.generation(), is( 5 ) );
+    }
+
+    @Test
+    public void discarding_drops_blocks_of_other_generations() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        addAction( history, "two" );
+        journal.append( history, 0 );
+        journal.startNewGeneration();
+        addAction( history, "three" );
+        journal.append( history, 2 );
+
+        journal.discardBefore( 0 );
+
+        SaveJournal reader = new SaveJournal( file );
+        assertThat( reader.read( 0 ), is( "" ) );
+        reader.setGeneration( 1 );
+        assertThat( reader.read( 2 ), is( "action name:three:\n" ) );
+        assertThat( reader.journalledActionCount(), is( 1 ) );
+    }
+
+    // A history of four actions, two of them journalled since its snapshot,
+    // is compacted to three and a snapshot of that is written, but the app
+    // stops before the journal is cut back. The old blocks, numbered from
+    // two, must not be replayed after the third compacted action.
+    @Test
+    public void journal_of_a_history_since_compacted_is_not_replayed_on_it() {
+        ActionHistory history = new BasicActionHistory();
+        SaveJournal journal = new SaveJournal( file );
+        addAction( history, "one" );
+        addAction( history, "two" );
+        addAction( history, "three" );
+        addAction( history, "four" );
+        journal.append( history, 2 );
+        journal.startNewGeneration();
+        int compactedGeneration = journal.generation();
+
+        SaveJournal reloaded = new SaveJournal( file );
+        reloaded.setGeneration( compactedGeneration );
+
+        assertThat( reloaded.read( 3 ), is( "" ) );
+    }
+}
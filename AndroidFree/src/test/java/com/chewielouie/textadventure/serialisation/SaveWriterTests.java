@@ -0,0 +1,170 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SaveWriterTests {
+
+    private File file;
+
+    @Before
+    public void createSaveFile() throws IOException {
+        file = File.createTempFile( "save_file", ".txt" );
+        file.delete();
+    }
+
+    @After
+    public void deleteSaveFile() {
+        file.delete();
+        new File( file.getPath() + ".tmp" ).delete();
+    }
+
+    private static class QueuedExecutor implements Executor {
+        List<Runnable> tasks = new ArrayList<Runnable>();
+
+        public void execute( Runnable task ) {
+            tasks.add( task );
+        }
+
+        void runAll() {
+            while( tasks.isEmpty() == false )
+                tasks.remove( 0 ).run();
+        }
+    }
+
+    private static class TextSnapshot implements SaveWriter.Snapshot {
+        String text;
+        Thread serialisedOn = null;
+
+        TextSnapshot( String text ) {
+            this.text = text;
+        }
+
+        public byte[] serialise() throws IOException {
+            serialisedOn = Thread.currentThread();
+            return text.getBytes( "UTF-8" );
+        }
+    }
+
+    private String contents( File f ) throws IOException {
+        return BinaryWorldCompiler.readWorldFile( f.getPath() );
+    }
+
+    private void writeFile( String text ) throws IOException {
+        FileOutputStream out = new FileOutputStream( file );
+        out.write( text.getBytes( "UTF-8" ) );
+        out.close();
+    }
+
+    @Test
+    public void writes_save_on_another_thread() throws Exception {
+        SaveWriter writer = new SaveWriter( file );
+        TextSnapshot snapshot = new TextSnapshot( "saved\n" );
+
+        writer.save( snapshot );
+
+        assertThat( writer.flush( 5000 ), is( true ) );
+        assertThat( contents( file ), is( "saved\n" ) );
+        assertThat( snapshot.serialisedOn, is( not( Thread.currentThread() ) ) );
+    }
+
+    @Test
+    public void replaces_existing_save_and_leaves_no_temporary_file() throws Exception {
+        writeFile( "old\n" );
+        SaveWriter writer = new SaveWriter( file );
+
+        writer.save( new TextSnapshot( "new\n" ) );
+        writer.flush( 5000 );
+
+        assertThat( contents( file ), is( "new\n" ) );
+        assertThat( new File( file.getPath() + ".tmp" ).exists(), is( false ) );
+    }
+
+    @Test
+    public void nothing_is_written_until_the_writer_runs() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        SaveWriter writer = new SaveWriter( file, executor );
+
+        writer.save( new TextSnapshot( "saved\n" ) );
+
+        assertThat( file.exists(), is( false ) );
+        assertThat( writer.flush( 0 ), is( false ) );
+    }
+
+    @Test
+    public void back_to_back_saves_are_coalesced_into_the_newest() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        SaveWriter writer = new SaveWriter( file, executor );
+        TextSnapshot first = new TextSnapshot( "first\n" );
+
+        writer.save( first );
+        writer.save( new TextSnapshot( "second\n" ) );
+        writer.save( new TextSnapshot( "third\n" ) );
+        assertThat( executor.tasks.size(), is( 1 ) );
+        executor.runAll();
+
+        assertThat( contents( file ), is( "third\n" ) );
+        assertThat( writer.fileWriteCount(), is( 1 ) );
+        assertThat( first.serialisedOn, is( nullValue() ) );
+        assertThat( writer.flush( 0 ), is( true ) );
+    }
+
+    @Test
+    public void save_asked_for_while_writing_is_written_next() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        final SaveWriter writer = new SaveWriter( file, executor );
+        writer.save( new TextSnapshot( "first\n" ) {
+            public byte[] serialise() throws IOException {
+                writer.save( new TextSnapshot( "second\n" ) );
+                return super.serialise();
+            }
+        } );
+
+        executor.runAll();
+
+        assertThat( contents( file ), is( "second\n" ) );
+        assertThat( writer.fileWriteCount(), is( 2 ) );
+    }
+
+    @Test
+    public void failed_save_leaves_the_old_save_in_place() throws Exception {
+        writeFile( "old\n" );
+        SaveWriter writer = new SaveWriter( file );
+
+        writer.save( new SaveWriter.Snapshot() {
+            public byte[] serialise() throws IOException {
+                throw new IOException( "no" );
+            }
+        } );
+
+        assertThat( writer.flush( 5000 ), is( false ) );
+        assertThat( contents( file ), is( "old\n" ) );
+        assertThat( writer.fileWriteCount(), is( 0 ) );
+    }
+
+    @Test
+    public void writer_keeps_working_after_a_failed_save() throws Exception {
+        SaveWriter writer = new SaveWriter( file );
+        writer.save( new SaveWriter.Snapshot() {
+            public byte[] serialise() {
+                throw new IllegalStateException( "no" );
+            }
+        } );
+        writer.flush( 5000 );
+
+        writer.save( new TextSnapshot( "saved\n" ) );
+
+        assertThat( writer.flush( 5000 ), is( true ) );
+        assertThat( contents( file ), is( "saved\n" ) );
+    }
+}
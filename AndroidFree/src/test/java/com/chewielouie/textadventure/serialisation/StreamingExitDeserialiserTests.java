@@ -0,0 +1,30 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import org.junit.Test;
+
+public class StreamingExitDeserialiserTests extends ExitDeserialiserTestCase {
+
+    @Override
+    protected ExitDeserialiser createDeserialiser( ItemActionFactory itemActionFactory ) {
+        return new StreamingExitDeserialiser( itemActionFactory );
+    }
+
+    @Test
+    public void reading_from_a_lexer_stops_at_the_next_section_and_leaves_it_to_be_read() {
+        PlainTextLexer lexer = new PlainTextLexer( "exit label:north\nEXIT\nexit label:south\n" );
+        Exit exit = mock( Exit.class );
+
+        new StreamingExitDeserialiser( null ).deserialise( exit, lexer );
+
+        verify( exit ).setLabel( "north" );
+        verify( exit, never() ).setLabel( "south" );
+        assertThat( lexer.next(), is( true ) );
+        assertThat( lexer.isSection( PlainTextLexer.EXIT_SECTION ), is( true ) );
+    }
+}
@@ -0,0 +1,41 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import org.junit.Test;
+
+public class StreamingItemDeserialiserTests extends ItemDeserialiserTestCase {
+
+    @Override
+    protected ItemDeserialiser createDeserialiser( ItemActionFactory itemActionFactory ) {
+        return new StreamingItemDeserialiser( itemActionFactory );
+    }
+
+    @Test
+    public void reading_from_a_lexer_stops_at_the_next_section_and_leaves_it_to_be_read() {
+        PlainTextLexer lexer = new PlainTextLexer( "item name:Lamp\nITEM\nitem name:Key\n" );
+        Item item = mock( Item.class );
+
+        new StreamingItemDeserialiser( null ).deserialise( item, lexer );
+
+        verify( item ).setName( "Lamp" );
+        verify( item, never() ).setName( "Key" );
+        assertThat( lexer.next(), is( true ) );
+        assertThat( lexer.isSection( PlainTextLexer.ITEM_SECTION ), is( true ) );
+    }
+
+    @Test
+    public void section_header_inside_a_line_does_not_end_the_item() {
+        Item item = mock( Item.class );
+
+        new StreamingItemDeserialiser( null ).deserialise( item,
+            "item name:Lamp\nitem description:an ITEM\nitem id:lamp\n" );
+
+        verify( item ).setDescription( "an ITEM" );
+        verify( item ).setId( "lamp" );
+    }
+}
@@ -0,0 +1,88 @@
+package com.chewielouie.textadventure.serialisation;
+
+import static org.mockito.Mockito.*;
+
+import org.jmock.*;
+import com.chewielouie.textadventure.Exit;
+import com.chewielouie.textadventure.ExitFactory;
+import com.chewielouie.textadventure.ModelLocation;
+import com.chewielouie.textadventure.item.Item;
+import com.chewielouie.textadventure.item.ItemFactory;
+import org.junit.Test;
+
+public class StreamingModelLocationDeserialiserTests extends ModelLocationDeserialiserTestCase {
+
+    @Override
+    protected ModelLocationDeserialiser createDeserialiser( ItemFactory itemFactory,
+        ExitFactory exitFactory, ItemDeserialiser itemDeserialiser,
+        ExitDeserialiser exitDeserialiser ) {
+        return new StreamingModelLocationDeserialiser( itemFactory, exitFactory,
+            itemDeserialiser, exitDeserialiser );
+    }
+
+    // Each exit runs up to the next line that starts a section, and keeps
+    // the end of its last line.
+    @Test
+    public void deserialise_extracts_multiple_exits() {
+        final ModelLocation location = mockery.mock( ModelLocation.class );
+        final Exit exit1 = mockery.mock( Exit.class, "exit1" );
+        final Exit exit2 = mockery.mock( Exit.class, "exit2" );
+        final ExitFactory exitFactory = mockery.mock( ExitFactory.class );
+        final ExitDeserialiser exitDeserialiser =
+            mockery.mock( ExitDeserialiser.class );
+        ModelLocationDeserialiser d =
+            createDeserialiser( null, exitFactory, null, exitDeserialiser );
+
+        mockery.checking( new Expectations() {{
+            atLeast( 1 ).of( exitFactory ).create();
+                will( onConsecutiveCalls(
+                      returnValue( exit1 ),
+                      returnValue( exit2 ) ) );
+            ignoring( exitFactory );
+            oneOf( exitDeserialiser ).deserialise( exit1,
+                                       "exit 1 content\n" +
+                                       "some more content\n" );
+            oneOf( exitDeserialiser ).deserialise( exit2,
+                                       "exit 2 content\n" +
+                                       "some more content" );
+            ignoring( exitDeserialiser );
+            ignoring( exit1 );
+            ignoring( exit2 );
+            ignoring( location );
+        }});
+
+        d.deserialise( location, "location id:name\n" +
+                       "EXIT\nexit 1 content\n" +
+                       "some more content\n" +
+                       "EXIT\nexit 2 content\n" +
+                       "some more content" );
+    }
+
+
+    @Test
+    public void streaming_exits_and_items_are_read_from_the_location_lexer() {
+        ModelLocation location = mock( ModelLocation.class );
+        Exit north = mock( Exit.class, "north" );
+        Exit south = mock( Exit.class, "south" );
+        Item lamp = mock( Item.class );
+        ExitFactory exitFactory = mock( ExitFactory.class );
+        when( exitFactory.create() ).thenReturn( north, south );
+        ItemFactory itemFactory = mock( ItemFactory.class );
+        when( itemFactory.create() ).thenReturn( lamp );
+        ModelLocationDeserialiser d = new StreamingModelLocationDeserialiser(
+            itemFactory, exitFactory,
+            new StreamingItemDeserialiser( null ), new StreamingExitDeserialiser( null ) );
+
+        d.deserialise( location, "location id:hall\n" +
+                       "EXIT\nexit label:north\n" +
+                       "ITEM\nitem name:Lamp\n" +
+                       "EXIT\nexit label:south\n" );
+
+        verify( north ).setLabel( "north" );
+        verify( south ).setLabel( "south" );
+        verify( lamp ).setName( "Lamp" );
+        verify( location ).addExit( north );
+        verify( location ).addExit( south );
+        verify( location ).addItem( lamp );
+    }
+}
@@ -1,21 +1,32 @@
 package com.chewielouie.textadventure_common;
 
-import com.chewielouie.textadventure.MovementEventSubscriber;
+import com.chewielouie.textadventure.ModelEvent;
+import com.chewielouie.textadventure.ModelEventSubscriber;
+import com.chewielouie.textadventure.ModelLocation;
 import com.chewielouie.textadventure.TextAdventureModel;
 import java.util.HashSet;
 import java.util.Set;
 
-public class MovementMonitor implements MovementEventSubscriber {
+// Keeps the areas the player has been to. Moves made while the model's
+// events are batched are each delivered at the commit, so the location
+// moved to is taken from the event rather than from the model.
+public class MovementMonitor implements ModelEventSubscriber {
     private Set<String> exploredAreas = new HashSet<String>();
     private TextAdventureModel model = null;
 
     public MovementMonitor( TextAdventureModel model ) {
         this.model = model;
-        this.model.subscribeForEvents( this );
+        this.model.subscribeForEvents( this, ModelEvent.Type.CURRENT_LOCATION_CHANGED );
     }
 
-    public void currentLocationChanged() {
-        exploredAreas.add( model.currentLocation().areaID() );
+    public void modelChanged( ModelEvent event ) {
+        ModelLocation location = model.findLocationByID( event.subjectID() );
+        if( location != null )
+            exploredAreas.add( location.areaID() );
+    }
+
+    public void addExploredAreas( Set<String> areaIDs ) {
+        exploredAreas.addAll( areaIDs );
     }
 
     public Set<String> exploredAreas() {
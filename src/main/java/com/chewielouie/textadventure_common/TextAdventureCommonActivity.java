@@ -1,9 +1,10 @@
 package com.chewielouie.textadventure_common;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
@@ -19,6 +20,12 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import android.app.Activity;
 import android.app.AlertDialog;
 import android.app.AlertDialog.Builder;
@@ -71,8 +78,9 @@ import com.chewielouie.textadventure.Exit;
 import com.chewielouie.textadventure.LocationFactory;
 import com.chewielouie.textadventure.LocationExitFactory;
 import com.chewielouie.textadventure.Logger;
-import com.chewielouie.textadventure.PlainTextModelPopulator;
+import com.chewielouie.textadventure.StreamingModelPopulator;
 import com.chewielouie.textadventure.RendersView;
+import com.chewielouie.textadventure.SerialExecutor;
 import com.chewielouie.textadventure.StdoutLogger;
 import com.chewielouie.textadventure.TextAdventurePresenter;
 import com.chewielouie.textadventure.TextAdventureModel;
@@ -82,20 +90,28 @@ import com.chewielouie.textadventure.UserInventory;
 import com.chewielouie.textadventure.action.Action;
 import com.chewielouie.textadventure.action.ActionFactory;
 import com.chewielouie.textadventure.action.ActionHistory;
-import com.chewielouie.textadventure.action.BasicActionHistory;
+import com.chewielouie.textadventure.action.CompactActionHistory;
 import com.chewielouie.textadventure.action.LoggableActionFactory;
 import com.chewielouie.textadventure.action.RecordableActionFactory;
 import com.chewielouie.textadventure.action.UserActionFactory;
+import com.chewielouie.textadventure.serialisation.ActionHistoryCompactor;
 import com.chewielouie.textadventure.serialisation.ActionHistoryDeserialiser;
-import com.chewielouie.textadventure.serialisation.ActionHistorySerialiser;
+import com.chewielouie.textadventure.serialisation.BinaryWorldLoader;
+import com.chewielouie.textadventure.serialisation.CheckpointPolicy;
+import com.chewielouie.textadventure.serialisation.ModelStateDeserialiser;
+import com.chewielouie.textadventure.serialisation.ModelStateSerialiser;
+import com.chewielouie.textadventure.serialisation.ModelStateTextFormat;
+import com.chewielouie.textadventure.serialisation.SaveJournal;
+import com.chewielouie.textadventure.serialisation.SaveWriter;
 import com.chewielouie.textadventure.serialisation.ItemDeserialiser;
-import com.chewielouie.textadventure.serialisation.PlainTextExitDeserialiser;
-import com.chewielouie.textadventure.serialisation.PlainTextItemDeserialiser;
-import com.chewielouie.textadventure.serialisation.PlainTextModelLocationDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingExitDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingItemDeserialiser;
+import com.chewielouie.textadventure.serialisation.StreamingModelLocationDeserialiser;
 import com.chewielouie.textadventure.item.Item;
 import com.chewielouie.textadventure.item.ItemFactory;
 import com.chewielouie.textadventure.item.NormalItemFactory;
 import com.chewielouie.textadventure.itemaction.ItemActionFactory;
+import com.chewielouie.textadventure.itemaction.ItemActionLinker;
 import com.chewielouie.textadventure.itemaction.NormalItemActionFactory;
 import com.chewielouie.textadventure.itemaction.LoggableNormalItemActionFactory;
 
@@ -164,6 +180,22 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
     public static final int QUICK_HINT_MENU_ITEM = 6;
     private static String oldJSONFormatSaveFileName = "save_file_1";
     private static String actionHistorySaveFileName = "action_history_save_file_1";
+    private static String saveJournalFileName = "action_history_save_journal_1";
+    private static final long saveFlushTimeoutMs = 5000;
+    // Shared by every instance of the activity so that one loading a game
+    // waits for any save still being written by the one before it.
+    private static SaveWriter saveWriter = null;
+    // The game is only ever changed by one thread at a time: by a load,
+    // run here so that loads never overlap, even one cancelled but still
+    // running with the one that replaced it, and otherwise by the UI
+    // thread, which leaves the game alone while it is loading.
+    private static final SerialExecutor gameLoader =
+        new SerialExecutor( Executors.newSingleThreadExecutor() );
+    // Reads the locations of a world given as plain text, for every game,
+    // so a load does not start and stop a thread per core. Its threads
+    // stop when idle, as most loads are of the compiled world.
+    private static ExecutorService locationReader = null;
+    private static String compiledModelContentResourceName = "model_content_compiled";
     private static String shared_prefs_root_key = "com.chewielouie.textadventure";
     private static int default_font_size = 16;
     private static String font_size_key = shared_prefs_root_key + ".fontsize";
@@ -201,6 +233,16 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
     private UserInventory inventory = null;
     private ActionFactory actionFactory = null;
     private ActionHistory actionHistory = null;
+    private SaveJournal saveJournal = null;
+    private int savedActionCount = 0;
+    private boolean snapshotSaveNeeded = true;
+    private boolean saveJournalClearPending = false;
+    private int snapshotActionCount = 0;
+    private int snapshotGeneration = 0;
+    // The save generation of the last snapshot known to be on disk. The
+    // journal is only appended to once a snapshot of its generation is.
+    private int savedGeneration = 0;
+    private CheckpointPolicy checkpointPolicy = new CheckpointPolicy();
     private BasicModelFactory externalModelFactory = null;
     private BasicModelFactory internalModelFactory = null;
     private Logger logger = new StdoutLogger();
@@ -336,12 +378,22 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
         boolean newGame = false;
 
         protected Void doInBackground(Void... args) {
+            return gameLoader.call( new Callable<Void>() {
+                public Void call() {
+                    load();
+                    return null;
+                }
+            } );
+        }
+
+        private void load() {
             if( saveFileExists() )
                 loadGame();
             else
             {
                 newGame = true;
                 createNewGame();
+                startNewSaveGeneration();
             }
 
             if( saveJSONFileExists() ) {
@@ -352,7 +404,6 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
                     = new JSONToActionListConverter( TextAdventureCommonActivity.this, oldJSONFormatSaveFileName, c );
                 replayActions( j.actions() );
             }
-            return null;
         }
 
          protected void onPostExecute(Void result) {
@@ -361,6 +412,14 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
             else
                 completedLoadingSavedGame();
          }
+
+         // A cancelled load may still be changing the game, so it is only
+         // handed back to the UI thread once the load has stopped, and not
+         // at all if another load has started since.
+         protected void onCancelled() {
+            if( loadingTask == this )
+                loading = false;
+         }
     }
 
     private void completedLoadingNewGame() {
@@ -420,12 +479,16 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
     }
 
     private void endLoading() {
+        dismissProgressDialog();
+        loading = false;
+    }
+
+    private void dismissProgressDialog() {
         if( progressDialog != null )
         {
             progressDialog.dismiss();
             progressDialog = null;
         }
-        loading = false;
     }
 
     private Dialog createDialogWithNoTitle( int layoutResourceID )
@@ -557,16 +620,168 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
     }
 
     private void loadGame() {
-        loadGameFromString( loadSerialisedActionHistory( actionHistorySaveFileName ) );
+        boolean savesWritten = flushSaves( saveFlushTimeoutMs );
+        saveJournal().setGeneration( 0 );
+        loadGameFromFile( actionHistorySaveFileName );
+        savedGeneration = saveJournal().generation();
+        enactActions( new ActionHistoryDeserialiser( actionFactory, inventory, model )
+                            .deserialise( saveJournal().read( actionHistory().size() ) ) );
+        snapshotSaveNeeded = false;
+        if( savesWritten )
+            compactSavedActionHistory();
+        savedActionCount = actionHistory().size();
+        checkpointPolicy.checkpointTaken( actionHistory().size(), model.currentScore() );
+    }
+
+    // Compacting renumbers the actions, so the compacted history is of a
+    // new save generation and the journal blocks numbered as before are
+    // never replayed on it, even if the app stops before they are dropped.
+    // Until a snapshot of the compacted history is on disk the old one and
+    // its journal are still the save, and each save is a snapshot too.
+    private void compactSavedActionHistory() {
+        int removed = new ActionHistoryCompactor().compact( actionHistory() );
+        if( removed == 0 )
+            return;
+        startNewSaveGeneration();
+        writeActionHistorySaveFile();
+        saveJournalClearPending = true;
+        if( flushSaves( saveFlushTimeoutMs ) )
+            clearSaveJournalIfSnapshotWritten();
+        sendAnalyticsEventWithValue( "compacted number of actions", removed );
+    }
+
+    private SaveWriter saveWriter() {
+        if( saveWriter == null )
+            saveWriter = new SaveWriter( new File( getFilesDir(), actionHistorySaveFileName ) );
+        return saveWriter;
+    }
+
+    private boolean flushSaves( long timeoutMs ) {
+        try {
+            return saveWriter().flush( timeoutMs );
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void startNewSaveGeneration() {
+        saveJournal().startNewGeneration();
+    }
+
+    private SaveJournal saveJournal() {
+        if( saveJournal == null )
+            saveJournal = new SaveJournal( new File( getFilesDir(), saveJournalFileName ) );
+        return saveJournal;
+    }
+
+    // A model state is restored and the action history saved with it, or
+    // an action history on its own, is replayed as it is read, so the
+    // memory needed does not grow with the save.
+    private void loadGameFromFile( String filename ) {
+        InputStream inputStream = openSaveFile( filename );
+        if( inputStream == null ) {
+            loadGameFromString( "" );
+            return;
+        }
+        BufferedInputStream input = new BufferedInputStream( inputStream );
+        try {
+            if( ModelStateTextFormat.isModelState( input ) ) {
+                createNewGame();
+                restoreModelState( input, filename );
+            }
+            else {
+                createNewGame();
+                replayActions( new ActionHistoryDeserialiser( actionFactory, inventory, model )
+                                    .stream( input ) );
+            }
+        } catch( IOException e ) {
+            System.out.println("Exception thrown while reading " + filename );
+            System.out.println( e.getMessage() );
+            loadGameFromString( "" );
+        } finally {
+            try {
+                input.close();
+            } catch( IOException e ) {
+            }
+        }
     }
 
     private void loadGameFromString( String content ) {
         createNewGame();
-        replayActions( new ActionHistoryDeserialiser( actionFactory, inventory, model )
-                            .deserialise( content ) );
+        if( ModelStateTextFormat.isModelState( content ) )
+            restoreModelState( content );
+        else
+            replayActions( new ActionHistoryDeserialiser( actionFactory, inventory, model )
+                                .deserialise( content ) );
+    }
+
+    private void restoreModelState( String content ) {
+        rendersView.disableViewUpdates();
+        ModelStateDeserialiser d = new ModelStateDeserialiser( model, inventory );
+        ActionHistoryDeserialiser historyDeserialiser =
+            new ActionHistoryDeserialiser( actionFactory, inventory, model );
+        boolean restored = d.restoreWithActionHistory( content, historyDeserialiser, actionHistory() );
+        saveJournal().setGeneration( d.saveGeneration() );
+        if( restored ) {
+            if( d.restoredStateMatchesDigest() )
+                movementMonitor.addExploredAreas( d.exploredAreaIDs() );
+            else {
+                // The model cannot be trusted, so the history is played
+                // on a new one.
+                createNewGame();
+                rendersView.disableViewUpdates();
+                userActionHandler.replay( new ActionHistoryDeserialiser( actionFactory, inventory, model )
+                                              .deserialise( d.actionHistoryContent() ) );
+                writeActionHistorySaveFile();
+            }
+        }
+        else {
+            // The model is untouched so the history can be played on it,
+            // and the checkpoint that failed is written again.
+            actionHistory().clear();
+            userActionHandler.replay(
+                historyDeserialiser.deserialise( d.actionHistoryContent() ) );
+            writeActionHistorySaveFile();
+        }
+        rendersView.enableViewUpdates();
+    }
+
+    private void restoreModelState( InputStream input, String filename )
+        throws IOException {
+        rendersView.disableViewUpdates();
+        ModelStateDeserialiser d = new ModelStateDeserialiser( model, inventory );
+        boolean restored = d.restoreWithActionHistory( input,
+            new ActionHistoryDeserialiser( actionFactory, inventory, model ), actionHistory() );
+        saveJournal().setGeneration( d.saveGeneration() );
+        if( restored && d.restoredStateMatchesDigest() )
+            movementMonitor.addExploredAreas( d.exploredAreaIDs() );
+        else {
+            // As restoreModelState( String ), but the history has been
+            // streamed past so is read from the file again.
+            if( restored )
+                createNewGame();
+            replaySavedActionHistory( filename );
+            writeActionHistorySaveFile();
+        }
+        rendersView.enableViewUpdates();
+    }
+
+    private void replaySavedActionHistory( String filename ) throws IOException {
+        InputStream inputStream = openSaveFile( filename );
+        if( inputStream == null )
+            return;
+        BufferedInputStream input = new BufferedInputStream( inputStream );
+        try {
+            ModelStateDeserialiser.skipToActionHistory( input );
+            replayActions( new ActionHistoryDeserialiser( actionFactory, inventory, model )
+                                .stream( input ) );
+        } finally {
+            input.close();
+        }
     }
 
-    private String loadSerialisedActionHistory( String filename ) {
+    private InputStream openSaveFile( String filename ) {
         InputStream inputStream = null;
         try {
             inputStream = openFileInput( filename );
@@ -575,9 +790,7 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
         } catch( IOException e ) {
             System.err.println("exception thrown: " + e.toString() );
         }
-        if( inputStream == null )
-            return "";
-        return readRawTextFile( inputStream, filename );
+        return inputStream;
     }
 
     private String readRawTextFile( InputStream input, String fileID ) {
@@ -597,17 +810,24 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
         return text.toString();
     }
 
-    private void replayActions( List<Action> actions ) {
+    private void replayActions( Iterable<Action> actions ) {
         if( actions != null ) {
-            rendersView.disableViewUpdates();
             actionHistory().clear();
-            for( Action action : actions )
-                userActionHandler.enact( action );
+            enactActions( actions );
+        }
+    }
+
+    private void enactActions( Iterable<Action> actions ) {
+        if( actions != null ) {
+            rendersView.disableViewUpdates();
+            userActionHandler.replay( actions );
             rendersView.enableViewUpdates();
         }
     }
 
     private void createNewGame() {
+        snapshotSaveNeeded = true;
+        checkpointPolicy = new CheckpointPolicy();
         resetActionHistory();
         createNewGameModel();
         setupPresenter();
@@ -618,24 +838,89 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
     }
 
     private void createNewGameModel() {
+        createEmptyModel();
+        if( compiledModelContentExists() == false )
+            populateModelFromPlainText();
+        else if( populateModelFromCompiledContent() == false ) {
+            createEmptyModel();
+            populateModelFromPlainText();
+        }
+        linkItemActions();
+        loadMapImages();
+    }
+
+    // An item action that refers to something not in the world is a
+    // mistake in the content, which the game is not played with.
+    private void linkItemActions() {
+        List<String> unresolved = new ItemActionLinker( model ).link();
+        if( unresolved.isEmpty() == false )
+            throw new IllegalStateException( "World content error: " + unresolved );
+    }
+
+    private void createEmptyModel() {
         model = (BasicModel)modelFactory().createModel();
         movementMonitor = new MovementMonitor( model );
         inventory = model;
+    }
+
+    private void populateModelFromPlainText() {
         ItemActionFactory itemActionFactory = new LoggableNormalItemActionFactory( logger, model );
         ItemFactory itemFactory = new NormalItemFactory();
         ItemDeserialiser itemDeserialiser =
-            new PlainTextItemDeserialiser( itemActionFactory );
-        new PlainTextModelPopulator( model,
+            new StreamingItemDeserialiser( itemActionFactory );
+        new StreamingModelPopulator( model,
             new LocationFactory( inventory, actionFactory() ),
             inventory,
             itemFactory,
-            new PlainTextModelLocationDeserialiser(
+            new StreamingModelLocationDeserialiser(
                 itemFactory, new LocationExitFactory(),
                 itemDeserialiser,
-                new PlainTextExitDeserialiser( itemActionFactory ) ),
+                new StreamingExitDeserialiser( itemActionFactory ) ),
             itemDeserialiser,
-            modelContent() );
-        loadMapImages();
+            modelContent(),
+            locationReader() );
+    }
+
+    private static synchronized ExecutorService locationReader() {
+        // On a single core the locations are quicker read in turn.
+        int cores = Runtime.getRuntime().availableProcessors();
+        if( cores > 1 && locationReader == null ) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor( cores, cores,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>() );
+            pool.allowCoreThreadTimeOut( true );
+            locationReader = pool;
+        }
+        return locationReader;
+    }
+
+    private boolean compiledModelContentExists() {
+        return externallySuppliedModelContent == null && compiledModelContentResourceID() != 0;
+    }
+
+    private int compiledModelContentResourceID() {
+        return getResources().getIdentifier( compiledModelContentResourceName, "raw", getPackageName() );
+    }
+
+    private boolean populateModelFromCompiledContent() {
+        InputStream input = getResources().openRawResource( compiledModelContentResourceID() );
+        try {
+            new BinaryWorldLoader( model,
+                new LocationFactory( inventory, actionFactory() ),
+                inventory,
+                new NormalItemFactory(),
+                new LocationExitFactory(),
+                new LoggableNormalItemActionFactory( logger, model ) ).load( input );
+            return true;
+        } catch( IOException e ) {
+            System.out.println("Exception thrown while loading compiled model content" );
+            System.out.println( e.getMessage() );
+        } finally {
+            try {
+                input.close();
+            } catch( IOException e ) {
+            }
+        }
+        return false;
     }
 
     private void loadMapImages() {
@@ -677,7 +962,7 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
 
     private ActionHistory actionHistory() {
         if( actionHistory == null )
-            actionHistory = new BasicActionHistory();
+            actionHistory = new CompactActionHistory();
         return actionHistory;
     }
 
@@ -740,7 +1025,10 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
     }
 
     public void useExit( Exit exit ) {
+        if( loading )
+            return;
         userActionHandler.enact( actionFactory().createExitAction( exit, model ) );
+        saveCheckpointIfDue();
     }
 
     public void showLocationExits( List<Exit> exits ) {
@@ -779,8 +1067,10 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
     }
 
     public void onClick( View v ) {
-        if( v instanceof Button && actionButtons.containsKey( (Button)v ) )
+        if( loading == false && v instanceof Button && actionButtons.containsKey( (Button)v ) ) {
             userActionHandler.enact( actionButtons.get( (Button)v ) );
+            saveCheckpointIfDue();
+        }
     }
 
     @Override
@@ -810,7 +1100,8 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
                 showAboutDialog();
                 break;
             case NEW_GAME_MENU_ITEM:
-                showNewGameConfirmationDialog();
+                if( loading == false )
+                    showNewGameConfirmationDialog();
                 break;
             case OPTIONS_MENU_ITEM:
                 showOptionsDialog();
@@ -819,7 +1110,7 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
                 showMap();
                 break;
             case DEBUG_WAYPOINTS_MENU_ITEM:
-                if( isWaypointsMenuAvailable() )
+                if( isWaypointsMenuAvailable() && loading == false )
                     showWaypointsList();
                 break;
             case WALKTHROUGH_MENU_ITEM:
@@ -863,7 +1154,10 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
             .setPositiveButton( R_string_yes(), new DialogInterface.OnClickListener() {
                 @Override
                 public void onClick( DialogInterface dialog, int which ) {
+                    if( loading )
+                        return;
                     createNewGame();
+                    startNewSaveGeneration();
                     completedLoadingNewGame();
                 }
 
@@ -1000,9 +1294,12 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
             new DialogInterface.OnClickListener() {
                 @Override
                 public void onClick(DialogInterface dialog, int which) {
+                    if( loading )
+                        return;
                     String strName = arrayAdapter.getItem(which);
                     String resourceName = "waypoint_" + strName;
                     loadGameFromString( readRawTextFileFromResource( resourceName ) );
+                    startNewSaveGeneration();
                     completedLoadingSavedGame();
                 }
             });
@@ -1105,7 +1402,7 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
             map_view.setVisibility( View.GONE );
         else if( walkthrough_scroll_view.getVisibility() == View.VISIBLE )
             walkthrough_scroll_view.setVisibility( View.GONE );
-        else if( userActionHandler.inAnActionChain() )
+        else if( loading == false && userActionHandler.inAnActionChain() )
             userActionHandler.cancelActionChain();
         else
             finish();
@@ -1116,10 +1413,10 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
         super.onPause();
         if( loading ) {
             loadingTask.cancel( true );
-            endLoading();
+            dismissProgressDialog();
         }
         else {
-            writeActionHistorySaveFile();
+            saveGame();
             if( saveJSONFileExists() )
                 deleteFile( oldJSONFormatSaveFileName );
         }
@@ -1154,19 +1451,63 @@ public abstract class TextAdventureCommonActivity extends Activity implements Te
         return getPrefs().getLong( total_time_played_this_game_key, 0 );
     }
 
+    // A checkpoint is a snapshot save made while playing, so that loading
+    // only replays the journal written since it.
+    private void saveCheckpointIfDue() {
+        if( loading == false &&
+            checkpointPolicy.checkpointDue( actionHistory().size(), model.currentScore() ) ) {
+            snapshotSaveNeeded = true;
+            saveGame();
+        }
+    }
+
+    private void saveGame() {
+        clearSaveJournalIfSnapshotWritten();
+        if( snapshotSaveNeeded || savedGeneration != saveJournal().generation() ||
+            saveJournal().needsCompaction() ) {
+            writeActionHistorySaveFile();
+            snapshotSaveNeeded = false;
+            saveJournalClearPending = true;
+            checkpointPolicy.checkpointTaken( actionHistory().size(), model.currentScore() );
+        }
+        else
+            appendToSaveJournal();
+        savedActionCount = actionHistory().size();
+    }
+
+    // The journal is only cut back once the snapshot replacing it is on
+    // disk. Until then, reading the journal skips the actions that the
+    // snapshot holds. Actions journalled since the snapshot was taken are
+    // in no snapshot, so only the blocks before it are dropped, with any of
+    // older generations. A snapshot of a generation since replaced drops
+    // nothing, as the journal no longer follows on from it.
+    private void clearSaveJournalIfSnapshotWritten() {
+        if( saveJournalClearPending && flushSaves( 0 ) ) {
+            saveJournalClearPending = false;
+            savedGeneration = snapshotGeneration;
+            if( snapshotGeneration == saveJournal().generation() )
+                saveJournal().discardBefore( snapshotActionCount );
+        }
+    }
+
+    private void appendToSaveJournal() {
+        long startSaveTime = systemTimeMilliseconds();
+        int newActions = actionHistory().size() - savedActionCount;
+        saveJournal().append( actionHistory(), savedActionCount );
+        long diff = systemTimeMilliseconds() - startSaveTime;
+        sendAnalyticsEventWithValue( "journalled number of new actions", newActions );
+        sendAnalyticsTimingEvent( "time to append to save journal", diff );
+    }
+
     private void writeActionHistorySaveFile() {
         long startSaveTime = systemTimeMilliseconds();
-        byte[] bytes = new ActionHistorySerialiser( actionHistory() ).serialise().getBytes();
-        try {
-            FileOutputStream outputStream = openFileOutput( actionHistorySaveFileName,
-                                                            Context.MODE_PRIVATE );
-            outputStream.write( bytes );
-            outputStream.close();
-        } catch( FileNotFoundException e ) {
-            e.printStackTrace();
-        } catch( IOException e ) {
-            e.printStackTrace();
-        }
+        ModelStateSerialiser serialiser = new ModelStateSerialiser( model );
+        serialiser.setActionHistory( actionHistory() );
+        serialiser.setExploredAreaIDs( movementMonitor.exploredAreas() );
+        serialiser.setSaveGeneration( saveJournal().generation() );
+        saveWriter().save( serialiser.snapshot() );
+        snapshotActionCount = actionHistory().size();
+        snapshotGeneration = saveJournal().generation();
         long diff = systemTimeMilliseconds() - startSaveTime;
         sendAnalyticsEventWithValue( "saved game with number of actions", actionHistory().size() );
         sendAnalyticsTimingEvent( "time to save game", diff );